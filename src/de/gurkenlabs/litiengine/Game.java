@@ -14,7 +14,11 @@ import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 import de.gurkenlabs.litiengine.configuration.GameConfiguration;
+import de.gurkenlabs.litiengine.entities.DormancySystem;
+import de.gurkenlabs.litiengine.entities.TriggerSystem;
 import de.gurkenlabs.litiengine.entities.ai.EntityControllerManager;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.environment.EnvironmentPreparation;
 import de.gurkenlabs.litiengine.environment.IEnvironment;
 import de.gurkenlabs.litiengine.environment.tilemap.IMap;
 import de.gurkenlabs.litiengine.environment.tilemap.ITileset;
@@ -24,11 +28,11 @@ import de.gurkenlabs.litiengine.graphics.ICamera;
 import de.gurkenlabs.litiengine.graphics.IRenderEngine;
 import de.gurkenlabs.litiengine.graphics.RenderEngine;
 import de.gurkenlabs.litiengine.graphics.Spritesheet;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleSystem;
 import de.gurkenlabs.litiengine.gui.screens.IScreenManager;
 import de.gurkenlabs.litiengine.gui.screens.ScreenManager;
 import de.gurkenlabs.litiengine.input.Input;
 import de.gurkenlabs.litiengine.physics.IPhysicsEngine;
-import de.gurkenlabs.litiengine.physics.PhysicsEngine;
 import de.gurkenlabs.litiengine.sound.ISoundEngine;
 import de.gurkenlabs.litiengine.sound.SoundEngine;
 import de.gurkenlabs.litiengine.util.ArrayUtilities;
@@ -36,32 +40,25 @@ import de.gurkenlabs.litiengine.util.ArrayUtilities;
 public final class Game {
   public static final String COMMADLINE_ARG_RELEASE = "-release";
   public static final String COMMADLINE_ARG_NOGUI = "-nogui";
+  public static final String COMMADLINE_ARG_HEADLESS = "-headless";
 
-  protected static long environmentLoadTick;
   private static final Logger log = Logger.getLogger(Game.class.getName());
   private static final String LOGGING_CONFIG_FILE = "logging.properties";
 
   private static boolean debug = true;
   private static boolean noGUIMode = false;
+  private static boolean headless = false;
   private static final List<Consumer<String>> startedConsumer;
   private static final List<Predicate<String>> terminatingConsumer;
   private static final List<Consumer<GameConfiguration>> configLoadedConsumer;
-  private static final List<Consumer<IEnvironment>> environmentLoadedConsumer;
 
   private static final GameConfiguration configuration;
-  private static final EntityControllerManager entityControllerManager;
-  private static final IRenderEngine graphicsEngine;
   private static final GameInfo info;
   private static final List<IMap> maps;
   private static final List<ITileset> tilesets;
-  private static final GameMetrics metrics;
-  private static final IPhysicsEngine physicsEngine;
-  private static final ISoundEngine soundEngine;
   private static final GameTime gameTime;
+  private static final GameContext defaultContext;
 
-  private static IEnvironment environment;
-  private static ICamera camera;
-  private static IGameLoop gameLoop;
   private static RenderLoop renderLoop;
   private static IScreenManager screenManager;
 
@@ -70,17 +67,12 @@ public final class Game {
   static {
     startedConsumer = new CopyOnWriteArrayList<>();
     terminatingConsumer = new CopyOnWriteArrayList<>();
-    environmentLoadedConsumer = new CopyOnWriteArrayList<>();
     configLoadedConsumer = new CopyOnWriteArrayList<>();
-    graphicsEngine = new RenderEngine();
-    physicsEngine = new PhysicsEngine();
-    soundEngine = new SoundEngine();
-    metrics = new GameMetrics();
-    entityControllerManager = new EntityControllerManager();
     info = new GameInfo();
     maps = new CopyOnWriteArrayList<>();
     tilesets = new CopyOnWriteArrayList<>();
     gameTime = new GameTime();
+    defaultContext = new GameContext("default");
 
     // init configuration before init method in order to use configured values
     // to initialize components
@@ -117,24 +109,62 @@ public final class Game {
     noGUIMode = noGui;
   }
 
+  /**
+   * This flag indicates whether the game runs as a headless dedicated server.
+   * This can only be set before the game has been initialized with the
+   * {@link #init(String...)} method.
+   * 
+   * A headless game only runs the {@link GameLoop} with the physics engine, the
+   * trigger, dormancy and particle systems and the loaded environment. No
+   * {@link ScreenManager}, {@link RenderLoop}, {@link Camera}, sound or input
+   * is initialized, the sprites of the game resources are not decoded and
+   * environments don't create their light and shadow layers. The AWT toolkit is
+   * never initialized, so many server instances can run on one machine.
+   * 
+   * @param headlessMode
+   *          If set to true, the game runs as a headless server.
+   */
+  public static void setHeadless(boolean headlessMode) {
+    headless = headlessMode;
+  }
+
   public static boolean isDebug() {
     return debug;
   }
 
+  public static boolean isHeadless() {
+    return headless;
+  }
+
   public static boolean isInNoGUIMode() {
-    return noGUIMode;
+    return noGUIMode || headless;
   }
 
   public static GameConfiguration getConfiguration() {
     return configuration;
   }
 
+  public static DormancySystem getDormancySystem() {
+    return GameContext.current().getDormancySystem();
+  }
+
   public static EntityControllerManager getEntityControllerManager() {
-    return entityControllerManager;
+    return GameContext.current().getEntityControllerManager();
+  }
+
+  /**
+   * Gets the context that runs the game's default world. The static accessors
+   * of the game resolve to this context on all threads that are not bound to
+   * another {@link GameContext}.
+   *
+   * @return The default context.
+   */
+  public static GameContext getDefaultContext() {
+    return defaultContext;
   }
 
   public static IEnvironment getEnvironment() {
-    return environment;
+    return GameContext.current().getEnvironment();
   }
 
   public static GameInfo getInfo() {
@@ -142,7 +172,7 @@ public final class Game {
   }
 
   public static IGameLoop getLoop() {
-    return gameLoop;
+    return GameContext.current().getLoop();
   }
 
   public static IMap getMap(final String mapName) {
@@ -168,15 +198,35 @@ public final class Game {
   }
 
   public static GameMetrics getMetrics() {
-    return metrics;
+    return GameContext.current().getMetrics();
+  }
+
+  public static ParticleSystem getParticleSystem() {
+    return GameContext.current().getParticleSystem();
   }
 
   public static IPhysicsEngine getPhysicsEngine() {
-    return physicsEngine;
+    return GameContext.current().getPhysicsEngine();
+  }
+
+  /**
+   * Gets the seedable random number service of the current context. Set its
+   * seed to make all random effects of the game reproducible.
+   *
+   * @return The random number service of the current context.
+   */
+  public static GameRandom getRandom() {
+    return GameContext.current().getRandom();
   }
 
+  /**
+   * Gets the render engine. It is created on the first call, so a headless
+   * server never loads the rendering classes.
+   *
+   * @return The render engine of the game.
+   */
   public static IRenderEngine getRenderEngine() {
-    return graphicsEngine;
+    return RenderEngineHolder.INSTANCE;
   }
 
   public static RenderLoop getRenderLoop() {
@@ -188,17 +238,21 @@ public final class Game {
   }
 
   public static ISoundEngine getSoundEngine() {
-    return soundEngine;
+    return SoundEngineHolder.INSTANCE;
   }
 
   public static ICamera getCamera() {
-    return camera;
+    return GameContext.current().getCamera();
   }
 
   public static GameTime getTime() {
     return gameTime;
   }
 
+  public static TriggerSystem getTriggerSystem() {
+    return GameContext.current().getTriggerSystem();
+  }
+
   public static boolean hasStarted() {
     return hasStarted;
   }
@@ -212,26 +266,17 @@ public final class Game {
       cons.accept(getConfiguration());
     }
 
+    if (isHeadless()) {
+      // fail fast instead of opening a display if anything touches the toolkit
+      System.setProperty("java.awt.headless", Boolean.TRUE.toString());
+    }
+
     final GameLoop updateLoop = new GameLoop(getConfiguration().client().getUpdaterate());
     updateLoop.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
-    gameLoop = updateLoop;
-    getLoop().attach(getPhysicsEngine());
-    getLoop().onUpsTracked(updateCount -> getMetrics().setUpdatesPerSecond(updateCount));
-
-    final ScreenManager scrMgr = new ScreenManager(getInfo().toString());
-
-    // setup default exception handling for render and update loop
-    renderLoop = new RenderLoop(scrMgr.getRenderComponent());
-    renderLoop.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
+    getDefaultContext().setLoop(updateLoop);
 
     Thread.setDefaultUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
 
-    screenManager = scrMgr;
-
-    // init screens
-    getScreenManager().init(getConfiguration().graphics().getResolutionWidth(), getConfiguration().graphics().getResolutionHeight(), getConfiguration().graphics().isFullscreen());
-    setCamera(new Camera());
-
     // init logging
     if (new File(LOGGING_CONFIG_FILE).exists()) {
       System.setProperty("java.util.logging.config.file", LOGGING_CONFIG_FILE);
@@ -243,6 +288,23 @@ public final class Game {
       }
     }
 
+    if (isHeadless()) {
+      log.log(Level.INFO, "{0} initialized as headless server", getInfo());
+      return;
+    }
+
+    final ScreenManager scrMgr = new ScreenManager(getInfo().toString());
+
+    // setup default exception handling for render and update loop
+    renderLoop = new RenderLoop(scrMgr.getRenderComponent());
+    renderLoop.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
+
+    screenManager = scrMgr;
+
+    // init screens
+    getScreenManager().init(getConfiguration().graphics().getResolutionWidth(), getConfiguration().graphics().getResolutionHeight(), getConfiguration().graphics().isFullscreen());
+    setCamera(new Camera());
+
     Input.init();
 
     if (!isInNoGUIMode()) {
@@ -298,6 +360,11 @@ public final class Game {
 
     log.log(Level.INFO, "{0} tilesets loaded from {1}", new Object[] { tileCnt, gameResourceFile });
 
+    if (isHeadless()) {
+      // a headless server never renders, so the sprites are not decoded
+      return;
+    }
+
     final List<Spritesheet> loadedSprites = new ArrayList<>();
     for (final SpriteSheetInfo tileset : file.getSpriteSheets()) {
       final Spritesheet sprite = Spritesheet.load(tileset);
@@ -319,27 +386,49 @@ public final class Game {
     log.log(Level.INFO, "{0} sprites loaded to memory", new Object[] { spriteload });
   }
 
+  /**
+   * Loads the specified environment in the context of the current thread.
+   *
+   * @param env
+   *          The environment to load.
+   * @see GameContext#loadEnvironment(IEnvironment)
+   */
   public static void loadEnvironment(final IEnvironment env) {
-    if (getEnvironment() != null) {
-      getEnvironment().unload();
-    }
-
-    environment = env;
-    if (getEnvironment() != null) {
-      getEnvironment().load();
-    }
-
-    for (final Consumer<IEnvironment> cons : environmentLoadedConsumer) {
-      cons.accept(getEnvironment());
-    }
+    GameContext.current().loadEnvironment(env);
+  }
 
-    if (getLoop() != null) {
-      environmentLoadTick = getLoop().getTicks();
-    }
+  /**
+   * Loads the environment of the specified preparation with the first tick of
+   * the game loop after the preparation has been completed. Until then, the
+   * current environment keeps running. If another environment is loaded in the
+   * meantime, the prepared environment is discarded.
+   *
+   * @param preparation
+   *          The preparation of the environment to load.
+   *
+   * @see #prepareEnvironment(String)
+   * @see GameContext#loadPreparedEnvironment(EnvironmentPreparation)
+   */
+  public static void loadPreparedEnvironment(final EnvironmentPreparation preparation) {
+    GameContext.current().loadPreparedEnvironment(preparation);
   }
 
   public static void onEnvironmentLoaded(final Consumer<IEnvironment> cons) {
-    environmentLoadedConsumer.add(cons);
+    GameContext.current().onEnvironmentLoaded(cons);
+  }
+
+  /**
+   * Prepares the environment of the specified map on a background thread.
+   *
+   * @param mapPath
+   *          The path of the map.
+   * @return The preparation that provides the progress and the future of the
+   *         environment.
+   *
+   * @see #loadPreparedEnvironment(EnvironmentPreparation)
+   */
+  public static EnvironmentPreparation prepareEnvironment(final String mapPath) {
+    return EnvironmentPreparation.prepare(() -> new Environment(mapPath));
   }
 
   public static void onStarted(final Consumer<String> cons) {
@@ -362,10 +451,11 @@ public final class Game {
   }
 
   public static void start() {
-    gameLoop.start();
-    Input.start();
-
-    soundEngine.start();
+    getDefaultContext().start();
+    if (!isHeadless()) {
+      Input.start();
+      getSoundEngine().start();
+    }
 
     if (!isInNoGUIMode()) {
       renderLoop.start();
@@ -386,10 +476,11 @@ public final class Game {
     }
 
     getConfiguration().save();
-    Input.terminate();
-    gameLoop.terminate();
-
-    soundEngine.terminate();
+    getDefaultContext().getLoop().terminate();
+    if (!isHeadless()) {
+      Input.terminate();
+      getSoundEngine().terminate();
+    }
     if (!isInNoGUIMode()) {
       renderLoop.terminate();
     }
@@ -398,16 +489,7 @@ public final class Game {
   }
 
   public static void setCamera(final ICamera cam) {
-    if (getCamera() != null) {
-      Game.getLoop().detach(camera);
-    }
-
-    camera = cam;
-
-    if (!isInNoGUIMode()) {
-      Game.getLoop().attach(cam);
-      getCamera().updateFocus();
-    }
+    GameContext.current().setCamera(cam);
   }
 
   private static void handleCommandLineArguments(String[] args) {
@@ -422,5 +504,23 @@ public final class Game {
     if (ArrayUtilities.containsArgument(args, COMMADLINE_ARG_NOGUI)) {
       hideGUI(true);
     }
+
+    if (ArrayUtilities.containsArgument(args, COMMADLINE_ARG_HEADLESS)) {
+      setHeadless(true);
+    }
+  }
+
+  private static final class RenderEngineHolder {
+    private static final IRenderEngine INSTANCE = new RenderEngine();
+
+    private RenderEngineHolder() {
+    }
+  }
+
+  private static final class SoundEngineHolder {
+    private static final ISoundEngine INSTANCE = new SoundEngine();
+
+    private SoundEngineHolder() {
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,485 @@
+package de.gurkenlabs.litiengine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import de.gurkenlabs.litiengine.entities.DormancySystem;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.TriggerSystem;
+import de.gurkenlabs.litiengine.entities.ai.EntityControllerManager;
+import de.gurkenlabs.litiengine.environment.EnvironmentPreparation;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.graphics.ICamera;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleSystem;
+import de.gurkenlabs.litiengine.physics.IPhysicsEngine;
+import de.gurkenlabs.litiengine.physics.PhysicsEngine;
+
+/**
+ * A world that runs independently of the other worlds in the same process. It
+ * has its own environment, physics engine, game loop, metrics, trigger system,
+ * dormancy system, particle system, random numbers, entity controllers and
+ * camera, so e.g. a dedicated server can host many small matches in one JVM.
+ *
+ * <p>
+ * The static accessors of {@link Game} resolve to the context that is bound to
+ * the calling thread and to the default context on all other threads. The game
+ * loop of a context binds the context to its thread, so the updates and timed
+ * actions of a world, and everything they call, see the world through the
+ * {@link Game} accessors. Code that accesses a world from another thread, e.g.
+ * a network thread, must do so through {@link #execute(Runnable)}. Tasks that
+ * are passed to an executor can be wrapped with {@link #bind(Runnable)}.
+ * </p>
+ *
+ * @see Game#getDefaultContext()
+ */
+public class GameContext {
+  private static final ThreadLocal<GameContext> boundContext = new ThreadLocal<>();
+
+  private final String name;
+  private final IPhysicsEngine physicsEngine;
+  private final GameMetrics metrics;
+  private final TriggerSystem triggerSystem;
+  private final DormancySystem dormancySystem;
+  private final ParticleSystem particleSystem;
+  private final GameRandom random;
+  private final EntityControllerManager entityControllerManager;
+  private final List<Consumer<IEnvironment>> environmentLoadedConsumer;
+  private final AtomicReference<EnvironmentPreparation> pendingEnvironment;
+
+  private volatile ICamera camera;
+  private volatile IGameLoop loop;
+  private volatile IEnvironment environment;
+  private volatile long environmentLoadTick;
+
+  /**
+   * Instantiates a new game context with its own game loop that has to be
+   * started with {@link #start()}.
+   *
+   * @param name
+   *          The name of the context, which is also used for the thread of its
+   *          game loop.
+   * @param updateRate
+   *          The update rate of the game loop.
+   */
+  public GameContext(final String name, final int updateRate) {
+    this(name);
+    final GameLoop contextLoop = new ContextLoop(this, updateRate);
+    contextLoop.setName("Game Loop " + name);
+    contextLoop.setUncaughtExceptionHandler(new DefaultUncaughtExceptionHandler());
+    this.setLoop(contextLoop);
+  }
+
+  /**
+   * Instantiates a new game context that is driven by the specified game loop.
+   * The context uses a view of the loop that binds the context to the thread of
+   * the loop while it runs the updatables and timed actions of the context.
+   *
+   * @param name
+   *          The name of the context.
+   * @param loop
+   *          The game loop that drives the context.
+   */
+  public GameContext(final String name, final IGameLoop loop) {
+    this(name);
+    this.setLoop(new BoundLoop(this, loop));
+  }
+
+  GameContext(final String name) {
+    this.name = name;
+    this.physicsEngine = new PhysicsEngine();
+    this.metrics = new GameMetrics();
+    this.triggerSystem = new TriggerSystem();
+    this.dormancySystem = new DormancySystem();
+    this.particleSystem = new ParticleSystem();
+    this.random = new GameRandom();
+    this.entityControllerManager = new EntityControllerManager();
+    this.environmentLoadedConsumer = new CopyOnWriteArrayList<>();
+    this.pendingEnvironment = new AtomicReference<>();
+  }
+
+  /**
+   * Gets the context that is bound to the current thread.
+   *
+   * @return The bound context or the default context if no context is bound
+   *         to the current thread.
+   */
+  public static GameContext current() {
+    final GameContext context = boundContext.get();
+    return context != null ? context : Game.getDefaultContext();
+  }
+
+  /**
+   * Wraps the specified action so that it runs with this context bound to the
+   * thread that executes it, e.g. a thread of an executor service.
+   *
+   * @param action
+   *          The action to wrap.
+   * @return The bound action.
+   */
+  public Runnable bind(final Runnable action) {
+    return () -> this.execute(action);
+  }
+
+  /**
+   * Runs the specified action on the current thread with this context bound to
+   * it. The previously bound context is restored afterwards.
+   *
+   * @param action
+   *          The action to run.
+   */
+  public void execute(final Runnable action) {
+    this.execute(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Runs the specified action on the current thread with this context bound to
+   * it. The previously bound context is restored afterwards.
+   *
+   * @param <T>
+   *          The type of the result.
+   * @param action
+   *          The action to run.
+   * @return The result of the action.
+   */
+  public <T> T execute(final Supplier<T> action) {
+    final GameContext previous = boundContext.get();
+    boundContext.set(this);
+    try {
+      return action.get();
+    } finally {
+      if (previous != null) {
+        boundContext.set(previous);
+      } else {
+        boundContext.remove();
+      }
+    }
+  }
+
+  public ICamera getCamera() {
+    return this.camera;
+  }
+
+  public DormancySystem getDormancySystem() {
+    return this.dormancySystem;
+  }
+
+  public IEnvironment getEnvironment() {
+    return this.environment;
+  }
+
+  /**
+   * Gets the tick of the game loop at which the current environment was
+   * loaded.
+   *
+   * @return The tick at which the environment was loaded.
+   */
+  public long getEnvironmentLoadTick() {
+    return this.environmentLoadTick;
+  }
+
+  public EntityControllerManager getEntityControllerManager() {
+    return this.entityControllerManager;
+  }
+
+  public IGameLoop getLoop() {
+    return this.loop;
+  }
+
+  public GameMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public ParticleSystem getParticleSystem() {
+    return this.particleSystem;
+  }
+
+  public IPhysicsEngine getPhysicsEngine() {
+    return this.physicsEngine;
+  }
+
+  /**
+   * Gets the seedable random number service of this context. Set its seed to
+   * make all random effects of the world reproducible.
+   *
+   * @return The random number service of this context.
+   */
+  public GameRandom getRandom() {
+    return this.random;
+  }
+
+  public TriggerSystem getTriggerSystem() {
+    return this.triggerSystem;
+  }
+
+  /**
+   * Unloads the current environment of this context and loads the specified
+   * environment. This context is bound to the current thread while the
+   * environments are unloaded and loaded.
+   *
+   * @param env
+   *          The environment to load or null to only unload the current
+   *          environment.
+   */
+  public void loadEnvironment(final IEnvironment env) {
+    this.execute(() -> {
+      this.discard(this.pendingEnvironment.getAndSet(null));
+      if (this.environment != null) {
+        this.environment.unload();
+      }
+
+      this.environment = env;
+      if (env != null) {
+        env.load();
+      }
+
+      for (final Consumer<IEnvironment> cons : this.environmentLoadedConsumer) {
+        cons.accept(env);
+      }
+
+      if (this.loop != null) {
+        this.environmentLoadTick = this.loop.getTicks();
+      }
+    });
+  }
+
+  /**
+   * Loads the environment of the specified preparation with the first tick of
+   * the game loop of this context after the preparation has been completed.
+   * Until then, the current environment keeps running. If another environment
+   * is loaded in the meantime, the prepared environment is discarded.
+   *
+   * @param preparation
+   *          The preparation of the environment to load.
+   */
+  public void loadPreparedEnvironment(final EnvironmentPreparation preparation) {
+    final EnvironmentPreparation replaced = this.pendingEnvironment.getAndSet(preparation);
+    if (replaced != preparation) {
+      this.discard(replaced);
+    }
+
+    preparation.getFuture().thenAccept(env -> {
+      final Runnable swap = () -> {
+        if (this.pendingEnvironment.compareAndSet(preparation, null)) {
+          this.loadEnvironment(env);
+        }
+      };
+
+      if (this.loop != null) {
+        this.loop.execute(0, swap);
+      } else {
+        swap.run();
+      }
+    });
+  }
+
+  /**
+   * Disposes the controllers of all entities of a prepared environment that is
+   * never loaded. The environment has not been attached to the game loop, so
+   * the controllers are only known by the entity controller manager.
+   */
+  private void discard(final EnvironmentPreparation preparation) {
+    if (preparation == null) {
+      return;
+    }
+
+    preparation.getFuture().thenAccept(env -> this.execute(() -> {
+      for (final IEntity entity : env.getEntities()) {
+        this.getEntityControllerManager().disposeControllers(entity);
+      }
+    }));
+  }
+
+  public void onEnvironmentLoaded(final Consumer<IEnvironment> cons) {
+    this.environmentLoadedConsumer.add(cons);
+  }
+
+  /**
+   * Sets the camera of this context. The camera is updated by the game loop of
+   * the context unless the game runs without a GUI.
+   *
+   * @param camera
+   *          The new camera.
+   */
+  public void setCamera(final ICamera camera) {
+    if (this.camera != null && this.loop != null) {
+      this.loop.detach(this.camera);
+    }
+
+    this.camera = camera;
+
+    if (camera != null && this.loop != null && !Game.isInNoGUIMode()) {
+      this.loop.attach(camera);
+      this.execute(camera::updateFocus);
+    }
+  }
+
+  /**
+   * Starts the game loop of this context.
+   */
+  public void start() {
+    if (this.loop == null) {
+      throw new IllegalStateException("The context " + this.name + " has no game loop to start.");
+    }
+
+    this.loop.start();
+  }
+
+  /**
+   * Terminates the game loop of this context and unloads its environment.
+   */
+  public void terminate() {
+    if (this.loop != null) {
+      this.loop.terminate();
+    }
+
+    this.loadEnvironment(null);
+  }
+
+  @Override
+  public String toString() {
+    return "GameContext [" + this.name + "]";
+  }
+
+  final void setLoop(final IGameLoop gameLoop) {
+    this.loop = gameLoop;
+    gameLoop.attach(this.physicsEngine);
+    gameLoop.attach(this.triggerSystem);
+    gameLoop.attach(this.dormancySystem);
+    gameLoop.attach(this.particleSystem);
+    gameLoop.onUpsTracked(this.metrics::setUpdatesPerSecond);
+  }
+
+  /**
+   * A view of a game loop that is not owned by a context. Everything that is
+   * attached to or executed by the view runs with the context bound.
+   */
+  private static class BoundLoop implements IGameLoop {
+    private final GameContext context;
+    private final IGameLoop loop;
+    private final Map<IUpdateable, IUpdateable> updatables;
+
+    private BoundLoop(final GameContext context, final IGameLoop loop) {
+      this.context = context;
+      this.loop = loop;
+      this.updatables = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void attach(final IUpdateable updatable) {
+      if (updatable == null) {
+        return;
+      }
+
+      this.loop.attach(this.updatables.computeIfAbsent(updatable, u -> () -> this.context.execute(u::update)));
+    }
+
+    @Override
+    public void detach(final IUpdateable updatable) {
+      if (updatable == null) {
+        return;
+      }
+
+      final IUpdateable bound = this.updatables.remove(updatable);
+      if (bound != null) {
+        this.loop.detach(bound);
+      }
+    }
+
+    @Override
+    public long convertToMs(final long ticks) {
+      return this.loop.convertToMs(ticks);
+    }
+
+    @Override
+    public long convertToTicks(final int ms) {
+      return this.loop.convertToTicks(ms);
+    }
+
+    @Override
+    public int execute(final int delay, final Consumer<Integer> action) {
+      return this.loop.execute(delay, index -> this.context.execute(() -> action.accept(index)));
+    }
+
+    @Override
+    public int execute(final int delay, final Runnable action) {
+      return this.loop.execute(delay, this.context.bind(action));
+    }
+
+    @Override
+    public void updateExecutionTime(final int index, final long ticks) {
+      this.loop.updateExecutionTime(index, ticks);
+    }
+
+    @Override
+    public long getDeltaTime() {
+      return this.loop.getDeltaTime();
+    }
+
+    @Override
+    public long getDeltaTime(final long ticks) {
+      return this.loop.getDeltaTime(ticks);
+    }
+
+    @Override
+    public long getTicks() {
+      return this.loop.getTicks();
+    }
+
+    @Override
+    public float getTimeScale() {
+      return this.loop.getTimeScale();
+    }
+
+    @Override
+    public int getUpdateRate() {
+      return this.loop.getUpdateRate();
+    }
+
+    @Override
+    public void onUpsTracked(final Consumer<Integer> upsConsumer) {
+      this.loop.onUpsTracked(upsConsumer);
+    }
+
+    @Override
+    public void setTimeScale(final float timeScale) {
+      this.loop.setTimeScale(timeScale);
+    }
+
+    @Override
+    public void start() {
+      this.loop.start();
+    }
+
+    @Override
+    public void terminate() {
+      this.loop.terminate();
+    }
+  }
+
+  private static class ContextLoop extends GameLoop {
+    private final GameContext context;
+
+    private ContextLoop(final GameContext context, final int updateRate) {
+      super(updateRate);
+      this.context = context;
+    }
+
+    @Override
+    public void run() {
+      boundContext.set(this.context);
+      super.run();
+    }
+  }
+}
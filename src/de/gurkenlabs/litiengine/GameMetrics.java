@@ -3,55 +3,68 @@ package de.gurkenlabs.litiengine;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import de.gurkenlabs.litiengine.graphics.IRenderable;
-
+import de.gurkenlabs.litiengine.graphics.particles.ParticleSystem;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+import de.gurkenlabs.litiengine.net.messages.MessageTypeMetrics;
+
+/**
+ * Collects the performance metrics of the game. The network traffic is
+ * accumulated in striped counters that are reset every second and in
+ * fixed-size {@link MessageTypeMetrics} per {@link MessageType}, so recording
+ * a packet neither locks nor allocates memory.
+ */
 public class GameMetrics implements IUpdateable, IRenderable {
   private static final int OFFSET_X = 5;
   private static final int OFFSET_Y = 12;
-  
-  private final List<Long> bytesReceived;
-  private final List<Long> bytesSent;
 
-  private long downStreamInBytes;
-  private final List<Long> fps;
-  private long framesPerSecond;
+  private final LongAdder bytesReceived;
+  private final LongAdder bytesSent;
+  private final LongAdder currentPackagesReceived;
+  private final LongAdder currentPackagesSent;
+  private final AtomicReferenceArray<MessageTypeMetrics> messageMetrics;
+
+  private volatile long downStreamInBytes;
+  private final LongAdder fpsSum;
+  private final LongAdder fpsCount;
+  private volatile long framesPerSecond;
   private long lastNetworkTickTime;
-  private int packagesReceived;
-  private int packagesSent;
-  private long ping;
-  private long updatesPerSecond;
-  private final List<Long> ups;
-  private long upStreamInBytes;
+  private volatile int packagesReceived;
+  private volatile int packagesSent;
+  private volatile long ping;
+  private volatile long updatesPerSecond;
+  private final LongAdder upsSum;
+  private final LongAdder upsCount;
+  private volatile long upStreamInBytes;
 
   /**
    * Instantiates a new game metrics.
    */
   public GameMetrics() {
-    this.fps = new CopyOnWriteArrayList<>();
-    this.ups = new CopyOnWriteArrayList<>();
-    this.bytesSent = new CopyOnWriteArrayList<>();
-    this.bytesReceived = new CopyOnWriteArrayList<>();
+    this.fpsSum = new LongAdder();
+    this.fpsCount = new LongAdder();
+    this.upsSum = new LongAdder();
+    this.upsCount = new LongAdder();
+    this.bytesSent = new LongAdder();
+    this.bytesReceived = new LongAdder();
+    this.currentPackagesSent = new LongAdder();
+    this.currentPackagesReceived = new LongAdder();
+    this.messageMetrics = new AtomicReferenceArray<>(256);
   }
 
   public float getAverageFramesPerSecond() {
-    if (this.fps.isEmpty()) {
-      return 0;
-    }
-
-    Optional<Long> opt = this.fps.stream().reduce((x, y) -> x + y);
-    return opt.isPresent() ? opt.get() / (float) this.fps.size() : 0;
+    final long count = this.fpsCount.sum();
+    return count == 0 ? 0 : this.fpsSum.sum() / (float) count;
   }
 
   public float getAverageUpdatesPerSecond() {
-    if (this.ups.isEmpty()) {
-      return 0;
-    }
-    Optional<Long> opt = this.ups.stream().reduce((x, y) -> x + y);
-    return opt.isPresent() ? opt.get() / (float) this.ups.size() : 0;
+    final long count = this.upsCount.sum();
+    return count == 0 ? 0 : this.upsSum.sum() / (float) count;
   }
 
   public float getDownStreamInBytes() {
@@ -62,6 +75,42 @@ public class GameMetrics implements IUpdateable, IRenderable {
     return this.framesPerSecond;
   }
 
+  /**
+   * Gets the metrics of all message types that have been sent or received.
+   *
+   * @return The metrics per message type.
+   */
+  public List<MessageTypeMetrics> getMessageMetrics() {
+    final List<MessageTypeMetrics> metrics = new ArrayList<>();
+    for (int i = 0; i < this.messageMetrics.length(); i++) {
+      final MessageTypeMetrics typeMetrics = this.messageMetrics.get(i);
+      if (typeMetrics != null) {
+        metrics.add(typeMetrics);
+      }
+    }
+
+    return metrics;
+  }
+
+  /**
+   * Gets the metrics of the specified message type. Packets with an
+   * unregistered type are accounted to {@link MessageType#INVALID}.
+   *
+   * @param type
+   *          The message type.
+   * @return The metrics of the message type.
+   */
+  public MessageTypeMetrics getMessageMetrics(final MessageType type) {
+    final int index = type.getId() & 0xFF;
+    final MessageTypeMetrics metrics = this.messageMetrics.get(index);
+    if (metrics != null) {
+      return metrics;
+    }
+
+    this.messageMetrics.compareAndSet(index, null, new MessageTypeMetrics(type));
+    return this.messageMetrics.get(index);
+  }
+
   public int getPackagesReceived() {
     return this.packagesReceived;
   }
@@ -82,12 +131,37 @@ public class GameMetrics implements IUpdateable, IRenderable {
     return this.upStreamInBytes;
   }
 
+  /**
+   * Records the time that the message handlers took to handle a received packet
+   * of the specified type.
+   *
+   * @param type
+   *          The message type.
+   * @param nanos
+   *          The handling time in nanoseconds.
+   */
+  public void messageHandled(final MessageType type, final long nanos) {
+    this.getMessageMetrics(type).handled(nanos);
+  }
+
   public void packageReceived(final long size) {
     this.bytesReceived.add(size);
+    this.currentPackagesReceived.increment();
+  }
+
+  public void packageReceived(final MessageType type, final long size) {
+    this.packageReceived(size);
+    this.getMessageMetrics(type).received(size);
   }
 
   public void packageSent(final long size) {
     this.bytesSent.add(size);
+    this.currentPackagesSent.increment();
+  }
+
+  public void packageSent(final MessageType type, final long size) {
+    this.packageSent(size);
+    this.getMessageMetrics(type).sent(size);
   }
 
   public void recordNetworkTraffic() {
@@ -127,11 +201,17 @@ public class GameMetrics implements IUpdateable, IRenderable {
 
     final String upsString = "ups: " + this.getUpdatesPerSecond();
     g.drawString(upsString, OFFSET_X, currentOffsetY);
+    currentOffsetY += OFFSET_Y;
+
+    final ParticleSystem particles = Game.getParticleSystem();
+    final String particlesString = "particles: " + particles.getParticleCount() + " - emitters: " + particles.getVisibleEmitters() + " visible, " + particles.getCulledEmitters() + " culled";
+    g.drawString(particlesString, OFFSET_X, currentOffsetY);
   }
 
   public void setFramesPerSecond(final long currentFramesPerSecond) {
     this.framesPerSecond = currentFramesPerSecond;
-    this.fps.add(this.framesPerSecond);
+    this.fpsSum.add(currentFramesPerSecond);
+    this.fpsCount.increment();
   }
 
   public void setPing(final long ping) {
@@ -140,7 +220,8 @@ public class GameMetrics implements IUpdateable, IRenderable {
 
   public void setUpdatesPerSecond(final long updatesPerSecond) {
     this.updatesPerSecond = updatesPerSecond;
-    this.ups.add(this.updatesPerSecond);
+    this.upsSum.add(updatesPerSecond);
+    this.upsCount.increment();
   }
 
   @Override
@@ -149,18 +230,10 @@ public class GameMetrics implements IUpdateable, IRenderable {
     if (currentMillis - this.lastNetworkTickTime >= 1000) {
       this.lastNetworkTickTime = currentMillis;
 
-      Optional<Long> sentOpt = this.bytesSent.parallelStream().reduce((n1, n2) -> n1 + n2);
-      final long sumUp = !this.bytesSent.isEmpty() && sentOpt.isPresent() ? sentOpt.get() : 0;
-      this.upStreamInBytes = sumUp;
-      this.packagesSent = this.bytesSent.size();
-
-      Optional<Long> receivedOpt = this.bytesReceived.parallelStream().reduce((n1, n2) -> n1 + n2);
-      final long sumDown = !this.bytesReceived.isEmpty() && receivedOpt.isPresent() ? receivedOpt.get() : 0;
-      this.downStreamInBytes = sumDown;
-      this.packagesReceived = this.bytesReceived.size();
-
-      this.bytesSent.clear();
-      this.bytesReceived.clear();
+      this.upStreamInBytes = this.bytesSent.sumThenReset();
+      this.packagesSent = (int) this.currentPackagesSent.sumThenReset();
+      this.downStreamInBytes = this.bytesReceived.sumThenReset();
+      this.packagesReceived = (int) this.currentPackagesReceived.sumThenReset();
     }
   }
 }
@@ -0,0 +1,191 @@
+package de.gurkenlabs.litiengine;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The game random provides seedable streams of random numbers that are all
+ * derived from a single world seed.
+ *
+ * <p>
+ * Every consumer that needs reproducible random numbers (e.g. an
+ * {@link de.gurkenlabs.litiengine.graphics.particles.Emitter}) should request
+ * its own stream with {@link #createStream(long)}. Streams are independent of
+ * each other and are not shared between threads, so they can be used without
+ * any locking and will produce the same sequence of numbers for the same world
+ * seed and key.
+ * </p>
+ *
+ * <p>
+ * The <code>next...</code> methods use a separate stream for each thread. They
+ * are lock-free but only reproducible for code that always runs on the same
+ * thread, like the game loop.
+ * </p>
+ */
+public final class GameRandom {
+  private static final long KEYED_STREAMS = 0x9E3779B97F4A7C15L;
+  private static final long SEQUENTIAL_STREAMS = 0xC2B2AE3D27D4EB4FL;
+  private static final long THREAD_STREAMS = 0x165667B19E3779F9L;
+
+  private final AtomicLong sequence;
+  private final ThreadLocal<ThreadStream> threadStreams;
+
+  private volatile long seed;
+  private volatile int generation;
+
+  /**
+   * Instantiates a new game random with a seed that is based on the current
+   * time.
+   */
+  public GameRandom() {
+    this(System.nanoTime() ^ System.currentTimeMillis());
+  }
+
+  public GameRandom(final long seed) {
+    this.sequence = new AtomicLong();
+    this.threadStreams = new ThreadLocal<>();
+    this.seed = seed;
+  }
+
+  /**
+   * Creates a new stream of random numbers that only depends on the world seed
+   * and the specified key. Creating a stream with the same key for the same
+   * seed will always result in the same sequence of random numbers.
+   *
+   * @param key
+   *          A stable key of the stream, e.g. the map id of an entity.
+   * @return A new random stream that must not be shared between threads.
+   */
+  public SplittableRandom createStream(final long key) {
+    return new SplittableRandom(mix(this.seed ^ mix(key + KEYED_STREAMS)));
+  }
+
+  /**
+   * Creates a new stream of random numbers that depends on the world seed and
+   * the amount of sequential streams that have been created since the seed was
+   * set. This is reproducible as long as the streams are always requested in
+   * the same order.
+   *
+   * @return A new random stream that must not be shared between threads.
+   */
+  public SplittableRandom createStream() {
+    return new SplittableRandom(mix(this.seed ^ mix(this.sequence.getAndIncrement() + SEQUENTIAL_STREAMS)));
+  }
+
+  /**
+   * Gets the random stream of the current thread.
+   *
+   * @return The random stream of the current thread.
+   */
+  public SplittableRandom current() {
+    final int currentGeneration = this.generation;
+    ThreadStream stream = this.threadStreams.get();
+    if (stream == null || stream.generation != currentGeneration) {
+      // the stream of a thread is derived from its name to keep it stable
+      // between multiple runs
+      stream = new ThreadStream(currentGeneration, new SplittableRandom(mix(this.seed ^ mix(Thread.currentThread().getName().hashCode() + THREAD_STREAMS))));
+      this.threadStreams.set(stream);
+    }
+
+    return stream.random;
+  }
+
+  public long getSeed() {
+    return this.seed;
+  }
+
+  public boolean nextBoolean() {
+    return this.current().nextBoolean();
+  }
+
+  public double nextDouble() {
+    return this.current().nextDouble();
+  }
+
+  /**
+   * Gets a random double value between the specified min (inclusive) and max
+   * (exclusive) value.
+   *
+   * @param min
+   *          The min value.
+   * @param max
+   *          The max value.
+   * @return A random double value within the specified range.
+   */
+  public double nextDouble(final double min, final double max) {
+    return min + this.current().nextDouble() * (max - min);
+  }
+
+  public int nextInt(final int bound) {
+    return this.current().nextInt(bound);
+  }
+
+  /**
+   * Gets a random int value between the specified min (inclusive) and max
+   * (exclusive) value.
+   *
+   * @param min
+   *          The min value.
+   * @param max
+   *          The max value.
+   * @return A random int value within the specified range.
+   */
+  public int nextInt(final int min, final int max) {
+    return this.current().nextInt(min, max);
+  }
+
+  public long nextLong() {
+    return this.current().nextLong();
+  }
+
+  /**
+   * Chooses a random element of the specified list.
+   *
+   * @param list
+   *          The list to choose from.
+   * @return A random element of the list or null if the list is empty.
+   */
+  public <T> T choose(final List<T> list) {
+    if (list == null || list.isEmpty()) {
+      return null;
+    }
+
+    return list.get(this.nextInt(list.size()));
+  }
+
+  /**
+   * Sets the world seed from which all streams are derived. This also resets
+   * the sequence of streams created by {@link #createStream()} and the streams
+   * of all threads. Streams that were created before are not affected.
+   *
+   * @param seed
+   *          The new world seed.
+   */
+  public synchronized void setSeed(final long seed) {
+    this.seed = seed;
+    this.sequence.set(0);
+    this.generation++;
+  }
+
+  /**
+   * The 64-bit finalizer of the SplitMix64 algorithm, which maps similar input
+   * values to well distributed seeds.
+   */
+  private static long mix(final long value) {
+    long z = value;
+    z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+    return z ^ z >>> 31;
+  }
+
+  private static class ThreadStream {
+    private final int generation;
+    private final SplittableRandom random;
+
+    private ThreadStream(final int generation, final SplittableRandom random) {
+      this.generation = generation;
+      this.random = random;
+    }
+  }
+}
@@ -10,6 +10,6 @@ public class GameTime {
   }
 
   public long sinceEnvironmentLoad() {
-    return Game.getLoop().convertToMs(Game.getLoop().getTicks() - Game.environmentLoadTick);
+    return Game.getLoop().convertToMs(Game.getLoop().getTicks() - GameContext.current().getEnvironmentLoadTick());
   }
 }
\ No newline at end of file
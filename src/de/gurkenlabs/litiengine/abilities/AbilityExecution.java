@@ -2,12 +2,14 @@ package de.gurkenlabs.litiengine.abilities;
 
 import java.awt.Shape;
 import java.awt.geom.Point2D;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.IUpdateable;
 import de.gurkenlabs.litiengine.abilities.effects.IEffect;
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
 
 public class AbilityExecution implements IUpdateable {
   private final Ability ability;
@@ -16,6 +18,8 @@ public class AbilityExecution implements IUpdateable {
   private final long executionTicks;
   private final Shape impactArea;
 
+  private List<ICombatEntity> impactedEntities;
+
   /**
    * Instantiates a new ability execution.
    *
@@ -51,6 +55,22 @@ public class AbilityExecution implements IUpdateable {
     return this.executionTicks;
   }
 
+  /**
+   * Gets all combat entities within the impact area of this execution. The
+   * entities are resolved by a single spatial query when the first effect is
+   * applied and then shared by all effects of this execution, which only
+   * filter them by their effect targets.
+   *
+   * @return A read-only list of the combat entities in the impact area.
+   */
+  public List<ICombatEntity> getImpactedEntities() {
+    if (this.impactedEntities == null) {
+      this.impactedEntities = Game.getEnvironment() != null ? Collections.unmodifiableList(Game.getEnvironment().findCombatEntities(this.getExecutionImpactArea())) : Collections.emptyList();
+    }
+
+    return this.impactedEntities;
+  }
+
   /**
    * 1. Apply all ability effects after their delay. 
    * 2. Unregister this instance after all effects were applied. 
@@ -72,7 +92,7 @@ public class AbilityExecution implements IUpdateable {
         continue;
       }
 
-      effect.apply(this.getExecutionImpactArea());
+      effect.apply(this);
       this.getAppliedEffects().add(effect);
     }
   }
@@ -3,16 +3,18 @@ package de.gurkenlabs.litiengine.abilities.effects;
 import java.awt.Shape;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.abilities.Ability;
+import de.gurkenlabs.litiengine.abilities.AbilityExecution;
 import de.gurkenlabs.litiengine.entities.EntityComparator;
 import de.gurkenlabs.litiengine.entities.EntityDistanceComparator;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
@@ -21,12 +23,20 @@ import de.gurkenlabs.litiengine.entities.ICombatEntity;
  * The Class Effect seeks for affected entities in the game's current
  * environment to apply certain effects to them defined by the overwritten
  * implementation of apply/cease.
+ * 
+ * <p>
+ * The entities that are affected by an active appliance are counted per entity,
+ * so {@link #isActive(ICombatEntity)} doesn't need to look through all
+ * appliances. All appliances that have ended within the same tick are ceased
+ * together.
+ * </p>
  */
 public abstract class Effect implements IEffect {
   public static final int NO_DURATION = -1;
   
   private final Ability ability;
   private final List<EffectApplication> appliances;
+  private final Map<ICombatEntity, Integer> activeEntities;
   private final List<Consumer<EffectArgument>> appliedConsumer;
   private final List<Consumer<EffectArgument>> ceasedConsumer;
   private final EffectTarget[] effectTargets;
@@ -34,6 +44,7 @@ public abstract class Effect implements IEffect {
   
   private int delay;
   private int duration;
+  private SplittableRandom random;
   private EntityComparator targetPriorityComparator;
 
   /**
@@ -48,6 +59,7 @@ public abstract class Effect implements IEffect {
     this.appliedConsumer = new CopyOnWriteArrayList<>();
     this.ceasedConsumer = new CopyOnWriteArrayList<>();
     this.appliances = new ArrayList<>();
+    this.activeEntities = new ConcurrentHashMap<>();
     this.followUpEffects = new CopyOnWriteArrayList<>();
 
     this.ability = ability;
@@ -63,21 +75,17 @@ public abstract class Effect implements IEffect {
 
   @Override
   public void apply(final Shape impactArea) {
-    final List<ICombatEntity> affected = this.lookForAffectedEntities(impactArea);
-    for (final ICombatEntity affectedEntity : affected) {
-      this.apply(affectedEntity);
-    }
-
-    this.appliances.add(new EffectApplication(affected, impactArea));
+    this.apply(impactArea, this.lookForAffectedEntities(impactArea));
+  }
 
-    // if it is the first appliance -> register for update
-    if (this.appliances.size() == 1) {
-      Game.getLoop().attach(this);
-    }
+  @Override
+  public void apply(final AbilityExecution execution) {
+    this.apply(execution.getExecutionImpactArea(), this.lookForAffectedEntities(execution::getImpactedEntities));
   }
 
   @Override
   public void cease(final ICombatEntity entity) {
+    this.activeEntities.computeIfPresent(entity, (e, count) -> count > 1 ? count - 1 : null);
     entity.getAppliedEffects().remove(this);
     final EffectArgument arg = new EffectArgument(this, entity);
     for (final Consumer<EffectArgument> consumer : this.ceasedConsumer) {
@@ -85,6 +93,19 @@ public abstract class Effect implements IEffect {
     }
   }
 
+  private void apply(final Shape impactArea, final List<ICombatEntity> affected) {
+    for (final ICombatEntity affectedEntity : affected) {
+      this.apply(affectedEntity);
+    }
+
+    this.appliances.add(new EffectApplication(affected, impactArea));
+
+    // if it is the first appliance -> register for update
+    if (this.appliances.size() == 1) {
+      Game.getLoop().attach(this);
+    }
+  }
+
   public Ability getAbility() {
     return this.ability;
   }
@@ -120,15 +141,7 @@ public abstract class Effect implements IEffect {
 
   @Override
   public boolean isActive(final ICombatEntity entity) {
-    for (final EffectApplication app : this.getActiveAppliances()) {
-      for (final ICombatEntity affected : app.getAffectedEntities()) {
-        if (affected.equals(entity)) {
-          return true;
-        }
-      }
-    }
-
-    return false;
+    return entity != null && this.activeEntities.containsKey(entity);
   }
 
   @Override
@@ -158,20 +171,27 @@ public abstract class Effect implements IEffect {
   }
 
   /**
-   * 1. Cease the effect after its duration. 
-   * 2. apply all follow up effects 
-   * 3. remove appliance 
+   * 1. Collect all appliances whose duration is reached. 
+   * 2. remove them in a single pass 
+   * 3. cease the effect and apply all follow up effects for the batch 
    * 4. unregister from loop if all appliances are done
    */
   @Override
   public void update() {
-
-    for (final Iterator<EffectApplication> iterator = this.getActiveAppliances().iterator(); iterator.hasNext();) {
-      final EffectApplication appliance = iterator.next();
-      // if the effect duration is reached
+    List<EffectApplication> ended = null;
+    for (final EffectApplication appliance : this.getActiveAppliances()) {
       if (this.hasEnded(appliance)) {
+        if (ended == null) {
+          ended = new ArrayList<>();
+        }
+
+        ended.add(appliance);
+      }
+    }
 
-        iterator.remove();
+    if (ended != null) {
+      this.getActiveAppliances().removeAll(ended);
+      for (final EffectApplication appliance : ended) {
         this.cease(appliance);
       }
     }
@@ -183,6 +203,7 @@ public abstract class Effect implements IEffect {
   }
 
   protected void apply(final ICombatEntity entity) {
+    this.activeEntities.merge(entity, 1, Integer::sum);
     entity.getAppliedEffects().add(this);
     final EffectArgument arg = new EffectArgument(this, entity);
     for (final Consumer<EffectArgument> consumer : this.appliedConsumer) {
@@ -204,6 +225,20 @@ public abstract class Effect implements IEffect {
     return Game.getEnvironment().findCombatEntities(impactArea);
   }
 
+  /**
+   * Gets the random stream of this effect, which is derived from the world seed
+   * of {@link Game#getRandom()}.
+   *
+   * @return The random stream of this effect.
+   */
+  protected SplittableRandom getRandom() {
+    if (this.random == null) {
+      this.random = Game.getRandom().createStream();
+    }
+
+    return this.random;
+  }
+
   protected long getTotalDuration() {
     return this.getDuration() + (long) this.getDelay();
   }
@@ -214,48 +249,92 @@ public abstract class Effect implements IEffect {
   }
 
   protected List<ICombatEntity> lookForAffectedEntities(final Shape impactArea) {
-    List<ICombatEntity> affectedEntities = new ArrayList<>();
+    return this.lookForAffectedEntities(() -> this.getEntitiesInImpactArea(impactArea));
+  }
+
+  /**
+   * Filters the entities in the impact area by the targets of this effect. The
+   * entities are only requested from the supplier if one of the targets needs
+   * them and then filtered in a single pass per target.
+   * 
+   * @param impactedEntities
+   *          The supplier of the combat entities in the impact area.
+   * @return The entities that are affected by this effect.
+   */
+  protected List<ICombatEntity> lookForAffectedEntities(final Supplier<? extends Collection<ICombatEntity>> impactedEntities) {
+    final List<ICombatEntity> affectedEntities = new ArrayList<>();
+    Collection<ICombatEntity> candidates = null;
 
     for (final EffectTarget target : this.effectTargets) {
+      final Predicate<? super ICombatEntity> condition;
       switch (target) {
       case EXECUTINGENTITY:
         affectedEntities.add(this.getAbility().getExecutor());
         return affectedEntities;
       case ENEMY:
-        affectedEntities.addAll(this.getEntitiesInImpactArea(impactArea));
-        affectedEntities = affectedEntities.stream().filter(this.canAttackEntity()).collect(Collectors.toList());
+        condition = this.canAttackEntity();
         break;
       case FRIENDLY:
-        affectedEntities.addAll(this.getEntitiesInImpactArea(impactArea));
-        affectedEntities = affectedEntities.stream().filter(this.isAliveFriendlyEntity()).collect(Collectors.toList());
+        condition = this.isAliveFriendlyEntity();
         break;
       case FRIENDLYDEAD:
-        affectedEntities.addAll(this.getEntitiesInImpactArea(impactArea));
-        affectedEntities = affectedEntities.stream().filter(this.isDeadFriendlyEntity()).collect(Collectors.toList());
+        condition = this.isDeadFriendlyEntity();
         break;
       default:
-        break;
+        continue;
+      }
+
+      if (candidates == null) {
+        candidates = impactedEntities.get();
+      }
+
+      // the conditions of the targets exclude each other, so there are no
+      // duplicates if no target is specified twice
+      final boolean checkDuplicates = !affectedEntities.isEmpty();
+      for (final ICombatEntity entity : candidates) {
+        if (entity != null && condition.test(entity) && (!checkDuplicates || !affectedEntities.contains(entity))) {
+          affectedEntities.add(entity);
+        }
       }
     }
 
-    affectedEntities.removeAll(Collections.singleton(null));
-    affectedEntities.sort(this.targetPriorityComparator);
-    
-    if (!this.getAbility().isMultiTarget() && !affectedEntities.isEmpty()) {
+    if (affectedEntities.isEmpty()) {
+      return affectedEntities;
+    }
+
+    if (!this.getAbility().isMultiTarget()) {
       final ICombatEntity target;
       if (this.getAbility().getExecutor().getTarget() != null) {
         target = this.getAbility().getExecutor().getTarget();
       } else {
-        target = affectedEntities.get(0);
+        target = this.chooseTarget(affectedEntities);
       }
-      affectedEntities = new ArrayList<>();
-      affectedEntities.add(target);
 
+      final List<ICombatEntity> singleTarget = new ArrayList<>(1);
+      singleTarget.add(target);
+      return singleTarget;
     }
 
+    affectedEntities.sort(this.targetPriorityComparator);
     return affectedEntities;
   }
 
+  /**
+   * Chooses the entity with the highest priority in a single pass without
+   * sorting all entities. Like the first element of the sorted entities, this
+   * is the first of multiple entities with the same priority.
+   */
+  private ICombatEntity chooseTarget(final List<ICombatEntity> entities) {
+    ICombatEntity target = null;
+    for (final ICombatEntity entity : entities) {
+      if (target == null || this.targetPriorityComparator.compare(entity, target) < 0) {
+        target = entity;
+      }
+    }
+
+    return target;
+  }
+
   private Predicate<? super ICombatEntity> canAttackEntity() {
     return entity -> !entity.equals(this.getAbility().getExecutor()) && !entity.isFriendly(this.getAbility().getExecutor()) && !entity.isDead();
   }
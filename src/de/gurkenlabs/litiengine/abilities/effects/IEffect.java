@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.function.Consumer;
 
 import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.abilities.AbilityExecution;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
 
 public interface IEffect extends IUpdateable {
@@ -16,6 +17,20 @@ public interface IEffect extends IUpdateable {
    */
   public void apply(Shape impactArea);
 
+  /**
+   * Applies the effect to the entities that were found in the impact area of
+   * the specified ability execution. In contrast to {@link #apply(Shape)}, the
+   * environment is not queried again for every effect of the execution.
+   * Effects that don't override this method are applied to the impact area of
+   * the execution instead.
+   * 
+   * @param execution
+   *          The ability execution that applies this effect.
+   */
+  public default void apply(AbilityExecution execution) {
+    this.apply(execution.getExecutionImpactArea());
+  }
+
   public void cease(final ICombatEntity affectedEntity);
 
   public List<EffectApplication> getActiveAppliances();
@@ -14,6 +14,7 @@ public class ShieldEffect extends AttributeStateEffect<Short> {
 
   @Override
   public void cease(final ICombatEntity affectedEntity) {
+    super.cease(affectedEntity);
     final AttributeModifier<Short> revert = new AttributeModifier<>(this.getModifier().getModification(), -this.getModifier().getModifyValue());
     this.getAttribute(affectedEntity).modifyBaseValue(revert);
   }
@@ -1,7 +1,5 @@
 package de.gurkenlabs.litiengine.abilities.effects;
 
-import java.util.Random;
-
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.abilities.Ability;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
@@ -30,7 +28,7 @@ public class SoundEffect extends Effect {
       return null;
     }
 
-    final int randomIndex = new Random().nextInt(this.sounds.length);
+    final int randomIndex = this.getRandom().nextInt(this.sounds.length);
     return this.sounds[randomIndex];
   }
 }
@@ -6,6 +6,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import de.gurkenlabs.litiengine.graphics.particles.CullingMode;
 import de.gurkenlabs.litiengine.graphics.particles.Emitter;
 
 /**
@@ -18,6 +19,8 @@ public @interface EmitterInfo {
 
   boolean activateOnInit() default true;
 
+  CullingMode cullingMode() default CullingMode.NONE;
+
   int emitterTTL() default 0;
 
   int maxParticles() default Emitter.DEFAULT_MAXPARTICLES;
@@ -133,6 +133,13 @@ public abstract class CollisionEntity extends Entity implements ICollisionEntity
     return this.collision;
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    this.collision = this.getClass().getAnnotation(CollisionInfo.class).collision();
+    this.collisionBox = this.getCollisionBox(this.getLocation());
+  }
+
   /**
    * Sets the collision.
    *
@@ -1,6 +1,7 @@
 package de.gurkenlabs.litiengine.entities;
 
 import java.awt.geom.Ellipse2D;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
@@ -197,6 +198,30 @@ public class CombatEntity extends CollisionEntity implements ICombatEntity {
     this.entityResurrectConsumer.add(consumer);
   }
 
+  @Override
+  public void removeHitListener(final Consumer<CombatEntityHitArgument> consumer) {
+    this.entityHitConsumer.remove(consumer);
+  }
+
+  /**
+   * Restores the health without informing the resurrect consumers and removes
+   * the target and all applied effects.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    this.getAttributes().getHealth().modifyBaseValue(new AttributeModifier<>(Modification.SET, this.getAttributes().getHealth().getMaxValue()));
+
+    // an effect is contained once for every appliance, so ceasing it for every
+    // entry releases all of its state about this entity
+    for (final IEffect effect : new ArrayList<>(this.getAppliedEffects())) {
+      effect.cease(this);
+    }
+
+    this.getAppliedEffects().clear();
+    this.target = null;
+  }
+
   /**
    * Resurrect.
    */
@@ -44,7 +44,7 @@ public class Creature extends CombatEntity implements IMobileEntity {
     if (spritePrefix != null) {
       this.setSpritePrefix(spritePrefix);
     } else {
-      this.setSpritePrefix(ArrayUtilities.getRandom(EntityAnimationController.getDefaultSpritePrefixes(this.getClass())));
+      this.setSpritePrefix(ArrayUtilities.getRandom(Game.getRandom().current(), EntityAnimationController.getDefaultSpritePrefixes(this.getClass())));
     }
 
     Game.getEntityControllerManager().addController(this, new CreatureAnimationController<Creature>(this, true));
@@ -113,6 +113,11 @@ public class Creature extends CombatEntity implements IMobileEntity {
     this.entityMovedConsumer.add(consumer);
   }
 
+  @Override
+  public void removeMovedListener(final Consumer<IMobileEntity> consumer) {
+    this.entityMovedConsumer.remove(consumer);
+  }
+
   @Override
   public void setAcceleration(final int acceleration) {
     this.acceleration = acceleration;
@@ -144,6 +149,13 @@ public class Creature extends CombatEntity implements IMobileEntity {
     }
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    this.lastMoved = 0;
+    this.moveDestination = null;
+  }
+
   @Override
   public void setMoveDestination(final Point2D dest) {
     this.moveDestination = dest;
@@ -0,0 +1,537 @@
+package de.gurkenlabs.litiengine.entities;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.ai.IEntityController;
+import de.gurkenlabs.litiengine.graphics.animation.Animation;
+import de.gurkenlabs.litiengine.graphics.animation.IAnimationController;
+import de.gurkenlabs.litiengine.graphics.particles.Emitter;
+import de.gurkenlabs.litiengine.physics.IMovementController;
+
+/**
+ * The dormancy system reduces the simulation rate of entities that are far
+ * away from the focus areas or that are idle. Every loaded entity is assigned
+ * to a {@link SimulationTier} based on the {@link Policy} that is configured
+ * for its type. Entities of types without a policy are always fully
+ * simulated.
+ *
+ * <p>
+ * The updatables of an entity (the entity itself, its AI, animation and
+ * movement controller and all additionally attached updatables like
+ * navigators) are detached from the game loop while the entity is dormant.
+ * Entities of the {@link SimulationTier#REDUCED} tier are updated by this
+ * system every n-th tick instead. Note that controllers which depend on the
+ * delta time of the game loop advance slower while they are updated less
+ * often.
+ * </p>
+ *
+ * <p>
+ * Dormant entities wake up when they get closer to a focus area, when they are
+ * hit, when forces are applied to them (with the next evaluation) or when
+ * {@link #wake(IEntity)} is called.
+ * </p>
+ */
+public class DormancySystem implements IUpdateable {
+  public static final int DEFAULT_EVALUATION_INTERVAL = 10;
+  public static final int DEFAULT_WAKE_DURATION = 1000;
+  private static final Logger log = Logger.getLogger(DormancySystem.class.getName());
+
+  private final Map<IEntity, ManagedEntity> entities;
+  private final Map<IEntity, List<IUpdateable>> attachedUpdatables;
+  private final Collection<ManagedEntity> reducedEntities;
+  private final Map<Class<?>, Policy> policies;
+  private final Map<Class<?>, Optional<Policy>> resolvedPolicies;
+  private final List<Supplier<Rectangle2D>> focusAreas;
+  private final Consumer<CombatEntityHitArgument> entityHitConsumer;
+
+  private int evaluationInterval;
+
+  public DormancySystem() {
+    this.entities = new ConcurrentHashMap<>();
+    this.attachedUpdatables = new ConcurrentHashMap<>();
+    this.reducedEntities = Collections.newSetFromMap(new ConcurrentHashMap<ManagedEntity, Boolean>());
+    this.policies = new ConcurrentHashMap<>();
+    this.resolvedPolicies = new ConcurrentHashMap<>();
+    this.focusAreas = new CopyOnWriteArrayList<>();
+    this.entityHitConsumer = arg -> this.wake(arg.getEntity());
+    this.evaluationInterval = DEFAULT_EVALUATION_INTERVAL;
+  }
+
+  /**
+   * Adds the specified entity to this system. This is done by the environment
+   * for all entities that are loaded.
+   *
+   * @param entity
+   *          The entity to add.
+   */
+  public void add(final IEntity entity) {
+    if (entity == null || this.entities.containsKey(entity)) {
+      return;
+    }
+
+    this.entities.put(entity, new ManagedEntity(entity));
+    if (entity instanceof ICombatEntity) {
+      ((ICombatEntity) entity).onHit(this.entityHitConsumer);
+    }
+  }
+
+  public void addFocus(final Supplier<Rectangle2D> focusArea) {
+    if (focusArea != null && !this.focusAreas.contains(focusArea)) {
+      this.focusAreas.add(focusArea);
+    }
+  }
+
+  /**
+   * Attaches an additional updatable of the specified entity, e.g. its
+   * navigator, which is then detached from the game loop together with the
+   * controllers of the entity while it is dormant. Entity navigators attach
+   * themselves when they are created.
+   *
+   * <p>
+   * The updatable may be attached before the entity is added to this system
+   * and stays attached when the entity is removed and added again, e.g. by an
+   * entity pool, until it is detached with
+   * {@link #detach(IEntity, IUpdateable)}.
+   * </p>
+   *
+   * @param entity
+   *          The entity.
+   * @param updatable
+   *          The updatable that belongs to the entity.
+   */
+  public void attach(final IEntity entity, final IUpdateable updatable) {
+    if (entity == null || updatable == null) {
+      return;
+    }
+
+    final List<IUpdateable> updatables = this.attachedUpdatables.computeIfAbsent(entity, e -> new CopyOnWriteArrayList<>());
+    if (updatables.contains(updatable)) {
+      return;
+    }
+
+    updatables.add(updatable);
+    final ManagedEntity managed = this.entities.get(entity);
+    if (managed != null && managed.tier != SimulationTier.FULL) {
+      Game.getLoop().detach(updatable);
+      managed.dormantUpdatables.add(updatable);
+    }
+  }
+
+  /**
+   * Detaches the specified updatable of the specified entity from this system.
+   * If the entity is currently dormant, the updatable is attached to the game
+   * loop again.
+   *
+   * @param entity
+   *          The entity.
+   * @param updatable
+   *          The updatable that belongs to the entity.
+   */
+  public void detach(final IEntity entity, final IUpdateable updatable) {
+    final List<IUpdateable> updatables = entity != null ? this.attachedUpdatables.get(entity) : null;
+    if (updatables == null || !updatables.remove(updatable)) {
+      return;
+    }
+
+    if (updatables.isEmpty()) {
+      this.attachedUpdatables.remove(entity, updatables);
+    }
+
+    final ManagedEntity managed = this.entities.get(entity);
+    if (managed != null && managed.dormantUpdatables.remove(updatable)) {
+      Game.getLoop().attach(updatable);
+    }
+  }
+
+  public int getEvaluationInterval() {
+    return this.evaluationInterval;
+  }
+
+  /**
+   * Gets the policy for the specified type. If no policy is configured for the
+   * type itself, the policy of its closest super class is used.
+   *
+   * @param type
+   *          The entity type.
+   * @return The policy or null if no policy applies to the type.
+   */
+  public Policy getPolicy(final Class<?> type) {
+    return this.resolvedPolicies.computeIfAbsent(type, t -> {
+      for (Class<?> cls = t; cls != null; cls = cls.getSuperclass()) {
+        final Policy policy = this.policies.get(cls);
+        if (policy != null) {
+          return Optional.of(policy);
+        }
+      }
+
+      return Optional.empty();
+    }).orElse(null);
+  }
+
+  /**
+   * Gets the current simulation tier of the specified entity.
+   *
+   * @param entity
+   *          The entity.
+   * @return The simulation tier or null if the entity has not been added to
+   *         this system.
+   */
+  public SimulationTier getTier(final IEntity entity) {
+    final ManagedEntity managed = entity != null ? this.entities.get(entity) : null;
+    return managed != null ? managed.tier : null;
+  }
+
+  /**
+   * Removes the specified entity from this system without attaching its
+   * updatables to the game loop again. This is done by the environment for
+   * all entities that are unloaded.
+   *
+   * @param entity
+   *          The entity to remove.
+   */
+  public void remove(final IEntity entity) {
+    if (entity == null) {
+      return;
+    }
+
+    final ManagedEntity managed = this.entities.remove(entity);
+    if (managed != null) {
+      this.reducedEntities.remove(managed);
+    }
+
+    if (entity instanceof ICombatEntity) {
+      ((ICombatEntity) entity).removeHitListener(this.entityHitConsumer);
+    }
+  }
+
+  public void removeFocus(final Supplier<Rectangle2D> focusArea) {
+    this.focusAreas.remove(focusArea);
+  }
+
+  /**
+   * Sets the amount of ticks after which the simulation tiers of all entities
+   * are evaluated again.
+   *
+   * @param evaluationInterval
+   *          The evaluation interval in ticks.
+   */
+  public void setEvaluationInterval(final int evaluationInterval) {
+    this.evaluationInterval = Math.max(1, evaluationInterval);
+  }
+
+  /**
+   * Sets the policy for all entities of the specified type and its sub
+   * classes that don't have a policy of their own.
+   *
+   * @param type
+   *          The entity type.
+   * @param policy
+   *          The policy or null to always simulate entities of this type
+   *          fully.
+   */
+  public void setPolicy(final Class<? extends IEntity> type, final Policy policy) {
+    if (policy == null) {
+      this.policies.remove(type);
+    } else {
+      this.policies.put(type, policy);
+    }
+
+    this.resolvedPolicies.clear();
+  }
+
+  @Override
+  public void update() {
+    if (Game.getLoop() == null) {
+      return;
+    }
+
+    final long ticks = Game.getLoop().getTicks();
+    if (ticks % this.evaluationInterval == 0) {
+      this.evaluate(ticks);
+    }
+
+    for (final ManagedEntity managed : this.reducedEntities) {
+      final Policy policy = this.getPolicy(managed.entity.getClass());
+      if (policy == null || (ticks + managed.entity.getMapId()) % policy.getReducedInterval() != 0) {
+        continue;
+      }
+
+      for (final IUpdateable updatable : managed.dormantUpdatables) {
+        try {
+          updatable.update();
+        } catch (final Exception e) {
+          log.log(Level.SEVERE, e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Fully simulates the specified entity for at least the default wake
+   * duration.
+   *
+   * @param entity
+   *          The entity to wake.
+   */
+  public void wake(final IEntity entity) {
+    this.wake(entity, DEFAULT_WAKE_DURATION);
+  }
+
+  /**
+   * Fully simulates the specified entity for at least the specified duration,
+   * regardless of its distance to the focus areas.
+   *
+   * @param entity
+   *          The entity to wake.
+   * @param duration
+   *          The duration in milliseconds.
+   */
+  public void wake(final IEntity entity, final int duration) {
+    final ManagedEntity managed = entity != null ? this.entities.get(entity) : null;
+    if (managed == null || Game.getLoop() == null) {
+      return;
+    }
+
+    managed.awakeUntil = Math.max(managed.awakeUntil, Game.getLoop().getTicks() + Game.getLoop().convertToTicks(duration));
+    this.setTier(managed, SimulationTier.FULL);
+  }
+
+  private static double getDistance(final IEntity entity, final List<Rectangle2D> areas) {
+    final Point2D center = entity.getCenter();
+    double distance = Double.MAX_VALUE;
+    for (final Rectangle2D area : areas) {
+      final double dx = Math.max(0, Math.max(area.getMinX() - center.getX(), center.getX() - area.getMaxX()));
+      final double dy = Math.max(0, Math.max(area.getMinY() - center.getY(), center.getY() - area.getMaxY()));
+      distance = Math.min(distance, Math.sqrt(dx * dx + dy * dy));
+    }
+
+    return distance;
+  }
+
+  /**
+   * An entity is idle if no forces are applied to it, it hasn't moved recently
+   * and it doesn't play an animation that ends by itself. Looping animations,
+   * like idle animations, don't keep an entity awake.
+   */
+  private static boolean isIdle(final IEntity entity) {
+    if (entity instanceof IMobileEntity) {
+      final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
+      if (movementController != null && !movementController.getActiceForces().isEmpty()) {
+        return false;
+      }
+
+      if (entity instanceof Creature && !((Creature) entity).isIdle()) {
+        return false;
+      }
+    }
+
+    final IAnimationController animationController = Game.getEntityControllerManager().getAnimationController(entity);
+    if (animationController != null) {
+      final Animation animation = animationController.getCurrentAnimation();
+      if (animation != null && animation.isPlaying() && !animation.isLoop()) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private List<IUpdateable> getUpdatables(final ManagedEntity managed) {
+    final IEntity entity = managed.entity;
+    final List<IUpdateable> updatables = new ArrayList<>(this.attachedUpdatables.getOrDefault(entity, Collections.emptyList()));
+
+    // triggers and emitters are updated by their own systems
+    if (entity instanceof IUpdateable && !(entity instanceof Trigger) && !(entity instanceof Emitter)) {
+      updatables.add((IUpdateable) entity);
+    }
+
+    final IEntityController<? extends IEntity> controller = Game.getEntityControllerManager().getAIController(entity);
+    if (controller != null) {
+      updatables.add(controller);
+    }
+
+    final IAnimationController animation = Game.getEntityControllerManager().getAnimationController(entity);
+    if (animation != null) {
+      updatables.add(animation);
+    }
+
+    if (entity instanceof IMobileEntity) {
+      final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
+      if (movementController != null) {
+        updatables.add(movementController);
+      }
+    }
+
+    return updatables;
+  }
+
+  private void evaluate(final long ticks) {
+    final List<Rectangle2D> focus = this.getFocusAreas();
+    for (final ManagedEntity managed : this.entities.values()) {
+      final Policy policy = this.getPolicy(managed.entity.getClass());
+      if (policy == null || ticks < managed.awakeUntil) {
+        this.setTier(managed, SimulationTier.FULL);
+        continue;
+      }
+
+      SimulationTier tier = SimulationTier.FULL;
+      if (!focus.isEmpty()) {
+        final double distance = getDistance(managed.entity, focus);
+        if (distance > policy.getReducedDistance()) {
+          tier = SimulationTier.SUSPENDED;
+        } else if (distance > policy.getActiveDistance()) {
+          tier = SimulationTier.REDUCED;
+        }
+      }
+
+      if (tier.ordinal() < policy.getIdleTier().ordinal() && isIdle(managed.entity)) {
+        tier = policy.getIdleTier();
+      }
+
+      this.setTier(managed, tier);
+    }
+  }
+
+  private List<Rectangle2D> getFocusAreas() {
+    final List<Rectangle2D> areas = new ArrayList<>();
+    for (final Supplier<Rectangle2D> focusArea : this.focusAreas) {
+      final Rectangle2D area = focusArea.get();
+      if (area != null) {
+        areas.add(area);
+      }
+    }
+
+    if (this.focusAreas.isEmpty() && Game.getCamera() != null && Game.getCamera().getViewPort() != null) {
+      areas.add(Game.getCamera().getViewPort());
+    }
+
+    return areas;
+  }
+
+  private void setTier(final ManagedEntity managed, final SimulationTier tier) {
+    if (managed.tier == tier) {
+      return;
+    }
+
+    if (managed.tier == SimulationTier.FULL) {
+      managed.dormantUpdatables.clear();
+      managed.dormantUpdatables.addAll(this.getUpdatables(managed));
+      for (final IUpdateable updatable : managed.dormantUpdatables) {
+        Game.getLoop().detach(updatable);
+      }
+    } else if (tier == SimulationTier.FULL) {
+      for (final IUpdateable updatable : managed.dormantUpdatables) {
+        Game.getLoop().attach(updatable);
+      }
+
+      managed.dormantUpdatables.clear();
+    }
+
+    if (tier == SimulationTier.REDUCED) {
+      this.reducedEntities.add(managed);
+    } else {
+      this.reducedEntities.remove(managed);
+    }
+
+    managed.tier = tier;
+  }
+
+  /**
+   * The simulation tiers of entities, ordered from the highest to the lowest
+   * simulation rate.
+   */
+  public enum SimulationTier {
+    /**
+     * The entity is updated every tick.
+     */
+    FULL,
+
+    /**
+     * The entity is updated every n-th tick, as defined by its policy.
+     */
+    REDUCED,
+
+    /**
+     * The entity is not updated at all.
+     */
+    SUSPENDED
+  }
+
+  /**
+   * Defines the simulation tiers for the entities of one type.
+   */
+  public static class Policy {
+    private final double activeDistance;
+    private final double reducedDistance;
+    private final int reducedInterval;
+    private final SimulationTier idleTier;
+
+    /**
+     * Instantiates a new dormancy policy.
+     *
+     * @param activeDistance
+     *          The distance to the nearest focus area up to which entities are
+     *          fully simulated.
+     * @param reducedDistance
+     *          The distance to the nearest focus area up to which entities are
+     *          simulated with the reduced rate. Entities that are further away
+     *          are suspended.
+     * @param reducedInterval
+     *          The amount of ticks between two updates of entities with the
+     *          reduced rate.
+     * @param idleTier
+     *          The tier of idle entities within the active distance.
+     */
+    public Policy(final double activeDistance, final double reducedDistance, final int reducedInterval, final SimulationTier idleTier) {
+      this.activeDistance = activeDistance;
+      this.reducedDistance = Math.max(activeDistance, reducedDistance);
+      this.reducedInterval = Math.max(1, reducedInterval);
+      this.idleTier = idleTier != null ? idleTier : SimulationTier.FULL;
+    }
+
+    public double getActiveDistance() {
+      return this.activeDistance;
+    }
+
+    public SimulationTier getIdleTier() {
+      return this.idleTier;
+    }
+
+    public double getReducedDistance() {
+      return this.reducedDistance;
+    }
+
+    public int getReducedInterval() {
+      return this.reducedInterval;
+    }
+  }
+
+  private static class ManagedEntity {
+    private final IEntity entity;
+    private final List<IUpdateable> dormantUpdatables;
+
+    private volatile long awakeUntil;
+    private volatile SimulationTier tier;
+
+    private ManagedEntity(final IEntity entity) {
+      this.entity = entity;
+      this.dormantUpdatables = new CopyOnWriteArrayList<>();
+      this.tier = SimulationTier.FULL;
+    }
+  }
+}
@@ -2,13 +2,16 @@ package de.gurkenlabs.litiengine.entities;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.annotation.EntityInfo;
+import de.gurkenlabs.litiengine.environment.EntityTagIndex;
 import de.gurkenlabs.litiengine.graphics.RenderType;
 import de.gurkenlabs.litiengine.graphics.animation.IAnimationController;
 
@@ -18,7 +21,11 @@ import de.gurkenlabs.litiengine.graphics.animation.IAnimationController;
 @EntityInfo
 public abstract class Entity implements IEntity {
   private final List<MessageAction> messageActions;
-  private final List<String> tags;
+  private final CopyOnWriteArrayList<String> tags;
+  private final List<String> tagView;
+  private final List<BiConsumer<IEntity, String>> nameChangedConsumers;
+  private final List<BiConsumer<IEntity, String>> tagAddedConsumers;
+  private final List<BiConsumer<IEntity, String>> tagRemovedConsumers;
 
   /** The direction. */
   private float angle;
@@ -44,6 +51,10 @@ public abstract class Entity implements IEntity {
   protected Entity() {
     this.messageActions = new CopyOnWriteArrayList<>();
     this.tags = new CopyOnWriteArrayList<>();
+    this.tagView = new TagList();
+    this.nameChangedConsumers = new CopyOnWriteArrayList<>();
+    this.tagAddedConsumers = new CopyOnWriteArrayList<>();
+    this.tagRemovedConsumers = new CopyOnWriteArrayList<>();
     this.mapLocation = new Point2D.Double(0, 0);
     final EntityInfo info = this.getClass().getAnnotation(EntityInfo.class);
     this.width = info.width();
@@ -131,6 +142,48 @@ public abstract class Entity implements IEntity {
     return this.getLocation().getY();
   }
 
+  @Override
+  public void onNameChanged(final BiConsumer<IEntity, String> consumer) {
+    if (this.nameChangedConsumers.contains(consumer)) {
+      return;
+    }
+
+    this.nameChangedConsumers.add(consumer);
+  }
+
+  @Override
+  public void removeNameChangedListener(final BiConsumer<IEntity, String> consumer) {
+    this.nameChangedConsumers.remove(consumer);
+  }
+
+  @Override
+  public void onTagAdded(final BiConsumer<IEntity, String> consumer) {
+    if (this.tagAddedConsumers.contains(consumer)) {
+      return;
+    }
+
+    this.tagAddedConsumers.add(consumer);
+  }
+
+  @Override
+  public void onTagRemoved(final BiConsumer<IEntity, String> consumer) {
+    if (this.tagRemovedConsumers.contains(consumer)) {
+      return;
+    }
+
+    this.tagRemovedConsumers.add(consumer);
+  }
+
+  @Override
+  public void removeTagAddedListener(final BiConsumer<IEntity, String> consumer) {
+    this.tagAddedConsumers.remove(consumer);
+  }
+
+  @Override
+  public void removeTagRemovedListener(final BiConsumer<IEntity, String> consumer) {
+    this.tagRemovedConsumers.remove(consumer);
+  }
+
   @Override
   public String sendMessage(final Object sender, final String message) {
     for (MessageAction action : this.messageActions.stream().filter(x -> x.getMessage().equals(message)).collect(Collectors.toList())) {
@@ -174,7 +227,15 @@ public abstract class Entity implements IEntity {
 
   @Override
   public void setName(final String name) {
+    final String oldName = this.name;
     this.name = name;
+    if (oldName == null ? name == null : oldName.equals(name)) {
+      return;
+    }
+
+    for (final BiConsumer<IEntity, String> consumer : this.nameChangedConsumers) {
+      consumer.accept(this, oldName);
+    }
   }
 
   @Override
@@ -206,26 +267,102 @@ public abstract class Entity implements IEntity {
 
   @Override
   public List<String> getTags() {
-    return this.tags;
+    return this.tagView;
   }
 
   @Override
   public boolean hasTag(String tag) {
-    return this.tags.contains(tag);
+    return this.findTag(tag) != null;
   }
 
   @Override
   public void addTag(String tag) {
-    if (!this.tags.contains(tag)) {
-      this.tags.add(tag);
-    }
+    this.addTag(-1, tag);
   }
 
   @Override
   public void removeTag(String tag) {
-    if (!this.tags.contains(tag)) {
-      this.tags.remove(tag);
+    this.removeTagInternal(tag);
+  }
+
+  /**
+   * Resets the runtime state of this entity so that it can be reused, e.g. by
+   * an {@link de.gurkenlabs.litiengine.environment.EntityPool}. The map id is
+   * set to 0, so that the entity receives a new id once it is added to an
+   * environment again. The configuration of the entity, like its name, size
+   * and tags, is kept. The consumers that were registered on the entity, e.g.
+   * with {@link #onNameChanged(BiConsumer)}, are kept as well, so game logic
+   * that is wired up once stays active when the entity is reused. The
+   * environment and the engine systems remove their own consumers when the
+   * entity is removed. Subclasses with additional runtime state should
+   * override this and call <code>super.reset()</code>.
+   */
+  public void reset() {
+    this.mapId = 0;
+    this.angle = 0;
+    this.mapLocation = new Point2D.Double(0, 0);
+    this.boundingBox = null;
+  }
+
+  /**
+   * Adds the specified tag at the specified index or at the end if the index is
+   * negative.
+   */
+  private boolean addTag(final int index, final String tag) {
+    synchronized (this.tags) {
+      if (EntityTagIndex.normalize(tag) == null || this.findTag(tag) != null) {
+        return false;
+      }
+
+      if (index < 0) {
+        this.tags.add(tag);
+      } else {
+        this.tags.add(index, tag);
+      }
     }
+
+    for (final BiConsumer<IEntity, String> consumer : this.tagAddedConsumers) {
+      consumer.accept(this, tag);
+    }
+
+    return true;
+  }
+
+  private String removeTagInternal(final String tag) {
+    final String removed;
+    synchronized (this.tags) {
+      removed = this.findTag(tag);
+      if (removed == null) {
+        return null;
+      }
+
+      this.tags.remove(removed);
+    }
+
+    for (final BiConsumer<IEntity, String> consumer : this.tagRemovedConsumers) {
+      consumer.accept(this, removed);
+    }
+
+    return removed;
+  }
+
+  /**
+   * Finds the tag of this entity that is equal to the specified tag in the
+   * normalized form of the {@link EntityTagIndex}.
+   */
+  private String findTag(final String tag) {
+    final String normalized = EntityTagIndex.normalize(tag);
+    if (normalized == null) {
+      return null;
+    }
+
+    for (final String existing : this.tags) {
+      if (normalized.equals(EntityTagIndex.normalize(existing))) {
+        return existing;
+      }
+    }
+
+    return null;
   }
 
   public void setAngle(final float angle) {
@@ -251,6 +388,54 @@ public abstract class Entity implements IEntity {
     this.messageActions.add(new MessageAction(message, action));
   }
 
+  /**
+   * The view of the tags that is returned by {@link Entity#getTags()}. All
+   * changes are passed on to the methods of the entity that notify the tag
+   * consumers.
+   */
+  private class TagList extends AbstractList<String> {
+    @Override
+    public String get(final int index) {
+      return Entity.this.tags.get(index);
+    }
+
+    @Override
+    public int size() {
+      return Entity.this.tags.size();
+    }
+
+    @Override
+    public boolean add(final String tag) {
+      return Entity.this.addTag(-1, tag);
+    }
+
+    @Override
+    public void add(final int index, final String tag) {
+      if (index < 0 || index > this.size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size());
+      }
+
+      Entity.this.addTag(index, tag);
+    }
+
+    @Override
+    public String remove(final int index) {
+      return Entity.this.removeTagInternal(this.get(index));
+    }
+
+    @Override
+    public boolean remove(final Object tag) {
+      return tag instanceof String && Entity.this.removeTagInternal((String) tag) != null;
+    }
+
+    @Override
+    public String set(final int index, final String tag) {
+      final String removed = this.remove(index);
+      Entity.this.addTag(Math.min(index, this.size()), tag);
+      return removed;
+    }
+  }
+
   private class MessageAction {
     private final String message;
     private final Consumer<MessageArgs> action;
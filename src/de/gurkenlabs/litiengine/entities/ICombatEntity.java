@@ -40,6 +40,15 @@ public interface ICombatEntity extends ICollisionEntity {
 
   public void onResurrect(Consumer<ICombatEntity> consumer);
 
+  /**
+   * Removes the specified consumer that was registered with
+   * {@link #onHit(Consumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeHitListener(Consumer<CombatEntityHitArgument> consumer);
+
   public void resurrect();
 
   public void setIndestructible(final boolean indestructible);
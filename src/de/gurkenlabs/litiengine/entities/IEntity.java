@@ -3,6 +3,7 @@ package de.gurkenlabs.litiengine.entities;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import de.gurkenlabs.litiengine.graphics.RenderType;
@@ -38,6 +39,24 @@ public interface IEntity {
 
   public double getY();
 
+  /**
+   * Registers a consumer that is called whenever the name of this entity
+   * changes. The consumer receives the entity and its previous name.
+   *
+   * @param consumer
+   *          The consumer to register.
+   */
+  public void onNameChanged(BiConsumer<IEntity, String> consumer);
+
+  /**
+   * Removes the specified consumer that was registered with
+   * {@link #onNameChanged(BiConsumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeNameChangedListener(BiConsumer<IEntity, String> consumer);
+
   public String sendMessage(Object sender, String message);
 
   public void registerMessageAction(String message, Consumer<MessageArgs> action);
@@ -46,14 +65,80 @@ public interface IEntity {
 
   public void setLocation(double x, double y);
 
+  /**
+   * Checks whether this entity has the specified tag. Tags are case insensitive
+   * and leading or trailing whitespaces are ignored.
+   *
+   * @param tag
+   *          The tag.
+   * @return True if this entity has the tag.
+   */
   public boolean hasTag(String tag);
 
+  /**
+   * Gets the tags of this entity. Changes to the returned list are passed on
+   * to {@link #addTag(String)} and {@link #removeTag(String)}, so the
+   * environment can update its tag index. Tags that are equal to an existing
+   * tag are not added again.
+   *
+   * @return A view of the tags of this entity.
+   */
   public List<String> getTags();
 
+  /**
+   * Adds the specified tag unless this entity already has an equal tag.
+   *
+   * @param tag
+   *          The tag to add.
+   * @see #hasTag(String)
+   */
   public void addTag(String tag);
 
+  /**
+   * Removes the tag of this entity that is equal to the specified tag.
+   *
+   * @param tag
+   *          The tag to remove.
+   * @see #hasTag(String)
+   */
   public void removeTag(String tag);
 
+  /**
+   * Registers a consumer that is called whenever a tag is added to this entity.
+   * The consumer receives the entity and the added tag.
+   *
+   * @param consumer
+   *          The consumer to register.
+   */
+  public void onTagAdded(BiConsumer<IEntity, String> consumer);
+
+  /**
+   * Registers a consumer that is called whenever a tag is removed from this
+   * entity. The consumer receives the entity and the removed tag.
+   *
+   * @param consumer
+   *          The consumer to register.
+   */
+  public void onTagRemoved(BiConsumer<IEntity, String> consumer);
+
+  /**
+   * Removes the specified consumer that was registered with
+   * {@link #onTagAdded(BiConsumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeTagAddedListener(BiConsumer<IEntity, String> consumer);
+
+  /**
+   * Removes the specified consumer that was registered with
+   * {@link #onTagRemoved(BiConsumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeTagRemovedListener(BiConsumer<IEntity, String> consumer);
+
   /**
    * Sets the map location.
    *
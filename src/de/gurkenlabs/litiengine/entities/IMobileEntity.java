@@ -37,6 +37,15 @@ public interface IMobileEntity extends ICollisionEntity {
 
   public void onMoved(Consumer<IMobileEntity> consumer);
 
+  /**
+   * Removes the specified consumer that was registered with
+   * {@link #onMoved(Consumer)}.
+   *
+   * @param consumer
+   *          The consumer to remove.
+   */
+  public void removeMovedListener(Consumer<IMobileEntity> consumer);
+
   public void setAcceleration(int acceleration);
 
   public void setAngle(float angle);
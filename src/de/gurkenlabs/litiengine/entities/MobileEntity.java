@@ -69,6 +69,11 @@ public class MobileEntity extends CollisionEntity implements IMobileEntity {
     this.entityMovedConsumer.add(consumer);
   }
 
+  @Override
+  public void removeMovedListener(final Consumer<IMobileEntity> consumer) {
+    this.entityMovedConsumer.remove(consumer);
+  }
+
   @Override
   public void setAcceleration(final int acceleration) {
     this.acceleration = acceleration;
@@ -92,6 +97,12 @@ public class MobileEntity extends CollisionEntity implements IMobileEntity {
     }
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+    this.moveDestination = null;
+  }
+
   @Override
   public void setMoveDestination(final Point2D dest) {
     this.moveDestination = dest;
@@ -140,7 +140,11 @@ public class Prop extends CombatEntity {
   private void updateAnimationController() {
     PropAnimationController controller = new PropAnimationController(this);
     Game.getEntityControllerManager().addController(this, controller);
-    if (Game.getEnvironment() != null && Game.getEnvironment().isLoaded()) {
+
+    // props that are not part of the loaded environment yet, e.g. because they
+    // are created in the background, get their controller attached when they
+    // are added
+    if (Game.getEnvironment() != null && Game.getEnvironment().isLoaded() && Game.getEnvironment().get(this.getMapId()) == this) {
       Game.getLoop().attach(controller);
     }
   }
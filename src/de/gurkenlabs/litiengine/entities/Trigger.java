@@ -1,7 +1,9 @@
 package de.gurkenlabs.litiengine.entities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
@@ -41,6 +43,8 @@ public class Trigger extends CollisionEntity implements IUpdateable {
   private int cooldown;
   private long lastActivation;
   private boolean isActivated;
+  private int[] contactIds;
+  private IEntity[] contacts;
 
   public Trigger(final TriggerActivation activation, final String message) {
     this(activation, null, message);
@@ -59,6 +63,8 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     this.activators = new CopyOnWriteArrayList<>();
     this.targets = new CopyOnWriteArrayList<>();
     this.activated = new CopyOnWriteArrayList<>();
+    this.contactIds = new int[0];
+    this.contacts = new IEntity[0];
     this.message = message;
     this.isOneTimeTrigger = isOneTime;
     this.activationType = activation;
@@ -207,37 +213,77 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     this.cooldown = cooldown;
   }
 
+  /**
+   * Checks the collision entities of the physics engine for contacts with this
+   * trigger. Triggers that are loaded by an environment don't need to be
+   * updated manually because the {@link TriggerSystem} determines the contacts
+   * of all triggers at once.
+   */
   @Override
   public void update() {
     if (Game.getEnvironment() == null || this.activationType != TriggerActivation.COLLISION) {
       return;
     }
 
-    final List<IEntity> collEntities = this.getEntitiesInCollisionBox();
-    for (final IEntity ent : collEntities) {
-      if (this.activated.contains(ent)) {
-        continue;
+    this.updateContacts(TriggerSystem.findContacts(this, Game.getPhysicsEngine().getCollisionEntities()));
+  }
+
+  /**
+   * Activates the trigger for all entities that entered it and sends the
+   * deactivation event for all entities that left it since the last update.
+   * The entered and left entities are determined by diffing the sorted map ids
+   * of the current and the previous contacts.
+   *
+   * @param currentContacts
+   *          All entities that currently intersect the trigger.
+   */
+  void updateContacts(final List<IEntity> currentContacts) {
+    final IEntity[] newContacts = currentContacts.toArray(new IEntity[currentContacts.size()]);
+    Arrays.sort(newContacts, Comparator.comparingInt(IEntity::getMapId));
+    final int[] newIds = new int[newContacts.length];
+    for (int i = 0; i < newContacts.length; i++) {
+      newIds[i] = newContacts[i].getMapId();
+    }
+
+    final List<IEntity> entered = new ArrayList<>();
+    final List<IEntity> left = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < newIds.length || j < this.contactIds.length) {
+      if (j >= this.contactIds.length || i < newIds.length && newIds[i] < this.contactIds[j]) {
+        entered.add(newContacts[i++]);
+      } else if (i >= newIds.length || newIds[i] > this.contactIds[j]) {
+        left.add(this.contacts[j++]);
+      } else {
+        i++;
+        j++;
       }
+    }
 
+    if (entered.isEmpty() && left.isEmpty()) {
+      return;
+    }
+
+    for (final IEntity ent : entered) {
       this.activate(ent, ent.getMapId());
     }
 
     // send deactivation event
-    for (final IEntity ent : this.activated) {
-      if (!collEntities.contains(ent)) {
-        for (final Consumer<TriggerEvent> cons : this.deactivatedConsumer) {
-          List<Integer> triggerTargets = this.getTargets();
-          if (triggerTargets.isEmpty()) {
-            triggerTargets = new ArrayList<>();
-            triggerTargets.add(ent.getMapId());
-          }
-
-          cons.accept(new TriggerEvent(this, ent, triggerTargets));
+    for (final IEntity ent : left) {
+      for (final Consumer<TriggerEvent> cons : this.deactivatedConsumer) {
+        List<Integer> triggerTargets = this.getTargets();
+        if (triggerTargets.isEmpty()) {
+          triggerTargets = new ArrayList<>();
+          triggerTargets.add(ent.getMapId());
         }
+
+        cons.accept(new TriggerEvent(this, ent, triggerTargets));
       }
     }
 
-    this.activated = collEntities;
+    this.contactIds = newIds;
+    this.contacts = newContacts;
+    this.activated = new CopyOnWriteArrayList<>(newContacts);
   }
 
   private boolean activate(final IEntity activator, final int tar) {
@@ -298,21 +344,6 @@ public class Trigger extends CollisionEntity implements IUpdateable {
     return true;
   }
 
-  private List<IEntity> getEntitiesInCollisionBox() {
-    final List<IEntity> collEntities = new CopyOnWriteArrayList<>();
-    for (final ICollisionEntity coll : Game.getPhysicsEngine().getCollisionEntities()) {
-      if (!this.activators.isEmpty() && !this.activators.contains(coll.getMapId())) {
-        continue;
-      }
-
-      if (coll.getCollisionBox().intersects(this.getCollisionBox())) {
-        collEntities.add(coll);
-      }
-    }
-
-    return collEntities;
-  }
-
   private List<Integer> getTargets(int optionalTarget) {
     // always take local targets if there are any
     List<Integer> localTargets = this.getTargets();
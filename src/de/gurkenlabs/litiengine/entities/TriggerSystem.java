@@ -0,0 +1,178 @@
+package de.gurkenlabs.litiengine.entities;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.Trigger.TriggerActivation;
+
+/**
+ * The trigger system owns all triggers of the current environment and
+ * determines the contacts of all {@link TriggerActivation#COLLISION} triggers
+ * in one broadphase sweep per tick instead of letting every trigger scan all
+ * collision entities on its own.
+ *
+ * <p>
+ * The sweep sorts the collision boxes of all triggers and collision entities
+ * along the x-axis and only tests pairs whose horizontal extents overlap. The
+ * resulting contacts are passed to the triggers, which fire their
+ * <code>onActivated</code> and <code>onDeactivated</code> events for all
+ * entities that entered or left them since the last tick.
+ * </p>
+ */
+public class TriggerSystem implements IUpdateable {
+  private final Collection<Trigger> triggers;
+
+  public TriggerSystem() {
+    this.triggers = Collections.newSetFromMap(new ConcurrentHashMap<Trigger, Boolean>());
+  }
+
+  public void add(final Trigger trigger) {
+    if (trigger == null) {
+      return;
+    }
+
+    this.triggers.add(trigger);
+  }
+
+  public void clear() {
+    this.triggers.clear();
+  }
+
+  public Collection<Trigger> getTriggers() {
+    return this.triggers;
+  }
+
+  public void remove(final Trigger trigger) {
+    this.triggers.remove(trigger);
+  }
+
+  @Override
+  public void update() {
+    if (Game.getEnvironment() == null || this.triggers.isEmpty()) {
+      return;
+    }
+
+    final List<Trigger> collisionTriggers = new ArrayList<>(this.triggers.size());
+    for (final Trigger trigger : this.triggers) {
+      if (trigger.getActivationType() == TriggerActivation.COLLISION) {
+        collisionTriggers.add(trigger);
+      }
+    }
+
+    if (collisionTriggers.isEmpty()) {
+      return;
+    }
+
+    final List<List<IEntity>> contacts = sweep(collisionTriggers, Game.getPhysicsEngine().getCollisionEntities());
+    for (int i = 0; i < collisionTriggers.size(); i++) {
+      collisionTriggers.get(i).updateContacts(contacts.get(i));
+    }
+  }
+
+  /**
+   * Finds all collision entities that intersect the collision box of the
+   * specified trigger.
+   *
+   * @param trigger
+   *          The trigger.
+   * @param entities
+   *          The collision entities to check.
+   * @return All entities that can activate the trigger and intersect its
+   *         collision box.
+   */
+  static List<IEntity> findContacts(final Trigger trigger, final Collection<ICollisionEntity> entities) {
+    return sweep(Arrays.asList(trigger), entities).get(0);
+  }
+
+  /**
+   * A sort and sweep along the x-axis over the collision boxes of all triggers
+   * and entities. Only pairs of a trigger and an entity whose x-intervals
+   * overlap are tested for an actual intersection.
+   */
+  private static List<List<IEntity>> sweep(final List<Trigger> triggers, final Collection<ICollisionEntity> entities) {
+    final int triggerCount = triggers.size();
+    final List<ICollisionEntity> entityList = new ArrayList<>(entities);
+    final Rectangle2D[] boxes = new Rectangle2D[triggerCount + entityList.size()];
+    for (int i = 0; i < triggerCount; i++) {
+      boxes[i] = triggers.get(i).getCollisionBox();
+    }
+
+    for (int i = 0; i < entityList.size(); i++) {
+      boxes[triggerCount + i] = entityList.get(i).getCollisionBox();
+    }
+
+    final List<List<IEntity>> contacts = new ArrayList<>(triggerCount);
+    for (int i = 0; i < triggerCount; i++) {
+      contacts.add(new ArrayList<>());
+    }
+
+    final Integer[] order = new Integer[boxes.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort(order, (a, b) -> Double.compare(boxes[a].getMinX(), boxes[b].getMinX()));
+
+    final int[] activeTriggers = new int[triggerCount];
+    final int[] activeEntities = new int[entityList.size()];
+    int activeTriggerCount = 0;
+    int activeEntityCount = 0;
+    for (final int index : order) {
+      final Rectangle2D box = boxes[index];
+      activeTriggerCount = prune(activeTriggers, activeTriggerCount, boxes, box.getMinX());
+      activeEntityCount = prune(activeEntities, activeEntityCount, boxes, box.getMinX());
+
+      if (index < triggerCount) {
+        for (int i = 0; i < activeEntityCount; i++) {
+          addContact(triggers, entityList, contacts, boxes, index, activeEntities[i]);
+        }
+
+        activeTriggers[activeTriggerCount++] = index;
+      } else {
+        for (int i = 0; i < activeTriggerCount; i++) {
+          addContact(triggers, entityList, contacts, boxes, activeTriggers[i], index);
+        }
+
+        activeEntities[activeEntityCount++] = index;
+      }
+    }
+
+    return contacts;
+  }
+
+  private static void addContact(final List<Trigger> triggers, final List<ICollisionEntity> entities, final List<List<IEntity>> contacts, final Rectangle2D[] boxes, final int triggerIndex, final int entityIndex) {
+    if (!boxes[triggerIndex].intersects(boxes[entityIndex])) {
+      return;
+    }
+
+    final Trigger trigger = triggers.get(triggerIndex);
+    final ICollisionEntity entity = entities.get(entityIndex - triggers.size());
+    if (!trigger.getActivators().isEmpty() && !trigger.getActivators().contains(entity.getMapId())) {
+      return;
+    }
+
+    contacts.get(triggerIndex).add(entity);
+  }
+
+  /**
+   * Removes all intervals from the active list that end before the specified
+   * x-coordinate.
+   */
+  private static int prune(final int[] active, final int count, final Rectangle2D[] boxes, final double x) {
+    int newCount = count;
+    for (int i = newCount - 1; i >= 0; i--) {
+      if (boxes[active[i]].getMaxX() <= x) {
+        active[i] = active[--newCount];
+      }
+    }
+
+    return newCount;
+  }
+}
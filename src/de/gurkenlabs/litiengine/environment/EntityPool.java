@@ -0,0 +1,138 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import de.gurkenlabs.litiengine.entities.Entity;
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * A pool of reusable entities of one type. Short-lived entities like
+ * projectiles or hit effects can be acquired from a pool instead of being
+ * created with <code>new</code> and are returned to the pool once they are no
+ * longer needed. This keeps their controllers, attributes and consumer lists
+ * alive and avoids producing garbage for every spawned entity.
+ *
+ * <p>
+ * Released entities are reset by {@link Entity#reset()} before they are put
+ * back into the pool. A pool that is registered with
+ * {@link IEnvironment#registerPool(EntityPool)} automatically takes back all
+ * entities of its type that are released by
+ * {@link IEnvironment#release(IEntity)}.
+ * </p>
+ *
+ * @param <T>
+ *          The type of the pooled entities.
+ */
+public class EntityPool<T extends IEntity> {
+  public static final int DEFAULT_MAX_SIZE = 256;
+
+  private final Class<T> type;
+  private final Supplier<T> factory;
+  private final Deque<T> available;
+  private final AtomicInteger availableCount;
+  private final int maxSize;
+
+  public EntityPool(final Class<T> type, final Supplier<T> factory) {
+    this(type, factory, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Instantiates a new entity pool.
+   *
+   * @param type
+   *          The type of the pooled entities.
+   * @param factory
+   *          The factory that creates new entities if the pool is empty.
+   * @param maxSize
+   *          The maximum amount of entities that are kept in the pool. Entities
+   *          that are released while the pool is full are left to the garbage
+   *          collector.
+   */
+  public EntityPool(final Class<T> type, final Supplier<T> factory, final int maxSize) {
+    this.type = type;
+    this.factory = factory;
+    this.maxSize = maxSize;
+    this.available = new ConcurrentLinkedDeque<>();
+    this.availableCount = new AtomicInteger();
+  }
+
+  /**
+   * Takes an entity from the pool or creates a new one if the pool is empty.
+   *
+   * @return An entity that is not part of any environment.
+   */
+  public T acquire() {
+    final T entity = this.available.pollFirst();
+    if (entity == null) {
+      return this.factory.get();
+    }
+
+    this.availableCount.decrementAndGet();
+    return entity;
+  }
+
+  public void clear() {
+    this.available.clear();
+    this.availableCount.set(0);
+  }
+
+  public int getAvailable() {
+    return this.availableCount.get();
+  }
+
+  public int getMaxSize() {
+    return this.maxSize;
+  }
+
+  public Class<T> getType() {
+    return this.type;
+  }
+
+  /**
+   * Creates new entities until the specified amount of entities is available in
+   * the pool, e.g. while a level is loading.
+   *
+   * @param amount
+   *          The amount of entities that should be available.
+   */
+  public void prefill(final int amount) {
+    final int target = Math.min(amount, this.maxSize);
+    while (this.availableCount.get() < target) {
+      this.put(this.factory.get());
+    }
+  }
+
+  /**
+   * Resets the specified entity and returns it to the pool. The entity must not
+   * be part of an environment anymore.
+   *
+   * @param entity
+   *          The entity to return to the pool.
+   * @return True if the entity was put back into the pool; false if the pool is
+   *         full.
+   */
+  public boolean release(final T entity) {
+    if (entity == null) {
+      return false;
+    }
+
+    if (entity instanceof Entity) {
+      ((Entity) entity).reset();
+    }
+
+    return this.put(entity);
+  }
+
+  private boolean put(final T entity) {
+    if (this.availableCount.incrementAndGet() > this.maxSize) {
+      this.availableCount.decrementAndGet();
+      return false;
+    }
+
+    this.available.offerFirst(entity);
+    return true;
+  }
+}
@@ -0,0 +1,269 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * A spatial hash that sorts entities into a uniform grid of cells by their
+ * bounds. An entity is registered in every cell that its bounds overlap, so
+ * area queries only need to check the entities of the cells that are
+ * overlapped by the queried area.
+ *
+ * <p>
+ * The index doesn't track the entities by itself. Whenever the location or
+ * size of an indexed entity changes, {@link #update(IEntity)} has to be called.
+ * The {@link Environment} does this automatically for all mobile entities that
+ * are moved.
+ * </p>
+ */
+public class EntitySpatialIndex {
+  public static final int DEFAULT_CELL_SIZE = 128;
+
+  private final int cellSize;
+  private final Map<Long, Collection<Entry>> cells;
+  private final Map<IEntity, Entry> entries;
+
+  public EntitySpatialIndex() {
+    this(DEFAULT_CELL_SIZE);
+  }
+
+  public EntitySpatialIndex(final int cellSize) {
+    this.cellSize = Math.max(1, cellSize);
+    this.cells = new ConcurrentHashMap<>();
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  public void add(final IEntity entity) {
+    // entities without any bounds cannot be located
+    if (entity == null || getBounds(entity) == null) {
+      return;
+    }
+
+    final Entry entry = new Entry(entity, this.getCellRange(entity));
+    if (this.entries.putIfAbsent(entity, entry) != null) {
+      this.update(entity);
+      return;
+    }
+
+    synchronized (entry) {
+      this.insert(entry, entry.range);
+    }
+  }
+
+  public void clear() {
+    this.entries.clear();
+    this.cells.clear();
+  }
+
+  public boolean contains(final IEntity entity) {
+    return entity != null && this.entries.containsKey(entity);
+  }
+
+  public int getCellSize() {
+    return this.cellSize;
+  }
+
+  /**
+   * Passes all indexed entities whose cells overlap the specified area to the
+   * consumer. Every entity is passed at most once, but the entities still need
+   * to be checked for an exact intersection with the area.
+   *
+   * @param area
+   *          The area to look for entities in.
+   * @param consumer
+   *          The consumer that is called for every found entity.
+   */
+  public void query(final Rectangle2D area, final Consumer<IEntity> consumer) {
+    if (area == null) {
+      return;
+    }
+
+    final CellRange queryRange = this.getCellRange(area);
+
+    // for very large areas, checking all entries is cheaper than visiting all
+    // the cells
+    if ((long) queryRange.getWidth() * queryRange.getHeight() > this.entries.size()) {
+      for (final Entry entry : this.entries.values()) {
+        if (entry.range.intersects(queryRange)) {
+          consumer.accept(entry.entity);
+        }
+      }
+
+      return;
+    }
+
+    for (int y = queryRange.minY; y <= queryRange.maxY; y++) {
+      for (int x = queryRange.minX; x <= queryRange.maxX; x++) {
+        final Collection<Entry> cell = this.cells.get(getKey(x, y));
+        if (cell == null) {
+          continue;
+        }
+
+        for (final Entry entry : cell) {
+          // entities that span multiple cells are only reported in the first
+          // cell that is overlapped by both, the entity and the area
+          final CellRange range = entry.range;
+          if (x == Math.max(range.minX, queryRange.minX) && y == Math.max(range.minY, queryRange.minY)) {
+            consumer.accept(entry.entity);
+          }
+        }
+      }
+    }
+  }
+
+  public void remove(final IEntity entity) {
+    if (entity == null) {
+      return;
+    }
+
+    final Entry entry = this.entries.remove(entity);
+    if (entry != null) {
+      synchronized (entry) {
+        this.removeFromCells(entry, entry.range);
+      }
+    }
+  }
+
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Moves the specified entity to the cells that are overlapped by its current
+   * bounds. Entities that are not indexed are ignored.
+   *
+   * @param entity
+   *          The entity that has been moved or resized.
+   */
+  public void update(final IEntity entity) {
+    if (entity == null) {
+      return;
+    }
+
+    final Entry entry = this.entries.get(entity);
+    if (entry == null) {
+      return;
+    }
+
+    synchronized (entry) {
+      if (getBounds(entity) == null) {
+        return;
+      }
+
+      final CellRange oldRange = entry.range;
+      final CellRange newRange = this.getCellRange(entity);
+      if (oldRange.equals(newRange) || this.entries.get(entity) != entry) {
+        return;
+      }
+
+      this.removeFromCells(entry, oldRange);
+      entry.range = newRange;
+      this.insert(entry, newRange);
+    }
+  }
+
+  private static long getKey(final int x, final int y) {
+    return (long) x << 32 | y & 0xFFFFFFFFL;
+  }
+
+  private static Rectangle2D getBounds(final IEntity entity) {
+    final Rectangle2D bounds = entity.getBoundingBox();
+    if (entity instanceof ICombatEntity && ((ICombatEntity) entity).getHitBox() != null) {
+      // combat entities are found by their hit box, which can exceed the
+      // bounding box or be the only bounds that are provided
+      final Rectangle2D hitBoxBounds = ((ICombatEntity) entity).getHitBox().getBounds2D();
+      return bounds != null ? bounds.createUnion(hitBoxBounds) : hitBoxBounds;
+    }
+
+    return bounds;
+  }
+
+  private CellRange getCellRange(final IEntity entity) {
+    return this.getCellRange(getBounds(entity));
+  }
+
+  private CellRange getCellRange(final Rectangle2D bounds) {
+    return new CellRange((int) Math.floor(bounds.getMinX() / this.cellSize), (int) Math.floor(bounds.getMinY() / this.cellSize), (int) Math.floor(bounds.getMaxX() / this.cellSize), (int) Math.floor(bounds.getMaxY() / this.cellSize));
+  }
+
+  private void insert(final Entry entry, final CellRange range) {
+    for (int y = range.minY; y <= range.maxY; y++) {
+      for (int x = range.minX; x <= range.maxX; x++) {
+        this.cells.compute(getKey(x, y), (key, cell) -> {
+          final Collection<Entry> entries = cell != null ? cell : Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+          entries.add(entry);
+          return entries;
+        });
+      }
+    }
+  }
+
+  private void removeFromCells(final Entry entry, final CellRange range) {
+    for (int y = range.minY; y <= range.maxY; y++) {
+      for (int x = range.minX; x <= range.maxX; x++) {
+        this.cells.computeIfPresent(getKey(x, y), (key, cell) -> {
+          cell.remove(entry);
+          return cell.isEmpty() ? null : cell;
+        });
+      }
+    }
+  }
+
+  private static class CellRange {
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+
+    private CellRange(final int minX, final int minY, final int maxX, final int maxY) {
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof CellRange)) {
+        return false;
+      }
+
+      final CellRange other = (CellRange) obj;
+      return this.minX == other.minX && this.minY == other.minY && this.maxX == other.maxX && this.maxY == other.maxY;
+    }
+
+    @Override
+    public int hashCode() {
+      return ((this.minX * 31 + this.minY) * 31 + this.maxX) * 31 + this.maxY;
+    }
+
+    private int getHeight() {
+      return this.maxY - this.minY + 1;
+    }
+
+    private int getWidth() {
+      return this.maxX - this.minX + 1;
+    }
+
+    private boolean intersects(final CellRange other) {
+      return this.minX <= other.maxX && this.maxX >= other.minX && this.minY <= other.maxY && this.maxY >= other.minY;
+    }
+  }
+
+  private static class Entry {
+    private final IEntity entity;
+    private volatile CellRange range;
+
+    private Entry(final IEntity entity, final CellRange range) {
+      this.entity = entity;
+      this.range = range;
+    }
+  }
+}
@@ -1,7 +1,6 @@
 package de.gurkenlabs.litiengine.environment;
 
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,6 +15,7 @@ public abstract class EntitySpawner<T extends IEntity> implements IEntitySpawner
   private IEnvironment environment;
   private int interval;
   private long lastSpawn;
+  private EntityPool<T> pool;
   private int spawnDelay;
 
   private SpawnMode spawnMode;
@@ -41,6 +41,11 @@ public abstract class EntitySpawner<T extends IEntity> implements IEntitySpawner
     return this.interval;
   }
 
+  @Override
+  public EntityPool<T> getPool() {
+    return this.pool;
+  }
+
   @Override
   public int getSpawnDelay() {
     return this.spawnDelay;
@@ -66,6 +71,11 @@ public abstract class EntitySpawner<T extends IEntity> implements IEntitySpawner
     this.interval = interval;
   }
 
+  @Override
+  public void setPool(final EntityPool<T> pool) {
+    this.pool = pool;
+  }
+
   @Override
   public void setSpawnDelay(final int delay) {
     this.spawnDelay = delay;
@@ -100,12 +110,12 @@ public abstract class EntitySpawner<T extends IEntity> implements IEntitySpawner
       }
       break;
     case ONERANDOMSPAWNPOINT:
-      final int rnd = new Random().nextInt(this.getSpawnPoints().size());
+      final int rnd = Game.getRandom().nextInt(this.getSpawnPoints().size());
       this.spawn(this.getSpawnPoints().get(rnd), this.getAmount());
       break;
     case RANDOMSPAWNPOINTS:
       for (int i = 0; i < this.getAmount(); i++) {
-        final int rnd2 = new Random().nextInt(this.getSpawnPoints().size());
+        final int rnd2 = Game.getRandom().nextInt(this.getSpawnPoints().size());
         this.spawn(this.getSpawnPoints().get(rnd2), 1);
       }
 
@@ -131,7 +141,8 @@ public abstract class EntitySpawner<T extends IEntity> implements IEntitySpawner
     @Override
     public void run() {
       for (int i = 0; i < this.amount; i++) {
-        final T newEntity = EntitySpawner.this.createNew();
+        final EntityPool<T> entityPool = EntitySpawner.this.getPool();
+        final T newEntity = entityPool != null ? entityPool.acquire() : EntitySpawner.this.createNew();
         newEntity.setLocation(this.point.getLocation());
         newEntity.setMapId(EntitySpawner.this.environment.getNextMapId());
         EntitySpawner.this.addToEnvironment(EntitySpawner.this.environment, newEntity);
@@ -0,0 +1,214 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.gurkenlabs.litiengine.entities.IEntity;
+
+/**
+ * An index that provides the entities of a tag. Tags are case insensitive and
+ * leading or trailing whitespaces are ignored.
+ *
+ * <p>
+ * The entities of every tag are kept in a concurrent set, so adding or
+ * removing a single tag of an entity doesn't copy or scan the entities of the
+ * tag. Typed queries are cached per class the first time they are requested and
+ * from then on updated incrementally together with the untyped set, so repeated
+ * queries don't have to filter the entities of the tag. The entry of a tag is
+ * dropped as soon as no entity has the tag anymore.
+ * </p>
+ *
+ * <p>
+ * The index doesn't track the tags of the entities by itself. Whenever a tag is
+ * added to or removed from an indexed entity, {@link #addTag(IEntity, String)}
+ * or {@link #removeTag(IEntity, String)} has to be called. The
+ * {@link Environment} does this automatically for all of its entities.
+ * </p>
+ */
+public class EntityTagIndex {
+  private final Map<String, Entry> entries;
+
+  public EntityTagIndex() {
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Normalizes the specified tag to the key that is used by this index.
+   *
+   * @param tag
+   *          The raw tag.
+   * @return The trimmed lower case tag or null if the tag is null or empty.
+   */
+  public static String normalize(final String tag) {
+    if (tag == null) {
+      return null;
+    }
+
+    final String normalized = tag.trim().toLowerCase();
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  /**
+   * Adds the specified entity for all of its current tags.
+   *
+   * @param entity
+   *          The entity to add.
+   */
+  public void add(final IEntity entity) {
+    for (final String tag : entity.getTags()) {
+      this.addTag(entity, tag);
+    }
+  }
+
+  public void addTag(final IEntity entity, final String rawTag) {
+    final String tag = normalize(rawTag);
+    if (entity == null || tag == null) {
+      return;
+    }
+
+    this.entries.compute(tag, (k, indexed) -> {
+      final Entry entry = indexed != null ? indexed : new Entry(k);
+      if (entry.entities.add(entity)) {
+        for (final Map.Entry<Class<?>, Set<IEntity>> typed : entry.typed.entrySet()) {
+          if (typed.getKey().isInstance(entity)) {
+            typed.getValue().add(entity);
+          }
+        }
+      }
+
+      return entry;
+    });
+  }
+
+  public void clear() {
+    this.entries.clear();
+  }
+
+  /**
+   * Gets all entities with the specified tag.
+   *
+   * @param rawTag
+   *          The tag.
+   * @return A read-only view of the entities with the tag that reflects later
+   *         changes of the index as long as the tag is used by any entity or
+   *         an empty collection if the tag is not used.
+   */
+  public Collection<IEntity> get(final String rawTag) {
+    final Entry entry = this.getEntry(rawTag);
+    return entry != null ? entry.view : Collections.emptySet();
+  }
+
+  /**
+   * Gets all entities with the specified tag that are an instance of the
+   * specified class. The first query of a class filters the entities of the tag
+   * once; all further queries return the cached result, which is updated
+   * whenever an entity of the class gains or loses the tag.
+   *
+   * @param cls
+   *          The class of the requested entities.
+   * @param rawTag
+   *          The tag.
+   * @return A read-only view of the entities of the class with the tag that
+   *         reflects later changes of the index as long as the tag is used by
+   *         any entity or an empty collection if the tag is not used.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends IEntity> Collection<T> get(final Class<T> cls, final String rawTag) {
+    final Entry entry = this.getEntry(rawTag);
+    if (entry == null) {
+      return Collections.emptySet();
+    }
+
+    Set<IEntity> typed = entry.typed.get(cls);
+    if (typed == null) {
+      // build the cache while no tag of this entry can be changed
+      this.entries.computeIfPresent(entry.tag, (k, indexed) -> {
+        indexed.typed.computeIfAbsent(cls, c -> {
+          final Set<IEntity> entities = Collections.newSetFromMap(new ConcurrentHashMap<IEntity, Boolean>());
+          for (final IEntity entity : indexed.entities) {
+            if (cls.isInstance(entity)) {
+              entities.add(entity);
+            }
+          }
+
+          return entities;
+        });
+
+        return indexed;
+      });
+
+      typed = entry.typed.get(cls);
+      if (typed == null) {
+        return Collections.emptySet();
+      }
+    }
+
+    return (Collection<T>) Collections.unmodifiableCollection(typed);
+  }
+
+  /**
+   * Gets all tags that are currently used by at least one entity.
+   *
+   * @return The used tags in their normalized form.
+   */
+  public List<String> getTags() {
+    return new ArrayList<>(this.entries.keySet());
+  }
+
+  /**
+   * Removes the specified entity for all of its current tags.
+   *
+   * @param entity
+   *          The entity to remove.
+   */
+  public void remove(final IEntity entity) {
+    for (final String tag : entity.getTags()) {
+      this.removeTag(entity, tag);
+    }
+  }
+
+  public void removeTag(final IEntity entity, final String rawTag) {
+    final String tag = normalize(rawTag);
+    if (entity == null || tag == null) {
+      return;
+    }
+
+    this.entries.computeIfPresent(tag, (k, entry) -> {
+      if (entry.entities.remove(entity)) {
+        for (final Set<IEntity> typed : entry.typed.values()) {
+          typed.remove(entity);
+        }
+      }
+
+      return entry.entities.isEmpty() ? null : entry;
+    });
+  }
+
+  private Entry getEntry(final String rawTag) {
+    final String tag = normalize(rawTag);
+    if (tag == null) {
+      return null;
+    }
+
+    return this.entries.get(tag);
+  }
+
+  private static class Entry {
+    private final String tag;
+    private final Set<IEntity> entities;
+    private final Collection<IEntity> view;
+    private final Map<Class<?>, Set<IEntity>> typed;
+
+    private Entry(final String tag) {
+      this.tag = tag;
+      this.entities = Collections.newSetFromMap(new ConcurrentHashMap<IEntity, Boolean>());
+      this.view = Collections.unmodifiableCollection(this.entities);
+      this.typed = new ConcurrentHashMap<>();
+    }
+  }
+}
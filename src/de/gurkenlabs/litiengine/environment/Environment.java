@@ -2,22 +2,24 @@ package de.gurkenlabs.litiengine.environment;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.IUpdateable;
@@ -65,7 +67,15 @@ public class Environment implements IEnvironment {
   private final Map<Integer, ICombatEntity> combatEntities;
   private final Map<Integer, IMobileEntity> mobileEntities;
   private final Map<RenderType, Map<Integer, IEntity>> entities;
-  private final Map<String, List<IEntity>> entitiesByTag;
+  private final EntityTagIndex tagIndex;
+  private final Map<String, Collection<IEntity>> entitiesByName;
+  private final Map<Class<?>, Collection<IEntity>> entitiesByType;
+  private final Map<Class<?>, EntityPool<?>> pools;
+  private final EntitySpatialIndex spatialIndex;
+  private final Consumer<IMobileEntity> entityMovedConsumer;
+  private final BiConsumer<IEntity, String> entityRenamedConsumer;
+  private final BiConsumer<IEntity, String> entityTagAddedConsumer;
+  private final BiConsumer<IEntity, String> entityTagRemovedConsumer;
 
   private final List<Consumer<Graphics2D>> entitiesRenderedConsumers;
   private final List<Consumer<Graphics2D>> mapRenderedConsumer;
@@ -78,6 +88,8 @@ public class Environment implements IEnvironment {
 
   private final List<Consumer<IEntity>> entityAddedConsumers;
   private final List<Consumer<IEntity>> entityRemovedConsumers;
+  private final List<Consumer<Collection<IEntity>>> entitiesAddedConsumers;
+  private final List<Consumer<Collection<IEntity>>> entitiesRemovedConsumers;
 
   private final Collection<IRenderable> groundRenderable;
   private final Collection<IRenderable> overlayRenderable;
@@ -94,6 +106,7 @@ public class Environment implements IEnvironment {
 
   private AmbientLight ambientLight;
   private StaticShadowLayer staticShadowLayer;
+  private EnvironmentStreamer streamer;
   private boolean loaded;
   private boolean initialized;
   private IMap map;
@@ -110,7 +123,6 @@ public class Environment implements IEnvironment {
     this();
     this.map = map;
     this.mapIdSequence = MapUtilities.getMaxMapId(this.getMap());
-    Game.getPhysicsEngine().setBounds(this.getMap().getBounds());
   }
 
   /**
@@ -130,11 +142,12 @@ public class Environment implements IEnvironment {
     }
 
     this.mapIdSequence = MapUtilities.getMaxMapId(this.getMap());
-    Game.getPhysicsEngine().setBounds(new Rectangle(this.getMap().getSizeInPixels()));
   }
 
   private Environment() {
-    this.entitiesByTag = new ConcurrentHashMap<>();
+    this.tagIndex = new EntityTagIndex();
+    this.entitiesByName = new ConcurrentHashMap<>();
+    this.entitiesByType = new ConcurrentHashMap<>();
     this.entities = new ConcurrentHashMap<>();
     this.entities.put(RenderType.NONE, new ConcurrentHashMap<>());
     this.entities.put(RenderType.GROUND, new ConcurrentHashMap<>());
@@ -144,6 +157,20 @@ public class Environment implements IEnvironment {
 
     this.combatEntities = new ConcurrentHashMap<>();
     this.mobileEntities = new ConcurrentHashMap<>();
+    this.pools = new ConcurrentHashMap<>();
+    this.spatialIndex = new EntitySpatialIndex();
+    this.entityMovedConsumer = this.spatialIndex::update;
+    this.entityRenamedConsumer = this::updateNameIndex;
+    this.entityTagAddedConsumer = (entity, tag) -> {
+      if (this.isIndexed(entity)) {
+        this.tagIndex.addTag(entity, tag);
+      }
+    };
+    this.entityTagRemovedConsumer = (entity, tag) -> {
+      if (this.isIndexed(entity)) {
+        this.tagIndex.removeTag(entity, tag);
+      }
+    };
 
     this.lightSources = Collections.newSetFromMap(new ConcurrentHashMap<LightSource, Boolean>());
     this.colliders = Collections.newSetFromMap(new ConcurrentHashMap<CollisionBox, Boolean>());
@@ -168,6 +195,14 @@ public class Environment implements IEnvironment {
     this.unloadedConsumers = new CopyOnWriteArrayList<>();
     this.entityAddedConsumers = new CopyOnWriteArrayList<>();
     this.entityRemovedConsumers = new CopyOnWriteArrayList<>();
+    this.entitiesAddedConsumers = new CopyOnWriteArrayList<>();
+    this.entitiesRemovedConsumers = new CopyOnWriteArrayList<>();
+  }
+
+  @Override
+  public <T extends IEntity> T acquire(final Class<T> type) {
+    final EntityPool<T> pool = this.getPool(type);
+    return pool != null ? pool.acquire() : null;
   }
 
   @Override
@@ -176,6 +211,44 @@ public class Environment implements IEnvironment {
       return;
     }
 
+    this.addToCategories(entity);
+
+    // if the environment has already been loaded,
+    // we need to load the new entity manually
+    if (this.loaded) {
+      this.load(entity);
+    }
+
+    this.addToEntities(entity);
+    this.informEntitiesAdded(Collections.singletonList(entity));
+  }
+
+  @Override
+  public <T extends IEntity> void addAll(final Collection<T> entities) {
+    if (entities == null || entities.isEmpty()) {
+      return;
+    }
+
+    final List<IEntity> added = new ArrayList<>(entities.size());
+    for (final T entity : entities) {
+      if (entity != null) {
+        this.addToCategories(entity);
+        added.add(entity);
+      }
+    }
+
+    if (this.loaded) {
+      this.load(added);
+    }
+
+    for (final IEntity entity : added) {
+      this.addToEntities(entity);
+    }
+
+    this.informEntitiesAdded(added);
+  }
+
+  private void addToCategories(final IEntity entity) {
     // set local map id if none is set for the entity
     if (entity.getMapId() == 0) {
       entity.setMapId(this.getLocalMapId());
@@ -193,7 +266,9 @@ public class Environment implements IEnvironment {
     }
 
     if (entity instanceof IMobileEntity) {
-      this.mobileEntities.put(entity.getMapId(), (IMobileEntity) entity);
+      final IMobileEntity mobileEntity = (IMobileEntity) entity;
+      this.mobileEntities.put(entity.getMapId(), mobileEntity);
+      mobileEntity.onMoved(this.entityMovedConsumer);
     }
 
     if (entity instanceof Prop) {
@@ -226,45 +301,39 @@ public class Environment implements IEnvironment {
       this.mapAreas.add((MapArea) entity);
     }
 
-    for (String rawTag : entity.getTags()) {
-      if (rawTag == null) {
-        continue;
-      }
+    this.tagIndex.add(entity);
+  }
 
-      final String tag = rawTag.trim().toLowerCase();
-      if (tag.isEmpty()) {
-        continue;
-      }
+  private void addToEntities(final IEntity entity) {
+    this.entities.get(entity.getRenderType()).put(entity.getMapId(), entity);
+    this.addToIndexes(entity);
+    this.spatialIndex.add(entity);
+  }
 
-      if (this.entitiesByTag.containsKey(tag)) {
-        this.entitiesByTag.get(tag).add(entity);
-        continue;
+  private void informEntitiesAdded(final List<IEntity> added) {
+    for (final IEntity entity : added) {
+      for (Consumer<IEntity> cons : this.entityAddedConsumers) {
+        cons.accept(entity);
       }
-
-      this.entitiesByTag.put(tag, new CopyOnWriteArrayList<>());
-      this.entitiesByTag.get(tag).add(entity);
     }
 
-    // if the environment has already been loaded,
-    // we need to load the new entity manually
-    if (this.loaded) {
-      this.load(entity);
-    }
-
-    this.entities.get(entity.getRenderType()).put(entity.getMapId(), entity);
-
-    for (Consumer<IEntity> cons : this.entityAddedConsumers) {
-      cons.accept(entity);
+    final Collection<IEntity> addedEntities = Collections.unmodifiableList(added);
+    for (Consumer<Collection<IEntity>> cons : this.entitiesAddedConsumers) {
+      cons.accept(addedEntities);
     }
   }
 
   private void updateColorLayers(IEntity entity) {
+    this.updateColorLayers(entity.getBoundingBox());
+  }
+
+  private void updateColorLayers(Rectangle2D section) {
     if (this.staticShadowLayer != null) {
-      this.staticShadowLayer.updateSection(entity.getBoundingBox());
+      this.staticShadowLayer.updateSection(section);
     }
 
     if (this.ambientLight != null) {
-      this.ambientLight.updateSection(entity.getBoundingBox());
+      this.ambientLight.updateSection(section);
     }
   }
 
@@ -288,6 +357,14 @@ public class Environment implements IEnvironment {
     Game.getPhysicsEngine().clear();
     this.dispose(this.getEntities());
     this.dispose(this.getTriggers());
+    for (final IEntity entity : this.getEntities()) {
+      this.removeFromIndexes(entity);
+    }
+
+    for (final IMobileEntity mobileEntity : this.getMobileEntities()) {
+      mobileEntity.removeMovedListener(this.entityMovedConsumer);
+    }
+
     this.getCombatEntities().clear();
     this.getMobileEntities().clear();
     this.getLightSources().clear();
@@ -300,12 +377,32 @@ public class Environment implements IEnvironment {
     this.entities.get(RenderType.GROUND).clear();
     this.entities.get(RenderType.NORMAL).clear();
     this.entities.get(RenderType.OVERLAY).clear();
+    this.spatialIndex.clear();
+    this.tagIndex.clear();
+    if (this.streamer != null) {
+      this.streamer.reset();
+      this.streamer.dispose();
+    }
+
     this.initialized = false;
     for (final Consumer<IEnvironment> cons : this.clearedConsumers) {
       cons.accept(this);
     }
   }
 
+  @Override
+  public EnvironmentStreamer enableStreaming(final int regionSize) {
+    if (this.initialized) {
+      throw new IllegalStateException("Streaming must be enabled before the environment is initialized.");
+    }
+
+    if (this.streamer == null) {
+      this.streamer = new EnvironmentStreamer(this, regionSize);
+    }
+
+    return this.streamer;
+  }
+
   @Override
   public List<ICombatEntity> findCombatEntities(final Shape shape) {
     return this.findCombatEntities(shape, entity -> true);
@@ -314,58 +411,64 @@ public class Environment implements IEnvironment {
   @Override
   public List<ICombatEntity> findCombatEntities(final Shape shape, final Predicate<ICombatEntity> condition) {
     final ArrayList<ICombatEntity> foundCombatEntities = new ArrayList<>();
+    this.findCombatEntities(shape, condition, foundCombatEntities);
+    return foundCombatEntities;
+  }
+
+  @Override
+  public void findCombatEntities(final Shape shape, final Predicate<ICombatEntity> condition, final Collection<? super ICombatEntity> result) {
     if (shape == null) {
-      return foundCombatEntities;
+      return;
     }
 
     // for rectangle we can just use the intersects method
-    if (shape instanceof Rectangle2D) {
-      final Rectangle2D rect = (Rectangle2D) shape;
-      for (final ICombatEntity combatEntity : this.getCombatEntities().stream().filter(condition).collect(Collectors.toList())) {
-        if (combatEntity.getHitBox().intersects(rect)) {
-          foundCombatEntities.add(combatEntity);
-        }
-      }
-
-      return foundCombatEntities;
-    }
-
     // for other shapes, we check if the shape's bounds intersect the hitbox and
     // if so, we then check if the actual shape intersects the hitbox
-    for (final ICombatEntity combatEntity : this.getCombatEntities().stream().filter(condition).collect(Collectors.toList())) {
-      if (combatEntity.getHitBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(combatEntity.getHitBox(), shape)) {
-        foundCombatEntities.add(combatEntity);
+    final Rectangle2D bounds = shape.getBounds2D();
+    final boolean isRectangle = shape instanceof Rectangle2D;
+    this.spatialIndex.query(bounds, entity -> {
+      if (!(entity instanceof ICombatEntity) || this.combatEntities.get(entity.getMapId()) != entity) {
+        return;
       }
-    }
 
-    return foundCombatEntities;
+      final ICombatEntity combatEntity = (ICombatEntity) entity;
+      if (!condition.test(combatEntity)) {
+        return;
+      }
+
+      if (isRectangle ? combatEntity.getHitBox().intersects(bounds) : combatEntity.getHitBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(combatEntity.getHitBox(), shape)) {
+        result.add(combatEntity);
+      }
+    });
   }
 
   @Override
   public List<IEntity> findEntities(final Shape shape) {
     final ArrayList<IEntity> foundEntities = new ArrayList<>();
+    this.findEntities(shape, foundEntities);
+    return foundEntities;
+  }
+
+  @Override
+  public void findEntities(final Shape shape, final Collection<? super IEntity> result) {
     if (shape == null) {
-      return foundEntities;
-    }
-    if (shape instanceof Rectangle2D) {
-      final Rectangle2D rect = (Rectangle2D) shape;
-      for (final IEntity entity : this.getEntities()) {
-        if (entity.getBoundingBox().intersects(rect)) {
-          foundEntities.add(entity);
-        }
-      }
-      return foundEntities;
+      return;
     }
+
     // for other shapes, we check if the shape's bounds intersect the hitbox
-    // and
-    // if so, we then check if the actual shape intersects the hitbox
-    for (final IEntity entity : this.getEntities()) {
-      if (entity.getBoundingBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(entity.getBoundingBox(), shape)) {
-        foundEntities.add(entity);
+    // and if so, we then check if the actual shape intersects the hitbox
+    final Rectangle2D bounds = shape.getBounds2D();
+    final boolean isRectangle = shape instanceof Rectangle2D;
+    this.spatialIndex.query(bounds, entity -> {
+      // UI entities are not considered, just like by getEntities()
+      if (entity.getRenderType() == RenderType.UI || this.entities.get(entity.getRenderType()).get(entity.getMapId()) != entity) {
+        return;
       }
-    }
 
-    return foundEntities;
+      if (isRectangle ? entity.getBoundingBox().intersects(bounds) : entity.getBoundingBox().intersects(shape.getBounds()) && GeometricUtilities.shapeIntersects(entity.getBoundingBox(), shape)) {
+        result.add(entity);
+      }
+    });
   }
 
   @Override
@@ -382,45 +485,17 @@ public class Environment implements IEnvironment {
 
   @Override
   public IEntity get(final String name) {
-    if (name == null || name.isEmpty()) {
-      return null;
-    }
-
-    for (RenderType type : RenderType.values()) {
-      for (final IEntity entity : this.entities.get(type).values()) {
-        if (entity.getName() != null && entity.getName().equals(name)) {
-          return entity;
-        }
-      }
-    }
-
-    return null;
+    return this.getByName(IEntity.class, name, entity -> true);
   }
 
   @Override
   public Collection<IEntity> getByTag(String tag) {
-    if (this.entitiesByTag.containsKey(tag.toLowerCase())) {
-      return this.entitiesByTag.get(tag);
-    }
-
-    return new ArrayList<>();
+    return this.tagIndex.get(tag);
   }
 
   @Override
-  public <T extends IEntity> Collection<T> getByTag(Class<T> clss, String rawTag) {
-    List<T> foundEntities = new ArrayList<>();
-    final String tag = rawTag.toLowerCase();
-    if (!this.entitiesByTag.containsKey(tag.toLowerCase())) {
-      return foundEntities;
-    }
-
-    for (IEntity ent : this.entitiesByTag.get(tag)) {
-      if (clss.isInstance(ent)) {
-        foundEntities.add((T) ent);
-      }
-    }
-
-    return foundEntities;
+  public <T extends IEntity> Collection<T> getByTag(Class<T> clss, String tag) {
+    return this.tagIndex.get(clss, tag);
   }
 
   @Override
@@ -435,12 +510,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public MapArea getArea(final int mapId) {
-    return getById(this.getAreas(), mapId);
+    return this.getById(MapArea.class, mapId, this.mapAreas::contains);
   }
 
   @Override
   public MapArea getArea(final String name) {
-    return getByName(this.getAreas(), name);
+    return this.getByName(MapArea.class, name, this.mapAreas::contains);
   }
 
   @Override
@@ -450,12 +525,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public Emitter getEmitter(int mapId) {
-    return getById(this.getEmitters(), mapId);
+    return this.getById(Emitter.class, mapId, this.emitters::contains);
   }
 
   @Override
   public Emitter getEmitter(String name) {
-    return getByName(this.getEmitters(), name);
+    return this.getByName(Emitter.class, name, this.emitters::contains);
   }
 
   @Override
@@ -465,12 +540,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public CollisionBox getCollisionBox(int mapId) {
-    return getById(this.getCollisionBoxes(), mapId);
+    return this.getById(CollisionBox.class, mapId, this.colliders::contains);
   }
 
   @Override
   public CollisionBox getCollisionBox(String name) {
-    return getByName(this.getCollisionBoxes(), name);
+    return this.getByName(CollisionBox.class, name, this.colliders::contains);
   }
 
   @Override
@@ -480,12 +555,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public ICombatEntity getCombatEntity(final int mapId) {
-    return getById(this.getCombatEntities(), mapId);
+    return this.combatEntities.get(mapId);
   }
 
   @Override
   public ICombatEntity getCombatEntity(String name) {
-    return getByName(this.getCombatEntities(), name);
+    return this.getByName(ICombatEntity.class, name, entity -> this.combatEntities.get(entity.getMapId()) == entity);
   }
 
   @Override
@@ -506,15 +581,29 @@ public class Environment implements IEnvironment {
   @Override
   public <T extends IEntity> Collection<T> getByType(Class<T> cls) {
     List<T> foundEntities = new ArrayList<>();
-    for (IEntity ent : this.getEntities()) {
-      if (cls.isInstance(ent)) {
-        foundEntities.add((T) ent);
+    for (Map.Entry<Class<?>, Collection<IEntity>> entry : this.entitiesByType.entrySet()) {
+      if (cls.isAssignableFrom(entry.getKey())) {
+        for (IEntity ent : entry.getValue()) {
+          foundEntities.add((T) ent);
+        }
       }
     }
 
     return foundEntities;
   }
 
+  /**
+   * Gets the spatial index that is used to look up entities by their location.
+   * Entities that are moved or resized by other means than
+   * {@link IMobileEntity#setLocation(java.awt.geom.Point2D)} need to be updated
+   * manually on this index.
+   *
+   * @return The spatial index of this environment.
+   */
+  public EntitySpatialIndex getSpatialIndex() {
+    return this.spatialIndex;
+  }
+
   @Override
   public Collection<IRenderable> getGroundRenderables() {
     return this.groundRenderable;
@@ -532,12 +621,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public LightSource getLightSource(final int mapId) {
-    return getById(this.getLightSources(), mapId);
+    return this.getById(LightSource.class, mapId, this.lightSources::contains);
   }
 
   @Override
   public LightSource getLightSource(String name) {
-    return getByName(this.getLightSources(), name);
+    return this.getByName(LightSource.class, name, this.lightSources::contains);
   }
 
   /**
@@ -553,6 +642,12 @@ public class Environment implements IEnvironment {
     return this.map;
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends IEntity> EntityPool<T> getPool(final Class<T> type) {
+    return (EntityPool<T>) this.pools.get(type);
+  }
+
   @Override
   public Collection<IMobileEntity> getMobileEntities() {
     return this.mobileEntities.values();
@@ -560,12 +655,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public IMobileEntity getMobileEntity(final int mapId) {
-    return getById(this.getMobileEntities(), mapId);
+    return this.mobileEntities.get(mapId);
   }
 
   @Override
   public IMobileEntity getMobileEntity(String name) {
-    return getByName(this.getMobileEntities(), name);
+    return this.getByName(IMobileEntity.class, name, entity -> this.mobileEntities.get(entity.getMapId()) == entity);
   }
 
   @Override
@@ -585,22 +680,22 @@ public class Environment implements IEnvironment {
 
   @Override
   public Prop getProp(int mapId) {
-    return getById(this.getProps(), mapId);
+    return this.getById(Prop.class, mapId, this.props::contains);
   }
 
   @Override
   public Prop getProp(String name) {
-    return getByName(this.getProps(), name);
+    return this.getByName(Prop.class, name, this.props::contains);
   }
 
   @Override
   public Creature getCreature(int mapId) {
-    return getById(this.getCreatures(), mapId);
+    return this.getById(Creature.class, mapId, this.creatures::contains);
   }
 
   @Override
   public Creature getCreature(String name) {
-    return getByName(this.getCreatures(), name);
+    return this.getByName(Creature.class, name, this.creatures::contains);
   }
 
   @Override
@@ -610,12 +705,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public Spawnpoint getSpawnpoint(final int mapId) {
-    return getById(this.getSpawnPoints(), mapId);
+    return this.getById(Spawnpoint.class, mapId, this.spawnPoints::contains);
   }
 
   @Override
   public Spawnpoint getSpawnpoint(final String name) {
-    return getByName(this.getSpawnPoints(), name);
+    return this.getByName(Spawnpoint.class, name, this.spawnPoints::contains);
   }
 
   @Override
@@ -630,12 +725,12 @@ public class Environment implements IEnvironment {
 
   @Override
   public StaticShadow getStaticShadow(int mapId) {
-    return getById(this.getStaticShadows(), mapId);
+    return this.getById(StaticShadow.class, mapId, this.staticShadows::contains);
   }
 
   @Override
   public StaticShadow getStaticShadow(String name) {
-    return getByName(this.getStaticShadows(), name);
+    return this.getByName(StaticShadow.class, name, this.staticShadows::contains);
   }
 
   @Override
@@ -643,14 +738,19 @@ public class Environment implements IEnvironment {
     return this.staticShadowLayer;
   }
 
+  @Override
+  public EnvironmentStreamer getStreamer() {
+    return this.streamer;
+  }
+
   @Override
   public Trigger getTrigger(final int mapId) {
-    return getById(this.getTriggers(), mapId);
+    return this.getById(Trigger.class, mapId, this.triggers::contains);
   }
 
   @Override
   public Trigger getTrigger(final String name) {
-    return getByName(this.getTriggers(), name);
+    return this.getByName(Trigger.class, name, this.triggers::contains);
   }
 
   @Override
@@ -660,7 +760,7 @@ public class Environment implements IEnvironment {
 
   @Override
   public List<String> getUsedTags() {
-    final List<String> tags = this.entitiesByTag.keySet().stream().collect(Collectors.toList());
+    final List<String> tags = this.tagIndex.getTags();
     Collections.sort(tags);
 
     return tags;
@@ -672,9 +772,16 @@ public class Environment implements IEnvironment {
       return;
     }
 
-    this.loadMapObjects();
-    this.addStaticShadows();
-    this.addAmbientLight();
+    // streamed environments load their map objects region by region
+    if (this.streamer == null) {
+      this.loadMapObjects();
+    }
+
+    // the color layers are images that are only needed for rendering
+    if (!Game.isHeadless()) {
+      this.addStaticShadows();
+      this.addAmbientLight();
+    }
 
     for (final Consumer<IEnvironment> cons : this.initializedConsumers) {
       cons.accept(this);
@@ -696,11 +803,13 @@ public class Environment implements IEnvironment {
     }
 
     Game.getPhysicsEngine().setBounds(new Rectangle2D.Double(0, 0, this.getMap().getSizeInPixels().getWidth(), this.getMap().getSizeInPixels().getHeight()));
-    for (final IEntity entity : this.getEntities()) {
-      this.load(entity);
-    }
+    this.load(this.getEntities());
 
     this.loaded = true;
+    if (this.streamer != null) {
+      Game.getLoop().attach(this.streamer);
+    }
+
     for (final Consumer<IEnvironment> cons : this.loadedConsumers) {
       cons.accept(this);
     }
@@ -734,6 +843,16 @@ public class Environment implements IEnvironment {
     this.entityAddedConsumers.add(consumer);
   }
 
+  @Override
+  public void onEntitiesAdded(Consumer<Collection<IEntity>> consumer) {
+    this.entitiesAddedConsumers.add(consumer);
+  }
+
+  @Override
+  public void onEntitiesRemoved(Consumer<Collection<IEntity>> consumer) {
+    this.entitiesRemovedConsumers.add(consumer);
+  }
+
   @Override
   public void onEntitiesRendered(final Consumer<Graphics2D> consumer) {
     this.entitiesRenderedConsumers.add(consumer);
@@ -772,6 +891,34 @@ public class Environment implements IEnvironment {
     registerMapObjectLoader(mapObjectType.name(), mapObjectLoader);
   }
 
+  @Override
+  public <T extends IEntity> void registerPool(final EntityPool<T> pool) {
+    if (pool == null) {
+      return;
+    }
+
+    this.pools.put(pool.getType(), pool);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void release(final IEntity entity) {
+    if (entity == null) {
+      return;
+    }
+
+    // only entities that are actually part of this environment are returned to
+    // the pool, so an entity can never end up in the pool twice
+    final Map<Integer, IEntity> renderTypeEntities = this.entities.get(entity.getRenderType());
+    final boolean contained = renderTypeEntities != null && renderTypeEntities.get(entity.getMapId()) == entity;
+    this.remove(entity);
+
+    final EntityPool<IEntity> pool = (EntityPool<IEntity>) this.pools.get(entity.getClass());
+    if (contained && pool != null) {
+      pool.release(entity);
+    }
+  }
+
   @Override
   public void reloadFromMap(final int mapId) {
     this.remove(mapId);
@@ -788,16 +935,53 @@ public class Environment implements IEnvironment {
       this.entities.get(entity.getRenderType()).entrySet().removeIf(e -> e.getValue().getMapId() == entity.getMapId());
     }
 
-    for (String tag : entity.getTags()) {
-      if (this.entitiesByTag.containsKey(tag)) {
-        this.entitiesByTag.get(tag).remove(entity);
+    this.removeFromCategories(entity);
+    if (entity instanceof LightSource || entity instanceof StaticShadow) {
+      this.updateColorLayers(entity);
+    }
 
-        if (this.entitiesByTag.get(tag).isEmpty()) {
-          this.entitiesByTag.remove(tag);
-        }
+    this.unload(entity);
+    this.informEntitiesRemoved(Collections.singletonList(entity));
+  }
+
+  @Override
+  public <T extends IEntity> void removeAll(final Collection<T> entities) {
+    if (entities == null || entities.isEmpty()) {
+      return;
+    }
+
+    final List<IEntity> removed = new ArrayList<>(entities.size());
+    final Map<RenderType, Set<Integer>> removedMapIds = new EnumMap<>(RenderType.class);
+    for (final T entity : entities) {
+      if (entity != null) {
+        removed.add(entity);
+        removedMapIds.computeIfAbsent(entity.getRenderType(), type -> new HashSet<>()).add(entity.getMapId());
       }
     }
 
+    // only iterate the entities of every render type once
+    for (final Map.Entry<RenderType, Set<Integer>> entry : removedMapIds.entrySet()) {
+      if (this.entities.get(entry.getKey()) != null) {
+        this.entities.get(entry.getKey()).entrySet().removeIf(e -> entry.getValue().contains(e.getValue().getMapId()));
+      }
+    }
+
+    for (final IEntity entity : removed) {
+      this.removeFromCategories(entity);
+    }
+
+    final Rectangle2D colorLayerSection = getColorLayerSection(removed);
+    if (colorLayerSection != null) {
+      this.updateColorLayers(colorLayerSection);
+    }
+
+    this.unload(removed);
+    this.informEntitiesRemoved(removed);
+  }
+
+  private void removeFromCategories(final IEntity entity) {
+    this.tagIndex.remove(entity);
+
     if (entity instanceof Emitter) {
       Emitter emitter = (Emitter) entity;
       this.groundRenderable.remove(emitter.getGroundRenderable());
@@ -824,7 +1008,6 @@ public class Environment implements IEnvironment {
 
     if (entity instanceof LightSource) {
       this.lightSources.remove(entity);
-      this.updateColorLayers(entity);
     }
 
     if (entity instanceof Trigger) {
@@ -837,21 +1020,36 @@ public class Environment implements IEnvironment {
 
     if (entity instanceof StaticShadow) {
       this.staticShadows.remove(entity);
-      this.updateColorLayers(entity);
     }
 
+    // the values are only searched if the map id has changed since the entity
+    // was added
     if (entity instanceof IMobileEntity) {
-      this.mobileEntities.values().remove(entity);
+      if (!this.mobileEntities.remove(entity.getMapId(), entity)) {
+        this.mobileEntities.values().remove(entity);
+      }
+
+      ((IMobileEntity) entity).removeMovedListener(this.entityMovedConsumer);
     }
 
-    if (entity instanceof ICombatEntity) {
+    if (entity instanceof ICombatEntity && !this.combatEntities.remove(entity.getMapId(), entity)) {
       this.combatEntities.values().remove(entity);
     }
 
-    this.unload(entity);
+    this.removeFromIndexes(entity);
+    this.spatialIndex.remove(entity);
+  }
 
-    for (Consumer<IEntity> cons : this.entityRemovedConsumers) {
-      cons.accept(entity);
+  private void informEntitiesRemoved(final List<IEntity> removed) {
+    for (final IEntity entity : removed) {
+      for (Consumer<IEntity> cons : this.entityRemovedConsumers) {
+        cons.accept(entity);
+      }
+    }
+
+    final Collection<IEntity> removedEntities = Collections.unmodifiableList(removed);
+    for (Consumer<Collection<IEntity>> cons : this.entitiesRemovedConsumers) {
+      cons.accept(removedEntities);
     }
   }
 
@@ -867,13 +1065,7 @@ public class Environment implements IEnvironment {
 
   @Override
   public <T extends IEntity> void remove(Collection<T> entities) {
-    if (entities == null) {
-      return;
-    }
-
-    for (T ent : entities) {
-      this.remove(ent);
-    }
+    this.removeAll(entities);
   }
 
   @Override
@@ -982,11 +1174,14 @@ public class Environment implements IEnvironment {
       return;
     }
 
-    // unregister all updatable entities from the current environment
-    for (final IEntity entity : this.getEntities()) {
-      this.unload(entity);
+    if (this.streamer != null) {
+      Game.getLoop().detach(this.streamer);
+      this.streamer.dispose();
     }
 
+    // unregister all updatable entities from the current environment
+    this.unload(this.getEntities());
+
     this.loaded = false;
     for (final Consumer<IEnvironment> cons : this.unloadedConsumers) {
       cons.accept(this);
@@ -994,37 +1189,123 @@ public class Environment implements IEnvironment {
   }
 
   protected void addMapObject(final IMapObject mapObject) {
-    if (mapObjectLoaders.containsKey(mapObject.getType())) {
-      Collection<IEntity> loadedEntities = mapObjectLoaders.get(mapObject.getType()).load(this, mapObject);
-      for (IEntity entity : loadedEntities) {
-        if (entity != null) {
-          this.add(entity);
-        }
-      }
+    final Collection<IEntity> loadedEntities = this.createEntities(mapObject);
+    if (!loadedEntities.isEmpty()) {
+      this.addAll(loadedEntities);
     }
   }
 
-  private static <T extends IEntity> T getById(Collection<T> entities, int mapId) {
-    for (final T m : entities) {
-      if (m.getMapId() == mapId) {
-        return m;
-      }
+  /**
+   * Creates the entities for the specified map object with the registered
+   * {@link IMapObjectLoader} without adding them to the environment.
+   *
+   * @param mapObject
+   *          The map object to create the entities for.
+   * @return The created entities or an empty collection if no loader is
+   *         registered for the type of the map object.
+   */
+  Collection<IEntity> createEntities(final IMapObject mapObject) {
+    final IMapObjectLoader loader = mapObject.getType() != null ? mapObjectLoaders.get(mapObject.getType()) : null;
+    if (loader == null) {
+      return Collections.emptyList();
+    }
+
+    return loader.load(this, mapObject);
+  }
+
+  private static <K> void addToIndex(final Map<K, Collection<IEntity>> index, final K key, final IEntity entity) {
+    index.compute(key, (k, indexed) -> {
+      final Collection<IEntity> entities = indexed != null ? indexed : Collections.newSetFromMap(new ConcurrentHashMap<IEntity, Boolean>());
+      entities.add(entity);
+      return entities;
+    });
+  }
+
+  private static <K> void removeFromIndex(final Map<K, Collection<IEntity>> index, final K key, final IEntity entity) {
+    index.computeIfPresent(key, (k, indexed) -> {
+      indexed.remove(entity);
+      return indexed.isEmpty() ? null : indexed;
+    });
+  }
+
+  private void addToIndexes(final IEntity entity) {
+    if (entity.getName() != null && !entity.getName().isEmpty()) {
+      addToIndex(this.entitiesByName, entity.getName(), entity);
+    }
+
+    // UI entities are not part of getEntities() and therefore not found by type
+    if (entity.getRenderType() != RenderType.UI) {
+      addToIndex(this.entitiesByType, entity.getClass(), entity);
+    }
+
+    entity.onNameChanged(this.entityRenamedConsumer);
+    entity.onTagAdded(this.entityTagAddedConsumer);
+    entity.onTagRemoved(this.entityTagRemovedConsumer);
+  }
+
+  private void removeFromIndexes(final IEntity entity) {
+    if (entity.getName() != null) {
+      removeFromIndex(this.entitiesByName, entity.getName(), entity);
+    }
+
+    removeFromIndex(this.entitiesByType, entity.getClass(), entity);
+    entity.removeNameChangedListener(this.entityRenamedConsumer);
+    entity.removeTagAddedListener(this.entityTagAddedConsumer);
+    entity.removeTagRemovedListener(this.entityTagRemovedConsumer);
+  }
+
+  private boolean isIndexed(final IEntity entity) {
+    return this.entities.get(entity.getRenderType()).get(entity.getMapId()) == entity;
+  }
+
+  private void updateNameIndex(final IEntity entity, final String oldName) {
+    // the entity might be renamed while it is removed from this environment
+    if (!this.isIndexed(entity)) {
+      return;
+    }
+
+    if (oldName != null) {
+      removeFromIndex(this.entitiesByName, oldName, entity);
+    }
+
+    if (entity.getName() != null && !entity.getName().isEmpty()) {
+      addToIndex(this.entitiesByName, entity.getName(), entity);
+    }
+  }
+
+  /**
+   * Looks up an entity by its map id, which is indexed by the render type
+   * maps, and checks whether it belongs to the requested category.
+   */
+  private <T extends IEntity> T getById(final Class<T> cls, final int mapId, final Predicate<T> contained) {
+    final IEntity entity = this.get(mapId);
+    if (cls.isInstance(entity) && contained.test(cls.cast(entity))) {
+      return cls.cast(entity);
     }
 
     return null;
   }
 
-  private static <T extends IEntity> T getByName(Collection<T> entities, String name) {
+  private <T extends IEntity> T getByName(final Class<T> cls, final String name, final Predicate<T> contained) {
     if (name == null || name.isEmpty()) {
       return null;
     }
 
-    for (final T m : entities) {
-      if (m.getName() != null && m.getName().equals(name)) {
-        return m;
+    final Collection<IEntity> candidates = this.entitiesByName.get(name);
+    if (candidates == null) {
+      return null;
+    }
+
+    // the index doesn't keep any order, so multiple entities with the same name
+    // are resolved by their map id to make the result deterministic
+    T match = null;
+    for (final IEntity entity : candidates) {
+      if (cls.isInstance(entity) && (match == null || entity.getMapId() < match.getMapId()) && contained.test(cls.cast(entity))) {
+        match = cls.cast(entity);
       }
     }
-    return null;
+
+    return match;
   }
 
   private void addAmbientLight() {
@@ -1041,7 +1322,11 @@ public class Environment implements IEnvironment {
 
   private void dispose(final Collection<? extends IEntity> entities) {
     for (final IEntity entity : entities) {
-      if (entity instanceof IUpdateable) {
+      if (entity instanceof Emitter) {
+        ((Emitter) entity).deactivate();
+      } else if (entity instanceof Trigger) {
+        Game.getTriggerSystem().remove((Trigger) entity);
+      } else if (entity instanceof IUpdateable) {
         Game.getLoop().detach((IUpdateable) entity);
       }
 
@@ -1059,60 +1344,97 @@ public class Environment implements IEnvironment {
    * Loads the specified entiy by performing the following steps:
    * <ol>
    * <li>add to physics engine</li>
-   * <li>register entity for update</li>
+   * <li>register entity for update (triggers are added to the trigger
+   * system)</li>
    * <li>register animation controller for update</li>
    * <li>register movement controller for update</li>
    * <li>register AI controller for update</li>
+   * <li>register with the dormancy system</li>
    * </ol>
    *
    * @param entity
    */
   private void load(final IEntity entity) {
+    this.load(Collections.singletonList(entity));
+  }
+
+  /**
+   * Loads all the specified entities. The physics engine is updated only once
+   * for all entities and the color layers are updated once for the combined
+   * section of all light sources and static shadows.
+   *
+   * @param entities
+   */
+  private void load(final Collection<? extends IEntity> entities) {
     // 1. add to physics engine
-    this.loadPhysicsEntity(entity);
+    loadPhysicsEntities(entities);
 
-    // 2. register for update or activate
-    this.loadUpdatableOrEmitterEntity(entity);
+    for (final IEntity entity : entities) {
+      // 2. register for update or activate
+      this.loadUpdatableOrEmitterEntity(entity);
 
-    // 3. register animation controller for update
-    final IAnimationController animation = Game.getEntityControllerManager().getAnimationController(entity);
-    if (animation != null) {
-      Game.getLoop().attach(animation);
-    }
+      // 3. register animation controller for update
+      final IAnimationController animation = Game.getEntityControllerManager().getAnimationController(entity);
+      if (animation != null && !Game.isHeadless()) {
+        Game.getLoop().attach(animation);
+      }
 
-    // 4. register movement controller for update
-    if (entity instanceof IMobileEntity) {
-      final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
-      if (movementController != null) {
-        Game.getLoop().attach(movementController);
+      // 4. register movement controller for update
+      if (entity instanceof IMobileEntity) {
+        final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
+        if (movementController != null) {
+          Game.getLoop().attach(movementController);
+        }
       }
-    }
 
-    // 5. register ai controller for update
-    final IEntityController<? extends IEntity> controller = Game.getEntityControllerManager().getAIController(entity);
-    if (controller != null) {
-      Game.getLoop().attach(controller);
+      // 5. register ai controller for update
+      final IEntityController<? extends IEntity> controller = Game.getEntityControllerManager().getAIController(entity);
+      if (controller != null) {
+        Game.getLoop().attach(controller);
+      }
+
+      // 6. register for simulation level of detail
+      Game.getDormancySystem().add(entity);
     }
 
-    if (entity instanceof LightSource || entity instanceof StaticShadow) {
-      this.updateColorLayers(entity);
+    final Rectangle2D colorLayerSection = getColorLayerSection(entities);
+    if (colorLayerSection != null) {
+      this.updateColorLayers(colorLayerSection);
     }
   }
 
-  private void loadPhysicsEntity(IEntity entity) {
-    if (entity instanceof CollisionBox) {
-      final CollisionBox coll = (CollisionBox) entity;
-      if (coll.isObstacle()) {
-        Game.getPhysicsEngine().add(coll.getBoundingBox());
-      } else {
-        Game.getPhysicsEngine().add(coll);
+  private static Rectangle2D getColorLayerSection(final Collection<? extends IEntity> entities) {
+    Rectangle2D section = null;
+    for (final IEntity entity : entities) {
+      if (entity instanceof LightSource || entity instanceof StaticShadow) {
+        section = section == null ? entity.getBoundingBox().getBounds2D() : section.createUnion(entity.getBoundingBox());
       }
-    } else if (entity instanceof ICollisionEntity) {
-      final ICollisionEntity coll = (ICollisionEntity) entity;
-      if (coll.hasCollision()) {
-        Game.getPhysicsEngine().add(coll);
+    }
+
+    return section;
+  }
+
+  private static void loadPhysicsEntities(final Collection<? extends IEntity> entities) {
+    final List<ICollisionEntity> collisionEntities = new ArrayList<>();
+    final List<Rectangle2D> staticCollisionBoxes = new ArrayList<>();
+    for (final IEntity entity : entities) {
+      if (entity instanceof CollisionBox) {
+        final CollisionBox coll = (CollisionBox) entity;
+        if (coll.isObstacle()) {
+          staticCollisionBoxes.add(coll.getBoundingBox());
+        } else {
+          collisionEntities.add(coll);
+        }
+      } else if (entity instanceof ICollisionEntity) {
+        final ICollisionEntity coll = (ICollisionEntity) entity;
+        if (coll.hasCollision()) {
+          collisionEntities.add(coll);
+        }
       }
     }
+
+    Game.getPhysicsEngine().addStaticCollisionBoxes(staticCollisionBoxes);
+    Game.getPhysicsEngine().addAll(collisionEntities);
   }
 
   private void loadUpdatableOrEmitterEntity(IEntity entity) {
@@ -1121,6 +1443,8 @@ public class Environment implements IEnvironment {
       if (emitter.isActivateOnInit()) {
         emitter.activate();
       }
+    } else if (entity instanceof Trigger) {
+      Game.getTriggerSystem().add((Trigger) entity);
     } else if (entity instanceof IUpdateable) {
       Game.getLoop().attach((IUpdateable) entity);
     }
@@ -1163,47 +1487,63 @@ public class Environment implements IEnvironment {
    * @param entity
    */
   private void unload(final IEntity entity) {
+    this.unload(Collections.singletonList(entity));
+  }
+
+  private void unload(final Collection<? extends IEntity> entities) {
     // 1. remove from physics engine
-    if (entity instanceof CollisionBox) {
-      final CollisionBox coll = (CollisionBox) entity;
-      if (coll.isObstacle()) {
-        Game.getPhysicsEngine().remove(coll.getBoundingBox());
-      } else {
-        Game.getPhysicsEngine().remove(coll);
+    final List<ICollisionEntity> collisionEntities = new ArrayList<>();
+    final List<Rectangle2D> staticCollisionBoxes = new ArrayList<>();
+    for (final IEntity entity : entities) {
+      if (entity instanceof CollisionBox) {
+        final CollisionBox coll = (CollisionBox) entity;
+        if (coll.isObstacle()) {
+          staticCollisionBoxes.add(coll.getBoundingBox());
+        } else {
+          collisionEntities.add(coll);
+        }
+      } else if (entity instanceof ICollisionEntity) {
+        collisionEntities.add((ICollisionEntity) entity);
       }
-    } else if (entity instanceof ICollisionEntity) {
-      final ICollisionEntity coll = (ICollisionEntity) entity;
-      Game.getPhysicsEngine().remove(coll);
     }
 
-    // 2. unregister from update
-    if (entity instanceof IUpdateable) {
-      Game.getLoop().detach((IUpdateable) entity);
-    }
+    Game.getPhysicsEngine().removeStaticCollisionBoxes(staticCollisionBoxes);
+    Game.getPhysicsEngine().removeAll(collisionEntities);
 
-    // 3. unregister ai controller from update
-    final IEntityController<? extends IEntity> controller = Game.getEntityControllerManager().getAIController(entity);
-    if (controller != null) {
-      Game.getLoop().detach(controller);
-    }
+    for (final IEntity entity : entities) {
+      Game.getDormancySystem().remove(entity);
 
-    // 4. unregister animation controller from update
-    final IAnimationController animation = Game.getEntityControllerManager().getAnimationController(entity);
-    if (animation != null) {
-      Game.getLoop().detach(animation);
-    }
+      // 2. unregister from update
+      if (entity instanceof Trigger) {
+        Game.getTriggerSystem().remove((Trigger) entity);
+      } else if (entity instanceof IUpdateable) {
+        Game.getLoop().detach((IUpdateable) entity);
+      }
 
-    // 5. unregister movement controller from update
-    if (entity instanceof IMobileEntity) {
-      final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
-      if (movementController != null) {
-        Game.getLoop().detach(movementController);
+      // 3. unregister ai controller from update
+      final IEntityController<? extends IEntity> controller = Game.getEntityControllerManager().getAIController(entity);
+      if (controller != null) {
+        Game.getLoop().detach(controller);
       }
-    }
 
-    if (entity instanceof Emitter) {
-      Emitter em = (Emitter) entity;
-      em.deactivate();
+      // 4. unregister animation controller from update
+      final IAnimationController animation = Game.getEntityControllerManager().getAnimationController(entity);
+      if (animation != null) {
+        Game.getLoop().detach(animation);
+      }
+
+      // 5. unregister movement controller from update
+      if (entity instanceof IMobileEntity) {
+        final IMovementController<? extends IMobileEntity> movementController = Game.getEntityControllerManager().getMovementController((IMobileEntity) entity);
+        if (movementController != null) {
+          Game.getLoop().detach(movementController);
+        }
+      }
+
+      if (entity instanceof Emitter) {
+        Emitter em = (Emitter) entity;
+        em.deactivate();
+      }
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.environment.tilemap.ITile;
+import de.gurkenlabs.litiengine.environment.tilemap.ITileLayer;
+import de.gurkenlabs.litiengine.environment.tilemap.ITileset;
+import de.gurkenlabs.litiengine.environment.tilemap.MapUtilities;
+
+/**
+ * Prepares an environment on a background thread while the current environment
+ * keeps running. The preparation parses the map, initializes the environment
+ * (which creates all entities from the map objects, the static shadow layer
+ * and the ambient light) and caches the tile images that are used by the map.
+ *
+ * <p>
+ * Additional preparation, like building a pathfinding grid, can be done by
+ * <code>onInitialized</code> consumers of the environment, which are also
+ * called on the background thread. The prepared environment is not loaded; it
+ * can be swapped in with
+ * {@link de.gurkenlabs.litiengine.Game#loadPreparedEnvironment(EnvironmentPreparation)}.
+ * The entities and their controllers are attached to the game loop only then,
+ * on the game loop thread.
+ * </p>
+ */
+public class EnvironmentPreparation {
+  private static final Logger log = Logger.getLogger(EnvironmentPreparation.class.getName());
+  private static final ExecutorService executor;
+
+  private final CompletableFuture<IEnvironment> future;
+  private final List<Consumer<Double>> progressConsumers;
+
+  private volatile IEnvironment environment;
+  private volatile double progress;
+
+  static {
+    executor = Executors.newCachedThreadPool(r -> {
+      final Thread thread = new Thread(r, "Environment Preparation");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private EnvironmentPreparation() {
+    this.future = new CompletableFuture<>();
+    this.progressConsumers = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Starts to prepare the environment that is created by the specified
+   * supplier on a background thread.
+   *
+   * @param environmentSupplier
+   *          The supplier that creates the environment, e.g.
+   *          <code>() -&gt; new Environment(mapPath)</code>.
+   * @return The preparation that provides the progress and the future of the
+   *         environment.
+   */
+  public static EnvironmentPreparation prepare(final Supplier<IEnvironment> environmentSupplier) {
+    final EnvironmentPreparation preparation = new EnvironmentPreparation();
+    executor.execute(GameContext.current().bind(preparation.run(environmentSupplier)));
+    return preparation;
+  }
+
+  /**
+   * Gets the environment. This is null until the environment has been created
+   * by the supplier.
+   *
+   * @return The prepared environment.
+   */
+  public IEnvironment getEnvironment() {
+    return this.environment;
+  }
+
+  /**
+   * Gets the future that is completed with the environment once it has been
+   * prepared or that is completed exceptionally if the preparation failed.
+   *
+   * @return The future of the prepared environment.
+   */
+  public CompletableFuture<IEnvironment> getFuture() {
+    return this.future;
+  }
+
+  /**
+   * Gets the progress of the preparation.
+   *
+   * @return A value between 0 and 1.
+   */
+  public double getProgress() {
+    return this.progress;
+  }
+
+  public boolean isDone() {
+    return this.future.isDone();
+  }
+
+  /**
+   * Adds a consumer that is called on the preparation thread whenever the
+   * progress changes, e.g. to update a loading screen.
+   *
+   * @param consumer
+   *          The consumer of the progress.
+   */
+  public void onProgress(final Consumer<Double> consumer) {
+    if (!this.progressConsumers.contains(consumer)) {
+      this.progressConsumers.add(consumer);
+    }
+  }
+
+  /**
+   * Loads the tile images of all tiles that are used by the map into the
+   * sprite caches of their tilesets, so they are not created while the map is
+   * rendered for the first time.
+   */
+  private static void cacheTileImages(final IMap map) {
+    final Set<Integer> cachedGridIds = new HashSet<>();
+    for (final ITileLayer layer : map.getTileLayers()) {
+      for (final ITile tile : layer.getTiles()) {
+        if (tile == null || tile.getGridId() == 0 || !cachedGridIds.add(tile.getGridId())) {
+          continue;
+        }
+
+        final ITileset tileset = MapUtilities.findTileSet(map, tile);
+        if (tileset != null && tileset.getSpritesheet() != null && tileset.getFirstGridId() <= tile.getGridId()) {
+          tileset.getSpritesheet().getSprite(tile.getGridId() - tileset.getFirstGridId());
+        }
+      }
+    }
+  }
+
+  private Runnable run(final Supplier<IEnvironment> environmentSupplier) {
+    return () -> {
+      try {
+        // 1. parse the map
+        this.environment = environmentSupplier.get();
+        this.setProgress(0.25);
+
+        // 2. create the entities and the color layers; nothing is attached to
+        // the game loop before the environment is loaded
+        this.environment.init();
+        this.setProgress(0.75);
+
+        // 3. cache the tile images
+        if (this.environment.getMap() != null && this.environment.getMap().getTileLayers() != null) {
+          cacheTileImages(this.environment.getMap());
+        }
+
+        this.setProgress(1);
+        this.future.complete(this.environment);
+      } catch (final Exception e) {
+        log.log(Level.SEVERE, "Could not prepare the environment", e);
+        this.future.completeExceptionally(e);
+      }
+    };
+  }
+
+  private void setProgress(final double progress) {
+    this.progress = progress;
+    for (final Consumer<Double> consumer : this.progressConsumers) {
+      consumer.accept(progress);
+    }
+  }
+}
@@ -0,0 +1,548 @@
+package de.gurkenlabs.litiengine.environment;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.environment.tilemap.IMapObject;
+import de.gurkenlabs.litiengine.environment.tilemap.IMapObjectLayer;
+
+/**
+ * The environment streamer implements the chunked world mode of an
+ * {@link Environment}. The map is partitioned into square regions and only the
+ * map objects of the regions around the focus areas (by default the viewport
+ * of the camera) are turned into entities.
+ *
+ * <p>
+ * The entities of a region are created by the registered
+ * {@link IMapObjectLoader}s on a background thread. They are added to the
+ * environment on the game loop thread when the streamer is updated, so that
+ * the environment, the physics engine and the color layers are never modified
+ * concurrently. Regions that are no longer close to any focus area are removed
+ * from the environment again. Mobile entities that have moved to another
+ * loaded region are handed over to that region instead of being removed.
+ * </p>
+ *
+ * <p>
+ * Only entities that were created from map objects are streamed. Entities that
+ * are added to the environment at runtime stay in the environment until they
+ * are removed explicitly. Streamed entities that have been removed by the game,
+ * e.g. because they were killed, are not created again when their region is
+ * loaded again.
+ * </p>
+ *
+ * @see IEnvironment#enableStreaming(int)
+ */
+public class EnvironmentStreamer implements IUpdateable {
+  public static final int DEFAULT_REGION_SIZE = 32;
+  public static final int DEFAULT_REGION_COMMITS_PER_TICK = 2;
+  private static final Logger log = Logger.getLogger(EnvironmentStreamer.class.getName());
+
+  private final Environment environment;
+  private final int regionSize;
+  private final int columns;
+  private final int rows;
+  private final Region[][] regions;
+  private final Map<Integer, Region> mapObjectRegions;
+  private final Collection<Region> activeRegions;
+  private final Queue<LoadResult> loadedRegions;
+  private final List<Supplier<Rectangle2D>> focusAreas;
+
+  private ExecutorService executor;
+  private double loadDistance;
+  private double unloadDistance;
+  private int regionCommitsPerTick;
+
+  EnvironmentStreamer(final Environment environment, final int regionSize) {
+    this.environment = environment;
+    this.regionSize = Math.max(1, regionSize);
+    this.mapObjectRegions = new ConcurrentHashMap<>();
+    this.activeRegions = Collections.newSetFromMap(new ConcurrentHashMap<Region, Boolean>());
+    this.loadedRegions = new ConcurrentLinkedQueue<>();
+    this.focusAreas = new CopyOnWriteArrayList<>();
+    this.regionCommitsPerTick = DEFAULT_REGION_COMMITS_PER_TICK;
+
+    final IMap map = environment.getMap();
+    this.columns = Math.max(1, (int) Math.ceil(map.getSizeInTiles().getWidth() / this.regionSize));
+    this.rows = Math.max(1, (int) Math.ceil(map.getSizeInTiles().getHeight() / this.regionSize));
+    this.regions = new Region[this.columns][this.rows];
+    final double regionWidth = this.regionSize * map.getTileSize().getWidth();
+    final double regionHeight = this.regionSize * map.getTileSize().getHeight();
+    for (int x = 0; x < this.columns; x++) {
+      for (int y = 0; y < this.rows; y++) {
+        this.regions[x][y] = new Region(x, y, new Rectangle2D.Double(x * regionWidth, y * regionHeight, regionWidth, regionHeight));
+      }
+    }
+
+    // by default, a region is loaded half a region before it becomes visible
+    // and unloaded one region after it has left the focus areas
+    this.loadDistance = Math.max(regionWidth, regionHeight) / 2.0;
+    this.unloadDistance = Math.max(regionWidth, regionHeight);
+
+    for (final IMapObjectLayer layer : map.getMapObjectLayers()) {
+      for (final IMapObject mapObject : layer.getMapObjects()) {
+        if (mapObject.getType() == null || mapObject.getType().isEmpty()) {
+          continue;
+        }
+
+        final Region region = this.getRegion(mapObject.getX(), mapObject.getY());
+        region.mapObjects.add(mapObject);
+        this.mapObjectRegions.put(mapObject.getId(), region);
+      }
+    }
+  }
+
+  /**
+   * Adds an area around which the regions are loaded, e.g. the bounding box
+   * of a player. If no focus area is added, the viewport of the camera is used.
+   *
+   * @param focusArea
+   *          The supplier of the focus area.
+   */
+  public void addFocus(final Supplier<Rectangle2D> focusArea) {
+    if (focusArea != null && !this.focusAreas.contains(focusArea)) {
+      this.focusAreas.add(focusArea);
+    }
+  }
+
+  /**
+   * Stops the background threads of this streamer. This is called when the
+   * environment is unloaded or cleared. The threads are started again when
+   * another region is requested.
+   */
+  public void dispose() {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      this.executor = null;
+    }
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public double getLoadDistance() {
+    return this.loadDistance;
+  }
+
+  public Region getRegion(final double x, final double y) {
+    final Rectangle2D bounds = this.regions[0][0].getBounds();
+    final int column = clamp((int) Math.floor(x / bounds.getWidth()), this.columns);
+    final int row = clamp((int) Math.floor(y / bounds.getHeight()), this.rows);
+    return this.regions[column][row];
+  }
+
+  public int getRegionCommitsPerTick() {
+    return this.regionCommitsPerTick;
+  }
+
+  /**
+   * Gets all regions that are currently loaded or loading.
+   *
+   * @return The active regions.
+   */
+  public Collection<Region> getActiveRegions() {
+    return Collections.unmodifiableCollection(this.activeRegions);
+  }
+
+  public int getRegionSize() {
+    return this.regionSize;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public double getUnloadDistance() {
+    return this.unloadDistance;
+  }
+
+  /**
+   * Loads all regions that intersect the specified area on the calling thread
+   * and adds their entities to the environment immediately, e.g. while a
+   * loading screen is shown before the player is spawned. This must be called
+   * from the game loop thread if the environment has already been loaded.
+   *
+   * @param area
+   *          The area to load the regions for.
+   */
+  public void loadRegions(final Rectangle2D area) {
+    for (final Region region : this.getRegions(area, 0)) {
+      if (region.state == RegionState.LOADED) {
+        continue;
+      }
+
+      final int generation = ++region.generation;
+      region.state = RegionState.LOADING;
+      this.activeRegions.add(region);
+      this.commit(new LoadResult(region, generation, this.createEntities(region)));
+    }
+  }
+
+  public void removeFocus(final Supplier<Rectangle2D> focusArea) {
+    this.focusAreas.remove(focusArea);
+  }
+
+  /**
+   * Sets the distance around the focus areas in which regions are loaded.
+   *
+   * @param loadDistance
+   *          The load distance in pixels.
+   */
+  public void setLoadDistance(final double loadDistance) {
+    this.loadDistance = Math.max(0, loadDistance);
+  }
+
+  /**
+   * Sets the maximum amount of loaded regions that are added to the
+   * environment per tick. This spreads the cost of registering many entities
+   * with the game loop and the physics engine over multiple ticks.
+   *
+   * @param regionCommitsPerTick
+   *          The maximum amount of region commits per tick.
+   */
+  public void setRegionCommitsPerTick(final int regionCommitsPerTick) {
+    this.regionCommitsPerTick = Math.max(1, regionCommitsPerTick);
+  }
+
+  /**
+   * Sets the distance around the focus areas outside of which regions are
+   * unloaded. This should be larger than the load distance so that regions at
+   * the border of the focus area are not loaded and unloaded all the time.
+   *
+   * @param unloadDistance
+   *          The unload distance in pixels.
+   */
+  public void setUnloadDistance(final double unloadDistance) {
+    this.unloadDistance = Math.max(0, unloadDistance);
+  }
+
+  @Override
+  public void update() {
+    if (!this.environment.isLoaded()) {
+      return;
+    }
+
+    // 1. add the entities of the regions that have been loaded in the
+    // background
+    int commits = 0;
+    LoadResult result;
+    while (commits < this.regionCommitsPerTick && (result = this.loadedRegions.poll()) != null) {
+      if (this.commit(result)) {
+        commits++;
+      }
+    }
+
+    final List<Rectangle2D> focus = this.getFocusAreas();
+    if (focus.isEmpty()) {
+      return;
+    }
+
+    // 2. request all regions around the focus areas
+    for (final Rectangle2D area : focus) {
+      for (final Region region : this.getRegions(area, this.loadDistance)) {
+        if (region.state == RegionState.UNLOADED) {
+          this.requestRegion(region);
+        }
+      }
+    }
+
+    // 3. unload all regions that are far away from all focus areas
+    for (final Region region : this.activeRegions) {
+      if (!intersects(region.getBounds(), focus, this.unloadDistance)) {
+        this.unloadRegion(region);
+      }
+    }
+  }
+
+  /**
+   * Marks all regions as unloaded and discards all pending region loads
+   * without removing any entities from the environment. This is called when
+   * the environment is cleared.
+   */
+  void reset() {
+    for (final Region region : this.activeRegions) {
+      region.generation++;
+      region.state = RegionState.UNLOADED;
+      region.entities.clear();
+      if (region.pendingLoad != null) {
+        region.pendingLoad.cancel(false);
+        region.pendingLoad = null;
+      }
+    }
+
+    for (final Region[] column : this.regions) {
+      for (final Region region : column) {
+        region.removedMapIds.clear();
+      }
+    }
+
+    this.activeRegions.clear();
+    LoadResult result;
+    while ((result = this.loadedRegions.poll()) != null) {
+      discard(result.entities);
+    }
+  }
+
+  /**
+   * Releases the controllers of entities that have been created in the
+   * background but are never added to the environment.
+   */
+  private static void discard(final Collection<IEntity> entities) {
+    for (final IEntity entity : entities) {
+      Game.getEntityControllerManager().disposeControllers(entity);
+    }
+  }
+
+  private static int clamp(final int index, final int count) {
+    return Math.max(0, Math.min(count - 1, index));
+  }
+
+  private static boolean intersects(final Rectangle2D bounds, final List<Rectangle2D> areas, final double distance) {
+    for (final Rectangle2D area : areas) {
+      if (bounds.intersects(area.getX() - distance, area.getY() - distance, area.getWidth() + distance * 2, area.getHeight() + distance * 2)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private boolean commit(final LoadResult result) {
+    final Region region = result.region;
+
+    // the region has been unloaded or requested again while it was loading
+    if (region.state != RegionState.LOADING || region.generation != result.generation) {
+      discard(result.entities);
+      return false;
+    }
+
+    // mobile entities that have been handed over to another region are still
+    // part of the environment and must not be added twice
+    final List<IEntity> entities = new ArrayList<>(result.entities.size());
+    for (final IEntity entity : result.entities) {
+      if (this.environment.get(entity.getMapId()) == null) {
+        entities.add(entity);
+      } else {
+        Game.getEntityControllerManager().disposeControllers(entity);
+      }
+    }
+
+    region.entities.addAll(entities);
+    region.state = RegionState.LOADED;
+    this.environment.addAll(entities);
+    return true;
+  }
+
+  private List<IEntity> createEntities(final Region region) {
+    final List<IEntity> entities = new ArrayList<>();
+    for (final IMapObject mapObject : region.mapObjects) {
+      if (!region.removedMapIds.contains(mapObject.getId())) {
+        entities.addAll(this.environment.createEntities(mapObject));
+      }
+    }
+
+    return entities;
+  }
+
+  private List<Rectangle2D> getFocusAreas() {
+    final List<Rectangle2D> areas = new ArrayList<>();
+    for (final Supplier<Rectangle2D> focusArea : this.focusAreas) {
+      final Rectangle2D area = focusArea.get();
+      if (area != null) {
+        areas.add(area);
+      }
+    }
+
+    if (this.focusAreas.isEmpty() && Game.getCamera() != null && Game.getCamera().getViewPort() != null) {
+      areas.add(Game.getCamera().getViewPort());
+    }
+
+    return areas;
+  }
+
+  private List<Region> getRegions(final Rectangle2D area, final double distance) {
+    final Rectangle2D bounds = this.regions[0][0].getBounds();
+    final int minColumn = clamp((int) Math.floor((area.getMinX() - distance) / bounds.getWidth()), this.columns);
+    final int minRow = clamp((int) Math.floor((area.getMinY() - distance) / bounds.getHeight()), this.rows);
+    final int maxColumn = clamp((int) Math.floor((area.getMaxX() + distance) / bounds.getWidth()), this.columns);
+    final int maxRow = clamp((int) Math.floor((area.getMaxY() + distance) / bounds.getHeight()), this.rows);
+
+    final List<Region> result = new ArrayList<>();
+    for (int x = minColumn; x <= maxColumn; x++) {
+      for (int y = minRow; y <= maxRow; y++) {
+        result.add(this.regions[x][y]);
+      }
+    }
+
+    return result;
+  }
+
+  private void requestRegion(final Region region) {
+    final int generation = ++region.generation;
+    region.state = RegionState.LOADING;
+    this.activeRegions.add(region);
+
+    if (region.mapObjects.isEmpty()) {
+      this.loadedRegions.add(new LoadResult(region, generation, Collections.emptyList()));
+      return;
+    }
+
+    // the entities are created in the context of the game loop that requested
+    // the region
+    region.pendingLoad = this.getExecutor().submit(GameContext.current().bind(() -> {
+      try {
+        this.loadedRegions.add(new LoadResult(region, generation, this.createEntities(region)));
+      } catch (final Exception e) {
+        log.log(Level.SEVERE, "Could not load the region " + region.getX() + ", " + region.getY(), e);
+      }
+    }));
+  }
+
+  private ExecutorService getExecutor() {
+    if (this.executor == null) {
+      this.executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+        final Thread thread = new Thread(r, "Environment Streamer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    return this.executor;
+  }
+
+  private void unloadRegion(final Region region) {
+    region.generation++;
+    region.state = RegionState.UNLOADED;
+    this.activeRegions.remove(region);
+    if (region.pendingLoad != null) {
+      region.pendingLoad.cancel(false);
+      region.pendingLoad = null;
+    }
+
+    final List<IEntity> removed = new ArrayList<>(region.entities.size());
+    for (final IEntity entity : region.entities) {
+      // entities that have already been removed by the game are not created
+      // again when the region of their map object is loaded again
+      if (this.environment.get(entity.getMapId()) != entity) {
+        final Region origin = this.mapObjectRegions.get(entity.getMapId());
+        if (origin != null) {
+          origin.removedMapIds.add(entity.getMapId());
+        }
+
+        continue;
+      }
+
+      if (entity instanceof IMobileEntity) {
+        final Point2D location = entity.getLocation();
+        final Region current = this.getRegion(location.getX(), location.getY());
+        if (current != region && current.state == RegionState.LOADED) {
+          current.entities.add(entity);
+          continue;
+        }
+      }
+
+      removed.add(entity);
+    }
+
+    region.entities.clear();
+    this.environment.removeAll(removed);
+
+    // release the tiles of the color layers
+    if (this.environment.getAmbientLight() != null) {
+      this.environment.getAmbientLight().clearSection(region.getBounds());
+    }
+
+    if (this.environment.getStaticShadowLayer() != null) {
+      this.environment.getStaticShadowLayer().clearSection(region.getBounds());
+    }
+  }
+
+  public enum RegionState {
+    LOADED, LOADING, UNLOADED
+  }
+
+  /**
+   * A square section of the map whose map objects are loaded and unloaded
+   * together.
+   */
+  public static class Region {
+    private final Rectangle2D bounds;
+    private final Collection<IEntity> entities;
+    private final List<IMapObject> mapObjects;
+    private final Set<Integer> removedMapIds;
+    private final int x;
+    private final int y;
+
+    private volatile int generation;
+    private volatile Future<?> pendingLoad;
+    private volatile RegionState state;
+
+    private Region(final int x, final int y, final Rectangle2D bounds) {
+      this.x = x;
+      this.y = y;
+      this.bounds = bounds;
+      this.entities = Collections.newSetFromMap(new ConcurrentHashMap<IEntity, Boolean>());
+      this.mapObjects = new ArrayList<>();
+      this.removedMapIds = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+      this.state = RegionState.UNLOADED;
+    }
+
+    public Rectangle2D getBounds() {
+      return this.bounds;
+    }
+
+    public Collection<IEntity> getEntities() {
+      return Collections.unmodifiableCollection(this.entities);
+    }
+
+    public List<IMapObject> getMapObjects() {
+      return Collections.unmodifiableList(this.mapObjects);
+    }
+
+    public RegionState getState() {
+      return this.state;
+    }
+
+    public int getX() {
+      return this.x;
+    }
+
+    public int getY() {
+      return this.y;
+    }
+  }
+
+  private static class LoadResult {
+    private final Collection<IEntity> entities;
+    private final int generation;
+    private final Region region;
+
+    private LoadResult(final Region region, final int generation, final Collection<IEntity> entities) {
+      this.region = region;
+      this.generation = generation;
+      this.entities = entities;
+    }
+  }
+}
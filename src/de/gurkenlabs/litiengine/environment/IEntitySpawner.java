@@ -31,6 +31,14 @@ public interface IEntitySpawner<T extends IEntity> extends IUpdateable {
 
   public int getInterval();
 
+  /**
+   * Gets the pool from which new entities are taken. If no pool is set, new
+   * entities are created by {@link #createNew()}.
+   *
+   * @return The pool of the spawned entities or null.
+   */
+  public EntityPool<T> getPool();
+
   public int getSpawnDelay();
 
   public SpawnMode getSpawnMode();
@@ -41,6 +49,8 @@ public interface IEntitySpawner<T extends IEntity> extends IUpdateable {
 
   public void setInterval(int interval);
 
+  public void setPool(EntityPool<T> pool);
+
   public void setSpawnDelay(int delay);
 
   public void setSpawnMode(SpawnMode mode);
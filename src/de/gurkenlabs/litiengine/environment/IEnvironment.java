@@ -30,6 +30,19 @@ import de.gurkenlabs.litiengine.graphics.particles.Emitter;
  * The Interface IMapContainer.
  */
 public interface IEnvironment extends IInitializable, IRenderable {
+  /**
+   * Takes an entity of the specified type from the pool that has been
+   * registered for that type. The entity is not added to the environment.
+   *
+   * @param type
+   *          The type of the entity.
+   * @return A pooled entity or null if no pool has been registered for the
+   *         specified type.
+   *
+   * @see #registerPool(EntityPool)
+   */
+  public <T extends IEntity> T acquire(Class<T> type);
+
   /**
    * Adds the specified entity to the environment container. This also loads the
    * entity (register entity and controllers for update) if the environment has
@@ -40,12 +53,37 @@ public interface IEnvironment extends IInitializable, IRenderable {
    */
   public void add(IEntity entity);
 
+  /**
+   * Adds all the specified entities to the environment container at once. The
+   * entities are registered with the physics engine in bulk and all
+   * <code>onEntitiesAdded</code> consumers are called only once for the whole
+   * batch.
+   *
+   * @param entities
+   *          The entities to add to the environment.
+   */
+  public <T extends IEntity> void addAll(Collection<T> entities);
+
   public void addToGround(IRenderable renderable);
   public void addToOverlay(IRenderable renderable);
   public void addToUI(IRenderable renderable);
 
   public void clear();
 
+  /**
+   * Enables the chunked world mode for this environment. The map objects are
+   * no longer loaded when the environment is initialized. Instead, the map is
+   * partitioned into square regions whose map objects are loaded in the
+   * background when the camera approaches them and unloaded again once it has
+   * left them. This must be called before the environment is initialized.
+   *
+   * @param regionSize
+   *          The size of a region in tiles.
+   * @return The streamer that loads and unloads the regions of this
+   *         environment.
+   */
+  public EnvironmentStreamer enableStreaming(int regionSize);
+
   public List<ICombatEntity> findCombatEntities(Shape shape);
 
   /**
@@ -62,20 +100,82 @@ public interface IEnvironment extends IInitializable, IRenderable {
    */
   public List<ICombatEntity> findCombatEntities(Shape shape, Predicate<ICombatEntity> condition);
 
+  /**
+   * Searches for all combat entities whose hitBox intersect the specified
+   * shape and adds them to the specified collection. This allows callers to
+   * reuse their result collections.
+   * 
+   * @param shape
+   *          The shape to check intersection for.
+   * @param condition
+   *          An additional condition that allows to specify a condition which
+   *          determines if a {@link ICombatEntity} should be considered.
+   * @param result
+   *          The collection to which the found combat entities are added.
+   */
+  public void findCombatEntities(Shape shape, Predicate<ICombatEntity> condition, Collection<? super ICombatEntity> result);
+
   public List<IEntity> findEntities(Shape shape);
 
+  /**
+   * Searches for all entities whose bounding box intersect the specified shape
+   * and adds them to the specified collection.
+   * 
+   * @param shape
+   *          The shape to check intersection for.
+   * @param result
+   *          The collection to which the found entities are added.
+   */
+  public void findEntities(Shape shape, Collection<? super IEntity> result);
+
   public IEntity get(final int mapId);
 
+  /**
+   * Gets the entity with the specified name. If multiple entities have the
+   * same name, the one with the lowest map id is returned.
+   *
+   * @param name
+   *          The name of the entity.
+   * @return The entity with the specified name or null if there is none.
+   */
   public IEntity get(final String name);
 
+  /**
+   * Gets all entities with the specified tag. Tags are case insensitive.
+   *
+   * @param tag
+   *          The tag.
+   * @return A read-only view of the tagged entities that reflects later changes
+   *         of the entities' tags.
+   */
   public Collection<IEntity> getByTag(final String tag);
 
+  /**
+   * Gets all entities of the specified type with the specified tag. The result
+   * is cached per type and kept up to date while entities are added, removed or
+   * (un)tagged, so repeated queries don't filter the tagged entities again.
+   *
+   * @param clss
+   *          The type of the requested entities.
+   * @param tag
+   *          The tag.
+   * @return A read-only view of the tagged entities of the type.
+   */
   public <T extends IEntity> Collection<T> getByTag(Class<T> clss, final String tag);
 
   public AmbientLight getAmbientLight();
 
   public StaticShadowLayer getStaticShadowLayer();
 
+  /**
+   * Gets the streamer of this environment.
+   *
+   * @return The streamer or null if the chunked world mode is not enabled.
+   *
+   * @see #enableStreaming(int)
+   */
+  public EnvironmentStreamer getStreamer();
+
   public MapArea getArea(int mapId);
 
   public MapArea getArea(String name);
@@ -133,6 +233,8 @@ public interface IEnvironment extends IInitializable, IRenderable {
 
   public IMap getMap();
 
+  public <T extends IEntity> EntityPool<T> getPool(Class<T> type);
+
   public Collection<IMobileEntity> getMobileEntities();
 
   public IMobileEntity getMobileEntity(final int mapId);
@@ -182,6 +284,24 @@ public interface IEnvironment extends IInitializable, IRenderable {
 
   public void onEntityRemoved(final Consumer<IEntity> consumer);
 
+  /**
+   * Registers a consumer that is called once for every add operation with all
+   * the entities that have been added by it.
+   *
+   * @param consumer
+   *          The consumer that receives the added entities.
+   */
+  public void onEntitiesAdded(final Consumer<Collection<IEntity>> consumer);
+
+  /**
+   * Registers a consumer that is called once for every remove operation with
+   * all the entities that have been removed by it.
+   *
+   * @param consumer
+   *          The consumer that receives the removed entities.
+   */
+  public void onEntitiesRemoved(final Consumer<Collection<IEntity>> consumer);
+
   public void onEntitiesRendered(final Consumer<Graphics2D> consumer);
 
   public void onInitialized(final Consumer<IEnvironment> consumer);
@@ -196,6 +316,26 @@ public interface IEnvironment extends IInitializable, IRenderable {
 
   public void onOverlayRendered(final Consumer<Graphics2D> consumer);
 
+  /**
+   * Registers the specified pool for the type of its entities. Entities of
+   * exactly this type that are released by {@link #release(IEntity)} are
+   * returned to the pool.
+   *
+   * @param pool
+   *          The pool to register.
+   */
+  public <T extends IEntity> void registerPool(EntityPool<T> pool);
+
+  /**
+   * Removes the specified entity from the environment and returns it to the
+   * pool that has been registered for its type. Entities without a pool are
+   * only removed.
+   *
+   * @param entity
+   *          The entity to release.
+   */
+  public void release(IEntity entity);
+
   public void reloadFromMap(final int mapId);
 
   public void remove(final IEntity entity);
@@ -204,6 +344,16 @@ public interface IEnvironment extends IInitializable, IRenderable {
 
   public void remove(final int mapId);
 
+  /**
+   * Removes all the specified entities from the environment container at once.
+   * All <code>onEntitiesRemoved</code> consumers are called only once for the
+   * whole batch.
+   *
+   * @param entities
+   *          The entities to remove from the environment.
+   */
+  public <T extends IEntity> void removeAll(final Collection<T> entities);
+
   public void removeRenderable(IRenderable renderable);
 
   public void unload();
@@ -27,7 +27,11 @@ public abstract class ColorLayer implements IRenderable {
     this.color = color;
     this.alpha = alpha;
     this.tiles = new Image[env.getMap().getSizeInTiles().width][env.getMap().getSizeInTiles().height];
-    this.updateSection(this.environment.getMap().getBounds());
+
+    // streamed environments only create the tiles of the visible sections
+    if (env.getStreamer() == null) {
+      this.updateSection(this.environment.getMap().getBounds());
+    }
   }
 
   @Override
@@ -42,6 +46,8 @@ public abstract class ColorLayer implements IRenderable {
     final int startY = MathUtilities.clamp(startTile.y, 0, tiles[0].length - 1);
     final int endY = MathUtilities.clamp(endTile.y, 0, tiles[0].length - 1);
 
+    this.updateMissingTiles(startX, startY, endX, endY);
+
     final Point2D origin = Game.getCamera().getViewPortLocation(0, 0);
 
     // draw the tile on the layer image
@@ -52,6 +58,30 @@ public abstract class ColorLayer implements IRenderable {
     }
   }
 
+  /**
+   * Releases the tile images of the specified section. They will be created
+   * again once the section becomes visible.
+   *
+   * @param section
+   *          The section of the map to release the tiles for.
+   */
+  public void clearSection(Rectangle2D section) {
+    final IMap map = this.getEnvironment().getMap();
+    final Rectangle2D tileSection = MapUtilities.getTileBoundingBox(map, section);
+    final Point startTile = MapUtilities.getTile(map, new Point2D.Double(tileSection.getX(), tileSection.getY()));
+    final Point endTile = MapUtilities.getTile(map, new Point2D.Double(tileSection.getMaxX(), tileSection.getMaxY()));
+    final int startX = MathUtilities.clamp(startTile.x, 0, tiles.length);
+    final int startY = MathUtilities.clamp(startTile.y, 0, tiles[0].length);
+    final int endX = MathUtilities.clamp(endTile.x, 0, tiles.length);
+    final int endY = MathUtilities.clamp(endTile.y, 0, tiles[0].length);
+
+    for (int x = startX; x < endX; x++) {
+      for (int y = startY; y < endY; y++) {
+        this.tiles[x][y] = null;
+      }
+    }
+  }
+
   public int getAlpha() {
     return this.alpha;
   }
@@ -99,8 +129,9 @@ public abstract class ColorLayer implements IRenderable {
     final int startX = MathUtilities.clamp(startTile.x, 0, tiles.length - 1);
     final int startY = MathUtilities.clamp(startTile.y, 0, tiles[0].length - 1);
 
-    final int endX = MathUtilities.clamp(endTile.x, 0, tiles.length - 1);
-    final int endY = MathUtilities.clamp(endTile.y, 0, tiles[0].length - 1);
+    // the end tiles are exclusive
+    final int endX = MathUtilities.clamp(endTile.x, 0, tiles.length);
+    final int endY = MathUtilities.clamp(endTile.y, 0, tiles[0].length);
 
     for (int x = startX; x < endX; x++) {
       for (int y = startY; y < endY; y++) {
@@ -110,6 +141,40 @@ public abstract class ColorLayer implements IRenderable {
     }
   }
 
+  /**
+   * Creates the tiles within the specified range that have not been created
+   * yet or that have been released by {@link #clearSection(Rectangle2D)}.
+   */
+  private void updateMissingTiles(final int startX, final int startY, final int endX, final int endY) {
+    if (this.getColor() == null) {
+      return;
+    }
+
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = -1;
+    int maxY = -1;
+    for (int x = startX; x <= endX; x++) {
+      for (int y = startY; y <= endY; y++) {
+        if (this.tiles[x][y] == null) {
+          minX = Math.min(minX, x);
+          minY = Math.min(minY, y);
+          maxX = Math.max(maxX, x);
+          maxY = Math.max(maxY, y);
+        }
+      }
+    }
+
+    if (maxX < 0) {
+      return;
+    }
+
+    final IMap map = this.getEnvironment().getMap();
+    final int tileWidth = map.getTileSize().width;
+    final int tileHeight = map.getTileSize().height;
+    this.updateSection(new Rectangle2D.Double(minX * tileWidth, minY * tileHeight, (maxX - minX + 1) * tileWidth, (maxY - minY + 1) * tileHeight));
+  }
+
   protected abstract void renderSection(Graphics2D g, Rectangle2D section);
 
   protected IEnvironment getEnvironment() {
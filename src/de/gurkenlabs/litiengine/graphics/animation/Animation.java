@@ -2,7 +2,6 @@ package de.gurkenlabs.litiengine.graphics.animation;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,7 +41,7 @@ public class Animation implements IUpdateable, ILaunchable {
     this(name, spritesheet, loop, keyFrameDurations);
 
     if (randomizeStart && !this.keyframes.isEmpty()) {
-      this.firstFrame = this.getKeyframes().get(new Random().nextInt(this.getKeyframes().size()));
+      this.firstFrame = this.getKeyframes().get(Game.getRandom().nextInt(this.getKeyframes().size()));
     }
   }
 
@@ -3,6 +3,7 @@ package de.gurkenlabs.litiengine.graphics.animation;
 import java.awt.image.BufferedImage;
 import java.util.Optional;
 
+import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.annotation.AnimationInfo;
 import de.gurkenlabs.litiengine.entities.Creature;
 import de.gurkenlabs.litiengine.entities.Direction;
@@ -92,7 +93,7 @@ public class CreatureAnimationController<T extends Creature> extends EntityAnima
         return this.randomDeathSprite;
       }
 
-      String randomDeathAnim = ArrayUtilities.getRandom(this.customDeathAnimations);
+      String randomDeathAnim = ArrayUtilities.getRandom(Game.getRandom().current(), this.customDeathAnimations);
       if (randomDeathAnim != null && !randomDeathAnim.isEmpty()) {
         String randomDeathAnmimation = this.getSpritePrefix() + "-" + randomDeathAnim;
         if (this.hasAnimation(randomDeathAnmimation)) {
@@ -31,7 +31,7 @@ public class EntityAnimationController<T extends IEntity> extends AnimationContr
     this.entity = entity;
 
     if (entity != null) {
-      this.spritePrefix = ArrayUtilities.getRandom(getDefaultSpritePrefixes(entity.getClass()));
+      this.spritePrefix = ArrayUtilities.getRandom(Game.getRandom().current(), getDefaultSpritePrefixes(entity.getClass()));
     }
   }
 
@@ -42,7 +42,7 @@ public class EntityAnimationController<T extends IEntity> extends AnimationContr
     this.rendering = new CopyOnWriteArrayList<>();
     this.entity = entity;
 
-    this.spritePrefix = ArrayUtilities.getRandom(getDefaultSpritePrefixes(entity.getClass()));
+    this.spritePrefix = ArrayUtilities.getRandom(Game.getRandom().current(), getDefaultSpritePrefixes(entity.getClass()));
   }
 
   public static <T> String[] getDefaultSpritePrefixes(Class<T> cls) {
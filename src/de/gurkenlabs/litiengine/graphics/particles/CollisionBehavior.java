@@ -0,0 +1,24 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+/**
+ * Determines how the particles of an {@link Emitter} react when they collide
+ * with the collision boxes specified by their collision type.
+ */
+public enum CollisionBehavior {
+  /**
+   * The particle doesn't move during updates in which it would collide. It
+   * keeps its velocity and moves on as soon as its way is free again.
+   */
+  STOP,
+
+  /**
+   * The particle is reflected on the axis it collided on and its velocity is
+   * reduced by the emitter's bounce factor.
+   */
+  BOUNCE,
+
+  /**
+   * The particle is removed as soon as it collides.
+   */
+  REMOVE
+}
@@ -0,0 +1,30 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+/**
+ * Determines how an {@link Emitter} is simulated while it is outside of the
+ * camera's viewport.
+ */
+public enum CullingMode {
+  /**
+   * The emitter is always simulated, regardless of its location.
+   */
+  NONE,
+
+  /**
+   * The emitter is not simulated at all while it is off-screen. Its particles
+   * just keep their state until it enters the viewport again.
+   */
+  FREEZE,
+
+  /**
+   * The emitter is simulated at a reduced rate while it is off-screen. The
+   * farther away it is from the viewport, the fewer ticks it gets updated on.
+   */
+  REDUCED,
+
+  /**
+   * The emitter is not simulated while it is off-screen. Once it enters the
+   * viewport again, its particles are fast-forwarded by the skipped ticks.
+   */
+  FAST_FORWARD
+}
@@ -3,13 +3,13 @@ package de.gurkenlabs.litiengine.graphics.particles;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.ITimeToLive;
@@ -20,6 +20,9 @@ import de.gurkenlabs.litiengine.entities.Entity;
 import de.gurkenlabs.litiengine.graphics.DebugRenderer;
 import de.gurkenlabs.litiengine.graphics.IRenderable;
 import de.gurkenlabs.litiengine.graphics.particles.Particle.ParticleRenderType;
+import de.gurkenlabs.litiengine.physics.CollisionType;
+import de.gurkenlabs.litiengine.physics.IPhysicsEngine;
+import de.gurkenlabs.litiengine.physics.StaticCollisionGrid;
 
 /**
  * An abstract implementation for emitters that provide a particle effect.
@@ -30,8 +33,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   public static final int DEFAULT_UPDATERATE = 30;
   public static final int DEFAULT_SPAWNAMOUNT = 1;
   public static final int DEFAULT_MAXPARTICLES = 100;
-
-  private static final Random RANDOM = new Random();
+  public static final float DEFAULT_BOUNCE_FACTOR = 0.5f;
 
   private final List<Consumer<Emitter>> finishedConsumer;
   private final CopyOnWriteArrayList<Particle> particles;
@@ -39,14 +41,20 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
   
   private boolean activated;
   private final boolean activateOnInit;
+  private volatile boolean culled;
   private long activationTick;
   private long aliveTime;
+  private float bounceFactor;
+  private CollisionBehavior collisionBehavior;
   private long lastSpawn;
+  private long lastUpdateTick;
+  private CullingMode cullingMode;
   private int maxParticles;
   private int particleMaxTTL;
   private int particleMinTTL;
   private int particleUpdateDelay;
   private boolean paused;
+  private SplittableRandom random;
   private int spawnAmount;
   private int spawnRate;
   private int timeToLive;
@@ -58,7 +66,9 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.colors = new ArrayList<>();
     this.finishedConsumer = new CopyOnWriteArrayList<>();
     this.particles = new CopyOnWriteArrayList<>();
-    
+    this.collisionBehavior = CollisionBehavior.STOP;
+    this.bounceFactor = DEFAULT_BOUNCE_FACTOR;
+
     this.groundRenderable = g -> renderParticles(g, ParticleRenderType.GROUND);
     this.overlayRenderable = g -> renderParticles(g, ParticleRenderType.OVERLAY);
     
@@ -73,6 +83,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       this.particleMaxTTL = info.particleMaxTTL();
       this.particleUpdateDelay = info.particleUpdateRate();
       this.activateOnInit = info.activateOnInit();
+      this.cullingMode = info.cullingMode();
     } else {
       this.maxParticles = Emitter.DEFAULT_MAXPARTICLES;
       this.spawnAmount = Emitter.DEFAULT_SPAWNAMOUNT;
@@ -82,6 +93,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       this.particleMaxTTL = 0;
       this.particleUpdateDelay = Emitter.DEFAULT_UPDATERATE;
       this.activateOnInit = true;
+      this.cullingMode = CullingMode.NONE;
     }
   }
 
@@ -101,7 +113,13 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
 
     this.activated = true;
     this.activationTick = Game.getLoop().getTicks();
-    Game.getLoop().attach(this);
+    this.lastUpdateTick = this.activationTick;
+
+    // emitters from the map get a stream that only depends on the world seed
+    // and their map id so that it doesn't matter in which order they are
+    // activated
+    this.random = this.getMapId() > 0 ? Game.getRandom().createStream(this.getMapId()) : Game.getRandom().createStream();
+    Game.getParticleSystem().add(this);
   }
 
   /**
@@ -114,6 +132,19 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.particles.add(particle);
   }
 
+  /**
+   * Deactivates the emitter and removes all of its particles so that it can be
+   * activated again after it has been taken from a pool.
+   */
+  @Override
+  public void reset() {
+    this.deactivate();
+    this.getParticles().clear();
+    super.reset();
+    this.paused = false;
+    this.random = null;
+  }
+
   /**
    * Deactivate.
    */
@@ -127,13 +158,14 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.aliveTime = 0;
     this.activationTick = 0;
     this.lastSpawn = 0;
-    Game.getLoop().detach(this);
+    this.lastUpdateTick = 0;
+    Game.getParticleSystem().remove(this);
   }
 
   public void delete() {
     this.deactivate();
     if (Game.getEnvironment() != null) {
-      Game.getEnvironment().remove(this);
+      Game.getEnvironment().release(this);
     }
   }
 
@@ -147,10 +179,28 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     return this.aliveTime;
   }
 
+  /**
+   * Gets the factor by which the velocity of bouncing particles is scaled when
+   * they collide.
+   *
+   * @return The bounce factor.
+   */
+  public float getBounceFactor() {
+    return this.bounceFactor;
+  }
+
+  public CollisionBehavior getCollisionBehavior() {
+    return this.collisionBehavior;
+  }
+
   public List<Color> getColors() {
     return this.colors;
   }
 
+  public CullingMode getCullingMode() {
+    return this.cullingMode;
+  }
+
   public IRenderable getGroundRenderable() {
     return this.groundRenderable;
   }
@@ -236,6 +286,16 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     return this.getTimeToLive() > 0 && this.timeToLiveReached() || this.activated && this.lastSpawn > 0 && this.getParticles().isEmpty();
   }
 
+  /**
+   * Checks whether this emitter was outside the viewport of the camera during
+   * the last update of the {@link ParticleSystem}.
+   *
+   * @return True if the emitter has been culled.
+   */
+  public boolean isCulled() {
+    return this.culled;
+  }
+
   /**
    * Checks if is paused.
    *
@@ -262,6 +322,18 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     }
   }
 
+  public void setBounceFactor(final float bounceFactor) {
+    this.bounceFactor = bounceFactor;
+  }
+
+  public void setCollisionBehavior(final CollisionBehavior collisionBehavior) {
+    this.collisionBehavior = collisionBehavior;
+  }
+
+  public void setCullingMode(final CullingMode cullingMode) {
+    this.cullingMode = cullingMode;
+  }
+
   public void setColors(final Color... colors) {
     this.colors.clear();
     this.colors.addAll(Arrays.asList(colors));
@@ -319,38 +391,20 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     this.paused = !this.paused;
   }
 
+  /**
+   * Updates the particles and spawns new ones. Active emitters are updated in
+   * batches by the {@link ParticleSystem}, so this only needs to be called for
+   * emitters that are updated manually.
+   */
   @Override
   public void update() {
     if (this.isPaused()) {
+      this.skipUpdate(Game.getLoop().getTicks());
       return;
     }
 
-    // clear particles if the effect time to life is reached
-    if (this.isFinished()) {
-      for (Consumer<Emitter> cons : this.finishedConsumer) {
-        cons.accept(this);
-      }
-
-      this.delete();
-      return;
-    }
-
-    final float updateRatio = (float) this.getParticleUpdateRate() / Game.getLoop().getUpdateRate();
-    for (final Particle p : this.getParticles().stream().collect(Collectors.toList())) {
-      if (this.particleCanBeRemoved(p)) {
-        // remove dead particles
-        this.particles.remove(p);
-        continue;
-      }
-
-      p.update(this.getOrigin(), updateRatio);
-    }
-
-    this.aliveTime = Game.getLoop().getDeltaTime(this.activationTick);
-
-    if ((this.getSpawnRate() == 0 || Game.getLoop().getDeltaTime(this.lastSpawn) >= this.getSpawnRate())) {
-      this.spawnParticle();
-    }
+    this.updateParticles();
+    this.updateEmission(true);
   }
 
   protected void addParticleColor(final Color... colors) {
@@ -382,7 +436,7 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       return DEFAULT_PARTICLE_COLOR;
     }
 
-    return this.colors.get(RANDOM.nextInt(this.colors.size()));
+    return this.colors.get(this.getRandom().nextInt(this.colors.size()));
   }
 
   protected int getRandomParticleTTL() {
@@ -395,15 +449,31 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
       return this.getParticleMaxTTL();
     }
 
-    return RANDOM.nextInt(this.getParticleMaxTTL() - this.getParticleMinTTL()) + this.getParticleMinTTL();
+    return this.getRandom().nextInt(this.getParticleMaxTTL() - this.getParticleMinTTL()) + this.getParticleMinTTL();
   }
 
   protected int getRandomParticleX() {
-    return RANDOM.nextInt((int) this.getWidth());
+    return this.getRandom().nextInt((int) this.getWidth());
   }
 
   protected int getRandomParticleY() {
-    return RANDOM.nextInt((int) this.getHeight());
+    return this.getRandom().nextInt((int) this.getHeight());
+  }
+
+  /**
+   * Gets the random stream of this emitter which is derived from the world seed
+   * of {@link Game#getRandom()} when the emitter is activated. All random
+   * values of the emitter's particles should be taken from this stream to make
+   * the effect reproducible.
+   *
+   * @return The random stream of this emitter.
+   */
+  protected SplittableRandom getRandom() {
+    if (this.random == null) {
+      this.random = Game.getRandom().createStream();
+    }
+
+    return this.random;
   }
 
   /**
@@ -443,6 +513,158 @@ public abstract class Emitter extends Entity implements IUpdateable, ITimeToLive
     }
   }
 
+  void setCulled(final boolean culled) {
+    this.culled = culled;
+  }
+
+  /**
+   * Skips the update of the particles for the specified tick, e.g. because the
+   * emitter is paused. The skipped ticks are not caught up on later.
+   *
+   * @param ticks
+   *          The current tick of the game loop.
+   */
+  void skipUpdate(final long ticks) {
+    this.lastUpdateTick = ticks;
+  }
+
+  /**
+   * Removes dead particles and updates the remaining ones. This may be called
+   * from a worker thread of the {@link ParticleSystem} and must therefore not
+   * touch anything but this emitter's particles.
+   */
+  void updateParticles() {
+    if (this.isFinished()) {
+      return;
+    }
+
+    final float updateRatio = (float) this.getParticleUpdateRate() / Game.getLoop().getUpdateRate();
+    final Point2D origin = this.getOrigin();
+
+    // catch up on the ticks that were skipped while the emitter was culled
+    final long ticks = Game.getLoop().getTicks();
+    final long skippedTicks = this.getCullingMode() == CullingMode.REDUCED || this.getCullingMode() == CullingMode.FAST_FORWARD ? ticks - this.lastUpdateTick - 1 : 0;
+    this.lastUpdateTick = ticks;
+
+    // remove dead particles
+    this.particles.removeIf(this::particleCanBeRemoved);
+
+    final IPhysicsEngine physics = Game.getPhysicsEngine();
+    final StaticCollisionGrid grid = physics != null ? physics.getStaticCollisionGrid() : null;
+    List<Particle> collided = null;
+    for (final Particle p : this.particles) {
+      p.fastForward(updateRatio, skippedTicks);
+      if (grid == null || p.getCollisionType() == null || p.getCollisionType() == CollisionType.NONE) {
+        p.update(origin, updateRatio);
+        continue;
+      }
+
+      final float prevX = p.getX();
+      final float prevY = p.getY();
+      final float prevDx = p.getDx();
+      final float prevDy = p.getDy();
+      final float prevWidth = p.getWidth();
+      final float prevHeight = p.getHeight();
+      p.update(origin, updateRatio);
+      if (p.getX() == prevX && p.getY() == prevY || !collides(p, origin, p.getX(), p.getY(), physics, grid)) {
+        continue;
+      }
+
+      if (this.getCollisionBehavior() == null || this.getCollisionBehavior() == CollisionBehavior.STOP) {
+        // only the colliding step is blocked; the particle keeps its velocity
+        // and moves on once it doesn't collide anymore, e.g. because the
+        // entity it collided with has moved away
+        p.setX(prevX).setY(prevY).setDeltaX(prevDx).setDeltaY(prevDy).setWidth(prevWidth).setHeight(prevHeight);
+        continue;
+      }
+
+      if (this.resolveCollision(p, origin, prevX, prevY, physics, grid)) {
+        if (collided == null) {
+          collided = new ArrayList<>();
+        }
+
+        collided.add(p);
+      }
+    }
+
+    if (collided != null) {
+      this.particles.removeAll(collided);
+    }
+  }
+
+  /**
+   * Finishes this emitter if its time to live is reached or spawns new
+   * particles otherwise.
+   *
+   * @param spawn
+   *          Indicates whether the emitter is currently allowed to spawn new
+   *          particles.
+   */
+  void updateEmission(final boolean spawn) {
+    // clear particles if the effect time to life is reached
+    if (this.isFinished()) {
+      for (Consumer<Emitter> cons : this.finishedConsumer) {
+        cons.accept(this);
+      }
+
+      this.delete();
+      return;
+    }
+
+    this.aliveTime = Game.getLoop().getDeltaTime(this.activationTick);
+
+    if (spawn && (this.getSpawnRate() == 0 || Game.getLoop().getDeltaTime(this.lastSpawn) >= this.getSpawnRate())) {
+      this.spawnParticle();
+    }
+  }
+
+  private static boolean collides(final Particle particle, final Point2D origin, final float x, final float y, final IPhysicsEngine physics, final StaticCollisionGrid grid) {
+    final double boxX = origin.getX() + x;
+    final double boxY = origin.getY() + y;
+    switch (particle.getCollisionType()) {
+    case STATIC:
+      return grid.collides(boxX, boxY, particle.getWidth(), particle.getHeight());
+    case ENTITY:
+      return physics.collides(new Rectangle2D.Double(boxX, boxY, particle.getWidth(), particle.getHeight()), CollisionType.ENTITY);
+    case ALL:
+      return grid.collides(boxX, boxY, particle.getWidth(), particle.getHeight()) || physics.collides(new Rectangle2D.Double(boxX, boxY, particle.getWidth(), particle.getHeight()), CollisionType.ENTITY);
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Resolves the collision of the specified particle according to this
+   * emitter's collision behavior.
+   *
+   * @return True if the particle needs to be removed.
+   */
+  private boolean resolveCollision(final Particle particle, final Point2D origin, final float prevX, final float prevY, final IPhysicsEngine physics, final StaticCollisionGrid grid) {
+    switch (this.getCollisionBehavior()) {
+    case REMOVE:
+      return true;
+    case BOUNCE:
+      // reflect the particle on the axes that caused the collision
+      final boolean collidesX = collides(particle, origin, particle.getX(), prevY, physics, grid);
+      final boolean collidesY = collides(particle, origin, prevX, particle.getY(), physics, grid);
+      final boolean reflectX = collidesX || !collidesY;
+      final boolean reflectY = collidesY || !collidesX;
+      if (reflectX) {
+        particle.setX(prevX);
+        particle.setDeltaX(-particle.getDx() * this.getBounceFactor());
+      }
+
+      if (reflectY) {
+        particle.setY(prevY);
+        particle.setDeltaY(-particle.getDy() * this.getBounceFactor());
+      }
+
+      return false;
+    default:
+      return false;
+    }
+  }
+
   private void renderParticles(final Graphics2D g, final ParticleRenderType renderType) {
     final Point2D origin = this.getOrigin();
     this.particles.forEach(particle -> {
@@ -5,6 +5,8 @@ import java.awt.Graphics2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
+
 public class LeftLineParticle extends Particle {
 
   public LeftLineParticle(final float width, final float height, final Color color, final int ttl) {
@@ -14,6 +16,10 @@ public class LeftLineParticle extends Particle {
   @Override
   public void render(final Graphics2D g, final Point2D emitterOrigin) {
     final Point2D renderLocation = this.getLocation(emitterOrigin);
+    if (ParticleAtlas.DEFAULT.render(g, ParticleShape.LEFT_LINE, this, renderLocation)) {
+      return;
+    }
+
     g.setColor(this.getColor());
     g.draw(new Line2D.Double(renderLocation.getX() + this.getWidth(), renderLocation.getY(), renderLocation.getX(), renderLocation.getY() + this.getHeight()));
   }
@@ -1,11 +1,14 @@
 package de.gurkenlabs.litiengine.graphics.particles;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Stroke;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
+
 public class OvalOutlineParticle extends Particle {
   private Stroke stroke;
 
@@ -16,6 +19,10 @@ public class OvalOutlineParticle extends Particle {
   @Override
   public void render(final Graphics2D g, final Point2D emitterOrigin) {
     final Point2D renderLocation = this.getLocation(emitterOrigin);
+    if ((this.getStroke() == null || this.getStroke() instanceof BasicStroke) && ParticleAtlas.DEFAULT.render(g, ParticleShape.OVAL_OUTLINE, this, renderLocation, this.getStroke() != null ? ((BasicStroke) this.getStroke()).getLineWidth() : 1f)) {
+      return;
+    }
+
     g.setColor(this.getColor());
     Stroke oldStroke = g.getStroke();
     g.setStroke(this.getStroke());
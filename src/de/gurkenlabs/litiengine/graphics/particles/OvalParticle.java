@@ -5,6 +5,8 @@ import java.awt.Graphics2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
+
 public class OvalParticle extends Particle {
 
   public OvalParticle(final float width, final float height, final Color color, final int ttl) {
@@ -14,6 +16,10 @@ public class OvalParticle extends Particle {
   @Override
   public void render(final Graphics2D g, final Point2D emitterOrigin) {
     final Point2D renderLocation = this.getLocation(emitterOrigin);
+    if (ParticleAtlas.DEFAULT.render(g, ParticleShape.OVAL, this, renderLocation)) {
+      return;
+    }
+
     g.setColor(this.getColor());
     g.fill(new Ellipse2D.Double(renderLocation.getX(), renderLocation.getY(), this.getWidth(), this.getHeight()));
   }
@@ -36,6 +36,7 @@ public abstract class Particle implements ITimeToLive {
    */
   private float gravityY;
   private float height;
+  private int opacity;
   private final int timeToLive;
   private float width;
 
@@ -66,6 +67,7 @@ public abstract class Particle implements ITimeToLive {
     this.timeToLive = ttl;
     this.color = color;
     this.colorAlpha = this.color.getAlpha();
+    this.opacity = this.colorAlpha;
     this.collisionType = CollisionType.NONE;
   }
 
@@ -83,6 +85,12 @@ public abstract class Particle implements ITimeToLive {
   }
 
   public Color getColor() {
+    // the color instance is only updated when it's actually requested because
+    // the opacity changes on every update
+    if (this.color.getAlpha() != this.opacity) {
+      this.color = new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), this.opacity);
+    }
+
     return this.color;
   }
 
@@ -90,6 +98,33 @@ public abstract class Particle implements ITimeToLive {
     return this.colorAlpha;
   }
 
+  /**
+   * Advances the movement and size of this particle analytically by the
+   * specified amount of ticks without performing any collision checks. This is
+   * equivalent to calling {@link #update(Point2D, float)} the specified amount
+   * of times for particles that don't collide.
+   *
+   * @param updateRatio
+   *          The update ratio for this particle.
+   * @param ticks
+   *          The amount of ticks to fast-forward.
+   */
+  public void fastForward(final float updateRatio, final long ticks) {
+    if (ticks <= 0) {
+      return;
+    }
+
+    // the position integrates the delta which itself is increased by the
+    // gravity on every tick
+    final float gravitySteps = ticks * (ticks - 1) / 2f * updateRatio * updateRatio;
+    this.x += this.getDx() * updateRatio * ticks + this.getGravityX() * gravitySteps;
+    this.y += this.getDy() * updateRatio * ticks + this.getGravityY() * gravitySteps;
+    this.deltaX += this.getGravityX() * updateRatio * ticks;
+    this.deltaY += this.getGravityY() * updateRatio * ticks;
+    this.width += this.getDeltaWidth() * updateRatio * ticks;
+    this.height += this.getDeltaHeight() * updateRatio * ticks;
+  }
+
   public float getDeltaHeight() {
     return this.deltaHeight;
   }
@@ -132,6 +167,16 @@ public abstract class Particle implements ITimeToLive {
     return this.getRelativeLocation(newEffectLocation);
   }
 
+  /**
+   * Gets the current opacity of this particle, which is the alpha value of its
+   * color faded by its remaining time to live.
+   *
+   * @return The current opacity between 0 and 255.
+   */
+  public int getOpacity() {
+    return this.opacity;
+  }
+
   public ParticleRenderType getParticleRenderType() {
     return particleRenderType;
   }
@@ -162,6 +207,7 @@ public abstract class Particle implements ITimeToLive {
 
   public Particle setColor(final Color color) {
     this.color = color;
+    this.opacity = color.getAlpha();
     return this;
   }
 
@@ -245,7 +291,8 @@ public abstract class Particle implements ITimeToLive {
 
   /**
    * Updates the effect's position, change in xCurrent, change in yCurrent,
-   * remaining lifetime, and color.
+   * remaining lifetime, and color. Collisions are not handled by the particle
+   * itself but resolved afterwards by its {@link Emitter}.
    * 
    * @param emitterOrigin
    *          The current {@link Emitter} origin
@@ -263,11 +310,7 @@ public abstract class Particle implements ITimeToLive {
     }
 
     final int alpha = this.getTimeToLive() > 0 ? (int) ((this.getTimeToLive() - this.getAliveTime()) / (double) this.getTimeToLive() * this.getColorAlpha()) : this.getColorAlpha();
-    this.color = new Color(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), alpha >= 0 ? alpha : 0);
-
-    if (this.getCollisionType() != CollisionType.NONE && Game.getPhysicsEngine() != null && Game.getPhysicsEngine().collides(this.getBoundingBox(emitterOrigin), this.getCollisionType())) {
-      return;
-    }
+    this.opacity = alpha >= 0 ? alpha : 0;
 
     if (this.getDx() != 0) {
       this.x += this.getDx() * updateRatio;
@@ -294,6 +337,15 @@ public abstract class Particle implements ITimeToLive {
     }
   }
 
+  /**
+   * Gets the RGB value of this particle's color without the alpha component.
+   *
+   * @return The RGB value.
+   */
+  int getRGB() {
+    return this.color.getRGB() & 0xFFFFFF;
+  }
+
   protected Point2D getRelativeLocation(final Point2D effectLocation) {
     return new Point2D.Float(getRelativeX(effectLocation.getX()), getRelativeY(effectLocation.getY()));
   }
@@ -0,0 +1,279 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The particle atlas pre-rasterizes the shapes of particles once per shape,
+ * size bucket and color into shared atlas images. Rendering a particle then
+ * only requires blitting a sub-image with an alpha composite instead of
+ * rasterizing a new shape on every frame.
+ *
+ * <p>
+ * The shapes are rasterized at the scale of the graphics object they are
+ * rendered on, e.g. the render scale of the camera, so they are as sharp as
+ * directly rendered shapes. Particles that are larger than
+ * {@link #MAX_SHAPE_SIZE}, have a negative size or are rendered on a graphics
+ * object that is rotated, sheared or scaled by anything other than a multiple of
+ * 1/{@link #SCALE_STEPS} are not supported by the atlas and need to be
+ * rendered directly.
+ * </p>
+ */
+public final class ParticleAtlas {
+  public static final ParticleAtlas DEFAULT = new ParticleAtlas();
+
+  public static final int PAGE_SIZE = 512;
+  public static final int MAX_PAGES = 8;
+  public static final int MAX_SHAPE_SIZE = 64;
+  public static final int SCALE_STEPS = 4;
+
+  private static final int MAX_STROKE_BUCKET = 15;
+  private static final int MAX_SCALE_BUCKET = 0x7FFF;
+  private static final double SCALE_TOLERANCE = 1e-6;
+
+  public enum ParticleShape {
+    RECTANGLE, RECTANGLE_OUTLINE, OVAL, OVAL_OUTLINE, LEFT_LINE, RIGHT_LINE
+  }
+
+  private final Map<Long, Region> regions;
+  private final List<BufferedImage> pages;
+
+  private boolean enabled;
+  private int shelfHeight;
+  private int shelfX;
+  private int shelfY;
+
+  private ParticleAtlas() {
+    this.regions = new ConcurrentHashMap<>();
+    this.pages = new CopyOnWriteArrayList<>();
+    this.enabled = true;
+  }
+
+  public synchronized void clear() {
+    this.regions.clear();
+    this.pages.clear();
+    this.shelfHeight = 0;
+    this.shelfX = 0;
+    this.shelfY = 0;
+  }
+
+  public int getPageCount() {
+    return this.pages.size();
+  }
+
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  public void setEnabled(final boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int size() {
+    return this.regions.size();
+  }
+
+  public boolean render(final Graphics2D g, final ParticleShape shape, final Particle particle, final Point2D location) {
+    return this.render(g, shape, particle, location, 1f);
+  }
+
+  /**
+   * Renders the specified particle by blitting its pre-rasterized shape from
+   * the atlas.
+   *
+   * @param g
+   *          The graphics object to render on.
+   * @param shape
+   *          The shape of the particle.
+   * @param particle
+   *          The particle to render.
+   * @param location
+   *          The top left render location of the particle.
+   * @param stroke
+   *          The stroke width used for outlines and lines.
+   * @return True if the particle was rendered by the atlas; false if it needs
+   *         to be rendered directly.
+   */
+  public boolean render(final Graphics2D g, final ParticleShape shape, final Particle particle, final Point2D location, final float stroke) {
+    if (!this.isEnabled() || particle.getWidth() < 0 || particle.getHeight() < 0) {
+      return false;
+    }
+
+    final int opacity = particle.getOpacity();
+    if (opacity <= 0) {
+      return true;
+    }
+
+    final int width = Math.max(1, Math.round(particle.getWidth()));
+    final int height = Math.max(1, Math.round(particle.getHeight()));
+    if (width > MAX_SHAPE_SIZE || height > MAX_SHAPE_SIZE) {
+      return false;
+    }
+
+    final AffineTransform transform = g.getTransform();
+    final int scaleBucket = getScaleBucket(transform);
+    if (scaleBucket <= 0) {
+      return false;
+    }
+
+    final int strokeBucket = isStroked(shape) ? Math.min(MAX_STROKE_BUCKET, Math.max(1, Math.round(stroke * 2))) : 0;
+    final int padding = (int) Math.ceil(strokeBucket / 2f);
+    final double scale = scaleBucket / (double) SCALE_STEPS;
+    if (Math.ceil((Math.max(width, height) + padding * 2) * scale) > PAGE_SIZE) {
+      return false;
+    }
+
+    final int rgb = particle.getRGB();
+    final long key = (long) scaleBucket << 48 | (long) shape.ordinal() << 44 | (long) width << 37 | (long) height << 30 | (long) strokeBucket << 24 | rgb;
+
+    Region region = this.regions.get(key);
+    if (region == null) {
+      region = this.rasterize(key, shape, rgb, width, height, strokeBucket / 2f, padding, scale);
+    }
+
+    final Composite oldComposite = g.getComposite();
+    float alpha = opacity / 255f;
+    if (oldComposite instanceof AlphaComposite && ((AlphaComposite) oldComposite).getRule() == AlphaComposite.SRC_OVER) {
+      alpha *= ((AlphaComposite) oldComposite).getAlpha();
+    }
+
+    if (alpha < 1) {
+      g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+    }
+
+    // the region is already rasterized at the scale of the graphics object, so
+    // it is blitted in device space
+    final Point2D origin = transform.transform(new Point2D.Double(location.getX() - region.padding, location.getY() - region.padding), null);
+    final int x = (int) Math.round(origin.getX());
+    final int y = (int) Math.round(origin.getY());
+    g.setTransform(new AffineTransform());
+    g.drawImage(region.page, x, y, x + region.width, y + region.height, region.x, region.y, region.x + region.width, region.y + region.height, null);
+    g.setTransform(transform);
+    g.setComposite(oldComposite);
+    return true;
+  }
+
+  /**
+   * Gets the scale of the specified transform in steps of 1/
+   * {@link #SCALE_STEPS}.
+   *
+   * @param transform
+   *          The transform of the graphics object to render on.
+   * @return The scale bucket or 0 if the transform is not supported by the
+   *         atlas.
+   */
+  private static int getScaleBucket(final AffineTransform transform) {
+    if (transform.getShearX() != 0 || transform.getShearY() != 0 || transform.getScaleX() != transform.getScaleY()) {
+      return 0;
+    }
+
+    final double steps = transform.getScaleX() * SCALE_STEPS;
+    final long bucket = Math.round(steps);
+    if (bucket <= 0 || bucket > MAX_SCALE_BUCKET || Math.abs(steps - bucket) > SCALE_TOLERANCE) {
+      return 0;
+    }
+
+    return (int) bucket;
+  }
+
+  private static boolean isStroked(final ParticleShape shape) {
+    return shape != ParticleShape.RECTANGLE && shape != ParticleShape.OVAL;
+  }
+
+  private synchronized Region rasterize(final long key, final ParticleShape shape, final int rgb, final int width, final int height, final float stroke, final int padding, final double scale) {
+    // another thread might have rasterized the shape in the meantime
+    if (this.regions.containsKey(key)) {
+      return this.regions.get(key);
+    }
+
+    final int regionWidth = (int) Math.ceil((width + padding * 2) * scale);
+    final int regionHeight = (int) Math.ceil((height + padding * 2) * scale);
+
+    if (this.shelfX + regionWidth > PAGE_SIZE) {
+      this.shelfX = 0;
+      this.shelfY += this.shelfHeight;
+      this.shelfHeight = 0;
+    }
+
+    if (this.pages.isEmpty() || this.shelfY + regionHeight > PAGE_SIZE) {
+      if (this.pages.size() >= MAX_PAGES) {
+        this.clear();
+      }
+
+      this.pages.add(new BufferedImage(PAGE_SIZE, PAGE_SIZE, BufferedImage.TYPE_INT_ARGB));
+      this.shelfX = 0;
+      this.shelfY = 0;
+      this.shelfHeight = 0;
+    }
+
+    final BufferedImage page = this.pages.get(this.pages.size() - 1);
+    final Region region = new Region(page, this.shelfX, this.shelfY, regionWidth, regionHeight, padding);
+
+    final Graphics2D g = page.createGraphics();
+    g.setColor(new Color(rgb));
+    g.setStroke(new BasicStroke(stroke));
+    g.translate(region.x, region.y);
+    g.scale(scale, scale);
+    g.translate(padding, padding);
+    switch (shape) {
+    case RECTANGLE:
+      g.fill(new Rectangle2D.Double(0, 0, width, height));
+      break;
+    case RECTANGLE_OUTLINE:
+      g.draw(new Rectangle2D.Double(0, 0, width, height));
+      break;
+    case OVAL:
+      g.fill(new Ellipse2D.Double(0, 0, width, height));
+      break;
+    case OVAL_OUTLINE:
+      g.draw(new Ellipse2D.Double(0, 0, width, height));
+      break;
+    case LEFT_LINE:
+      g.draw(new Line2D.Double(width, 0, 0, height));
+      break;
+    case RIGHT_LINE:
+      g.draw(new Line2D.Double(0, 0, width, height));
+      break;
+    default:
+      break;
+    }
+
+    g.dispose();
+
+    this.shelfX += regionWidth;
+    this.shelfHeight = Math.max(this.shelfHeight, regionHeight);
+    this.regions.put(key, region);
+    return region;
+  }
+
+  private static class Region {
+    private final BufferedImage page;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final int padding;
+
+    private Region(final BufferedImage page, final int x, final int y, final int width, final int height, final int padding) {
+      this.page = page;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.padding = padding;
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package de.gurkenlabs.litiengine.graphics.particles;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.util.geom.GeometricUtilities;
+
+/**
+ * The particle system owns all active {@link Emitter} instances and updates
+ * them in one batch per tick instead of registering every emitter with the
+ * game loop separately.
+ *
+ * <p>
+ * The simulation of the existing particles is split across worker threads once
+ * the total amount of particles exceeds the parallel threshold. Spawning new
+ * particles and finishing emitters always happens on the game loop thread.
+ * </p>
+ *
+ * <p>
+ * If the global particle budget is exceeded, emitters that are outside the
+ * camera's viewport stop spawning new particles until the amount of particles
+ * drops below the budget again.
+ * </p>
+ *
+ * <p>
+ * Off-screen emitters are culled according to their {@link CullingMode}. The
+ * update interval of emitters with a reduced simulation rate grows with their
+ * distance to the viewport by one tick per LOD distance. Culling only affects
+ * the particles; the time to live of every emitter that isn't paused is
+ * checked each tick, so culled emitters still finish.
+ * </p>
+ */
+public class ParticleSystem implements IUpdateable {
+  public static final int DEFAULT_MAX_PARTICLES = 20000;
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 2000;
+  public static final int DEFAULT_LOD_DISTANCE = 256;
+  public static final int DEFAULT_MAX_UPDATE_INTERVAL = 10;
+
+  private final Collection<Emitter> emitters;
+
+  // only used on the game loop thread
+  private final List<Emitter> simulated;
+  private final List<Emitter> idle;
+
+  private int lodDistance;
+  private int maxParticles;
+  private int maxUpdateInterval;
+  private int parallelThreshold;
+  private int particleCount;
+  private int visibleEmitters;
+  private int culledEmitters;
+
+  public ParticleSystem() {
+    this.emitters = Collections.newSetFromMap(new ConcurrentHashMap<Emitter, Boolean>());
+    this.simulated = new ArrayList<>();
+    this.idle = new ArrayList<>();
+    this.maxParticles = DEFAULT_MAX_PARTICLES;
+    this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    this.lodDistance = DEFAULT_LOD_DISTANCE;
+    this.maxUpdateInterval = DEFAULT_MAX_UPDATE_INTERVAL;
+  }
+
+  public void add(final Emitter emitter) {
+    if (emitter == null) {
+      return;
+    }
+
+    this.emitters.add(emitter);
+  }
+
+  /**
+   * Gets the amount of emitters that were outside the viewport during the
+   * last tick.
+   *
+   * @return The amount of culled emitters.
+   */
+  public int getCulledEmitters() {
+    return this.culledEmitters;
+  }
+
+  public Collection<Emitter> getEmitters() {
+    return this.emitters;
+  }
+
+  /**
+   * Gets the distance in pixels by which the update interval of an emitter
+   * with a {@link CullingMode#REDUCED} simulation rate is increased by one
+   * tick.
+   *
+   * @return The LOD distance in pixels.
+   */
+  public int getLodDistance() {
+    return this.lodDistance;
+  }
+
+  /**
+   * Gets the global particle budget. Off-screen emitters won't spawn any new
+   * particles while this budget is exceeded.
+   *
+   * @return The maximum amount of particles; a value &lt;= 0 disables the
+   *         budget.
+   */
+  public int getMaxParticles() {
+    return this.maxParticles;
+  }
+
+  public int getMaxUpdateInterval() {
+    return this.maxUpdateInterval;
+  }
+
+  /**
+   * Gets the amount of particles above which the particle simulation is split
+   * across multiple worker threads.
+   *
+   * @return The parallel threshold.
+   */
+  public int getParallelThreshold() {
+    return this.parallelThreshold;
+  }
+
+  /**
+   * Gets the total amount of particles of all emitters, as counted during the
+   * last tick.
+   *
+   * @return The total amount of particles.
+   */
+  public int getParticleCount() {
+    return this.particleCount;
+  }
+
+  /**
+   * Gets the amount of emitters that were inside the viewport during the last
+   * tick.
+   *
+   * @return The amount of visible emitters.
+   */
+  public int getVisibleEmitters() {
+    return this.visibleEmitters;
+  }
+
+  public boolean isBudgetExceeded() {
+    return this.getMaxParticles() > 0 && this.getParticleCount() >= this.getMaxParticles();
+  }
+
+  public void remove(final Emitter emitter) {
+    this.emitters.remove(emitter);
+  }
+
+  public void setLodDistance(final int lodDistance) {
+    this.lodDistance = lodDistance;
+  }
+
+  public void setMaxUpdateInterval(final int maxUpdateInterval) {
+    this.maxUpdateInterval = maxUpdateInterval;
+  }
+
+  public void setMaxParticles(final int maxParticles) {
+    this.maxParticles = maxParticles;
+  }
+
+  public void setParallelThreshold(final int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  @Override
+  public void update() {
+    if (this.emitters.isEmpty()) {
+      this.particleCount = 0;
+      this.visibleEmitters = 0;
+      this.culledEmitters = 0;
+      return;
+    }
+
+    final long ticks = Game.getLoop().getTicks();
+    final Rectangle2D viewPort = getViewPort();
+    int count = 0;
+    int visible = 0;
+    for (final Emitter emitter : this.emitters) {
+      count += emitter.getParticles().size();
+
+      final double distance = viewPort != null ? GeometricUtilities.distance(viewPort, emitter.getBoundingBox()) : 0;
+      emitter.setCulled(distance > 0);
+      if (!emitter.isCulled()) {
+        visible++;
+      }
+
+      if (emitter.isPaused()) {
+        emitter.skipUpdate(ticks);
+        continue;
+      }
+
+      // stagger the updates of culled emitters by their map id
+      final int interval = this.getUpdateInterval(emitter, distance);
+      if (interval > 0 && Math.floorMod(ticks + emitter.getMapId(), interval) == 0) {
+        this.simulated.add(emitter);
+      } else {
+        this.idle.add(emitter);
+      }
+    }
+
+    this.particleCount = count;
+    this.visibleEmitters = visible;
+    this.culledEmitters = this.emitters.size() - visible;
+
+    try {
+      // 1. simulate all existing particles
+      if (count >= this.getParallelThreshold() && this.simulated.size() > 1) {
+        // the worker threads need to resolve the context of this particle
+        // system
+        final GameContext context = GameContext.current();
+        this.simulated.parallelStream().forEach(emitter -> context.execute(emitter::updateParticles));
+      } else {
+        for (final Emitter emitter : this.simulated) {
+          emitter.updateParticles();
+        }
+      }
+
+      // 2. spawn new particles and finish emitters on the loop thread
+      final boolean budgetExceeded = this.isBudgetExceeded();
+      for (final Emitter emitter : this.simulated) {
+        emitter.updateEmission(!budgetExceeded || !emitter.isCulled());
+      }
+
+      // 3. emitters whose particles are not simulated during this tick must
+      // still reach their time to live
+      for (final Emitter emitter : this.idle) {
+        emitter.updateEmission(false);
+      }
+    } finally {
+      this.simulated.clear();
+      this.idle.clear();
+    }
+  }
+
+  /**
+   * Gets the amount of ticks between two updates of the specified emitter.
+   *
+   * @param emitter
+   *          The emitter.
+   * @param distance
+   *          The distance of the emitter to the viewport.
+   * @return The update interval in ticks or 0 if the emitter should not be
+   *         updated at all.
+   */
+  private int getUpdateInterval(final Emitter emitter, final double distance) {
+    if (distance <= 0 || emitter.getCullingMode() == null) {
+      return 1;
+    }
+
+    switch (emitter.getCullingMode()) {
+    case FREEZE:
+    case FAST_FORWARD:
+      return 0;
+    case REDUCED:
+      final int interval = 2 + (int) (distance / Math.max(1, this.getLodDistance()));
+      return Math.min(interval, Math.max(1, this.getMaxUpdateInterval()));
+    default:
+      return 1;
+    }
+  }
+
+  private static Rectangle2D getViewPort() {
+    if (Game.getCamera() == null) {
+      return null;
+    }
+
+    return Game.getCamera().getViewPort();
+  }
+}
@@ -6,6 +6,7 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
 
 /**
  * Represents a particle in 2D space.
@@ -18,6 +19,10 @@ public class RectangleFillParticle extends Particle {
 
   @Override
   public void render(final Graphics2D g, final Point2D emitterOrigin) {
+    if (ParticleAtlas.DEFAULT.render(g, ParticleShape.RECTANGLE, this, this.getLocation(emitterOrigin))) {
+      return;
+    }
+
     g.setColor(this.getColor());
 
     Game.getRenderEngine().renderShape(g, new Rectangle2D.Float(this.getRelativeX(emitterOrigin.getX()), this.getRelativeY(emitterOrigin.getY()), (float) this.getWidth(), (float) this.getHeight()));
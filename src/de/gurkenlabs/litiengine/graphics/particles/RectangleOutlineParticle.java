@@ -7,6 +7,8 @@ import java.awt.Stroke;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
+
 public class RectangleOutlineParticle extends Particle {
   private float stroke = 0.5f;
 
@@ -21,6 +23,10 @@ public class RectangleOutlineParticle extends Particle {
   @Override
   public void render(final Graphics2D g, final Point2D emitterOrigin) {
     final Point2D renderLocation = this.getLocation(emitterOrigin);
+    if (ParticleAtlas.DEFAULT.render(g, ParticleShape.RECTANGLE_OUTLINE, this, renderLocation, this.stroke)) {
+      return;
+    }
+
     final Stroke oldStroke = g.getStroke();
     g.setColor(this.getColor());
     g.setStroke(new BasicStroke(this.stroke));
@@ -59,13 +59,13 @@ public class FireEmitter extends Emitter {
    *          the max axis movement
    */
   public void newParticle(final Color color, final int life, final double maxAxisMovement) {
-    final boolean randBool = Math.random() >= 0.5;
+    final boolean randBool = this.getRandom().nextDouble() >= 0.5;
 
-    final float x = (float) (this.getWidth() * 0.5 + Math.random() * maxAxisMovement * (randBool ? -1f : 1f));
-    final float dx = (float) (Math.random() * 0.2);
-    final float dy = (float) (Math.random() * 2 * -1f);
+    final float x = (float) (this.getWidth() * 0.5 + this.getRandom().nextDouble() * maxAxisMovement * (randBool ? -1f : 1f));
+    final float dx = (float) (this.getRandom().nextDouble() * 0.2);
+    final float dy = (float) (this.getRandom().nextDouble() * 2 * -1f);
     final float gravityY = 0.0015f * (randBool ? 1f : -1f);
-    final float size = (float) (4 + Math.random() * 5);
+    final float size = (float) (4 + this.getRandom().nextDouble() * 5);
 
     this.addParticle(new RectangleFillParticle(size, size, color, life).setX(x).setDeltaX(dx).setDeltaY(dy).setDeltaIncY(gravityY));
   }
@@ -1,7 +1,7 @@
 package de.gurkenlabs.litiengine.graphics.particles.emitters;
 
 import java.awt.Color;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import de.gurkenlabs.litiengine.annotation.EmitterInfo;
 import de.gurkenlabs.litiengine.annotation.EntityInfo;
@@ -30,18 +30,18 @@ public class ShimmerEmitter extends Emitter {
 
   @Override
   public Particle createNewParticle() {
-    final Random rand = new Random();
+    final SplittableRandom rand = this.getRandom();
 
     final float x = rand.nextInt((int) this.getWidth());
     final float y = rand.nextInt((int) this.getHeight());
-    final float randX = rand.nextFloat();
-    final float dx = Math.random() >= 0.5 ? -randX : randX;
-    final float dy = Math.random() >= 0.5 ? -randX : randX;
+    final float randX = (float) rand.nextDouble();
+    final float dx = rand.nextDouble() >= 0.5 ? -randX : randX;
+    final float dy = rand.nextDouble() >= 0.5 ? -randX : randX;
     final byte size = (byte) (rand.nextInt(3) + 2);
 
-    Color color = new Color(255, 255, 255, new Random().nextInt(155) + 100);
-    if (rand.nextFloat() > 0.5) {
-      color = new Color(170, 255, 255, new Random().nextInt(155) + 100);
+    Color color = new Color(255, 255, 255, rand.nextInt(155) + 100);
+    if (rand.nextDouble() > 0.5) {
+      color = new Color(170, 255, 255, rand.nextInt(155) + 100);
     }
 
     return new ShimmerParticle(this.getBoundingBox(), size, size, color).setX(x).setY(y).setDeltaX(dx).setDeltaY(dy);
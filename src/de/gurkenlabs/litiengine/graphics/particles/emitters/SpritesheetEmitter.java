@@ -2,7 +2,6 @@ package de.gurkenlabs.litiengine.graphics.particles.emitters;
 
 import java.awt.Image;
 import java.awt.geom.Point2D;
-import java.util.Random;
 
 import de.gurkenlabs.litiengine.graphics.Spritesheet;
 import de.gurkenlabs.litiengine.graphics.particles.Emitter;
@@ -22,7 +21,7 @@ public abstract class SpritesheetEmitter extends Emitter {
   }
 
   protected Image getRandomSprite() {
-    return this.getSpritesheet().getSprite(new Random().nextInt(this.getSpritesheet().getTotalNumberOfSprites()));
+    return this.getSpritesheet().getSprite(this.getRandom().nextInt(this.getSpritesheet().getTotalNumberOfSprites()));
   }
   
   @Override
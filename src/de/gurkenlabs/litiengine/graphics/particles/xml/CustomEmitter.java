@@ -17,7 +17,6 @@ import de.gurkenlabs.litiengine.graphics.particles.RightLineParticle;
 import de.gurkenlabs.litiengine.graphics.particles.ShimmerParticle;
 import de.gurkenlabs.litiengine.graphics.particles.SpriteParticle;
 import de.gurkenlabs.litiengine.graphics.particles.TextParticle;
-import de.gurkenlabs.litiengine.util.MathUtilities;
 import de.gurkenlabs.litiengine.util.io.FileUtilities;
 import de.gurkenlabs.litiengine.util.io.XmlUtilities;
 
@@ -115,16 +114,16 @@ public class CustomEmitter extends Emitter {
     float deltaWidth;
     float deltaHeight;
 
-    x = this.getEmitterData().getParticleX().get();
-    y = this.getEmitterData().getParticleY().get();
-    deltaX = this.getEmitterData().getDeltaX().get();
-    deltaY = this.getEmitterData().getDeltaY().get();
-    gravityX = this.getEmitterData().getGravityX().get();
-    gravityY = this.getEmitterData().getGravityY().get();
-    width = this.getEmitterData().getParticleWidth().get();
-    height = this.getEmitterData().getParticleHeight().get();
-    deltaWidth = this.getEmitterData().getDeltaWidth().get();
-    deltaHeight = this.getEmitterData().getDeltaHeight().get();
+    x = this.getEmitterData().getParticleX().get(this.getRandom());
+    y = this.getEmitterData().getParticleY().get(this.getRandom());
+    deltaX = this.getEmitterData().getDeltaX().get(this.getRandom());
+    deltaY = this.getEmitterData().getDeltaY().get(this.getRandom());
+    gravityX = this.getEmitterData().getGravityX().get(this.getRandom());
+    gravityY = this.getEmitterData().getGravityY().get(this.getRandom());
+    width = this.getEmitterData().getParticleWidth().get(this.getRandom());
+    height = this.getEmitterData().getParticleHeight().get(this.getRandom());
+    deltaWidth = this.getEmitterData().getDeltaWidth().get(this.getRandom());
+    deltaHeight = this.getEmitterData().getDeltaHeight().get(this.getRandom());
 
     Particle particle;
     switch (this.getEmitterData().getParticleType()) {
@@ -155,7 +154,7 @@ public class CustomEmitter extends Emitter {
         return null;
       }
 
-      particle = new SpriteParticle(sprite.getSprite(MathUtilities.randomInRange(0, sprite.getTotalNumberOfSprites() - 1)), this.getRandomParticleTTL()).setX(x).setY(y).setDeltaIncX(gravityX).setDeltaIncY(gravityY).setDeltaX(deltaX).setDeltaY(deltaY).setDeltaWidth(deltaWidth)
+      particle = new SpriteParticle(sprite.getSprite(this.getRandom().nextInt(sprite.getTotalNumberOfSprites())), this.getRandomParticleTTL()).setX(x).setY(y).setDeltaIncX(gravityX).setDeltaIncY(gravityY).setDeltaX(deltaX).setDeltaY(deltaY).setDeltaWidth(deltaWidth)
           .setDeltaHeight(deltaHeight);
       break;
     default:
@@ -179,6 +178,15 @@ public class CustomEmitter extends Emitter {
     this.setSpawnRate(this.getEmitterData().getSpawnRate());
     this.setParticleUpdateRate(this.getEmitterData().getUpdateRate());
     this.setSize(this.getEmitterData().getWidth(), this.getEmitterData().getHeight());
+    if (this.getEmitterData().getCullingMode() != null) {
+      this.setCullingMode(this.getEmitterData().getCullingMode());
+    }
+
+    if (this.getEmitterData().getCollisionBehavior() != null) {
+      this.setCollisionBehavior(this.getEmitterData().getCollisionBehavior());
+    }
+
+    this.setBounceFactor(this.getEmitterData().getBounceFactor());
 
     for (final ParticleColor color : this.getEmitterData().getColors()) {
       this.addParticleColor(color.toColor());
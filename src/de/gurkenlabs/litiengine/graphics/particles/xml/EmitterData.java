@@ -13,6 +13,8 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
+import de.gurkenlabs.litiengine.graphics.particles.CollisionBehavior;
+import de.gurkenlabs.litiengine.graphics.particles.CullingMode;
 import de.gurkenlabs.litiengine.graphics.particles.Emitter;
 import de.gurkenlabs.litiengine.physics.CollisionType;
 import de.gurkenlabs.litiengine.util.ArrayUtilities;
@@ -111,6 +113,15 @@ public class EmitterData implements Serializable, Comparable<EmitterData> {
   @XmlElement
   private CollisionType collisionType;
 
+  @XmlElement
+  private CollisionBehavior collisionBehavior;
+
+  @XmlElement
+  private float bounceFactor;
+
+  @XmlAttribute
+  private CullingMode cullingMode;
+
   public EmitterData() {
     this.colors = new ArrayList<>();
     this.x = new ParticleParameter();
@@ -126,6 +137,9 @@ public class EmitterData implements Serializable, Comparable<EmitterData> {
     this.colorDeviation = 0;
     this.alphaDeviation = 0;
     this.collisionType = CollisionType.NONE;
+    this.collisionBehavior = CollisionBehavior.STOP;
+    this.bounceFactor = Emitter.DEFAULT_BOUNCE_FACTOR;
+    this.cullingMode = CullingMode.NONE;
     this.updateRate = Emitter.DEFAULT_UPDATERATE;
   }
 
@@ -149,6 +163,9 @@ public class EmitterData implements Serializable, Comparable<EmitterData> {
     this.alphaDeviation = data.alphaDeviation;
     this.updateRate = data.updateRate;
     this.collisionType = data.collisionType;
+    this.collisionBehavior = data.collisionBehavior;
+    this.bounceFactor = data.bounceFactor;
+    this.cullingMode = data.cullingMode;
     this.maxParticles = data.maxParticles;
     this.name = data.name;
     this.particleMinTTL = data.particleMinTTL;
@@ -293,6 +310,21 @@ public class EmitterData implements Serializable, Comparable<EmitterData> {
     return this.collisionType;
   }
 
+  @XmlTransient
+  public CollisionBehavior getCollisionBehavior() {
+    return this.collisionBehavior;
+  }
+
+  @XmlTransient
+  public float getBounceFactor() {
+    return this.bounceFactor;
+  }
+
+  @XmlTransient
+  public CullingMode getCullingMode() {
+    return this.cullingMode;
+  }
+
   @XmlTransient
   public int getSpawnRate() {
     return this.spawnRate;
@@ -424,6 +456,18 @@ public class EmitterData implements Serializable, Comparable<EmitterData> {
     this.collisionType = physics;
   }
 
+  public void setCollisionBehavior(CollisionBehavior collisionBehavior) {
+    this.collisionBehavior = collisionBehavior;
+  }
+
+  public void setBounceFactor(float bounceFactor) {
+    this.bounceFactor = bounceFactor;
+  }
+
+  public void setCullingMode(CullingMode cullingMode) {
+    this.cullingMode = cullingMode;
+  }
+
   public void setSpawnAmount(final int spawnAmount) {
     this.spawnAmount = spawnAmount;
   }
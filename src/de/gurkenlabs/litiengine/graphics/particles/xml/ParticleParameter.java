@@ -2,6 +2,7 @@ package de.gurkenlabs.litiengine.graphics.particles.xml;
 
 import java.io.Serializable;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -18,6 +19,10 @@ public class ParticleParameter implements Serializable {
     return min + new Random().nextInt(max - min + 1);
   }
 
+  public static int randomInRange(final SplittableRandom random, final int min, final int max) {
+    return min + random.nextInt(max - min + 1);
+  }
+
   @XmlAttribute
   private float maxValue;
 
@@ -46,6 +51,22 @@ public class ParticleParameter implements Serializable {
     }
   }
 
+  /**
+   * Gets either the actual value or a random value from the specified random
+   * stream, depending on the random number flag being set.
+   *
+   * @param random
+   *          The random stream to take the random value from.
+   * @return The value of this parameter.
+   */
+  public float get(final SplittableRandom random) {
+    if (maxValue != -1 && minValue < maxValue) {
+      return (float) MathUtilities.randomInRange(random, this.getMinValue(), this.getMaxValue());
+    } else {
+      return this.getMinValue();
+    }
+  }
+
   @XmlTransient
   public float getMaxValue() {
     return this.maxValue;
@@ -0,0 +1,90 @@
+package de.gurkenlabs.litiengine.net;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct byte buffers with a fixed capacity. Direct buffers can be
+ * read from and written to a channel without an additional copy, but they are
+ * expensive to allocate, so the network classes acquire them from a pool and
+ * release them once the data has been processed.
+ */
+public class ByteBufferPool {
+  public static final int DEFAULT_MAX_SIZE = 64;
+
+  private final int bufferSize;
+  private final int maxSize;
+  private final Deque<ByteBuffer> available;
+  private final AtomicInteger availableCount;
+
+  public ByteBufferPool(final int bufferSize) {
+    this(bufferSize, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Instantiates a new byte buffer pool.
+   *
+   * @param bufferSize
+   *          The capacity of the pooled buffers.
+   * @param maxSize
+   *          The maximum amount of buffers that are kept in the pool. Buffers
+   *          that are released while the pool is full are left to the garbage
+   *          collector.
+   */
+  public ByteBufferPool(final int bufferSize, final int maxSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("The buffer size must be greater than 0.");
+    }
+
+    this.bufferSize = bufferSize;
+    this.maxSize = maxSize;
+    this.available = new ConcurrentLinkedDeque<>();
+    this.availableCount = new AtomicInteger();
+  }
+
+  /**
+   * Takes a buffer from the pool or allocates a new one if the pool is empty.
+   *
+   * @return A cleared direct buffer with the capacity of this pool.
+   */
+  public ByteBuffer acquire() {
+    final ByteBuffer buffer = this.available.pollFirst();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(this.bufferSize);
+    }
+
+    this.availableCount.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  public int getAvailable() {
+    return this.availableCount.get();
+  }
+
+  public int getBufferSize() {
+    return this.bufferSize;
+  }
+
+  /**
+   * Returns the specified buffer to the pool. The buffer must not be used by
+   * the caller anymore.
+   *
+   * @param buffer
+   *          The buffer to return to the pool.
+   */
+  public void release(final ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffer.capacity() != this.bufferSize) {
+      return;
+    }
+
+    if (this.availableCount.incrementAndGet() > this.maxSize) {
+      this.availableCount.decrementAndGet();
+      return;
+    }
+
+    this.available.offerFirst(buffer);
+  }
+}
@@ -0,0 +1,25 @@
+package de.gurkenlabs.litiengine.net;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * An observer that receives incoming datagrams as buffers instead of arrays,
+ * which avoids copying the data of every datagram.
+ */
+public interface IIncomingBufferObserver {
+
+  /**
+   * This method is called for every datagram that has been received.
+   *
+   * @param data
+   *          A read-only view of the received datagram whose remaining bytes
+   *          are exactly the bytes of the datagram. The view is backed by a
+   *          pooled buffer and is only valid until this method returns.
+   * @param address
+   *          the address
+   * @param port
+   *          the port
+   */
+  public void packetReceived(ByteBuffer data, InetAddress address, int port);
+}
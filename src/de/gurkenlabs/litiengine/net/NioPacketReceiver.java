@@ -0,0 +1,259 @@
+package de.gurkenlabs.litiengine.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.GameContext;
+
+/**
+ * A packet receiver that is based on a non-blocking {@link DatagramChannel}.
+ *
+ * <p>
+ * The receiver thread waits on a {@link Selector} until the channel is
+ * readable and then drains up to {@link #getBatchSize()} datagrams at once into
+ * pooled direct buffers before it dispatches them to the observers. Buffer
+ * observers get a read-only view of every datagram; array observers get a copy
+ * that is exactly as long as the datagram.
+ * </p>
+ */
+public class NioPacketReceiver implements IPacketReceiver {
+  /**
+   * The maximum payload of a UDP datagram. Datagrams that are larger than the
+   * receive buffers are truncated by the channel.
+   */
+  public static final int MAX_DATAGRAM_SIZE = 65507;
+  public static final int DEFAULT_BATCH_SIZE = 32;
+
+  private static final Logger log = Logger.getLogger(NioPacketReceiver.class.getName());
+  private static final long SELECT_TIMEOUT = 100;
+
+  private final DatagramChannel channel;
+  private final ByteBufferPool bufferPool;
+  private final List<IIncomingPacketObserver> incomingPacketObservers;
+  private final List<IIncomingBufferObserver> incomingBufferObservers;
+
+  private final ByteBuffer[] batch;
+  private final InetSocketAddress[] batchSenders;
+
+  private Selector selector;
+  private Thread thread;
+  private volatile boolean isTerminated;
+
+  /**
+   * Instantiates a new receiver on a channel that is bound to the specified
+   * port.
+   *
+   * @param port
+   *          the port
+   * @throws IOException
+   *           If the channel cannot be opened or bound.
+   */
+  public NioPacketReceiver(final int port) throws IOException {
+    this(openChannel(port));
+  }
+
+  public NioPacketReceiver(final DatagramChannel channel) {
+    this(channel, new ByteBufferPool(MAX_DATAGRAM_SIZE), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Instantiates a new receiver on the specified channel. The channel is
+   * switched to non-blocking mode and closed when the receiver is terminated.
+   *
+   * @param channel
+   *          The bound channel to receive from.
+   * @param bufferPool
+   *          The pool that provides the receive buffers.
+   * @param batchSize
+   *          The maximum amount of datagrams that are received before they are
+   *          dispatched.
+   */
+  public NioPacketReceiver(final DatagramChannel channel, final ByteBufferPool bufferPool, final int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("The batch size must be greater than 0.");
+    }
+
+    this.channel = channel;
+    this.bufferPool = bufferPool;
+    this.incomingPacketObservers = new CopyOnWriteArrayList<>();
+    this.incomingBufferObservers = new CopyOnWriteArrayList<>();
+    this.batch = new ByteBuffer[batchSize];
+    this.batchSenders = new InetSocketAddress[batchSize];
+  }
+
+  public int getBatchSize() {
+    return this.batch.length;
+  }
+
+  public ByteBufferPool getBufferPool() {
+    return this.bufferPool;
+  }
+
+  /**
+   * Gets the channel of this receiver. The channel can be shared with a
+   * {@link NioPacketSender} so that responses are sent from the port that the
+   * clients are sending to.
+   *
+   * @return The channel of this receiver.
+   */
+  public DatagramChannel getChannel() {
+    return this.channel;
+  }
+
+  public boolean isTerminated() {
+    return this.isTerminated;
+  }
+
+  public void registerForIncomingBuffers(final IIncomingBufferObserver observer) {
+    if (!this.incomingBufferObservers.contains(observer)) {
+      this.incomingBufferObservers.add(observer);
+    }
+  }
+
+  @Override
+  public void registerForIncomingPackets(final IIncomingPacketObserver observer) {
+    if (!this.incomingPacketObservers.contains(observer)) {
+      this.incomingPacketObservers.add(observer);
+    }
+  }
+
+  @Override
+  public void start() {
+    if (this.thread != null) {
+      return;
+    }
+
+    try {
+      this.channel.configureBlocking(false);
+      this.selector = Selector.open();
+      this.channel.register(this.selector, SelectionKey.OP_READ);
+    } catch (final IOException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      return;
+    }
+
+    // the observers are called in the context that started the receiver
+    this.thread = new Thread(GameContext.current().bind(this::run), "NIO Packet Receiver");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  @Override
+  public void terminate() {
+    this.isTerminated = true;
+    if (this.selector != null) {
+      this.selector.wakeup();
+    }
+  }
+
+  private static DatagramChannel openChannel(final int port) throws IOException {
+    final DatagramChannel channel = DatagramChannel.open();
+    channel.bind(new InetSocketAddress(port));
+    return channel;
+  }
+
+  private void run() {
+    try {
+      while (!this.isTerminated) {
+        this.selector.select(SELECT_TIMEOUT);
+        final Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          final SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isValid() && key.isReadable()) {
+            this.drain();
+          }
+        }
+      }
+    } catch (final IOException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    } finally {
+      this.close();
+    }
+  }
+
+  /**
+   * Receives datagrams until the channel has no more pending datagrams and
+   * dispatches them in batches.
+   */
+  private void drain() {
+    int received;
+    do {
+      received = this.receiveBatch();
+      for (int i = 0; i < received; i++) {
+        this.dispatch(this.batch[i], this.batchSenders[i]);
+        this.bufferPool.release(this.batch[i]);
+        this.batch[i] = null;
+        this.batchSenders[i] = null;
+      }
+    } while (received == this.batch.length && !this.isTerminated);
+  }
+
+  private int receiveBatch() {
+    int received = 0;
+    while (received < this.batch.length) {
+      final ByteBuffer buffer = this.bufferPool.acquire();
+      final SocketAddress sender;
+      try {
+        sender = this.channel.receive(buffer);
+      } catch (final IOException e) {
+        // nothing has been received into the buffer, so there is nothing to
+        // dispatch
+        log.log(Level.SEVERE, e.getMessage(), e);
+        this.bufferPool.release(buffer);
+        break;
+      }
+
+      if (sender == null) {
+        this.bufferPool.release(buffer);
+        break;
+      }
+
+      buffer.flip();
+      this.batch[received] = buffer;
+      this.batchSenders[received] = (InetSocketAddress) sender;
+      received++;
+    }
+
+    return received;
+  }
+
+  private void dispatch(final ByteBuffer buffer, final InetSocketAddress sender) {
+    if (!buffer.hasRemaining()) {
+      return;
+    }
+
+    for (final IIncomingBufferObserver observer : this.incomingBufferObservers) {
+      observer.packetReceived(buffer.asReadOnlyBuffer(), sender.getAddress(), sender.getPort());
+    }
+
+    if (this.incomingPacketObservers.isEmpty()) {
+      return;
+    }
+
+    final byte[] data = new byte[buffer.remaining()];
+    buffer.duplicate().get(data);
+    for (final IIncomingPacketObserver observer : this.incomingPacketObservers) {
+      observer.packetReceived(data, sender.getAddress(), sender.getPort());
+    }
+  }
+
+  private void close() {
+    try {
+      this.selector.close();
+      this.channel.close();
+    } catch (final IOException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+}
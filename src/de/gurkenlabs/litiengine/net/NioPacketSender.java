@@ -0,0 +1,157 @@
+package de.gurkenlabs.litiengine.net;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+
+/**
+ * A packet sender that writes the packets to a {@link DatagramChannel} through
+ * pooled direct buffers.
+ *
+ * <p>
+ * If the sender shares the channel of a {@link NioPacketReceiver}, the channel
+ * is non-blocking and the send buffer of the socket can be full. The sender
+ * then retries a few times before the datagram is dropped, like it would be
+ * dropped on the network. Dropped datagrams are counted by
+ * {@link #getDroppedDatagrams()}.
+ * </p>
+ */
+public class NioPacketSender implements IPacketSender {
+  private static final Logger log = Logger.getLogger(NioPacketSender.class.getName());
+  private static final int MAX_SEND_ATTEMPTS = 3;
+
+  private final DatagramChannel channel;
+  private final ByteBufferPool bufferPool;
+  private final AtomicLong droppedDatagrams;
+
+  /**
+   * Instantiates a new sender on its own channel that is bound to an ephemeral
+   * port.
+   *
+   * @throws IOException
+   *           If the channel cannot be opened.
+   */
+  public NioPacketSender() throws IOException {
+    this(DatagramChannel.open());
+  }
+
+  public NioPacketSender(final DatagramChannel channel) {
+    this(channel, new ByteBufferPool(NioPacketReceiver.MAX_DATAGRAM_SIZE));
+  }
+
+  public NioPacketSender(final DatagramChannel channel, final ByteBufferPool bufferPool) {
+    this.channel = channel;
+    this.bufferPool = bufferPool;
+    this.droppedDatagrams = new AtomicLong();
+  }
+
+  public DatagramChannel getChannel() {
+    return this.channel;
+  }
+
+  /**
+   * Gets the amount of datagrams that could not be sent by this sender, either
+   * because they exceeded the maximum datagram size or because the channel
+   * could not take them.
+   *
+   * @return The amount of dropped datagrams.
+   */
+  public long getDroppedDatagrams() {
+    return this.droppedDatagrams.get();
+  }
+
+  @Override
+  public void sendData(final Package packet, final InetAddress ipAddress, final int port) {
+    final byte[] data = packet.getData();
+    if (!this.sendData(data, ipAddress, port)) {
+      return;
+    }
+
+    if (packet instanceof MessagePackage) {
+      Game.getMetrics().packageSent(MessageType.get(packet.getPacketId()), data.length);
+    } else {
+      // other packages, e.g. the datagrams of the channels, have no message type
+      Game.getMetrics().packageSent(data.length);
+    }
+  }
+
+  @Override
+  public void sendData(final Package packet, final String ipAddress, final int port) {
+    try {
+      this.sendData(packet, InetAddress.getByName(ipAddress), port);
+    } catch (final UnknownHostException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Sends the specified data as a single datagram.
+   *
+   * @param data
+   *          The data to send.
+   * @param ipAddress
+   *          the ip address
+   * @param port
+   *          the port
+   * @return True if the datagram was sent; false if it was dropped.
+   */
+  public boolean sendData(final byte[] data, final InetAddress ipAddress, final int port) {
+    if (data.length > this.bufferPool.getBufferSize()) {
+      log.log(Level.WARNING, "Could not send {0} bytes to {1}:{2} because the data exceeds the maximum datagram size.", new Object[] { data.length, ipAddress.getHostAddress(), port });
+      this.droppedDatagrams.incrementAndGet();
+      return false;
+    }
+
+    final ByteBuffer buffer = this.bufferPool.acquire();
+    try {
+      buffer.put(data);
+      buffer.flip();
+      return this.sendData(buffer, ipAddress, port);
+    } finally {
+      this.bufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * Sends the remaining bytes of the specified buffer as a single datagram. If
+   * the channel is non-blocking and cannot take the datagram, the send is
+   * retried a few times before the datagram is dropped.
+   *
+   * @param data
+   *          The buffer that contains the data to send.
+   * @param ipAddress
+   *          the ip address
+   * @param port
+   *          the port
+   * @return True if the datagram was sent; false if it was dropped.
+   */
+  public boolean sendData(final ByteBuffer data, final InetAddress ipAddress, final int port) {
+    final InetSocketAddress target = new InetSocketAddress(ipAddress, port);
+    try {
+      for (int attempt = 0; attempt < MAX_SEND_ATTEMPTS; attempt++) {
+        if (this.channel.send(data, target) > 0) {
+          return true;
+        }
+
+        Thread.yield();
+      }
+
+      log.log(Level.FINE, "Dropped a datagram of {0} bytes to {1}:{2} because the send buffer is full.", new Object[] { data.remaining(), ipAddress.getHostAddress(), port });
+    } catch (final IOException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+    }
+
+    this.droppedDatagrams.incrementAndGet();
+    return false;
+  }
+}
@@ -18,7 +18,7 @@ public class UdpPacketReceiver extends Thread implements IPacketReceiver {
   ArrayList<IIncomingPacketObserver> incomingPacketObservers;
 
   /** The is terminated. */
-  private boolean isTerminated;
+  private volatile boolean isTerminated;
 
   /** The socket. */
   private DatagramSocket socket;
@@ -62,7 +62,9 @@ public class UdpPacketReceiver extends Thread implements IPacketReceiver {
       try {
         this.socket.receive(packet);
       } catch (final IOException e) {
+        // the packet has not been filled, so it must not be dispatched
         log.log(Level.SEVERE, e.getMessage(), e);
+        continue;
       }
 
       for (final IIncomingPacketObserver packetObserver : this.incomingPacketObservers) {
@@ -9,6 +9,10 @@ import java.net.UnknownHostException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+
 /**
  * The Class UdpPacketSender.
  */
@@ -40,9 +44,16 @@ public class UdpPacketSender implements IPacketSender {
 
   @Override
   public void sendData(final Package packet, final InetAddress ipAddress, final int port) {
-    final DatagramPacket datagramPacket = new DatagramPacket(packet.getData(), packet.getData().length, ipAddress, port);
+    final byte[] data = packet.getData();
+    final DatagramPacket datagramPacket = new DatagramPacket(data, data.length, ipAddress, port);
     try {
       this.socket.send(datagramPacket);
+      if (packet instanceof MessagePackage) {
+        Game.getMetrics().packageSent(MessageType.get(packet.getPacketId()), data.length);
+      } else {
+        // other packages, e.g. the datagrams of the channels, have no message type
+        Game.getMetrics().packageSent(data.length);
+      }
     } catch (final IOException e) {
       log.log(Level.SEVERE, e.getMessage(), e);
     }
@@ -0,0 +1,651 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+import java.net.InetAddress;
+import java.nio.BufferUnderflowException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import de.gurkenlabs.litiengine.net.messages.MessageReader;
+import de.gurkenlabs.litiengine.net.messages.MessageWriter;
+
+/**
+ * The connection to a single peer of a {@link ChannelEndpoint}.
+ *
+ * <p>
+ * Every datagram gets a sequence number and acknowledges the last 32 datagrams
+ * that have been received from the peer:
+ * <code>[format][sequence][ack][ack bits][message]...</code>. A set bit
+ * <code>i</code> of the ack bits acknowledges the datagram
+ * <code>ack - i</code>. The acknowledgements are piggy-backed on the
+ * datagrams that are sent anyway; only if nothing is to be sent, a datagram
+ * without messages is sent to acknowledge the received datagrams. Datagrams
+ * without messages are never acknowledged on their own, so two idle peers don't
+ * keep acknowledging each other.
+ * </p>
+ *
+ * <p>
+ * A message is written as
+ * <code>[channel][flags][message sequence]([fragment][fragment count])[length][data]</code>.
+ * Messages that don't fit into a datagram are split into fragments, which are
+ * sent, acknowledged and resent individually and reassembled by the receiver.
+ * Reliable messages are resent when they haven't been acknowledged within the
+ * resend timeout, which is derived from the smoothed round trip time.
+ * </p>
+ *
+ * <p>
+ * Messages are only queued when they are sent. All messages that are queued
+ * within a tick are coalesced into as few datagrams as possible on the next
+ * {@link #update()}, which sends at most 16 datagrams. At most
+ * {@link #MAX_PENDING_RELIABLE_MESSAGES} reliable messages and fragments can
+ * wait for their acknowledgement, so a peer that stops acknowledging cannot
+ * make the queue grow without bounds.
+ * </p>
+ */
+public class ChannelConnection {
+  public static final int MAX_PENDING_RELIABLE_MESSAGES = 1024;
+
+  static final byte FORMAT = 3;
+  static final int HEADER_SIZE = 9;
+
+  /**
+   * The maximum size of the header of a message.
+   */
+  static final int MESSAGE_HEADER_SIZE = 9;
+
+  static final int MAX_FRAGMENTS = 255;
+
+  private static final long DEFAULT_RESEND_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(200);
+  private static final long MIN_RESEND_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final long MAX_RESEND_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+  private static final int FLAG_FRAGMENT = 1;
+  private static final int SEQUENCE_MASK = 0xFFFF;
+  private static final int ACK_BITS = 32;
+  private static final int SENT_PACKETS = 64;
+
+  /**
+   * The maximum amount of datagrams that are sent per update. It stays well
+   * within the acknowledged range, so the datagrams of a burst don't fall out
+   * of the ack bits before the peer has acknowledged them. The messages that
+   * exceed the limit are sent with the next updates.
+   */
+  private static final int MAX_PACKETS_PER_UPDATE = ACK_BITS / 2;
+  private static final int RECEIVED_PACKETS = 1024;
+
+  /**
+   * The maximum amount of incomplete unreliable messages per channel whose
+   * fragments are kept.
+   */
+  private static final int MAX_FRAGMENT_BUFFERS = 16;
+
+  private final ChannelEndpoint endpoint;
+  private final InetAddress address;
+  private final int port;
+
+  private final Set<OutgoingMessage> reliableMessages;
+  private final Queue<OutgoingMessage> unreliableMessages;
+  private final int[] messageSequences;
+  private final SentPacket[] sentPackets;
+  private int localSequence;
+
+  private final int[] receivedPackets;
+  private int remoteSequence;
+  private boolean ackPending;
+  private final IncomingChannel[] incomingChannels;
+
+  private long smoothedRoundTripTime;
+  private long roundTripTimeVariance;
+  private boolean roundTripTimeSampled;
+
+  private long sentPacketCount;
+  private long receivedPacketCount;
+  private long resentMessageCount;
+  private volatile long lastReceived;
+
+  ChannelConnection(final ChannelEndpoint endpoint, final InetAddress address, final int port) {
+    this.endpoint = endpoint;
+    this.address = address;
+    this.port = port;
+
+    this.reliableMessages = new LinkedHashSet<>();
+    this.unreliableMessages = new ArrayDeque<>();
+    this.messageSequences = new int[ChannelEndpoint.MAX_CHANNELS];
+    this.sentPackets = new SentPacket[SENT_PACKETS];
+
+    this.receivedPackets = new int[RECEIVED_PACKETS];
+    Arrays.fill(this.receivedPackets, -1);
+    this.remoteSequence = -1;
+    this.incomingChannels = new IncomingChannel[ChannelEndpoint.MAX_CHANNELS];
+    this.lastReceived = System.nanoTime();
+  }
+
+  /**
+   * Determines whether the specified 16 bit sequence number is newer than the
+   * other one, taking the wrap around into account.
+   *
+   * @param sequence
+   *          The sequence number.
+   * @param other
+   *          The other sequence number.
+   * @return True if the sequence number is newer.
+   */
+  static boolean isNewer(final int sequence, final int other) {
+    final int distance = (sequence - other) & SEQUENCE_MASK;
+    return distance != 0 && distance < 0x8000;
+  }
+
+  public InetAddress getAddress() {
+    return this.address;
+  }
+
+  /**
+   * Gets the amount of reliable messages and fragments that have not been
+   * acknowledged yet.
+   *
+   * @return The amount of unacknowledged reliable messages.
+   */
+  public synchronized int getPendingReliableMessages() {
+    return this.reliableMessages.size();
+  }
+
+  public int getPort() {
+    return this.port;
+  }
+
+  public synchronized long getReceivedPackets() {
+    return this.receivedPacketCount;
+  }
+
+  /**
+   * Gets the time after which a reliable message that hasn't been acknowledged
+   * is sent again.
+   *
+   * @return The resend timeout in milliseconds.
+   */
+  public synchronized long getResendTimeout() {
+    return TimeUnit.NANOSECONDS.toMillis(this.resendTimeout());
+  }
+
+  public synchronized long getResentMessages() {
+    return this.resentMessageCount;
+  }
+
+  /**
+   * Gets the smoothed round trip time, measured by the time between sending a
+   * datagram and receiving its acknowledgement.
+   *
+   * @return The round trip time in milliseconds or -1 if no datagram has been
+   *         acknowledged yet.
+   */
+  public synchronized long getRoundTripTime() {
+    return this.roundTripTimeSampled ? TimeUnit.NANOSECONDS.toMillis(this.smoothedRoundTripTime) : -1;
+  }
+
+  public synchronized long getSentPackets() {
+    return this.sentPacketCount;
+  }
+
+  /**
+   * Queues the specified message to be sent on the specified channel with the
+   * next {@link #update()}.
+   *
+   * @param channel
+   *          The id of a channel that has been registered on both endpoints.
+   * @param message
+   *          The message.
+   * @return True if the message was queued; false if it is a reliable message
+   *         and the queue of the unacknowledged reliable messages is full.
+   */
+  public boolean send(final int channel, final byte[] message) {
+    final DeliveryMode mode = this.endpoint.getDeliveryMode(channel);
+    if (mode == null) {
+      throw new IllegalArgumentException("The channel " + channel + " has not been registered.");
+    }
+
+    final int fragmentSize = this.endpoint.getMaxPacketSize() - HEADER_SIZE - MESSAGE_HEADER_SIZE;
+    final int fragments = Math.max(1, (message.length + fragmentSize - 1) / fragmentSize);
+    if (fragments > MAX_FRAGMENTS) {
+      throw new IllegalArgumentException("The message of " + message.length + " bytes exceeds the maximum message size of " + MAX_FRAGMENTS * fragmentSize + " bytes.");
+    }
+
+    synchronized (this) {
+      if (mode == DeliveryMode.RELIABLE_ORDERED && this.reliableMessages.size() + fragments > MAX_PENDING_RELIABLE_MESSAGES) {
+        return false;
+      }
+
+      final int sequence = this.messageSequences[channel];
+      this.messageSequences[channel] = (sequence + 1) & SEQUENCE_MASK;
+
+      for (int i = 0; i < fragments; i++) {
+        final byte[] data = fragments == 1 ? message : Arrays.copyOfRange(message, i * fragmentSize, Math.min(message.length, (i + 1) * fragmentSize));
+        final OutgoingMessage outgoing = new OutgoingMessage(channel, sequence, i, fragments, data);
+        if (mode == DeliveryMode.RELIABLE_ORDERED) {
+          this.reliableMessages.add(outgoing);
+        } else {
+          this.unreliableMessages.add(outgoing);
+        }
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return this.address.getHostAddress() + ":" + this.port;
+  }
+
+  /**
+   * Sends all queued messages and the reliable messages whose resend timeout
+   * has elapsed, coalesced into as few datagrams as possible. If nothing is
+   * sent but datagrams of the peer need to be acknowledged, a datagram that
+   * only contains the acknowledgements is sent.
+   */
+  public void update() {
+    final List<byte[]> datagrams = new ArrayList<>();
+    synchronized (this) {
+      final long now = System.nanoTime();
+      final long timeout = this.resendTimeout();
+      PacketWriter packet = null;
+
+      for (final OutgoingMessage message : this.reliableMessages) {
+        if (message.lastSent != 0 && now - message.lastSent < timeout) {
+          continue;
+        }
+
+        if (!this.canAppend(packet, message, datagrams)) {
+          break;
+        }
+
+        if (message.lastSent != 0) {
+          this.resentMessageCount++;
+        }
+
+        packet = this.append(packet, message, datagrams, now);
+        message.lastSent = now;
+      }
+
+      OutgoingMessage message;
+      while ((message = this.unreliableMessages.peek()) != null && this.canAppend(packet, message, datagrams)) {
+        packet = this.append(packet, this.unreliableMessages.poll(), datagrams, now);
+      }
+
+      if (packet == null && this.ackPending) {
+        packet = this.startPacket();
+      }
+
+      if (packet != null) {
+        datagrams.add(this.finishPacket(packet, now));
+      }
+    }
+
+    for (final byte[] datagram : datagrams) {
+      this.endpoint.send(datagram, this.address, this.port);
+    }
+  }
+
+  /**
+   * Processes the specified datagram of the peer.
+   *
+   * @param data
+   *          The datagram.
+   * @param delivered
+   *          The collection to which the messages are added that can be
+   *          delivered.
+   */
+  synchronized void receive(final byte[] data, final List<ReceivedMessage> delivered) {
+    final MessageReader reader = new MessageReader(data, 1, data.length - 1);
+    final int sequence = readShort(reader);
+    final int ack = readShort(reader);
+    final int ackBits = reader.readInt();
+
+    this.processAcks(ack, ackBits);
+
+    final int slot = sequence % RECEIVED_PACKETS;
+    if (this.receivedPackets[slot] == sequence) {
+      // a duplicated datagram
+      return;
+    }
+
+    this.receivedPackets[slot] = sequence;
+    if (this.remoteSequence == -1 || isNewer(sequence, this.remoteSequence)) {
+      this.remoteSequence = sequence;
+    }
+
+    // datagrams that only contain acknowledgements are acknowledged with the
+    // next datagram that is sent anyway
+    if (reader.getRemaining() > 0) {
+      this.ackPending = true;
+    }
+
+    this.receivedPacketCount++;
+    this.lastReceived = System.nanoTime();
+
+    while (reader.getRemaining() > 0) {
+      final int channel = reader.readByte() & 0xFF;
+      final int flags = reader.readByte();
+      final int messageSequence = readShort(reader);
+      int fragment = 0;
+      int fragmentCount = 1;
+      if ((flags & FLAG_FRAGMENT) != 0) {
+        fragment = reader.readByte() & 0xFF;
+        fragmentCount = reader.readByte() & 0xFF;
+      }
+
+      final int length = reader.readVarInt();
+      if (length < 0 || length > reader.getRemaining() || fragment >= fragmentCount) {
+        throw new BufferUnderflowException();
+      }
+
+      final byte[] message = reader.readBytes(length);
+      final DeliveryMode mode = this.endpoint.getDeliveryMode(channel);
+      if (mode == null) {
+        continue;
+      }
+
+      this.getIncomingChannel(channel).receive(mode, messageSequence, fragment, fragmentCount, message, delivered);
+    }
+  }
+
+  /**
+   * Gets the time since the last valid datagram has been received from the
+   * peer, or since the connection has been created if nothing has been
+   * received yet.
+   *
+   * @param now
+   *          The current time in nanoseconds.
+   * @return The idle time in nanoseconds.
+   */
+  long getIdleTime(final long now) {
+    return now - this.lastReceived;
+  }
+
+  private static int readShort(final MessageReader reader) {
+    return (reader.readByte() & 0xFF) << 8 | reader.readByte() & 0xFF;
+  }
+
+  private static void writeShort(final MessageWriter writer, final int value) {
+    writer.writeByte(value >> 8);
+    writer.writeByte(value);
+  }
+
+  private PacketWriter append(final PacketWriter packet, final OutgoingMessage message, final List<byte[]> datagrams, final long now) {
+    PacketWriter current = packet;
+    if (current != null && current.writer.size() + message.size() > this.endpoint.getMaxPacketSize()) {
+      datagrams.add(this.finishPacket(current, now));
+      current = null;
+    }
+
+    if (current == null) {
+      current = this.startPacket();
+    }
+
+    final MessageWriter writer = current.writer;
+    writer.writeByte(message.channel);
+    writer.writeByte(message.fragmentCount > 1 ? FLAG_FRAGMENT : 0);
+    writeShort(writer, message.sequence);
+    if (message.fragmentCount > 1) {
+      writer.writeByte(message.fragment);
+      writer.writeByte(message.fragmentCount);
+    }
+
+    writer.writeVarInt(message.data.length);
+    writer.writeBytes(message.data);
+    if (this.endpoint.getDeliveryMode(message.channel) == DeliveryMode.RELIABLE_ORDERED) {
+      current.reliableMessages.add(message);
+    }
+
+    return current;
+  }
+
+  private boolean canAppend(final PacketWriter packet, final OutgoingMessage message, final List<byte[]> datagrams) {
+    if (packet == null) {
+      return datagrams.size() < MAX_PACKETS_PER_UPDATE;
+    }
+
+    return packet.writer.size() + message.size() <= this.endpoint.getMaxPacketSize() || datagrams.size() + 1 < MAX_PACKETS_PER_UPDATE;
+  }
+
+  private byte[] finishPacket(final PacketWriter packet, final long now) {
+    this.sentPackets[packet.sequence % SENT_PACKETS] = new SentPacket(packet.sequence, now, packet.reliableMessages);
+    this.ackPending = false;
+    this.sentPacketCount++;
+    return packet.writer.toByteArray();
+  }
+
+  private IncomingChannel getIncomingChannel(final int channel) {
+    if (this.incomingChannels[channel] == null) {
+      this.incomingChannels[channel] = new IncomingChannel(channel);
+    }
+
+    return this.incomingChannels[channel];
+  }
+
+  private void processAcks(final int ack, final int ackBits) {
+    final long now = System.nanoTime();
+    for (int i = 0; i < ACK_BITS; i++) {
+      if ((ackBits & 1 << i) == 0) {
+        continue;
+      }
+
+      final int sequence = (ack - i) & SEQUENCE_MASK;
+      final int slot = sequence % SENT_PACKETS;
+      final SentPacket packet = this.sentPackets[slot];
+      if (packet == null || packet.sequence != sequence) {
+        continue;
+      }
+
+      this.sentPackets[slot] = null;
+      this.updateRoundTripTime(now - packet.time);
+      for (final OutgoingMessage message : packet.reliableMessages) {
+        this.reliableMessages.remove(message);
+      }
+    }
+  }
+
+  private long resendTimeout() {
+    if (!this.roundTripTimeSampled) {
+      return DEFAULT_RESEND_TIMEOUT;
+    }
+
+    return Math.max(MIN_RESEND_TIMEOUT, Math.min(MAX_RESEND_TIMEOUT, this.smoothedRoundTripTime + 4 * this.roundTripTimeVariance));
+  }
+
+  private PacketWriter startPacket() {
+    final PacketWriter packet = new PacketWriter(this.localSequence, this.endpoint.getMaxPacketSize());
+    this.localSequence = (this.localSequence + 1) & SEQUENCE_MASK;
+
+    int ackBits = 0;
+    final int ack = Math.max(this.remoteSequence, 0);
+    if (this.remoteSequence != -1) {
+      for (int i = 0; i < ACK_BITS; i++) {
+        final int sequence = (ack - i) & SEQUENCE_MASK;
+        if (this.receivedPackets[sequence % RECEIVED_PACKETS] == sequence) {
+          ackBits |= 1 << i;
+        }
+      }
+    }
+
+    packet.writer.writeByte(FORMAT);
+    writeShort(packet.writer, packet.sequence);
+    writeShort(packet.writer, ack);
+    packet.writer.writeInt(ackBits);
+    return packet;
+  }
+
+  private void updateRoundTripTime(final long sample) {
+    // the estimation of TCP (RFC 6298)
+    if (!this.roundTripTimeSampled) {
+      this.smoothedRoundTripTime = sample;
+      this.roundTripTimeVariance = sample / 2;
+      this.roundTripTimeSampled = true;
+      return;
+    }
+
+    this.roundTripTimeVariance = (3 * this.roundTripTimeVariance + Math.abs(this.smoothedRoundTripTime - sample)) / 4;
+    this.smoothedRoundTripTime = (7 * this.smoothedRoundTripTime + sample) / 8;
+  }
+
+  static class ReceivedMessage {
+    final int channel;
+    final byte[] data;
+
+    private ReceivedMessage(final int channel, final byte[] data) {
+      this.channel = channel;
+      this.data = data;
+    }
+  }
+
+  private static class OutgoingMessage {
+    private final int channel;
+    private final int sequence;
+    private final int fragment;
+    private final int fragmentCount;
+    private final byte[] data;
+    private long lastSent;
+
+    private OutgoingMessage(final int channel, final int sequence, final int fragment, final int fragmentCount, final byte[] data) {
+      this.channel = channel;
+      this.sequence = sequence;
+      this.fragment = fragment;
+      this.fragmentCount = fragmentCount;
+      this.data = data;
+    }
+
+    private int size() {
+      return MESSAGE_HEADER_SIZE + this.data.length;
+    }
+  }
+
+  private static class PacketWriter {
+    private final int sequence;
+    private final MessageWriter writer;
+    private final List<OutgoingMessage> reliableMessages;
+
+    private PacketWriter(final int sequence, final int capacity) {
+      this.sequence = sequence;
+      this.writer = new MessageWriter(capacity);
+      this.reliableMessages = new ArrayList<>();
+    }
+  }
+
+  private static class SentPacket {
+    private final int sequence;
+    private final long time;
+    private final List<OutgoingMessage> reliableMessages;
+
+    private SentPacket(final int sequence, final long time, final List<OutgoingMessage> reliableMessages) {
+      this.sequence = sequence;
+      this.time = time;
+      this.reliableMessages = reliableMessages;
+    }
+  }
+
+  /**
+   * The receiving side of a channel, which reassembles fragmented messages and
+   * orders or drops them according to the delivery mode of the channel.
+   */
+  private static class IncomingChannel {
+    private final int channel;
+    private final Map<Integer, byte[][]> fragments;
+    private final Map<Integer, byte[]> pending;
+    private int nextSequence;
+    private int lastSequence;
+
+    private IncomingChannel(final int channel) {
+      this.channel = channel;
+      this.fragments = new HashMap<>();
+      this.pending = new HashMap<>();
+      this.lastSequence = -1;
+    }
+
+    private void receive(final DeliveryMode mode, final int sequence, final int fragment, final int fragmentCount, final byte[] data, final List<ReceivedMessage> delivered) {
+      if (mode == DeliveryMode.RELIABLE_ORDERED && (sequence != this.nextSequence && !isNewer(sequence, this.nextSequence) || this.pending.containsKey(sequence))) {
+        // the message has already been received
+        return;
+      }
+
+      if (mode == DeliveryMode.UNRELIABLE_SEQUENCED && this.lastSequence != -1 && !isNewer(sequence, this.lastSequence)) {
+        return;
+      }
+
+      final byte[] message = fragmentCount > 1 ? this.reassemble(mode, sequence, fragment, fragmentCount, data) : data;
+      if (message == null) {
+        return;
+      }
+
+      switch (mode) {
+      case RELIABLE_ORDERED:
+        this.pending.put(sequence, message);
+        byte[] next;
+        while ((next = this.pending.remove(this.nextSequence)) != null) {
+          delivered.add(new ReceivedMessage(this.channel, next));
+          this.nextSequence = (this.nextSequence + 1) & SEQUENCE_MASK;
+        }
+        break;
+      case UNRELIABLE_SEQUENCED:
+        this.lastSequence = sequence;
+        delivered.add(new ReceivedMessage(this.channel, message));
+        break;
+      default:
+        delivered.add(new ReceivedMessage(this.channel, message));
+        break;
+      }
+    }
+
+    private byte[] reassemble(final DeliveryMode mode, final int sequence, final int fragment, final int fragmentCount, final byte[] data) {
+      byte[][] parts = this.fragments.get(sequence);
+      if (parts == null) {
+        if (mode != DeliveryMode.RELIABLE_ORDERED && this.fragments.size() >= MAX_FRAGMENT_BUFFERS) {
+          this.evictOldestFragments(sequence);
+        }
+
+        parts = new byte[fragmentCount][];
+        this.fragments.put(sequence, parts);
+      }
+
+      if (parts.length != fragmentCount) {
+        return null;
+      }
+
+      parts[fragment] = data;
+      int length = 0;
+      for (final byte[] part : parts) {
+        if (part == null) {
+          return null;
+        }
+
+        length += part.length;
+      }
+
+      this.fragments.remove(sequence);
+      final byte[] message = new byte[length];
+      int offset = 0;
+      for (final byte[] part : parts) {
+        System.arraycopy(part, 0, message, offset, part.length);
+        offset += part.length;
+      }
+
+      return message;
+    }
+
+    private void evictOldestFragments(final int sequence) {
+      Integer oldest = null;
+      for (final Integer candidate : this.fragments.keySet()) {
+        if (oldest == null || ((sequence - candidate) & SEQUENCE_MASK) > ((sequence - oldest) & SEQUENCE_MASK)) {
+          oldest = candidate;
+        }
+      }
+
+      this.fragments.remove(oldest);
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.net.IIncomingPacketObserver;
+import de.gurkenlabs.litiengine.net.IPacketReceiver;
+import de.gurkenlabs.litiengine.net.IPacketSender;
+import de.gurkenlabs.litiengine.net.channels.ChannelConnection.ReceivedMessage;
+
+/**
+ * Provides channels with different {@link DeliveryMode}s on top of an
+ * {@link IPacketSender} and an {@link IPacketReceiver}. Both peers must
+ * register the same channels. Messages are sent through the
+ * {@link ChannelConnection} of a peer and delivered to the registered
+ * {@link IChannelMessageObserver}s on the thread of the receiver.
+ *
+ * <p>
+ * The endpoint must be attached to the game loop, or {@link #update()} must be
+ * called once per tick, to send the queued messages and to resend the reliable
+ * messages that haven't been acknowledged.
+ * </p>
+ *
+ * <p>
+ * A connection is removed on the update after its peer hasn't sent a datagram
+ * within the timeout, which also releases the connections of peers that sent
+ * a single datagram or spoofed their address. Peers that want to stay
+ * connected while they have nothing to say must exchange messages, e.g. an
+ * unreliable heartbeat, because datagrams that only acknowledge other
+ * datagrams are not answered.
+ * </p>
+ *
+ * @see ChannelConnection
+ */
+public class ChannelEndpoint implements IIncomingPacketObserver, IUpdateable {
+  /**
+   * A datagram size that fits into a single IP packet on virtually all
+   * networks.
+   */
+  public static final int DEFAULT_MAX_PACKET_SIZE = 1200;
+  public static final int MAX_CHANNELS = 256;
+  public static final long DEFAULT_TIMEOUT = 10000;
+
+  /**
+   * A timeout that disables the removal of idle connections.
+   */
+  public static final long NO_TIMEOUT = 0;
+
+  private static final Logger log = Logger.getLogger(ChannelEndpoint.class.getName());
+  private static final int MIN_PACKET_SIZE = ChannelConnection.HEADER_SIZE + ChannelConnection.MESSAGE_HEADER_SIZE + 1;
+
+  private final IPacketSender sender;
+  private final DeliveryMode[] channels;
+  private final Map<InetSocketAddress, ChannelConnection> connections;
+  private final List<IChannelMessageObserver> messageObservers;
+  private final List<Consumer<ChannelConnection>> timedOutConsumers;
+
+  private volatile int maxPacketSize;
+  private volatile long timeout;
+
+  /**
+   * Instantiates a new channel endpoint that receives the datagrams of the
+   * specified receiver.
+   *
+   * @param sender
+   *          The sender of the datagrams.
+   * @param receiver
+   *          The receiver of the datagrams.
+   */
+  public ChannelEndpoint(final IPacketSender sender, final IPacketReceiver receiver) {
+    this(sender);
+    receiver.registerForIncomingPackets(this);
+  }
+
+  /**
+   * Instantiates a new channel endpoint. The received datagrams must be passed
+   * to {@link #packetReceived(byte[], InetAddress, int)}.
+   *
+   * @param sender
+   *          The sender of the datagrams.
+   */
+  public ChannelEndpoint(final IPacketSender sender) {
+    this.sender = sender;
+    this.channels = new DeliveryMode[MAX_CHANNELS];
+    this.connections = new ConcurrentHashMap<>();
+    this.messageObservers = new CopyOnWriteArrayList<>();
+    this.timedOutConsumers = new CopyOnWriteArrayList<>();
+    this.maxPacketSize = DEFAULT_MAX_PACKET_SIZE;
+    this.timeout = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Gets the connection to the specified peer. The connection is created if no
+   * datagram has been sent to or received from the peer yet.
+   *
+   * @param address
+   *          The address of the peer.
+   * @param port
+   *          The port of the peer.
+   * @return The connection to the peer.
+   */
+  public ChannelConnection getConnection(final InetAddress address, final int port) {
+    return this.connections.computeIfAbsent(new InetSocketAddress(address, port), endpoint -> new ChannelConnection(this, address, port));
+  }
+
+  public Collection<ChannelConnection> getConnections() {
+    return Collections.unmodifiableCollection(this.connections.values());
+  }
+
+  public DeliveryMode getDeliveryMode(final int channel) {
+    return channel >= 0 && channel < MAX_CHANNELS ? this.channels[channel] : null;
+  }
+
+  public int getMaxPacketSize() {
+    return this.maxPacketSize;
+  }
+
+  /**
+   * Gets the time after which a connection whose peer didn't send a datagram is
+   * removed.
+   *
+   * @return The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   */
+  public long getTimeout() {
+    return TimeUnit.NANOSECONDS.toMillis(this.timeout);
+  }
+
+  /**
+   * Registers a consumer that is called when a connection is removed because
+   * its peer didn't send a datagram within the timeout.
+   *
+   * @param consumer
+   *          The consumer.
+   */
+  public void onConnectionTimedOut(final Consumer<ChannelConnection> consumer) {
+    if (!this.timedOutConsumers.contains(consumer)) {
+      this.timedOutConsumers.add(consumer);
+    }
+  }
+
+  /**
+   * Registers an observer that is called with every message that is delivered
+   * by the channels of this endpoint.
+   *
+   * @param observer
+   *          The observer.
+   */
+  public void onMessageReceived(final IChannelMessageObserver observer) {
+    if (!this.messageObservers.contains(observer)) {
+      this.messageObservers.add(observer);
+    }
+  }
+
+  @Override
+  public void packetReceived(final byte[] data, final InetAddress address, final int port) {
+    if (data.length < ChannelConnection.HEADER_SIZE || data[0] != ChannelConnection.FORMAT) {
+      return;
+    }
+
+    final InetSocketAddress peer = new InetSocketAddress(address, port);
+    final boolean known = this.connections.containsKey(peer);
+    final ChannelConnection connection = this.getConnection(address, port);
+    final List<ReceivedMessage> delivered = new ArrayList<>();
+    try {
+      connection.receive(data, delivered);
+    } catch (final BufferUnderflowException | IllegalArgumentException e) {
+      log.log(Level.WARNING, "Discarded invalid datagram from {0}: {1}", new Object[] { connection, e.getMessage() });
+      if (!known) {
+        // don't keep a connection for a peer whose first datagram is invalid
+        this.connections.remove(peer, connection);
+      }
+    }
+
+    // the observers are notified outside of the lock of the connection, so they
+    // can send replies
+    for (final ReceivedMessage message : delivered) {
+      for (final IChannelMessageObserver observer : this.messageObservers) {
+        observer.messageReceived(connection, message.channel, message.data);
+      }
+    }
+  }
+
+  /**
+   * Registers the channel with the specified id.
+   *
+   * @param channel
+   *          The id of the channel between 0 and 255.
+   * @param mode
+   *          The delivery mode of the channel.
+   */
+  public void registerChannel(final int channel, final DeliveryMode mode) {
+    if (channel < 0 || channel >= MAX_CHANNELS) {
+      throw new IllegalArgumentException("The channel id must be between 0 and " + (MAX_CHANNELS - 1) + ".");
+    }
+
+    this.channels[channel] = mode;
+  }
+
+  /**
+   * Removes the connection to the specified peer. Its pending messages are
+   * discarded.
+   *
+   * @param address
+   *          The address of the peer.
+   * @param port
+   *          The port of the peer.
+   * @return The removed connection or null.
+   */
+  public ChannelConnection removeConnection(final InetAddress address, final int port) {
+    return this.connections.remove(new InetSocketAddress(address, port));
+  }
+
+  /**
+   * Queues the specified message to be sent to the specified peer.
+   *
+   * @param address
+   *          The address of the peer.
+   * @param port
+   *          The port of the peer.
+   * @param channel
+   *          The id of the channel.
+   * @param message
+   *          The message.
+   * @return True if the message was queued; false if the queue of the
+   *         unacknowledged reliable messages of the peer is full.
+   * @see ChannelConnection#send(int, byte[])
+   */
+  public boolean send(final InetAddress address, final int port, final int channel, final byte[] message) {
+    return this.getConnection(address, port).send(channel, message);
+  }
+
+  /**
+   * Sets the maximum size of a datagram. Larger messages are fragmented.
+   *
+   * @param maxPacketSize
+   *          The maximum size in bytes.
+   */
+  public void setMaxPacketSize(final int maxPacketSize) {
+    if (maxPacketSize < MIN_PACKET_SIZE) {
+      throw new IllegalArgumentException("The maximum packet size must be at least " + MIN_PACKET_SIZE + " bytes.");
+    }
+
+    this.maxPacketSize = maxPacketSize;
+  }
+
+  /**
+   * Sets the time after which a connection whose peer didn't send a datagram is
+   * removed. Its pending messages are discarded.
+   *
+   * @param timeout
+   *          The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   */
+  public void setTimeout(final long timeout) {
+    this.timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(timeout, NO_TIMEOUT));
+  }
+
+  @Override
+  public void update() {
+    final long now = System.nanoTime();
+    final long currentTimeout = this.timeout;
+    for (final Map.Entry<InetSocketAddress, ChannelConnection> entry : this.connections.entrySet()) {
+      final ChannelConnection connection = entry.getValue();
+      if (currentTimeout != NO_TIMEOUT && connection.getIdleTime(now) > currentTimeout) {
+        if (this.connections.remove(entry.getKey(), connection)) {
+          for (final Consumer<ChannelConnection> consumer : this.timedOutConsumers) {
+            consumer.accept(connection);
+          }
+        }
+
+        continue;
+      }
+
+      connection.update();
+    }
+  }
+
+  void send(final byte[] datagram, final InetAddress address, final int port) {
+    this.sender.sendData(new DatagramPackage(datagram), address, port);
+  }
+}
@@ -0,0 +1,13 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+import de.gurkenlabs.litiengine.net.Package;
+
+/**
+ * A package whose data is an already encoded datagram.
+ */
+class DatagramPackage extends Package {
+  DatagramPackage(final byte[] data) {
+    super(data);
+    this.setData(data);
+  }
+}
@@ -0,0 +1,25 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+/**
+ * The guarantees with which the messages of a channel are delivered.
+ */
+public enum DeliveryMode {
+  /**
+   * The messages may get lost, be duplicated or arrive in any order. This is
+   * the behavior of plain UDP datagrams.
+   */
+  UNRELIABLE,
+
+  /**
+   * The messages may get lost, but a message that arrives after a newer message
+   * of the same channel is dropped. This suits state that is sent repeatedly,
+   * where only the latest value matters.
+   */
+  UNRELIABLE_SEQUENCED,
+
+  /**
+   * The messages are resent until they are acknowledged and delivered exactly
+   * once, in the order in which they have been sent.
+   */
+  RELIABLE_ORDERED;
+}
@@ -0,0 +1,20 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+/**
+ * Gets notified about the messages that have been delivered by a channel.
+ */
+public interface IChannelMessageObserver {
+
+  /**
+   * Called when a message has been received completely and can be delivered
+   * according to the {@link DeliveryMode} of its channel.
+   *
+   * @param connection
+   *          The connection of the peer that sent the message.
+   * @param channel
+   *          The id of the channel.
+   * @param message
+   *          The message.
+   */
+  public void messageReceived(ChannelConnection connection, int channel, byte[] message);
+}
@@ -0,0 +1,17 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+/**
+ * A codec writes the fields of a message of one {@link MessageType} in a fixed
+ * order and reads them back in the same order. In contrast to Java
+ * serialization, no class metadata is written, so the codecs of the sender and
+ * the receiver need to agree on the schema of the message.
+ *
+ * @param <T>
+ *          The type of the encoded messages.
+ * @see MessageCodecs#register(MessageType, IMessageCodec)
+ */
+public interface IMessageCodec<T> {
+  public T read(MessageReader reader);
+
+  public void write(T message, MessageWriter writer);
+}
@@ -0,0 +1,274 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import de.gurkenlabs.litiengine.util.io.CompressionUtilities;
+
+/**
+ * The registry of the {@link IMessageCodec}s per {@link MessageType} and the
+ * framing of encoded messages.
+ *
+ * <p>
+ * A message whose type has a registered codec is sent as
+ * <code>[type][payload]</code>, which is already the content that the message
+ * handlers get, so it is passed on without a copy. If the payload is at least
+ * as large as the compression threshold, it is deflated and sent as
+ * <code>[format][type][uncompressed length][deflated payload]</code>, unless
+ * deflating doesn't make it smaller.
+ * </p>
+ *
+ * <p>
+ * The ids of the compressed format, of the datagrams of the
+ * {@link de.gurkenlabs.litiengine.net.channels.ChannelEndpoint} and of the zlib
+ * header of messages that were serialized and compressed by
+ * {@link MessagePackage} without a codec are reserved and cannot have a codec.
+ * This way, the first byte of a datagram tells its kind and peers can mix all
+ * kinds of messages.
+ * </p>
+ *
+ * <p>
+ * The deflaters, inflaters and writers are reused per thread.
+ * </p>
+ */
+public final class MessageCodecs {
+  public static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+
+  /**
+   * The maximum size of a decompressed payload, which protects the receiver
+   * from frames that announce an arbitrary length.
+   */
+  public static final int MAX_PAYLOAD_SIZE = 1 << 20;
+
+  private static final byte FORMAT_COMPRESSED = 2;
+  private static final byte FORMAT_CHANNEL = 3;
+  private static final byte ZLIB_HEADER = 0x78;
+  private static final int COMPRESSED_HEADER_SIZE = 2;
+
+  private static final Map<Byte, IMessageCodec<?>> codecs = new ConcurrentHashMap<>();
+  private static final ThreadLocal<MessageWriter> writers = ThreadLocal.withInitial(MessageWriter::new);
+  private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(Deflater::new);
+  private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+  private static final ThreadLocal<byte[]> compressionBuffers = ThreadLocal.withInitial(() -> new byte[MessageWriter.DEFAULT_CAPACITY]);
+
+  private static volatile int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+  private MessageCodecs() {
+  }
+
+  /**
+   * Decodes the message of the specified content, which is a decoded frame as
+   * provided by {@link #unwrap(byte[])}.
+   *
+   * @param content
+   *          The type id followed by the payload of the message.
+   * @return The decoded message.
+   * @throws IllegalArgumentException
+   *           If no codec is registered for the type of the message.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T decode(final byte[] content) {
+    final IMessageCodec<?> codec = codecs.get(content[0]);
+    if (codec == null) {
+      throw new IllegalArgumentException("No codec is registered for the message type " + content[0] + ".");
+    }
+
+    return (T) codec.read(new MessageReader(content, 1, content.length - 1));
+  }
+
+  /**
+   * Encodes the specified message with the codec of its type into a frame that
+   * can be sent as a datagram.
+   *
+   * @param type
+   *          The type of the message.
+   * @param message
+   *          The message to encode.
+   * @return The encoded frame.
+   * @throws IllegalArgumentException
+   *           If no codec is registered for the type.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> byte[] encode(final MessageType type, final T message) {
+    final IMessageCodec<T> codec = (IMessageCodec<T>) codecs.get(type.getId());
+    if (codec == null) {
+      throw new IllegalArgumentException("No codec is registered for the message type " + type.getName() + ".");
+    }
+
+    final MessageWriter writer = writers.get().clear();
+    writer.writeByte(type.getId());
+    codec.write(message, writer);
+
+    final int payloadLength = writer.size() - 1;
+    final int threshold = compressionThreshold;
+    if (threshold >= 0 && payloadLength >= threshold) {
+      final byte[] compressed = compress(writer.getArray(), payloadLength, type.getId());
+      if (compressed != null) {
+        return compressed;
+      }
+    }
+
+    return writer.toByteArray();
+  }
+
+  public static IMessageCodec<?> get(final MessageType type) {
+    return codecs.get(type.getId());
+  }
+
+  public static int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * Determines whether the specified data is a frame that has been encoded by a
+   * codec.
+   *
+   * @param data
+   *          The received data.
+   * @return True if the data has been encoded by a codec; false if it is a
+   *         compressed serialized message.
+   */
+  public static boolean isEncoded(final byte[] data) {
+    if (data.length == 0) {
+      return false;
+    }
+
+    return data[0] == FORMAT_COMPRESSED ? data.length >= COMPRESSED_HEADER_SIZE : isRegistered(data[0]);
+  }
+
+  public static boolean isRegistered(final byte typeId) {
+    return codecs.containsKey(typeId);
+  }
+
+  /**
+   * Registers the codec for all messages of the specified type. The codec must
+   * be registered on the sender and on the receiver.
+   *
+   * @param type
+   *          The message type.
+   * @param codec
+   *          The codec of the messages.
+   * @throws IllegalArgumentException
+   *           If the id of the type is reserved for the framing of messages.
+   */
+  public static <T> void register(final MessageType type, final IMessageCodec<T> codec) {
+    final byte id = type.getId();
+    if (id == FORMAT_COMPRESSED || id == FORMAT_CHANNEL || id == ZLIB_HEADER) {
+      throw new IllegalArgumentException("The id " + id + " of the message type " + type.getName() + " is reserved for the framing of messages.");
+    }
+
+    codecs.put(id, codec);
+  }
+
+  /**
+   * Sets the minimum payload size in bytes from which on encoded messages are
+   * compressed.
+   *
+   * @param threshold
+   *          The threshold or a negative value to never compress messages.
+   */
+  public static void setCompressionThreshold(final int threshold) {
+    compressionThreshold = threshold;
+  }
+
+  public static void unregister(final MessageType type) {
+    codecs.remove(type.getId());
+  }
+
+  /**
+   * Removes the framing of the received data and provides the type id followed
+   * by the uncompressed payload. Data that hasn't been encoded by a codec is
+   * decompressed like it was sent by {@link MessagePackage}.
+   *
+   * @param data
+   *          The received data.
+   * @return The type id of the message followed by its payload. This is the
+   *         specified array itself if the message is neither compressed nor
+   *         serialized.
+   */
+  public static byte[] unwrap(final byte[] data) {
+    if (!isEncoded(data)) {
+      return CompressionUtilities.decompress(data);
+    }
+
+    if (data[0] != FORMAT_COMPRESSED) {
+      return data;
+    }
+
+    final MessageReader reader = new MessageReader(data, COMPRESSED_HEADER_SIZE, data.length - COMPRESSED_HEADER_SIZE);
+    final int payloadLength = reader.readVarInt();
+    final int offset = data.length - reader.getRemaining();
+    if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE) {
+      throw new IllegalArgumentException("Invalid payload length " + payloadLength + ".");
+    }
+
+    final byte[] content = new byte[payloadLength + 1];
+    content[0] = data[1];
+    final Inflater inflater = inflaters.get();
+    inflater.reset();
+    inflater.setInput(data, offset, data.length - offset);
+    try {
+      int inflated = 0;
+      while (inflated < payloadLength && !inflater.finished()) {
+        final int count = inflater.inflate(content, 1 + inflated, payloadLength - inflated);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+
+        inflated += count;
+      }
+
+      if (inflated != payloadLength) {
+        throw new IllegalArgumentException("The compressed message is truncated.");
+      }
+    } catch (final DataFormatException e) {
+      throw new IllegalArgumentException("The compressed message is corrupt.", e);
+    }
+
+    return content;
+  }
+
+  /**
+   * Deflates the payload of the written frame into a new compressed frame.
+   *
+   * @return The compressed frame or null if the payload doesn't get smaller.
+   */
+  private static byte[] compress(final byte[] frame, final int payloadLength, final byte typeId) {
+    final Deflater deflater = deflaters.get();
+    deflater.reset();
+    deflater.setInput(frame, 1, payloadLength);
+    deflater.finish();
+
+    byte[] buffer = compressionBuffers.get();
+    int compressedLength = 0;
+    while (!deflater.finished()) {
+      if (compressedLength == buffer.length) {
+        // compression is only worth it if the payload gets smaller
+        if (compressedLength >= payloadLength) {
+          return null;
+        }
+
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        compressionBuffers.set(buffer);
+      }
+
+      compressedLength += deflater.deflate(buffer, compressedLength, buffer.length - compressedLength);
+    }
+
+    final MessageWriter header = new MessageWriter(16);
+    header.writeByte(FORMAT_COMPRESSED);
+    header.writeByte(typeId);
+    header.writeVarInt(payloadLength);
+    if (header.size() + compressedLength >= payloadLength + 1) {
+      return null;
+    }
+
+    final byte[] compressed = Arrays.copyOf(header.getArray(), header.size() + compressedLength);
+    System.arraycopy(buffer, 0, compressed, header.size(), compressedLength);
+    return compressed;
+  }
+}
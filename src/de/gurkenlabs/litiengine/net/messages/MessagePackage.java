@@ -49,6 +49,18 @@ public class MessagePackage<T> extends Package {
   @SuppressWarnings("unchecked")
   public MessagePackage(final byte[] content) {
     super(content);
+    if (MessageCodecs.isRegistered(content[0])) {
+      this.size = content.length - TYPEBYTECOUNT;
+      try {
+        this.object = MessageCodecs.decode(content);
+      } catch (final RuntimeException e) {
+        log.log(Level.SEVERE, e.getMessage(), e);
+        this.object = null;
+      }
+
+      return;
+    }
+
     final int headerOffset = TYPEBYTECOUNT;
     final int dataOffset = headerOffset + CONTENTLENGTHBYTECOUNT;
 
@@ -89,6 +101,12 @@ public class MessagePackage<T> extends Package {
       return super.getData();
     }
 
+    if (MessageCodecs.isRegistered(this.getPacketId())) {
+      final byte[] data = MessageCodecs.encode(MessageType.get(this.getPacketId()), this.object);
+      this.setData(data);
+      return data;
+    }
+
     final byte[] header = new byte[] { this.getPacketId() };
     final byte[] serializedObject = Serializer.serialize(this.object);
     final byte[] objectSize = ByteBuffer.allocate(CONTENTLENGTHBYTECOUNT).putInt(serializedObject.length).array();
@@ -0,0 +1,112 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the fields of a message that have been written by a
+ * {@link MessageWriter} directly from a buffer, without copying the message
+ * data first.
+ */
+public class MessageReader {
+  private final ByteBuffer buffer;
+
+  public MessageReader(final byte[] data, final int offset, final int length) {
+    this(ByteBuffer.wrap(data, offset, length));
+  }
+
+  public MessageReader(final ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  public int getRemaining() {
+    return this.buffer.remaining();
+  }
+
+  public boolean readBoolean() {
+    return this.buffer.get() != 0;
+  }
+
+  public byte readByte() {
+    return this.buffer.get();
+  }
+
+  public byte[] readBytes(final int length) {
+    final byte[] bytes = new byte[length];
+    this.buffer.get(bytes);
+    return bytes;
+  }
+
+  public double readDouble() {
+    return this.buffer.getDouble();
+  }
+
+  public float readFloat() {
+    return this.buffer.getFloat();
+  }
+
+  public int readInt() {
+    return this.buffer.getInt();
+  }
+
+  public long readLong() {
+    return this.buffer.getLong();
+  }
+
+  public int readSignedVarInt() {
+    final int value = this.readVarInt();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public long readSignedVarLong() {
+    final long value = this.readVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public String readString() {
+    final int length = this.readVarInt();
+    if (length == 0) {
+      return "";
+    }
+
+    if (length < 0 || length > this.buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid string length " + length + ".");
+    }
+
+    final String value;
+    if (this.buffer.hasArray()) {
+      value = new String(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(), length, StandardCharsets.UTF_8);
+      this.buffer.position(this.buffer.position() + length);
+    } else {
+      value = new String(this.readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    return value;
+  }
+
+  public int readVarInt() {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final byte b = this.buffer.get();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Variable length integer is longer than 5 bytes.");
+  }
+
+  public long readVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = this.buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Variable length long is longer than 10 bytes.");
+  }
+}
@@ -11,13 +11,18 @@ import java.util.Optional;
  * range between 20 and 127.
  */
 public class MessageType {
+  // must be initialized before the default message types register themselves
+  private static final List<MessageType> messageTypes = new ArrayList<>();
+  private static final MessageType[] messageTypesById = new MessageType[256];
+
   public static final MessageType INVALID = new MessageType("INVALID", (byte) -1);
   public static final MessageType INVALIDVERSION = new MessageType("INVALIDVERSION", (byte) 18);
   public static final MessageType LOGIN = new MessageType("LOGIN", (byte) 0);
   public static final MessageType LOGINRESPONSE = new MessageType("LOGINRESPONSE", (byte) 5);
   public static final MessageType LOGOUT = new MessageType("LOGOUT", (byte) 1);
   public static final MessageType PING = new MessageType("PING", (byte) 4);
-  private static final List<MessageType> messageTypes = new ArrayList<>();
+  public static final MessageType SNAPSHOT = new MessageType("SNAPSHOT", (byte) 6);
+  public static final MessageType SNAPSHOTACK = new MessageType("SNAPSHOTACK", (byte) 7);
 
   private final String name;
   private final byte packetId;
@@ -27,7 +32,7 @@ public class MessageType {
       throw new IllegalArgumentException(String.format("Cannot create a new message type with packetId '%d' because another message type has an equal id assigned.", messageId));
     }
 
-    if (messageTypes.stream().anyMatch(type -> type.getName() == name)) {
+    if (messageTypes.stream().anyMatch(type -> type.getName().equals(name))) {
       throw new IllegalArgumentException(String.format("Cannot create a new message type with name '%s' because another message type has an equal name.", name));
     }
 
@@ -35,15 +40,13 @@ public class MessageType {
     this.packetId = messageId;
 
     messageTypes.add(this);
+    messageTypesById[messageId & 0xFF] = this;
   }
 
   public static MessageType get(final byte id) {
-    final Optional<MessageType> optional = messageTypes.stream().filter(m -> m.getId() == id).findAny();
-    if (!optional.isPresent()) {
-      return MessageType.INVALID;
-    }
-
-    return optional.get();
+    // this is called for every packet, so the type is looked up by its id
+    final MessageType type = messageTypesById[id & 0xFF];
+    return type != null ? type : MessageType.INVALID;
   }
 
   public static MessageType get(final String name) {
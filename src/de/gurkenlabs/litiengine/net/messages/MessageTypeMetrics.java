@@ -0,0 +1,148 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import de.gurkenlabs.litiengine.util.Histogram;
+import de.gurkenlabs.litiengine.util.RollingCounter;
+
+/**
+ * The network traffic of a single {@link MessageType}: the total amount of
+ * bytes and packets, their rates over the last minute, the distribution of the
+ * packet sizes and the time that the message handlers took to handle the
+ * received packets.
+ */
+public class MessageTypeMetrics {
+  private final MessageType type;
+
+  private final LongAdder sentBytes;
+  private final LongAdder sentPackets;
+  private final LongAdder receivedBytes;
+  private final LongAdder receivedPackets;
+
+  private final RollingCounter sentBytesWindow;
+  private final RollingCounter sentPacketsWindow;
+  private final RollingCounter receivedBytesWindow;
+  private final RollingCounter receivedPacketsWindow;
+
+  private final Histogram sentSizes;
+  private final Histogram receivedSizes;
+  private final Histogram handlerLatency;
+
+  public MessageTypeMetrics(final MessageType type) {
+    this.type = type;
+    this.sentBytes = new LongAdder();
+    this.sentPackets = new LongAdder();
+    this.receivedBytes = new LongAdder();
+    this.receivedPackets = new LongAdder();
+    this.sentBytesWindow = new RollingCounter();
+    this.sentPacketsWindow = new RollingCounter();
+    this.receivedBytesWindow = new RollingCounter();
+    this.receivedPacketsWindow = new RollingCounter();
+    this.sentSizes = new Histogram();
+    this.receivedSizes = new Histogram();
+    this.handlerLatency = new Histogram();
+  }
+
+  /**
+   * Gets the distribution of the time that the message handlers took to handle
+   * a received packet.
+   *
+   * @return The handler latency histogram in nanoseconds.
+   */
+  public Histogram getHandlerLatency() {
+    return this.handlerLatency;
+  }
+
+  public long getReceivedBytes() {
+    return this.receivedBytes.sum();
+  }
+
+  /**
+   * Gets the average amount of bytes that were received per second during the
+   * specified amount of past seconds.
+   *
+   * @param seconds
+   *          The length of the window between 1 and 59 seconds.
+   * @return The received bytes per second.
+   */
+  public double getReceivedBytesPerSecond(final int seconds) {
+    return this.receivedBytesWindow.getRate(seconds);
+  }
+
+  public long getReceivedPackets() {
+    return this.receivedPackets.sum();
+  }
+
+  public double getReceivedPacketsPerSecond(final int seconds) {
+    return this.receivedPacketsWindow.getRate(seconds);
+  }
+
+  public Histogram getReceivedSizes() {
+    return this.receivedSizes;
+  }
+
+  public long getSentBytes() {
+    return this.sentBytes.sum();
+  }
+
+  /**
+   * Gets the average amount of bytes that were sent per second during the
+   * specified amount of past seconds.
+   *
+   * @param seconds
+   *          The length of the window between 1 and 59 seconds.
+   * @return The sent bytes per second.
+   */
+  public double getSentBytesPerSecond(final int seconds) {
+    return this.sentBytesWindow.getRate(seconds);
+  }
+
+  public long getSentPackets() {
+    return this.sentPackets.sum();
+  }
+
+  public double getSentPacketsPerSecond(final int seconds) {
+    return this.sentPacketsWindow.getRate(seconds);
+  }
+
+  public Histogram getSentSizes() {
+    return this.sentSizes;
+  }
+
+  public MessageType getType() {
+    return this.type;
+  }
+
+  public void handled(final long nanos) {
+    this.handlerLatency.record(nanos);
+  }
+
+  public void received(final long size) {
+    this.received(size, System.currentTimeMillis());
+  }
+
+  public void received(final long size, final long time) {
+    this.receivedBytes.add(size);
+    this.receivedPackets.increment();
+    this.receivedBytesWindow.add(size, time);
+    this.receivedPacketsWindow.add(1, time);
+    this.receivedSizes.record(size);
+  }
+
+  public void sent(final long size) {
+    this.sent(size, System.currentTimeMillis());
+  }
+
+  public void sent(final long size, final long time) {
+    this.sentBytes.add(size);
+    this.sentPackets.increment();
+    this.sentBytesWindow.add(size, time);
+    this.sentPacketsWindow.add(1, time);
+    this.sentSizes.record(size);
+  }
+
+  @Override
+  public String toString() {
+    return this.type.getName() + " [sent=" + this.getSentPackets() + " packets/" + this.getSentBytes() + " bytes, received=" + this.getReceivedPackets() + " packets/" + this.getReceivedBytes() + " bytes]";
+  }
+}
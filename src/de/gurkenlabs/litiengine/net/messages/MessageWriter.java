@@ -0,0 +1,185 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the fields of a message into a growable buffer. Integers can be
+ * written as variable length integers that only need as many bytes as their
+ * value requires, e.g. one byte for values below 128.
+ */
+public class MessageWriter {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private byte[] data;
+  private int position;
+
+  public MessageWriter() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public MessageWriter(final int capacity) {
+    this.data = new byte[Math.max(16, capacity)];
+  }
+
+  /**
+   * Resets the writer so that it can be reused for the next message.
+   *
+   * @return This writer.
+   */
+  public MessageWriter clear() {
+    this.position = 0;
+    return this;
+  }
+
+  /**
+   * Gets the array that backs this writer. Only the first {@link #size()} bytes
+   * are written; the array is replaced when the writer grows.
+   *
+   * @return The backing array.
+   */
+  public byte[] getArray() {
+    return this.data;
+  }
+
+  public int size() {
+    return this.position;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(this.data, this.position);
+  }
+
+  /**
+   * Gets a view of the written bytes.
+   *
+   * @return A buffer whose remaining bytes are the written bytes.
+   */
+  public ByteBuffer toByteBuffer() {
+    return ByteBuffer.wrap(this.data, 0, this.position);
+  }
+
+  public MessageWriter writeBoolean(final boolean value) {
+    return this.writeByte(value ? 1 : 0);
+  }
+
+  public MessageWriter writeByte(final int value) {
+    this.ensureCapacity(1);
+    this.data[this.position++] = (byte) value;
+    return this;
+  }
+
+  public MessageWriter writeBytes(final byte[] value) {
+    return this.writeBytes(value, 0, value.length);
+  }
+
+  public MessageWriter writeBytes(final byte[] value, final int offset, final int length) {
+    this.ensureCapacity(length);
+    System.arraycopy(value, offset, this.data, this.position, length);
+    this.position += length;
+    return this;
+  }
+
+  public MessageWriter writeDouble(final double value) {
+    return this.writeLong(Double.doubleToLongBits(value));
+  }
+
+  public MessageWriter writeFloat(final float value) {
+    return this.writeInt(Float.floatToIntBits(value));
+  }
+
+  /**
+   * Writes the specified value with a fixed length of four bytes.
+   *
+   * @param value
+   *          The value to write.
+   * @return This writer.
+   */
+  public MessageWriter writeInt(final int value) {
+    this.ensureCapacity(4);
+    this.data[this.position++] = (byte) (value >>> 24);
+    this.data[this.position++] = (byte) (value >>> 16);
+    this.data[this.position++] = (byte) (value >>> 8);
+    this.data[this.position++] = (byte) value;
+    return this;
+  }
+
+  public MessageWriter writeLong(final long value) {
+    this.writeInt((int) (value >>> 32));
+    return this.writeInt((int) value);
+  }
+
+  /**
+   * Writes a variable length integer. Negative values are zigzag encoded so that
+   * small negative values also only need a few bytes.
+   *
+   * @param value
+   *          The value to write.
+   * @return This writer.
+   */
+  public MessageWriter writeSignedVarInt(final int value) {
+    return this.writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  public MessageWriter writeSignedVarLong(final long value) {
+    return this.writeVarLong((value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Writes the specified string as UTF-8 bytes that are prefixed by their
+   * length. A null string is written as length 0.
+   *
+   * @param value
+   *          The value to write.
+   * @return This writer.
+   */
+  public MessageWriter writeString(final String value) {
+    if (value == null || value.isEmpty()) {
+      return this.writeVarInt(0);
+    }
+
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    this.writeVarInt(bytes.length);
+    return this.writeBytes(bytes);
+  }
+
+  /**
+   * Writes a variable length integer with 7 bits per byte. The value is treated
+   * as unsigned, so negative values always need five bytes; use
+   * {@link #writeSignedVarInt(int)} for values that can be negative.
+   *
+   * @param value
+   *          The value to write.
+   * @return This writer.
+   */
+  public MessageWriter writeVarInt(final int value) {
+    this.ensureCapacity(5);
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      this.data[this.position++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+
+    this.data[this.position++] = (byte) remaining;
+    return this;
+  }
+
+  public MessageWriter writeVarLong(final long value) {
+    this.ensureCapacity(10);
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      this.data[this.position++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+
+    this.data[this.position++] = (byte) remaining;
+    return this;
+  }
+
+  private void ensureCapacity(final int additionalBytes) {
+    if (this.position + additionalBytes > this.data.length) {
+      this.data = Arrays.copyOf(this.data, Math.max(this.data.length * 2, this.position + additionalBytes));
+    }
+  }
+}
@@ -4,13 +4,16 @@ import java.io.Serializable;
 import java.net.InetAddress;
 
 import de.gurkenlabs.litiengine.Game;
-import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
 
 public abstract class ClientMessageHandler<T extends Serializable> extends MessageHandler<T> {
 
   @Override
   public void handle(final byte[] data, final InetAddress address, final int port) {
+    final long start = System.nanoTime();
     super.handle(data, address, port);
-    Game.getMetrics().packageReceived(new MessagePackage<T>(data).getSize());
+    final MessageType type = MessageType.get(data[0]);
+    Game.getMetrics().packageReceived(type, data.length);
+    Game.getMetrics().messageHandled(type, System.nanoTime() - start);
   }
 }
@@ -0,0 +1,129 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IGameLoop;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.physics.MovementController;
+
+/**
+ * The server side counterpart of the {@link PredictedMovementController}. The
+ * inputs of the client are applied in the order of their ticks with the same
+ * {@link MovementSimulation} that the client uses for its prediction. The tick
+ * of the last processed input is reported back to the client together with the
+ * position of the entity, so that it can reconcile its prediction.
+ *
+ * @param <T>
+ *          The type of the controlled entity.
+ */
+public class AuthoritativeMovementController<T extends IMobileEntity> extends MovementController<T> {
+  /**
+   * The number of inputs that are applied per tick at most, so that a client
+   * can catch up after a delay but can't speed up its entity arbitrarily.
+   */
+  public static final int DEFAULT_MAX_INPUTS_PER_TICK = 4;
+  public static final int MAX_QUEUED_INPUTS = 256;
+
+  private final IGameLoop loop;
+  private final Queue<MovementInput> inputs;
+
+  private volatile long lastProcessedInputTick;
+  private volatile long lastReceivedInputTick;
+  private volatile int maxInputsPerTick;
+  private volatile int droppedInputs;
+
+  public AuthoritativeMovementController(final T mobileEntity) {
+    this(mobileEntity, Game.getLoop());
+  }
+
+  /**
+   * Instantiates a new authoritative movement controller.
+   *
+   * @param mobileEntity
+   *          The controlled entity.
+   * @param loop
+   *          The game loop whose update rate determines the movement per
+   *          input.
+   */
+  public AuthoritativeMovementController(final T mobileEntity, final IGameLoop loop) {
+    super(mobileEntity);
+    this.loop = loop;
+    this.inputs = new ConcurrentLinkedQueue<>();
+    this.lastProcessedInputTick = -1;
+    this.lastReceivedInputTick = -1;
+    this.maxInputsPerTick = DEFAULT_MAX_INPUTS_PER_TICK;
+  }
+
+  /**
+   * Gets the number of inputs that were discarded because they were outdated
+   * or the queue was full.
+   *
+   * @return The number of dropped inputs.
+   */
+  public int getDroppedInputs() {
+    return this.droppedInputs;
+  }
+
+  /**
+   * Gets the client tick of the last input that was applied to the entity.
+   *
+   * @return The tick of the last processed input or -1.
+   */
+  public long getLastProcessedInputTick() {
+    return this.lastProcessedInputTick;
+  }
+
+  public int getMaxInputsPerTick() {
+    return this.maxInputsPerTick;
+  }
+
+  public int getQueuedInputs() {
+    return this.inputs.size();
+  }
+
+  /**
+   * Queues the specified input of the client. Inputs that are not newer than
+   * the last received input are discarded.
+   *
+   * @param input
+   *          The input.
+   */
+  public synchronized void receive(final MovementInput input) {
+    if (input.getTick() <= this.lastReceivedInputTick || this.inputs.size() >= MAX_QUEUED_INPUTS) {
+      this.droppedInputs++;
+      return;
+    }
+
+    this.lastReceivedInputTick = input.getTick();
+    this.inputs.add(input);
+  }
+
+  public void setMaxInputsPerTick(final int maxInputsPerTick) {
+    if (maxInputsPerTick < 1) {
+      throw new IllegalArgumentException("At least one input must be processed per tick.");
+    }
+
+    this.maxInputsPerTick = maxInputsPerTick;
+  }
+
+  @Override
+  public void update() {
+    super.update();
+
+    final int updateRate = this.loop.getUpdateRate();
+    for (int i = 0; i < this.maxInputsPerTick; i++) {
+      final MovementInput input = this.inputs.poll();
+      if (input == null) {
+        return;
+      }
+
+      if (this.isMovementAllowed()) {
+        MovementSimulation.apply(this.getEntity(), input, Game.getPhysicsEngine(), updateRate);
+      }
+
+      this.lastProcessedInputTick = input.getTick();
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IGameLoop;
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.net.replication.EntityState;
+import de.gurkenlabs.litiengine.net.replication.ReplicationClient;
+
+/**
+ * Smoothly moves the entities that are controlled by the server between the
+ * received states. The entities are rendered with a constant delay behind the
+ * latest received server tick, so that there are usually two states to
+ * interpolate between even if a snapshot arrives late.
+ *
+ * <p>
+ * The server ticks are mapped to the local ticks of the game loop by the
+ * smallest difference between the local tick at which a state arrived and the
+ * server tick of the state. If no newer state is available, the entity stays at
+ * its latest state and the update is counted as starved.
+ * </p>
+ */
+public class EntityInterpolator implements IUpdateable {
+  public static final int DEFAULT_DELAY = 6;
+  public static final int MAX_SAMPLES = 64;
+
+  private final IGameLoop loop;
+  private final Map<IEntity, Deque<Sample>> samples;
+
+  private volatile long clockOffset;
+  private volatile int delay;
+  private volatile long interpolatedUpdates;
+  private volatile long starvedUpdates;
+
+  public EntityInterpolator() {
+    this(Game.getLoop());
+  }
+
+  /**
+   * Instantiates a new entity interpolator.
+   *
+   * @param loop
+   *          The game loop whose tick counter is the local clock.
+   */
+  public EntityInterpolator(final IGameLoop loop) {
+    this.loop = loop;
+    this.samples = new ConcurrentHashMap<>();
+    this.clockOffset = Long.MAX_VALUE;
+    this.delay = DEFAULT_DELAY;
+  }
+
+  /**
+   * Adds the state of the specified entity at the specified server tick.
+   *
+   * @param entity
+   *          The entity.
+   * @param serverTick
+   *          The tick of the server at which the state was captured.
+   * @param x
+   *          The x-coordinate of the entity.
+   * @param y
+   *          The y-coordinate of the entity.
+   * @param angle
+   *          The angle of the entity.
+   */
+  public void add(final IEntity entity, final long serverTick, final double x, final double y, final float angle) {
+    final long offset = this.loop.getTicks() - serverTick;
+    if (offset < this.clockOffset) {
+      this.clockOffset = offset;
+    }
+
+    final Deque<Sample> entitySamples = this.samples.computeIfAbsent(entity, e -> new ArrayDeque<>());
+    synchronized (entitySamples) {
+      if (!entitySamples.isEmpty() && entitySamples.peekLast().tick >= serverTick) {
+        return;
+      }
+
+      if (entitySamples.size() == MAX_SAMPLES) {
+        entitySamples.removeFirst();
+      }
+
+      entitySamples.addLast(new Sample(serverTick, x, y, angle));
+    }
+  }
+
+  /**
+   * Gets the delay between the latest server tick and the rendered server tick.
+   *
+   * @return The delay in ticks.
+   */
+  public int getDelay() {
+    return this.delay;
+  }
+
+  public long getInterpolatedUpdates() {
+    return this.interpolatedUpdates;
+  }
+
+  /**
+   * Gets the number of entity updates that had no newer state to interpolate
+   * to. A high number indicates that the delay is too short for the current
+   * network conditions.
+   *
+   * @return The number of starved updates.
+   */
+  public long getStarvedUpdates() {
+    return this.starvedUpdates;
+  }
+
+  public void remove(final IEntity entity) {
+    this.samples.remove(entity);
+  }
+
+  public void setDelay(final int delay) {
+    if (delay < 0) {
+      throw new IllegalArgumentException("The delay must not be negative.");
+    }
+
+    this.delay = delay;
+  }
+
+  /**
+   * Adds the states of all entities in the snapshots received by the specified
+   * client. The positions of these entities should then no longer be set by
+   * {@link ReplicationClient#apply(IEnvironment)}.
+   *
+   * @param client
+   *          The replication client.
+   * @param environment
+   *          The environment that contains the entities.
+   * @param exclude
+   *          A predicate for the entities that are not interpolated, e.g. the
+   *          entity of the local player.
+   */
+  public void track(final ReplicationClient client, final IEnvironment environment, final Predicate<IEntity> exclude) {
+    client.onSnapshotReceived(snapshot -> {
+      for (final EntityState state : snapshot.getStates()) {
+        final IEntity entity = environment.get(state.getMapId());
+        if (entity != null && !exclude.test(entity)) {
+          this.add(entity, snapshot.getTick(), state.getX(), state.getY(), state.getAngle());
+        }
+      }
+    });
+  }
+
+  @Override
+  public void update() {
+    final long offset = this.clockOffset;
+    if (offset == Long.MAX_VALUE) {
+      return;
+    }
+
+    final double renderTick = (double) this.loop.getTicks() - offset - this.delay;
+    for (final Map.Entry<IEntity, Deque<Sample>> entry : this.samples.entrySet()) {
+      final Deque<Sample> entitySamples = entry.getValue();
+      synchronized (entitySamples) {
+        this.interpolate(entry.getKey(), entitySamples, renderTick);
+      }
+    }
+  }
+
+  private static float interpolateAngle(final float from, final float to, final double alpha) {
+    double delta = (to - from) % 360;
+    if (delta > 180) {
+      delta -= 360;
+    } else if (delta < -180) {
+      delta += 360;
+    }
+
+    final double angle = (from + delta * alpha) % 360;
+    return (float) (angle < 0 ? angle + 360 : angle);
+  }
+
+  private void interpolate(final IEntity entity, final Deque<Sample> entitySamples, final double renderTick) {
+    if (entitySamples.isEmpty()) {
+      return;
+    }
+
+    // the samples before the one that precedes the render tick are no longer
+    // needed
+    while (entitySamples.size() > 1) {
+      final Iterator<Sample> iterator = entitySamples.iterator();
+      iterator.next();
+      if (iterator.next().tick > renderTick) {
+        break;
+      }
+
+      entitySamples.removeFirst();
+    }
+
+    final Sample from = entitySamples.peekFirst();
+    if (entitySamples.size() == 1 || renderTick <= from.tick) {
+      if (renderTick > from.tick) {
+        this.starvedUpdates++;
+      }
+
+      this.set(entity, from.x, from.y, from.angle);
+      return;
+    }
+
+    final Iterator<Sample> iterator = entitySamples.iterator();
+    iterator.next();
+    final Sample to = iterator.next();
+    final double alpha = (renderTick - from.tick) / (to.tick - from.tick);
+    this.set(entity, from.x + (to.x - from.x) * alpha, from.y + (to.y - from.y) * alpha, interpolateAngle(from.angle, to.angle, alpha));
+    this.interpolatedUpdates++;
+  }
+
+  private void set(final IEntity entity, final double x, final double y, final float angle) {
+    entity.setLocation(x, y);
+    if (entity instanceof IMobileEntity) {
+      ((IMobileEntity) entity).setAngle(angle);
+    }
+  }
+
+  private static class Sample {
+    private final long tick;
+    private final double x;
+    private final double y;
+    private final float angle;
+
+    private Sample(final long tick, final double x, final double y, final float angle) {
+      this.tick = tick;
+      this.x = x;
+      this.y = y;
+      this.angle = angle;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import java.io.Serializable;
+
+/**
+ * The movement input of a client for a tick of its game loop. The direction
+ * components are between -1 and 1; a direction whose length exceeds 1 is
+ * normalized when the input is applied.
+ */
+public final class MovementInput implements Serializable {
+  private static final long serialVersionUID = -4179734811549276211L;
+
+  private final long tick;
+  private final float dx;
+  private final float dy;
+
+  public MovementInput(final long tick, final float dx, final float dy) {
+    this.tick = tick;
+    this.dx = dx;
+    this.dy = dy;
+  }
+
+  public float getDx() {
+    return this.dx;
+  }
+
+  public float getDy() {
+    return this.dy;
+  }
+
+  /**
+   * Gets the tick of the client's game loop at which the input was sampled.
+   *
+   * @return The tick of the input.
+   */
+  public long getTick() {
+    return this.tick;
+  }
+
+  public boolean isIdle() {
+    return this.dx == 0 && this.dy == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "MovementInput [tick=" + this.tick + ", dx=" + this.dx + ", dy=" + this.dy + "]";
+  }
+}
@@ -0,0 +1,51 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import java.awt.geom.Point2D;
+
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.physics.IPhysicsEngine;
+
+/**
+ * The deterministic movement step that is shared by the client, which predicts
+ * the movement of its entity, and the server, which moves the entity
+ * authoritatively. Unlike {@link IMobileEntity#getTickVelocity()}, the step
+ * doesn't depend on the measured duration of the tick, so both sides move the
+ * entity equally for the same input.
+ */
+public final class MovementSimulation {
+  private MovementSimulation() {
+  }
+
+  /**
+   * Moves the specified entity by one tick in the direction of the specified
+   * input.
+   *
+   * @param entity
+   *          The entity.
+   * @param input
+   *          The input.
+   * @param physicsEngine
+   *          The physics engine that resolves the collisions.
+   * @param updateRate
+   *          The amount of ticks per second.
+   * @return True if the entity moved without collision.
+   */
+  public static boolean apply(final IMobileEntity entity, final MovementInput input, final IPhysicsEngine physicsEngine, final int updateRate) {
+    if (input.isIdle()) {
+      return true;
+    }
+
+    double dx = input.getDx();
+    double dy = input.getDy();
+    final double length = Math.sqrt(dx * dx + dy * dy);
+    if (length > 1) {
+      // we don't want the entity to move faster when moving diagonally
+      dx /= length;
+      dy /= length;
+    }
+
+    final double step = entity.getVelocity() / updateRate;
+    final Point2D newLocation = new Point2D.Double(entity.getX() + dx * step, entity.getY() + dy * step);
+    return physicsEngine.move(entity, newLocation);
+  }
+}
@@ -0,0 +1,276 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.IGameLoop;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.net.replication.EntityState;
+import de.gurkenlabs.litiengine.physics.MovementController;
+
+/**
+ * A movement controller for the entity of the local player in a networked
+ * game. The current input is applied immediately once per tick of the game
+ * loop, buffered with the tick and passed to the registered input consumers,
+ * which send it to the server.
+ *
+ * <p>
+ * When the server reports the authoritative position of the entity after it
+ * processed an input, the inputs up to that tick are dropped from the buffer.
+ * If the reported position differs from the predicted one, the entity is reset
+ * to the server position and the inputs that haven't been acknowledged yet are
+ * replayed.
+ * </p>
+ *
+ * @param <T>
+ *          The type of the controlled entity.
+ * @see AuthoritativeMovementController
+ */
+public class PredictedMovementController<T extends IMobileEntity> extends MovementController<T> {
+  /**
+   * The default correction threshold is the precision of the replicated
+   * locations.
+   */
+  public static final double DEFAULT_CORRECTION_THRESHOLD = 1.0 / EntityState.LOCATION_PRECISION;
+  public static final int MAX_PENDING_INPUTS = 256;
+
+  private final IGameLoop loop;
+  private final Deque<PredictedInput> pendingInputs;
+  private final List<Consumer<MovementInput>> inputConsumers;
+  private final AtomicReference<Correction> correction;
+
+  private volatile float dx;
+  private volatile float dy;
+  private volatile double correctionThreshold;
+  private long lastTick;
+  private long lastCorrectionTick;
+
+  private volatile int corrections;
+  private volatile long replayedInputs;
+  private volatile int reconciliations;
+  private volatile double lastCorrectionError;
+  private volatile double maxCorrectionError;
+  private volatile double totalCorrectionError;
+
+  public PredictedMovementController(final T mobileEntity) {
+    this(mobileEntity, Game.getLoop());
+  }
+
+  /**
+   * Instantiates a new predicted movement controller.
+   *
+   * @param mobileEntity
+   *          The controlled entity.
+   * @param loop
+   *          The game loop whose tick counter is the clock of the inputs.
+   */
+  public PredictedMovementController(final T mobileEntity, final IGameLoop loop) {
+    super(mobileEntity);
+    this.loop = loop;
+    this.pendingInputs = new ArrayDeque<>();
+    this.inputConsumers = new CopyOnWriteArrayList<>();
+    this.correction = new AtomicReference<>();
+    this.correctionThreshold = DEFAULT_CORRECTION_THRESHOLD;
+    this.lastTick = -1;
+    this.lastCorrectionTick = -1;
+  }
+
+  /**
+   * Gets the average distance between the predicted and the authoritative
+   * position over all reconciliations.
+   *
+   * @return The average error in pixels.
+   */
+  public double getAverageCorrectionError() {
+    final int count = this.reconciliations;
+    return count == 0 ? 0 : this.totalCorrectionError / count;
+  }
+
+  public double getCorrectionThreshold() {
+    return this.correctionThreshold;
+  }
+
+  /**
+   * Gets the number of reconciliations that had to reset the entity to the
+   * authoritative position.
+   *
+   * @return The number of corrections.
+   */
+  public int getCorrections() {
+    return this.corrections;
+  }
+
+  public double getLastCorrectionError() {
+    return this.lastCorrectionError;
+  }
+
+  public double getMaxCorrectionError() {
+    return this.maxCorrectionError;
+  }
+
+  public synchronized int getPendingInputs() {
+    return this.pendingInputs.size();
+  }
+
+  /**
+   * Gets the number of inputs that were replayed after corrections.
+   *
+   * @return The number of replayed inputs.
+   */
+  public long getReplayedInputs() {
+    return this.replayedInputs;
+  }
+
+  /**
+   * Registers a consumer that is called with every input of the local player,
+   * e.g. to send it to the server.
+   *
+   * @param consumer
+   *          The consumer.
+   */
+  public void onInput(final Consumer<MovementInput> consumer) {
+    if (!this.inputConsumers.contains(consumer)) {
+      this.inputConsumers.add(consumer);
+    }
+  }
+
+  /**
+   * Reports the authoritative position of the entity after the server
+   * processed the input of the specified tick. The reconciliation is performed
+   * with the next update of the controller, so this method can be called from
+   * the thread that receives the server messages.
+   *
+   * @param tick
+   *          The tick of the last input that was processed by the server.
+   * @param x
+   *          The authoritative x-coordinate.
+   * @param y
+   *          The authoritative y-coordinate.
+   */
+  public void reconcile(final long tick, final double x, final double y) {
+    this.correction.accumulateAndGet(new Correction(tick, x, y), (current, update) -> current == null || update.tick >= current.tick ? update : current);
+  }
+
+  public void setCorrectionThreshold(final double correctionThreshold) {
+    this.correctionThreshold = correctionThreshold;
+  }
+
+  /**
+   * Sets the direction in which the entity is moved with each tick until the
+   * input is changed.
+   *
+   * @param dx
+   *          The horizontal direction between -1 and 1.
+   * @param dy
+   *          The vertical direction between -1 and 1.
+   */
+  public void setInput(final float dx, final float dy) {
+    this.dx = dx;
+    this.dy = dy;
+  }
+
+  @Override
+  public void update() {
+    super.update();
+
+    final Correction pending = this.correction.getAndSet(null);
+    if (pending != null) {
+      this.applyCorrection(pending);
+    }
+
+    final long tick = this.loop.getTicks();
+    if (tick == this.lastTick) {
+      return;
+    }
+
+    this.lastTick = tick;
+    final boolean allowed = this.isMovementAllowed();
+    final MovementInput input = new MovementInput(tick, allowed ? this.dx : 0, allowed ? this.dy : 0);
+    MovementSimulation.apply(this.getEntity(), input, Game.getPhysicsEngine(), this.loop.getUpdateRate());
+
+    synchronized (this) {
+      if (this.pendingInputs.size() == MAX_PENDING_INPUTS) {
+        this.pendingInputs.removeFirst();
+      }
+
+      this.pendingInputs.addLast(new PredictedInput(input, this.getEntity().getX(), this.getEntity().getY()));
+    }
+
+    for (final Consumer<MovementInput> consumer : this.inputConsumers) {
+      consumer.accept(input);
+    }
+  }
+
+  private synchronized void applyCorrection(final Correction correction) {
+    if (correction.tick <= this.lastCorrectionTick) {
+      // outdated server messages must not reset the entity
+      return;
+    }
+
+    this.lastCorrectionTick = correction.tick;
+    PredictedInput acknowledged = null;
+    while (!this.pendingInputs.isEmpty() && this.pendingInputs.peekFirst().input.getTick() <= correction.tick) {
+      acknowledged = this.pendingInputs.removeFirst();
+    }
+
+    if (acknowledged == null || acknowledged.input.getTick() != correction.tick) {
+      // the prediction for the acknowledged tick is unknown, so the entity is
+      // always reset to the server position
+      acknowledged = null;
+    }
+
+    final double error = acknowledged != null ? Math.hypot(acknowledged.x - correction.x, acknowledged.y - correction.y) : Double.MAX_VALUE;
+    if (acknowledged != null) {
+      this.lastCorrectionError = error;
+      this.maxCorrectionError = Math.max(this.maxCorrectionError, error);
+      this.totalCorrectionError += error;
+      this.reconciliations++;
+    }
+
+    if (error <= this.correctionThreshold) {
+      return;
+    }
+
+    this.getEntity().setLocation(correction.x, correction.y);
+    final int updateRate = this.loop.getUpdateRate();
+    final Deque<PredictedInput> replayed = new ArrayDeque<>(this.pendingInputs.size());
+    for (final PredictedInput predicted : this.pendingInputs) {
+      MovementSimulation.apply(this.getEntity(), predicted.input, Game.getPhysicsEngine(), updateRate);
+      replayed.addLast(new PredictedInput(predicted.input, this.getEntity().getX(), this.getEntity().getY()));
+    }
+
+    this.replayedInputs += replayed.size();
+    this.pendingInputs.clear();
+    this.pendingInputs.addAll(replayed);
+    this.corrections++;
+  }
+
+  private static class Correction {
+    private final long tick;
+    private final double x;
+    private final double y;
+
+    private Correction(final long tick, final double x, final double y) {
+      this.tick = tick;
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  private static class PredictedInput {
+    private final MovementInput input;
+    private final double x;
+    private final double y;
+
+    private PredictedInput(final MovementInput input, final double x, final double y) {
+      this.input = input;
+      this.x = x;
+      this.y = y;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the values that have been written by a {@link BitWriter} directly from
+ * the received data.
+ */
+public class BitReader {
+  private static final int LENGTH_BITS = 6;
+
+  private final byte[] data;
+  private final int limit;
+  private int position;
+
+  public BitReader(final byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  public BitReader(final byte[] data, final int offset, final int length) {
+    if (offset < 0 || length < 0 || offset + length > data.length) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    this.data = data;
+    this.position = offset << 3;
+    this.limit = (offset + length) << 3;
+  }
+
+  /**
+   * Gets the amount of bits that have not been read yet. Up to seven of them
+   * may be the padding of the last byte.
+   *
+   * @return The amount of remaining bits.
+   */
+  public int getRemaining() {
+    return this.limit - this.position;
+  }
+
+  /**
+   * Reads the specified amount of bits.
+   *
+   * @param count
+   *          The amount of bits between 0 and 32.
+   * @return The bits as the lowest bits of an int.
+   * @throws BufferUnderflowException
+   *           If less bits remain.
+   */
+  public int readBits(final int count) {
+    if (count < 0 || count > Integer.SIZE) {
+      throw new IllegalArgumentException("Cannot read " + count + " bits into an int.");
+    }
+
+    if (count > this.getRemaining()) {
+      throw new BufferUnderflowException();
+    }
+
+    int value = 0;
+    int remaining = count;
+    while (remaining > 0) {
+      final int available = 8 - (this.position & 7);
+      final int bits = Math.min(available, remaining);
+      final int chunk = ((this.data[this.position >>> 3] & 0xFF) >>> (available - bits)) & ((1 << bits) - 1);
+      value = (value << bits) | chunk;
+      this.position += bits;
+      remaining -= bits;
+    }
+
+    return value;
+  }
+
+  public boolean readBoolean() {
+    return this.readBits(1) != 0;
+  }
+
+  public float readFloat() {
+    return Float.intBitsToFloat(this.readBits(Integer.SIZE));
+  }
+
+  public int readSignedVarInt() {
+    final int value = this.readVarInt();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public String readString() {
+    final int length = this.readVarInt() - 1;
+    if (length < 0) {
+      return null;
+    }
+
+    if (length > this.getRemaining() >>> 3) {
+      throw new BufferUnderflowException();
+    }
+
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) this.readBits(8);
+    }
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public int readVarInt() {
+    final int bits = this.readBits(LENGTH_BITS);
+    if (bits > Integer.SIZE) {
+      throw new IllegalArgumentException("Invalid length of a variable int: " + bits + ".");
+    }
+
+    return this.readBits(bits);
+  }
+}
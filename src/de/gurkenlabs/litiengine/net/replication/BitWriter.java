@@ -0,0 +1,202 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes values with an arbitrary amount of bits into a growable buffer, most
+ * significant bit first. Small values like deltas and flags therefore only
+ * occupy the bits they need instead of whole bytes.
+ *
+ * @see BitReader
+ */
+public class BitWriter {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final int LENGTH_BITS = 6;
+
+  private byte[] buffer;
+  private int position;
+
+  public BitWriter() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public BitWriter(final int capacity) {
+    this.buffer = new byte[Math.max(1, capacity)];
+  }
+
+  /**
+   * Resets the writer so that it can be reused for the next message.
+   *
+   * @return This instance.
+   */
+  public BitWriter clear() {
+    Arrays.fill(this.buffer, 0, this.size(), (byte) 0);
+    this.position = 0;
+    return this;
+  }
+
+  /**
+   * Gets the amount of bits that have been written.
+   *
+   * @return The position of the next bit.
+   */
+  public int getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Gets the amount of bytes that are occupied by the written bits.
+   *
+   * @return The size in bytes.
+   */
+  public int size() {
+    return (this.position + 7) >>> 3;
+  }
+
+  public byte[] toByteArray() {
+    return Arrays.copyOf(this.buffer, this.size());
+  }
+
+  /**
+   * Overwrites bits that have already been written, e.g. to fill in a header
+   * field whose value is only known after the message has been written.
+   *
+   * @param position
+   *          The position of the first bit to overwrite.
+   * @param value
+   *          The value.
+   * @param count
+   *          The amount of bits.
+   * @return This instance.
+   */
+  public BitWriter setBits(final int position, final int value, final int count) {
+    if (position < 0 || position + count > this.position) {
+      throw new IndexOutOfBoundsException("Cannot overwrite bits " + position + " to " + (position + count) + " of " + this.position + " written bits.");
+    }
+
+    final int end = this.position;
+    this.position = position;
+    for (int i = 0; i < count; i++) {
+      final int index = (position + i) >>> 3;
+      this.buffer[index] &= ~(0x80 >>> ((position + i) & 7));
+    }
+
+    this.writeBits(value, count);
+    this.position = end;
+    return this;
+  }
+
+  /**
+   * Appends all bits that have been written by the specified writer.
+   *
+   * @param writer
+   *          The writer whose bits are appended.
+   * @return This instance.
+   */
+  public BitWriter write(final BitWriter writer) {
+    final int bytes = writer.position >>> 3;
+    for (int i = 0; i < bytes; i++) {
+      this.writeBits(writer.buffer[i], 8);
+    }
+
+    final int remaining = writer.position & 7;
+    if (remaining > 0) {
+      this.writeBits((writer.buffer[bytes] & 0xFF) >>> (8 - remaining), remaining);
+    }
+
+    return this;
+  }
+
+  /**
+   * Writes the lowest bits of the specified value.
+   *
+   * @param value
+   *          The value.
+   * @param count
+   *          The amount of bits between 0 and 32.
+   * @return This instance.
+   */
+  public BitWriter writeBits(final int value, final int count) {
+    if (count < 0 || count > Integer.SIZE) {
+      throw new IllegalArgumentException("Cannot write " + count + " bits of an int.");
+    }
+
+    this.ensureCapacity(this.position + count);
+    int remaining = count;
+    while (remaining > 0) {
+      final int free = 8 - (this.position & 7);
+      final int bits = Math.min(free, remaining);
+      final int chunk = (int) (((value & 0xFFFFFFFFL) >>> (remaining - bits)) & ((1 << bits) - 1));
+      this.buffer[this.position >>> 3] |= chunk << (free - bits);
+      this.position += bits;
+      remaining -= bits;
+    }
+
+    return this;
+  }
+
+  public BitWriter writeBoolean(final boolean value) {
+    return this.writeBits(value ? 1 : 0, 1);
+  }
+
+  public BitWriter writeFloat(final float value) {
+    return this.writeBits(Float.floatToIntBits(value), Integer.SIZE);
+  }
+
+  /**
+   * Writes the specified value with a zig-zag encoding, so small negative
+   * values occupy as few bits as small positive values.
+   *
+   * @param value
+   *          The value.
+   * @return This instance.
+   */
+  public BitWriter writeSignedVarInt(final int value) {
+    return this.writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  /**
+   * Writes a string as its length followed by its UTF-8 bytes.
+   *
+   * @param value
+   *          The string or null.
+   * @return This instance.
+   */
+  public BitWriter writeString(final String value) {
+    if (value == null) {
+      return this.writeVarInt(0);
+    }
+
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    this.writeVarInt(bytes.length + 1);
+    for (final byte b : bytes) {
+      this.writeBits(b, 8);
+    }
+
+    return this;
+  }
+
+  /**
+   * Writes the specified value as the amount of its significant bits followed
+   * by these bits. A value below 2^n occupies 6 + n bits. Negative values
+   * always occupy 38 bits.
+   *
+   * @param value
+   *          The value.
+   * @return This instance.
+   */
+  public BitWriter writeVarInt(final int value) {
+    final int bits = Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    this.writeBits(bits, LENGTH_BITS);
+    return this.writeBits(value, bits);
+  }
+
+  private void ensureCapacity(final int bits) {
+    final int bytes = (bits + 7) >>> 3;
+    if (bytes > this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, Math.max(bytes, this.buffer.length * 2));
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.util.Objects;
+
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.graphics.animation.Animation;
+
+/**
+ * The immutable state of an entity at a tick, as it is replicated to the
+ * clients. The location and the angle are quantized, so an entity that hasn't
+ * moved noticeably has an equal state and doesn't need to be sent again.
+ *
+ * <p>
+ * A state is written as a mask of the fields that differ from a base state,
+ * followed by the changed fields. The location and the health are written as
+ * the difference to the base state, which usually only takes a few bits.
+ * </p>
+ */
+public final class EntityState {
+  /**
+   * The location is replicated in steps of 1 / LOCATION_PRECISION pixels.
+   */
+  public static final int LOCATION_PRECISION = 8;
+
+  /**
+   * The angle is replicated in 2^ANGLE_BITS steps.
+   */
+  public static final int ANGLE_BITS = 10;
+
+  /**
+   * The state that is used as base for entities that are unknown to the
+   * client.
+   */
+  public static final EntityState NONE = new EntityState(0, 0, 0, 0, null, 0, 0);
+
+  private static final int X = 1;
+  private static final int Y = 1 << 1;
+  private static final int ANGLE = 1 << 2;
+  private static final int ANIMATION = 1 << 3;
+  private static final int HEALTH = 1 << 4;
+  private static final int VELOCITY = 1 << 5;
+  private static final int FIELD_BITS = 6;
+
+  private static final int ANGLE_STEPS = 1 << ANGLE_BITS;
+
+  private final int mapId;
+  private final int x;
+  private final int y;
+  private final int angle;
+  private final String animation;
+  private final int health;
+  private final float velocity;
+
+  private EntityState(final int mapId, final int x, final int y, final int angle, final String animation, final int health, final float velocity) {
+    this.mapId = mapId;
+    this.x = x;
+    this.y = y;
+    this.angle = angle;
+    this.animation = animation;
+    this.health = health;
+    this.velocity = velocity;
+  }
+
+  /**
+   * Captures the current state of the specified entity.
+   *
+   * @param entity
+   *          The entity.
+   * @return The state of the entity.
+   */
+  public static EntityState capture(final IEntity entity) {
+    final Animation current = entity.getAnimationController() != null ? entity.getAnimationController().getCurrentAnimation() : null;
+    final int health = entity instanceof ICombatEntity ? ((ICombatEntity) entity).getAttributes().getHealth().getCurrentValue() : 0;
+    final float velocity = entity instanceof IMobileEntity ? ((IMobileEntity) entity).getVelocity() : 0;
+
+    return new EntityState(entity.getMapId(), quantize(entity.getX()), quantize(entity.getY()), quantizeAngle(entity.getAngle()), current != null ? current.getName() : null, health, velocity);
+  }
+
+  /**
+   * Reads the state that has been written by {@link #write(EntityState, BitWriter)}.
+   *
+   * @param mapId
+   *          The map id of the entity.
+   * @param base
+   *          The base state that the state has been written against.
+   * @param reader
+   *          The reader.
+   * @return The read state.
+   */
+  public static EntityState read(final int mapId, final EntityState base, final BitReader reader) {
+    final int changes = reader.readBits(FIELD_BITS);
+    final int x = (changes & X) != 0 ? base.x + reader.readSignedVarInt() : base.x;
+    final int y = (changes & Y) != 0 ? base.y + reader.readSignedVarInt() : base.y;
+    final int angle = (changes & ANGLE) != 0 ? reader.readBits(ANGLE_BITS) : base.angle;
+    final String animation = (changes & ANIMATION) != 0 ? reader.readString() : base.animation;
+    final int health = (changes & HEALTH) != 0 ? base.health + reader.readSignedVarInt() : base.health;
+    final float velocity = (changes & VELOCITY) != 0 ? reader.readFloat() : base.velocity;
+
+    return new EntityState(mapId, x, y, angle, animation, health, velocity);
+  }
+
+  private static int quantize(final double coordinate) {
+    return (int) Math.round(coordinate * LOCATION_PRECISION);
+  }
+
+  private static int quantizeAngle(final float angle) {
+    return Math.round(angle / 360f * ANGLE_STEPS) & (ANGLE_STEPS - 1);
+  }
+
+  public float getAngle() {
+    return this.angle * 360f / ANGLE_STEPS;
+  }
+
+  public String getAnimation() {
+    return this.animation;
+  }
+
+  public int getHealth() {
+    return this.health;
+  }
+
+  public int getMapId() {
+    return this.mapId;
+  }
+
+  public float getVelocity() {
+    return this.velocity;
+  }
+
+  public double getX() {
+    return (double) this.x / LOCATION_PRECISION;
+  }
+
+  public double getY() {
+    return (double) this.y / LOCATION_PRECISION;
+  }
+
+  /**
+   * Determines whether the replicated fields of this state are equal to the
+   * fields of the specified state.
+   *
+   * @param other
+   *          The other state.
+   * @return True if nothing needs to be sent to a client that knows the other
+   *         state.
+   */
+  public boolean isUnchanged(final EntityState other) {
+    return this == other || this.changes(other) == 0;
+  }
+
+  /**
+   * Writes the fields of this state that differ from the specified base state.
+   *
+   * @param base
+   *          The state that the client knows or {@link #NONE}.
+   * @param writer
+   *          The writer.
+   */
+  public void write(final EntityState base, final BitWriter writer) {
+    final int changes = this.changes(base);
+    writer.writeBits(changes, FIELD_BITS);
+    if ((changes & X) != 0) {
+      writer.writeSignedVarInt(this.x - base.x);
+    }
+
+    if ((changes & Y) != 0) {
+      writer.writeSignedVarInt(this.y - base.y);
+    }
+
+    if ((changes & ANGLE) != 0) {
+      writer.writeBits(this.angle, ANGLE_BITS);
+    }
+
+    if ((changes & ANIMATION) != 0) {
+      writer.writeString(this.animation);
+    }
+
+    if ((changes & HEALTH) != 0) {
+      writer.writeSignedVarInt(this.health - base.health);
+    }
+
+    if ((changes & VELOCITY) != 0) {
+      writer.writeFloat(this.velocity);
+    }
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (!(obj instanceof EntityState)) {
+      return false;
+    }
+
+    final EntityState other = (EntityState) obj;
+    return this.mapId == other.mapId && this.changes(other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.mapId, this.x, this.y, this.angle, this.animation, this.health, this.velocity);
+  }
+
+  @Override
+  public String toString() {
+    return "EntityState [mapId=" + this.mapId + ", x=" + this.getX() + ", y=" + this.getY() + ", angle=" + this.getAngle() + ", animation=" + this.animation + ", health=" + this.health + ", velocity=" + this.velocity + "]";
+  }
+
+  private int changes(final EntityState base) {
+    int changes = 0;
+    if (this.x != base.x) {
+      changes |= X;
+    }
+
+    if (this.y != base.y) {
+      changes |= Y;
+    }
+
+    if (this.angle != base.angle) {
+      changes |= ANGLE;
+    }
+
+    if (!Objects.equals(this.animation, base.animation)) {
+      changes |= ANIMATION;
+    }
+
+    if (this.health != base.health) {
+      changes |= HEALTH;
+    }
+
+    if (Float.floatToIntBits(this.velocity) != Float.floatToIntBits(base.velocity)) {
+      changes |= VELOCITY;
+    }
+
+    return changes;
+  }
+}
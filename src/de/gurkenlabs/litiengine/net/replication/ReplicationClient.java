@@ -0,0 +1,215 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.net.InetAddress;
+import java.nio.BufferUnderflowException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.entities.IMobileEntity;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.graphics.animation.Animation;
+import de.gurkenlabs.litiengine.net.IPacketSender;
+import de.gurkenlabs.litiengine.net.messages.IMessageHandler;
+import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+
+/**
+ * Reassembles the snapshots that are sent by a {@link ReplicationServer} from
+ * their deltas and acknowledges every snapshot that has been received
+ * completely, so the server can send the next deltas against it.
+ *
+ * <p>
+ * A snapshot is applied to its baseline snapshot once all of its datagrams have
+ * arrived. Snapshots whose datagrams got lost and snapshots that arrive after a
+ * newer snapshot are discarded; the server keeps sending the changes against
+ * the last acknowledged snapshot until a newer one has been acknowledged.
+ * </p>
+ *
+ * <p>
+ * The client must be registered as handler for {@link MessageType#SNAPSHOT}
+ * messages.
+ * </p>
+ */
+public class ReplicationClient implements IMessageHandler {
+  private static final Logger log = Logger.getLogger(ReplicationClient.class.getName());
+
+  private final IPacketSender sender;
+  private final InetAddress serverAddress;
+  private final int serverPort;
+
+  private final NavigableMap<Integer, Snapshot> received;
+  private final NavigableMap<Integer, PendingSnapshot> pending;
+  private final List<Consumer<Snapshot>> snapshotReceivedConsumers;
+
+  private volatile Snapshot latest;
+
+  /**
+   * Instantiates a new replication client.
+   *
+   * @param sender
+   *          The sender of the acknowledgements.
+   * @param serverAddress
+   *          The address of the server.
+   * @param serverPort
+   *          The port of the server.
+   */
+  public ReplicationClient(final IPacketSender sender, final InetAddress serverAddress, final int serverPort) {
+    SnapshotMessages.registerCodecs();
+    this.sender = sender;
+    this.serverAddress = serverAddress;
+    this.serverPort = serverPort;
+    this.received = new TreeMap<>();
+    this.pending = new TreeMap<>();
+    this.snapshotReceivedConsumers = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Applies the latest snapshot to the entities with the same map id in the
+   * specified environment.
+   *
+   * @param environment
+   *          The environment of the client.
+   */
+  public void apply(final IEnvironment environment) {
+    final Snapshot snapshot = this.latest;
+    if (snapshot == null) {
+      return;
+    }
+
+    for (final EntityState state : snapshot.getStates()) {
+      final IEntity entity = environment.get(state.getMapId());
+      if (entity == null) {
+        continue;
+      }
+
+      entity.setLocation(state.getX(), state.getY());
+      if (entity instanceof IMobileEntity) {
+        ((IMobileEntity) entity).setAngle(state.getAngle());
+      }
+
+      if (entity instanceof ICombatEntity) {
+        ((ICombatEntity) entity).getAttributes().getHealth().setBaseValue(state.getHealth());
+      }
+
+      final Animation current = entity.getAnimationController() != null ? entity.getAnimationController().getCurrentAnimation() : null;
+      if (state.getAnimation() != null && (current == null || !state.getAnimation().equals(current.getName()))) {
+        entity.getAnimationController().playAnimation(state.getAnimation());
+      }
+    }
+  }
+
+  /**
+   * Gets the latest snapshot that has been received completely.
+   *
+   * @return The latest snapshot or null if no snapshot has been received yet.
+   */
+  public Snapshot getLatestSnapshot() {
+    return this.latest;
+  }
+
+  @Override
+  public synchronized void handle(final byte[] data, final InetAddress address, final int port) {
+    final BitReader reader = new BitReader(data, 1, data.length - 1);
+    int tick = SnapshotMessages.NO_BASELINE;
+    try {
+      tick = reader.readVarInt();
+      final int baselineTick = reader.readVarInt();
+      final int part = reader.readBits(SnapshotMessages.PART_BITS);
+      final int parts = reader.readBits(SnapshotMessages.PART_BITS);
+      final int records = reader.readBits(SnapshotMessages.RECORD_COUNT_BITS);
+
+      final Snapshot current = this.latest;
+      if (current != null && tick <= current.getTick() || part >= parts) {
+        return;
+      }
+
+      Snapshot baseline = null;
+      if (baselineTick != SnapshotMessages.NO_BASELINE) {
+        // the server never goes back to an older baseline
+        this.received.headMap(baselineTick, false).clear();
+        baseline = this.received.get(baselineTick);
+      }
+
+      if (baselineTick != SnapshotMessages.NO_BASELINE && baseline == null) {
+        log.log(Level.FINE, "Discarded snapshot {0} because its baseline {1} is unknown.", new Object[] { tick, baselineTick });
+        return;
+      }
+
+      PendingSnapshot snapshot = this.pending.get(tick);
+      if (snapshot == null) {
+        snapshot = new PendingSnapshot(new Snapshot(tick, baseline), baseline, parts);
+        this.pending.put(tick, snapshot);
+      }
+
+      if (snapshot.receivedParts.get(part)) {
+        return;
+      }
+
+      for (int i = 0; i < records; i++) {
+        final int mapId = reader.readVarInt();
+        if (reader.readBoolean()) {
+          snapshot.snapshot.remove(mapId);
+          continue;
+        }
+
+        final EntityState base = snapshot.baseline != null ? snapshot.baseline.get(mapId) : null;
+        snapshot.snapshot.put(EntityState.read(mapId, base != null ? base : EntityState.NONE, reader));
+      }
+
+      snapshot.receivedParts.set(part);
+      if (snapshot.receivedParts.cardinality() == snapshot.parts) {
+        this.complete(snapshot.snapshot);
+      }
+    } catch (final BufferUnderflowException | IllegalArgumentException e) {
+      log.log(Level.WARNING, "Discarded invalid snapshot from {0}:{1}: {2}", new Object[] { address.getHostAddress(), port, e.getMessage() });
+      this.pending.remove(tick);
+    }
+  }
+
+  /**
+   * Registers a consumer that is called with every snapshot that has been
+   * received completely.
+   *
+   * @param consumer
+   *          The consumer.
+   */
+  public void onSnapshotReceived(final Consumer<Snapshot> consumer) {
+    if (!this.snapshotReceivedConsumers.contains(consumer)) {
+      this.snapshotReceivedConsumers.add(consumer);
+    }
+  }
+
+  private void complete(final Snapshot snapshot) {
+    this.received.put(snapshot.getTick(), snapshot);
+    this.received.headMap(snapshot.getTick() - SnapshotMessages.HISTORY_SIZE, false).clear();
+    this.latest = snapshot;
+    this.pending.headMap(snapshot.getTick(), true).clear();
+
+    this.sender.sendData(new MessagePackage<>(MessageType.SNAPSHOTACK, snapshot.getTick()), this.serverAddress, this.serverPort);
+    for (final Consumer<Snapshot> consumer : this.snapshotReceivedConsumers) {
+      consumer.accept(snapshot);
+    }
+  }
+
+  private static class PendingSnapshot {
+    private final Snapshot snapshot;
+    private final Snapshot baseline;
+    private final int parts;
+    private final BitSet receivedParts;
+
+    private PendingSnapshot(final Snapshot snapshot, final Snapshot baseline, final int parts) {
+      this.snapshot = snapshot;
+      this.baseline = baseline;
+      this.parts = parts;
+      this.receivedParts = new BitSet(parts);
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.IUpdateable;
+import de.gurkenlabs.litiengine.entities.IEntity;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.net.IPacketSender;
+import de.gurkenlabs.litiengine.net.messages.IMessageHandler;
+import de.gurkenlabs.litiengine.net.messages.MessageCodecs;
+import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+import de.gurkenlabs.litiengine.net.server.ClientConnection;
+import de.gurkenlabs.litiengine.net.server.IClientConnectionManager;
+
+/**
+ * Replicates the state of the entities of the environment to the registered
+ * clients on every tick of the server.
+ *
+ * <p>
+ * Each client only receives the entities within its area of interest, which is
+ * resolved by a spatial query of the environment. The entities are sent as the
+ * difference to the last snapshot that the client has acknowledged, so
+ * entities that didn't change are not sent at all and changed entities only
+ * send their changed fields. The records are bit-packed into datagrams of at
+ * most {@link #getMaxPacketSize()} bytes and at most
+ * {@link #getMaxPacketsPerTick()} datagrams are sent to a client per tick, with
+ * the entities closest to the center of its area of interest first. Entities
+ * that don't fit are sent on one of the next ticks. The bandwidth of a client
+ * therefore depends on its surroundings and is limited, no matter how large
+ * the world grows.
+ * </p>
+ *
+ * <p>
+ * The states of the entities are captured lazily, at most once per tick, and
+ * only for entities that are in the area of interest of a client.
+ * </p>
+ *
+ * <p>
+ * The server must be registered as handler for {@link MessageType#SNAPSHOTACK}
+ * messages and attached to the game loop, or {@link #update()} must be called
+ * once per server tick.
+ * </p>
+ *
+ * @see ReplicationClient
+ */
+public class ReplicationServer implements IUpdateable, IMessageHandler {
+  /**
+   * A payload size that fits into a single IP packet on virtually all networks.
+   */
+  public static final int DEFAULT_MAX_PACKET_SIZE = 1200;
+  public static final int DEFAULT_MAX_PACKETS_PER_TICK = 4;
+
+  private static final Logger log = Logger.getLogger(ReplicationServer.class.getName());
+
+  private final IPacketSender sender;
+  private final IClientConnectionManager connectionManager;
+  private final Map<Integer, ClientState> clients;
+  private final Map<IEntity, EntityState> capturedStates;
+
+  private final List<IEntity> interest;
+  private final Set<Integer> interestIds;
+  private final BitWriter record;
+
+  private volatile IEnvironment environment;
+  private volatile int maxPacketSize;
+  private volatile int maxPacketsPerTick;
+  private int tick;
+
+  /**
+   * Instantiates a new replication server.
+   *
+   * @param environment
+   *          The environment whose entities are replicated.
+   * @param sender
+   *          The sender of the snapshot datagrams.
+   * @param connectionManager
+   *          The connection manager that resolves the senders of the
+   *          acknowledgements. Clients that time out are unregistered.
+   */
+  public ReplicationServer(final IEnvironment environment, final IPacketSender sender, final IClientConnectionManager connectionManager) {
+    SnapshotMessages.registerCodecs();
+    this.environment = environment;
+    this.sender = sender;
+    this.connectionManager = connectionManager;
+    this.clients = new ConcurrentHashMap<>();
+    this.capturedStates = new HashMap<>();
+    this.interest = new ArrayList<>();
+    this.interestIds = new HashSet<>();
+    this.record = new BitWriter();
+    this.maxPacketSize = DEFAULT_MAX_PACKET_SIZE;
+    this.maxPacketsPerTick = DEFAULT_MAX_PACKETS_PER_TICK;
+
+    this.connectionManager.onConnectionTimedOut(this::unregister);
+  }
+
+  /**
+   * Sets the baseline of the specified client to the snapshot of the specified
+   * tick, if it has been sent within the last ticks.
+   *
+   * @param connection
+   *          The connection of the client.
+   * @param tick
+   *          The tick of the snapshot that the client has received completely.
+   */
+  public void acknowledge(final ClientConnection connection, final int tick) {
+    final ClientState client = this.clients.get(connection.getId());
+    if (client != null) {
+      client.acknowledge(tick);
+    }
+  }
+
+  /**
+   * Gets the tick of the snapshot that the specified client has acknowledged
+   * last.
+   *
+   * @param connection
+   *          The connection of the client.
+   * @return The acknowledged tick or 0 if the client hasn't acknowledged a
+   *         snapshot yet.
+   */
+  public int getAcknowledgedTick(final ClientConnection connection) {
+    final ClientState client = this.clients.get(connection.getId());
+    final Snapshot acknowledged = client != null ? client.acknowledged : null;
+    return acknowledged != null ? acknowledged.getTick() : SnapshotMessages.NO_BASELINE;
+  }
+
+  public IEnvironment getEnvironment() {
+    return this.environment;
+  }
+
+  public int getMaxPacketSize() {
+    return this.maxPacketSize;
+  }
+
+  public int getMaxPacketsPerTick() {
+    return this.maxPacketsPerTick;
+  }
+
+  /**
+   * Gets the amount of bytes that have been sent to the specified client.
+   *
+   * @param connection
+   *          The connection of the client.
+   * @return The amount of sent bytes.
+   */
+  public long getSentBytes(final ClientConnection connection) {
+    final ClientState client = this.clients.get(connection.getId());
+    return client != null ? client.sentBytes : 0;
+  }
+
+  public synchronized int getTick() {
+    return this.tick;
+  }
+
+  @Override
+  public void handle(final byte[] data, final InetAddress address, final int port) {
+    final ClientConnection connection = this.connectionManager.get(address, port);
+    if (connection == null) {
+      return;
+    }
+
+    final Integer tick;
+    try {
+      tick = MessageCodecs.decode(data);
+    } catch (final RuntimeException e) {
+      log.log(Level.FINE, e.getMessage(), e);
+      return;
+    }
+
+    this.acknowledge(connection, tick);
+  }
+
+  /**
+   * Registers the specified client for the replication of the entities in the
+   * specified area.
+   *
+   * @param connection
+   *          The connection of the client.
+   * @param interestArea
+   *          Provides the current area of interest of the client on every tick,
+   *          e.g. the viewport around the entity of its player.
+   */
+  public void register(final ClientConnection connection, final Supplier<? extends Shape> interestArea) {
+    this.clients.put(connection.getId(), new ClientState(connection, interestArea));
+  }
+
+  public void setEnvironment(final IEnvironment environment) {
+    this.environment = environment;
+  }
+
+  public void setMaxPacketSize(final int maxPacketSize) {
+    if (maxPacketSize <= SnapshotMessages.FRAME_SIZE) {
+      throw new IllegalArgumentException("The maximum packet size must be greater than " + SnapshotMessages.FRAME_SIZE + ".");
+    }
+
+    this.maxPacketSize = maxPacketSize;
+  }
+
+  public void setMaxPacketsPerTick(final int maxPacketsPerTick) {
+    if (maxPacketsPerTick <= 0 || maxPacketsPerTick > SnapshotMessages.MAX_PARTS) {
+      throw new IllegalArgumentException("The maximum amount of packets per tick must be between 1 and " + SnapshotMessages.MAX_PARTS + ".");
+    }
+
+    this.maxPacketsPerTick = maxPacketsPerTick;
+  }
+
+  public void unregister(final ClientConnection connection) {
+    this.clients.remove(connection.getId());
+  }
+
+  /**
+   * Takes the snapshot of the current tick and sends the deltas to all
+   * registered clients.
+   */
+  @Override
+  public synchronized void update() {
+    final IEnvironment env = this.environment;
+    if (env == null) {
+      return;
+    }
+
+    this.tick++;
+    this.capturedStates.clear();
+    for (final ClientState client : this.clients.values()) {
+      final List<byte[]> packets = this.replicate(env, client);
+      for (final byte[] payload : packets) {
+        final MessagePackage<byte[]> message = new MessagePackage<>(MessageType.SNAPSHOT, payload);
+        client.sentBytes += message.getData().length;
+        this.sender.sendData(message, client.connection.getIpAddress(), client.connection.getPort());
+      }
+    }
+  }
+
+  /**
+   * Creates the payloads of the datagrams that update the specified client from
+   * its acknowledged snapshot to the current tick.
+   *
+   * @param env
+   *          The environment.
+   * @param client
+   *          The client.
+   * @return The payloads of the datagrams; empty if the client is up to date.
+   */
+  private List<byte[]> replicate(final IEnvironment env, final ClientState client) {
+    Snapshot baseline = client.acknowledged;
+    if (baseline != null && this.tick - baseline.getTick() > SnapshotMessages.HISTORY_SIZE) {
+      // the client only keeps the snapshots of the last ticks
+      baseline = null;
+    }
+
+    final Snapshot view = new Snapshot(this.tick, baseline);
+    this.findInterest(env, client);
+
+    final Packets packets = new Packets(baseline);
+    if (baseline != null) {
+      for (final EntityState known : baseline.getStates()) {
+        if (this.interestIds.contains(known.getMapId())) {
+          continue;
+        }
+
+        this.record.clear().writeVarInt(known.getMapId()).writeBoolean(true);
+        if (packets.append(this.record)) {
+          view.remove(known.getMapId());
+        }
+      }
+    }
+
+    for (final IEntity entity : this.interest) {
+      final EntityState state = this.capturedStates.computeIfAbsent(entity, EntityState::capture);
+      final EntityState base = baseline != null ? baseline.get(state.getMapId()) : null;
+      if (base != null && state.isUnchanged(base)) {
+        continue;
+      }
+
+      this.record.clear().writeVarInt(state.getMapId()).writeBoolean(false);
+      state.write(base != null ? base : EntityState.NONE, this.record);
+      if (packets.append(this.record)) {
+        view.put(state);
+      }
+    }
+
+    // an empty snapshot refreshes the baseline of a client whose entities
+    // haven't changed for a while, before it becomes too old to be used
+    final boolean refresh = baseline != null && this.tick - baseline.getTick() >= SnapshotMessages.HISTORY_SIZE / 2;
+    final List<byte[]> payloads = packets.finish(refresh);
+    if (!payloads.isEmpty()) {
+      client.sent.set(this.tick % SnapshotMessages.HISTORY_SIZE, view);
+    }
+
+    return payloads;
+  }
+
+  private void findInterest(final IEnvironment env, final ClientState client) {
+    this.interest.clear();
+    this.interestIds.clear();
+
+    final Shape area = client.interestArea.get();
+    if (area == null) {
+      return;
+    }
+
+    env.findEntities(area, this.interest);
+    final Rectangle2D bounds = area.getBounds2D();
+    final Point2D center = new Point2D.Double(bounds.getCenterX(), bounds.getCenterY());
+    final Map<IEntity, Double> distances = new HashMap<>();
+    for (final IEntity entity : this.interest) {
+      distances.put(entity, entity.getCenter().distanceSq(center));
+      this.interestIds.add(entity.getMapId());
+    }
+
+    Collections.sort(this.interest, (a, b) -> Double.compare(distances.get(a), distances.get(b)));
+  }
+
+  private static class ClientState {
+    private final ClientConnection connection;
+    private final Supplier<? extends Shape> interestArea;
+    private final AtomicReferenceArray<Snapshot> sent;
+    private volatile Snapshot acknowledged;
+    private volatile long sentBytes;
+
+    private ClientState(final ClientConnection connection, final Supplier<? extends Shape> interestArea) {
+      this.connection = connection;
+      this.interestArea = interestArea;
+      this.sent = new AtomicReferenceArray<>(SnapshotMessages.HISTORY_SIZE);
+    }
+
+    private synchronized void acknowledge(final int tick) {
+      final Snapshot snapshot = this.sent.get(Math.floorMod(tick, SnapshotMessages.HISTORY_SIZE));
+      if (snapshot == null || snapshot.getTick() != tick) {
+        return;
+      }
+
+      if (this.acknowledged == null || tick > this.acknowledged.getTick()) {
+        this.acknowledged = snapshot;
+      }
+    }
+  }
+
+  /**
+   * Splits the records of a tick into datagrams.
+   */
+  private class Packets {
+    private final Snapshot baseline;
+    private final List<BitWriter> packets;
+    private final int maxBits;
+    private final int maxPackets;
+    private BitWriter current;
+    private int partPosition;
+    private int records;
+
+    private Packets(final Snapshot baseline) {
+      this.baseline = baseline;
+      this.packets = new ArrayList<>();
+      this.maxBits = (ReplicationServer.this.maxPacketSize - SnapshotMessages.FRAME_SIZE) * Byte.SIZE;
+      this.maxPackets = ReplicationServer.this.maxPacketsPerTick;
+      this.start();
+    }
+
+    /**
+     * Appends the specified record to the current datagram or starts a new
+     * datagram if it is full.
+     *
+     * @param record
+     *          The record.
+     * @return True if the record has been appended; false if it doesn't fit
+     *         into the datagrams that can be sent to the client on this tick.
+     */
+    private boolean append(final BitWriter record) {
+      if (this.current.getPosition() + record.getPosition() > this.maxBits || this.records == SnapshotMessages.MAX_RECORDS) {
+        if (this.records == 0 || this.packets.size() + 1 >= this.maxPackets) {
+          return false;
+        }
+
+        this.flush();
+        this.start();
+        if (this.current.getPosition() + record.getPosition() > this.maxBits) {
+          return false;
+        }
+      }
+
+      this.current.write(record);
+      this.records++;
+      return true;
+    }
+
+    private List<byte[]> finish(final boolean sendEmpty) {
+      if (this.records > 0 || sendEmpty && this.packets.isEmpty()) {
+        this.flush();
+      }
+
+      final List<byte[]> payloads = new ArrayList<>(this.packets.size());
+      for (final BitWriter writer : this.packets) {
+        // the part count is only known after all records have been written
+        writer.setBits(this.partPosition + SnapshotMessages.PART_BITS, this.packets.size(), SnapshotMessages.PART_BITS);
+        payloads.add(writer.toByteArray());
+      }
+
+      return payloads;
+    }
+
+    private void flush() {
+      this.current.setBits(this.partPosition + 2 * SnapshotMessages.PART_BITS, this.records, SnapshotMessages.RECORD_COUNT_BITS);
+      this.packets.add(this.current);
+    }
+
+    private void start() {
+      this.current = new BitWriter(ReplicationServer.this.maxPacketSize);
+      this.current.writeVarInt(ReplicationServer.this.tick);
+      this.current.writeVarInt(this.baseline != null ? this.baseline.getTick() : SnapshotMessages.NO_BASELINE);
+      this.partPosition = this.current.getPosition();
+      this.current.writeBits(this.packets.size(), SnapshotMessages.PART_BITS);
+      this.current.writeBits(0, SnapshotMessages.PART_BITS);
+      this.current.writeBits(0, SnapshotMessages.RECORD_COUNT_BITS);
+      this.records = 0;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The states of the entities that a client knows at a tick of the server.
+ */
+public class Snapshot {
+  private final int tick;
+  private final Map<Integer, EntityState> states;
+
+  Snapshot(final int tick, final Map<Integer, EntityState> states) {
+    this.tick = tick;
+    this.states = states;
+  }
+
+  Snapshot(final int tick, final Snapshot baseline) {
+    this(tick, baseline != null ? new HashMap<>(baseline.states) : new HashMap<>());
+  }
+
+  public boolean contains(final int mapId) {
+    return this.states.containsKey(mapId);
+  }
+
+  public EntityState get(final int mapId) {
+    return this.states.get(mapId);
+  }
+
+  public Collection<EntityState> getStates() {
+    return Collections.unmodifiableCollection(this.states.values());
+  }
+
+  public int getTick() {
+    return this.tick;
+  }
+
+  public int size() {
+    return this.states.size();
+  }
+
+  @Override
+  public String toString() {
+    return "Snapshot [tick=" + this.tick + ", entities=" + this.states.size() + "]";
+  }
+
+  void put(final EntityState state) {
+    this.states.put(state.getMapId(), state);
+  }
+
+  void remove(final int mapId) {
+    this.states.remove(mapId);
+  }
+}
@@ -0,0 +1,72 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import de.gurkenlabs.litiengine.net.messages.IMessageCodec;
+import de.gurkenlabs.litiengine.net.messages.MessageCodecs;
+import de.gurkenlabs.litiengine.net.messages.MessageReader;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+import de.gurkenlabs.litiengine.net.messages.MessageWriter;
+
+/**
+ * The format of the snapshot datagrams that are shared by the
+ * {@link ReplicationServer} and the {@link ReplicationClient}.
+ *
+ * <p>
+ * A {@link MessageType#SNAPSHOT} datagram contains the bit-packed header
+ * <code>[tick][baseline tick][part][part count][record count]</code> followed by
+ * the records of the entities. A record is <code>[map id][removed]</code>,
+ * followed by the changed fields of the {@link EntityState} if the entity
+ * hasn't been removed. A {@link MessageType#SNAPSHOTACK} contains the tick of
+ * the snapshot that has been received completely.
+ * </p>
+ */
+final class SnapshotMessages {
+  /**
+   * The amount of ticks for which sent snapshots can be acknowledged and used
+   * as baseline.
+   */
+  static final int HISTORY_SIZE = 32;
+
+  static final int NO_BASELINE = 0;
+  static final int PART_BITS = 8;
+  static final int MAX_PARTS = (1 << PART_BITS) - 1;
+  static final int RECORD_COUNT_BITS = 16;
+  static final int MAX_RECORDS = (1 << RECORD_COUNT_BITS) - 1;
+
+  /**
+   * The size of the frame that the message codecs put around the payload.
+   */
+  static final int FRAME_SIZE = 2;
+
+  private SnapshotMessages() {
+  }
+
+  static synchronized void registerCodecs() {
+    if (MessageCodecs.get(MessageType.SNAPSHOT) != null) {
+      return;
+    }
+
+    MessageCodecs.register(MessageType.SNAPSHOT, new IMessageCodec<byte[]>() {
+      @Override
+      public byte[] read(final MessageReader reader) {
+        return reader.readBytes(reader.getRemaining());
+      }
+
+      @Override
+      public void write(final byte[] message, final MessageWriter writer) {
+        writer.writeBytes(message);
+      }
+    });
+
+    MessageCodecs.register(MessageType.SNAPSHOTACK, new IMessageCodec<Integer>() {
+      @Override
+      public Integer read(final MessageReader reader) {
+        return reader.readVarInt();
+      }
+
+      @Override
+      public void write(final Integer message, final MessageWriter writer) {
+        writer.writeVarInt(message);
+      }
+    });
+  }
+}
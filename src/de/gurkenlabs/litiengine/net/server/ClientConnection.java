@@ -3,13 +3,15 @@ package de.gurkenlabs.litiengine.net.server;
 import java.io.Serializable;
 import java.net.InetAddress;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Class ClientConnection.
  */
 public class ClientConnection implements Serializable {
   /** The id sequence. */
-  private static int idSequence = 0;
+  private static final AtomicInteger idSequence = new AtomicInteger();
 
   private static final long serialVersionUID = 6311152055968351408L;
 
@@ -19,8 +21,11 @@ public class ClientConnection implements Serializable {
   /** The ip address. */
   private final InetAddress ipAddress;
 
-  /** The last sign of life. */
-  private Date lastSignOfLife;
+  /**
+   * The last sign of life as a value of {@link System#nanoTime()}, which is not
+   * affected by changes of the system clock.
+   */
+  private volatile long lastSignOfLife;
 
   /** The port. */
   private final int port;
@@ -33,7 +38,7 @@ public class ClientConnection implements Serializable {
     this.ipAddress = connection.getIpAddress();
     this.port = connection.getPort();
     this.userName = connection.getUserName();
-    this.lastSignOfLife = connection.getLastSignOfLife();
+    this.lastSignOfLife = connection.lastSignOfLife;
     this.id = connection.getId();
   }
 
@@ -52,8 +57,8 @@ public class ClientConnection implements Serializable {
     this.ipAddress = ipAddress;
     this.port = port;
     this.userName = userName;
-    this.lastSignOfLife = new Date();
-    this.id = ++idSequence;
+    this.lastSignOfLife = System.nanoTime();
+    this.id = idSequence.incrementAndGet();
   }
 
   /**
@@ -95,11 +100,20 @@ public class ClientConnection implements Serializable {
    * @return the last sign of life
    */
   public Date getLastSignOfLife() {
-    return this.lastSignOfLife;
+    return new Date(System.currentTimeMillis() - this.getLastSignOfLifeInMs());
   }
 
   public long getLastSignOfLifeInMs() {
-    return new Date().getTime() - this.getLastSignOfLife().getTime();
+    return TimeUnit.NANOSECONDS.toMillis(this.getLastSignOfLifeInNanos());
+  }
+
+  /**
+   * Gets the time that has passed since the last sign of life of this client.
+   *
+   * @return The time since the last sign of life in nanoseconds.
+   */
+  public long getLastSignOfLifeInNanos() {
+    return System.nanoTime() - this.lastSignOfLife;
   }
 
   /**
@@ -127,7 +141,14 @@ public class ClientConnection implements Serializable {
    *          the new last sign of life
    */
   public void setSignOfLife(final Date lastSignOfLife) {
-    this.lastSignOfLife = lastSignOfLife;
+    this.lastSignOfLife = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - lastSignOfLife.getTime());
+  }
+
+  /**
+   * Records a sign of life of this client at the current time.
+   */
+  public void setSignOfLife() {
+    this.lastSignOfLife = System.nanoTime();
   }
 
   @Override
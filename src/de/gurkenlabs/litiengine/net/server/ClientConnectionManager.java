@@ -1,19 +1,119 @@
 package de.gurkenlabs.litiengine.net.server;
 
 import java.net.InetAddress;
-import java.util.Date;
-import java.util.Optional;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * The Class ClientConnectionManager.
+ * The Class ClientConnectionManager keeps the connections of the clients in
+ * hash maps by their id and by their address and port, so the connection of a
+ * received packet is found in constant time.
+ *
+ * <p>
+ * Connections whose client didn't send a sign of life within the timeout are
+ * removed by a reaper that sorts the connections into the slots of a timer
+ * wheel by the time at which they may expire. A sign of life only updates the
+ * time of the connection; when its slot is due, the reaper either removes the
+ * connection or sorts it into the slot of its new expiry time. This makes both
+ * the sign of life and the timeout check O(1) per connection.
+ * </p>
  */
-public class ClientConnectionManager extends CopyOnWriteArrayList<ClientConnection> implements IClientConnectionManager {
+public class ClientConnectionManager implements IClientConnectionManager {
+  public static final long DEFAULT_TIMEOUT = 30000;
 
   /**
+   * A timeout that disables the removal of connections without a sign of life.
+   */
+  public static final long NO_TIMEOUT = 0;
+
+  private static final Logger log = Logger.getLogger(ClientConnectionManager.class.getName());
+  private static final int WHEEL_SLOTS = 64;
+  private static final long MIN_TICK = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final ScheduledExecutorService reaperExecutor;
+
+  private final Map<Integer, ClientConnection> connectionsById;
+  private final Map<InetSocketAddress, ClientConnection> connectionsByEndpoint;
+  private final Collection<ClientConnection> connections;
+  private final List<Consumer<ClientConnection>> timedOutConsumers;
+
+  private final long timeout;
+  private final long tickDuration;
+  private final List<Set<ClientConnection>> wheel;
+  private final AtomicLong currentTick;
+  private ScheduledFuture<?> reaper;
+
+  static {
+    reaperExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "Client Connection Reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public ClientConnectionManager() {
+    this(DEFAULT_TIMEOUT);
+  }
+
+  /**
+   * Instantiates a new client connection manager.
    *
+   * @param timeout
+   *          The time in milliseconds after which a connection without a sign
+   *          of life is removed or {@link #NO_TIMEOUT}.
    */
-  private static final long serialVersionUID = 3719486731770172645L;
+  public ClientConnectionManager(final long timeout) {
+    this.connectionsById = new ConcurrentHashMap<>();
+    this.connectionsByEndpoint = new ConcurrentHashMap<>();
+    this.connections = Collections.unmodifiableCollection(this.connectionsById.values());
+    this.timedOutConsumers = new CopyOnWriteArrayList<>();
+
+    this.timeout = TimeUnit.MILLISECONDS.toNanos(Math.max(timeout, NO_TIMEOUT));
+    // connections expire at most half the wheel ahead of the current tick, so a
+    // slot never contains connections of a later round
+    this.tickDuration = Math.max(MIN_TICK, this.timeout / (WHEEL_SLOTS / 2));
+    this.wheel = new ArrayList<>(WHEEL_SLOTS);
+    for (int i = 0; i < WHEEL_SLOTS; i++) {
+      this.wheel.add(Collections.newSetFromMap(new ConcurrentHashMap<ClientConnection, Boolean>()));
+    }
+
+    this.currentTick = new AtomicLong();
+  }
+
+  @Override
+  public boolean add(final ClientConnection connection) {
+    final InetSocketAddress endpoint = new InetSocketAddress(connection.getIpAddress(), connection.getPort());
+    if (this.connectionsByEndpoint.putIfAbsent(endpoint, connection) != null) {
+      return false;
+    }
+
+    if (this.connectionsById.putIfAbsent(connection.getId(), connection) != null) {
+      this.connectionsByEndpoint.remove(endpoint, connection);
+      return false;
+    }
+
+    if (this.timeout != NO_TIMEOUT) {
+      this.schedule(connection, this.timeout);
+      this.startReaper();
+    }
+
+    return true;
+  }
 
   /**
    * Gets the connection.
@@ -24,12 +124,27 @@ public class ClientConnectionManager extends CopyOnWriteArrayList<ClientConnecti
    */
   @Override
   public ClientConnection get(final int clientId) {
-    if (this.stream().noneMatch(connection -> connection.getId() == clientId)) {
-      return null;
-    }
+    return this.connectionsById.get(clientId);
+  }
 
-    Optional<ClientConnection> opt = this.stream().filter(connection -> connection.getId() == clientId).findFirst();
-    return opt.isPresent() ? opt.get() : null;
+  @Override
+  public ClientConnection get(final InetAddress address, final int port) {
+    return this.connectionsByEndpoint.get(new InetSocketAddress(address, port));
+  }
+
+  @Override
+  public Collection<ClientConnection> getConnections() {
+    return this.connections;
+  }
+
+  /**
+   * Gets the timeout after which a connection without a sign of life is
+   * removed.
+   *
+   * @return The timeout in milliseconds or {@link #NO_TIMEOUT}.
+   */
+  public long getTimeout() {
+    return TimeUnit.NANOSECONDS.toMillis(this.timeout);
   }
 
   /**
@@ -45,16 +160,100 @@ public class ClientConnectionManager extends CopyOnWriteArrayList<ClientConnecti
    */
   @Override
   public boolean isConnected(final int clientId, final InetAddress address, final int port) {
-    return this.stream().anyMatch(connection -> connection.equals(clientId, address, port));
+    final ClientConnection connection = this.connectionsById.get(clientId);
+    return connection != null && connection.equals(clientId, address, port);
+  }
+
+  @Override
+  public Iterator<ClientConnection> iterator() {
+    return this.connections.iterator();
+  }
+
+  @Override
+  public void onConnectionTimedOut(final Consumer<ClientConnection> consumer) {
+    if (!this.timedOutConsumers.contains(consumer)) {
+      this.timedOutConsumers.add(consumer);
+    }
+  }
+
+  @Override
+  public ClientConnection remove(final int clientId) {
+    final ClientConnection connection = this.connectionsById.remove(clientId);
+    if (connection != null) {
+      this.connectionsByEndpoint.remove(new InetSocketAddress(connection.getIpAddress(), connection.getPort()), connection);
+    }
+
+    return connection;
   }
 
   @Override
   public void setSignOfLife(final int clientId) {
-    // update sign of life
-    for (final ClientConnection connection : this) {
-      if (connection.getId() == clientId) {
-        connection.setSignOfLife(new Date());
+    final ClientConnection connection = this.connectionsById.get(clientId);
+    if (connection != null) {
+      connection.setSignOfLife();
+    }
+  }
+
+  @Override
+  public int size() {
+    return this.connectionsById.size();
+  }
+
+  /**
+   * Stops the reaper. Connections are not removed anymore when they time out.
+   */
+  public synchronized void terminate() {
+    if (this.reaper != null) {
+      this.reaper.cancel(false);
+      this.reaper = null;
+    }
+  }
+
+  /**
+   * Advances the timer wheel by one tick and checks all connections of the slot
+   * that has become due.
+   */
+  protected void reap() {
+    final long tick = this.currentTick.incrementAndGet();
+    final Set<ClientConnection> slot = this.wheel.get((int) (tick % WHEEL_SLOTS));
+    for (final Iterator<ClientConnection> iterator = slot.iterator(); iterator.hasNext();) {
+      final ClientConnection connection = iterator.next();
+      iterator.remove();
+
+      // the connection has already been removed
+      if (this.connectionsById.get(connection.getId()) != connection) {
+        continue;
       }
+
+      final long remaining = this.timeout - connection.getLastSignOfLifeInNanos();
+      if (remaining > 0) {
+        this.schedule(connection, remaining);
+        continue;
+      }
+
+      this.remove(connection.getId());
+      log.log(Level.INFO, "Client {0} timed out.", connection);
+      for (final Consumer<ClientConnection> consumer : this.timedOutConsumers) {
+        try {
+          consumer.accept(connection);
+        } catch (final RuntimeException e) {
+          // an exception would cancel all further executions of the reaper
+          log.log(Level.SEVERE, e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+  private void schedule(final ClientConnection connection, final long delay) {
+    // at least two ticks ahead, so the slot cannot be the one that is currently
+    // being reaped
+    final long ticks = Math.min(WHEEL_SLOTS - 1, Math.max(2, (delay + this.tickDuration - 1) / this.tickDuration));
+    this.wheel.get((int) ((this.currentTick.get() + ticks) % WHEEL_SLOTS)).add(connection);
+  }
+
+  private synchronized void startReaper() {
+    if (this.reaper == null) {
+      this.reaper = reaperExecutor.scheduleAtFixedRate(this::reap, this.tickDuration, this.tickDuration, TimeUnit.NANOSECONDS);
     }
   }
 }
@@ -1,12 +1,23 @@
 package de.gurkenlabs.litiengine.net.server;
 
 import java.net.InetAddress;
-import java.util.List;
+import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * The Interface IClientConnectionManager.
  */
-public interface IClientConnectionManager extends List<ClientConnection> {
+public interface IClientConnectionManager extends Iterable<ClientConnection> {
+
+  /**
+   * Adds the specified connection.
+   *
+   * @param connection
+   *          the connection
+   * @return true, if the connection was added; false if a connection with the
+   *         same id or the same address and port is already registered
+   */
+  public boolean add(ClientConnection connection);
 
   /**
    * Gets the.
@@ -15,9 +26,27 @@ public interface IClientConnectionManager extends List<ClientConnection> {
    *          the client id
    * @return the client connection
    */
-  @Override
   public ClientConnection get(int clientId);
 
+  /**
+   * Gets the connection of the client that sends from the specified address and
+   * port.
+   *
+   * @param address
+   *          the address
+   * @param port
+   *          the port
+   * @return the client connection or null if no client uses this endpoint
+   */
+  public ClientConnection get(InetAddress address, int port);
+
+  /**
+   * Gets all connections.
+   *
+   * @return a read-only view of all connections
+   */
+  public Collection<ClientConnection> getConnections();
+
   /**
    * Checks if is connected.
    *
@@ -31,5 +60,25 @@ public interface IClientConnectionManager extends List<ClientConnection> {
    */
   public boolean isConnected(int connectionId, InetAddress address, int port);
 
+  /**
+   * Registers a consumer that is called when a connection is removed because
+   * the client didn't send a sign of life within the timeout.
+   *
+   * @param consumer
+   *          the consumer
+   */
+  public void onConnectionTimedOut(Consumer<ClientConnection> consumer);
+
+  /**
+   * Removes the connection of the specified client.
+   *
+   * @param clientId
+   *          the client id
+   * @return the removed connection or null if the client isn't connected
+   */
+  public ClientConnection remove(int clientId);
+
   public void setSignOfLife(final int clientId);
+
+  public int size();
 }
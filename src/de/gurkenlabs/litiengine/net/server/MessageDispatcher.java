@@ -0,0 +1,311 @@
+package de.gurkenlabs.litiengine.net.server;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.net.IIncomingPacketObserver;
+
+/**
+ * Dispatches received packets to a pool of worker threads. The packets of
+ * every sender, i.e. every {@link ClientConnection}, are put into an ordered
+ * queue of their own that is processed by at most one worker at a time. This
+ * keeps the messages of each client in order while the messages of different
+ * clients are handled in parallel, so a slow handler only delays the client
+ * that it is handling.
+ *
+ * <p>
+ * A queue can hold up to {@link #getQueueCapacity()} packets. When a client
+ * sends faster than its packets are handled, the {@link OverflowPolicy}
+ * decides which packet is dropped.
+ * </p>
+ *
+ * <p>
+ * The packets are handled in the {@link GameContext} that created the
+ * dispatcher.
+ * </p>
+ */
+public class MessageDispatcher {
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+  /**
+   * The maximum amount of packets that a worker handles for one client before
+   * it lets the other clients take their turn.
+   */
+  private static final int MAX_PACKETS_PER_TURN = 32;
+
+  private static final Logger log = Logger.getLogger(MessageDispatcher.class.getName());
+
+  private final IIncomingPacketObserver handler;
+  private final GameContext context;
+  private final ExecutorService workers;
+  private final Map<InetSocketAddress, PacketQueue> queues;
+  private final AtomicInteger pendingPackets;
+  private final AtomicLong droppedPackets;
+
+  private volatile int queueCapacity;
+  private volatile OverflowPolicy overflowPolicy;
+
+  public enum OverflowPolicy {
+    /**
+     * The received packet is dropped if the queue of its sender is full.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest packet of the queue is dropped to make room for the received
+     * packet, which favors up-to-date state over complete history.
+     */
+    DROP_OLDEST;
+  }
+
+  public MessageDispatcher(final IIncomingPacketObserver handler) {
+    this(handler, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Instantiates a new message dispatcher.
+   *
+   * @param handler
+   *          The handler that decodes and handles the packets on the worker
+   *          threads.
+   * @param workerCount
+   *          The amount of worker threads.
+   */
+  public MessageDispatcher(final IIncomingPacketObserver handler, final int workerCount) {
+    if (workerCount <= 0) {
+      throw new IllegalArgumentException("The worker count must be greater than 0.");
+    }
+
+    this.handler = handler;
+    this.context = GameContext.current();
+    this.queues = new ConcurrentHashMap<>();
+    this.pendingPackets = new AtomicInteger();
+    this.droppedPackets = new AtomicLong();
+    this.queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    this.overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    final AtomicInteger threadIndex = new AtomicInteger();
+    this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+      final Thread thread = new Thread(r, "Message Dispatcher " + threadIndex.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Puts the specified packet into the queue of its sender.
+   *
+   * @param data
+   *          The received data.
+   * @param address
+   *          The address of the sender.
+   * @param port
+   *          The port of the sender.
+   * @return True if the packet was queued; false if it was dropped.
+   */
+  public boolean dispatch(final byte[] data, final InetAddress address, final int port) {
+    final InetSocketAddress sender = new InetSocketAddress(address, port);
+    while (true) {
+      final PacketQueue queue = this.queues.computeIfAbsent(sender, PacketQueue::new);
+      synchronized (queue) {
+        // the queue has been retired after it ran empty; use a new one
+        if (queue.retired) {
+          continue;
+        }
+
+        if (!queue.offer(new Packet(data, address, port))) {
+          this.droppedPackets.incrementAndGet();
+          return false;
+        }
+
+        if (!queue.scheduled) {
+          queue.scheduled = true;
+          this.schedule(queue);
+        }
+
+        return true;
+      }
+    }
+  }
+
+  public long getDroppedPackets() {
+    return this.droppedPackets.get();
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return this.overflowPolicy;
+  }
+
+  /**
+   * Gets the amount of packets that have been received but not yet handled.
+   *
+   * @return The amount of pending packets of all clients.
+   */
+  public int getPendingPackets() {
+    return this.pendingPackets.get();
+  }
+
+  public int getQueueCapacity() {
+    return this.queueCapacity;
+  }
+
+  public int getQueueDepth(final ClientConnection connection) {
+    return this.getQueueDepth(connection.getIpAddress(), connection.getPort());
+  }
+
+  /**
+   * Gets the amount of pending packets of the specified sender.
+   *
+   * @param address
+   *          The address of the sender.
+   * @param port
+   *          The port of the sender.
+   * @return The amount of pending packets of the sender.
+   */
+  public int getQueueDepth(final InetAddress address, final int port) {
+    final PacketQueue queue = this.queues.get(new InetSocketAddress(address, port));
+    return queue != null ? queue.size.get() : 0;
+  }
+
+  /**
+   * Gets the amount of pending packets of all senders that currently have
+   * pending packets.
+   *
+   * @return A snapshot of the queue depths per sender.
+   */
+  public Map<InetSocketAddress, Integer> getQueueDepths() {
+    final Map<InetSocketAddress, Integer> depths = new HashMap<>();
+    for (final PacketQueue queue : this.queues.values()) {
+      final int depth = queue.size.get();
+      if (depth > 0) {
+        depths.put(queue.sender, depth);
+      }
+    }
+
+    return depths;
+  }
+
+  public void setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public void setQueueCapacity(final int queueCapacity) {
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("The queue capacity must be greater than 0.");
+    }
+
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Stops the worker threads. Pending packets are not handled anymore.
+   */
+  public void terminate() {
+    this.workers.shutdownNow();
+    this.queues.clear();
+    this.pendingPackets.set(0);
+  }
+
+  private void schedule(final PacketQueue queue) {
+    try {
+      this.workers.execute(this.context.bind(() -> this.process(queue)));
+    } catch (final RejectedExecutionException e) {
+      // the dispatcher has been terminated
+      log.log(Level.FINE, e.getMessage(), e);
+    }
+  }
+
+  private void process(final PacketQueue queue) {
+    for (int i = 0; i < MAX_PACKETS_PER_TURN; i++) {
+      final Packet packet = queue.poll();
+      if (packet == null) {
+        break;
+      }
+
+      try {
+        this.handler.packetReceived(packet.data, packet.address, packet.port);
+      } catch (final RuntimeException e) {
+        log.log(Level.SEVERE, e.getMessage(), e);
+      }
+    }
+
+    synchronized (queue) {
+      if (queue.size.get() > 0) {
+        // let the other clients take their turn before the rest of the packets
+        // of this client are handled
+        this.schedule(queue);
+        return;
+      }
+
+      queue.scheduled = false;
+      queue.retired = true;
+      this.queues.remove(queue.sender, queue);
+    }
+  }
+
+  private static class Packet {
+    private final byte[] data;
+    private final InetAddress address;
+    private final int port;
+
+    private Packet(final byte[] data, final InetAddress address, final int port) {
+      this.data = data;
+      this.address = address;
+      this.port = port;
+    }
+  }
+
+  private class PacketQueue {
+    private final InetSocketAddress sender;
+    private final Queue<Packet> packets;
+    private final AtomicInteger size;
+
+    // guarded by the queue's monitor
+    private boolean scheduled;
+    private boolean retired;
+
+    private PacketQueue(final InetSocketAddress sender) {
+      this.sender = sender;
+      this.packets = new ConcurrentLinkedQueue<>();
+      this.size = new AtomicInteger();
+    }
+
+    private boolean offer(final Packet packet) {
+      if (this.size.get() >= MessageDispatcher.this.queueCapacity) {
+        if (MessageDispatcher.this.overflowPolicy == OverflowPolicy.DROP_NEWEST || this.poll() == null) {
+          return false;
+        }
+
+        MessageDispatcher.this.droppedPackets.incrementAndGet();
+      }
+
+      this.packets.offer(packet);
+      this.size.incrementAndGet();
+      MessageDispatcher.this.pendingPackets.incrementAndGet();
+      return true;
+    }
+
+    private Packet poll() {
+      final Packet packet = this.packets.poll();
+      if (packet != null) {
+        this.size.decrementAndGet();
+        MessageDispatcher.this.pendingPackets.decrementAndGet();
+      }
+
+      return packet;
+    }
+  }
+}
@@ -1,20 +1,23 @@
 package de.gurkenlabs.litiengine.net.server;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.BufferUnderflowException;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.gurkenlabs.litiengine.Game;
 import de.gurkenlabs.litiengine.net.IPacketReceiver;
 import de.gurkenlabs.litiengine.net.IPacketSender;
-import de.gurkenlabs.litiengine.net.UdpPacketReceiver;
-import de.gurkenlabs.litiengine.net.UdpPacketSender;
+import de.gurkenlabs.litiengine.net.NioPacketReceiver;
+import de.gurkenlabs.litiengine.net.NioPacketSender;
 import de.gurkenlabs.litiengine.net.messages.IMessageHandler;
 import de.gurkenlabs.litiengine.net.messages.IMessageHandlerProvider;
+import de.gurkenlabs.litiengine.net.messages.MessageCodecs;
 import de.gurkenlabs.litiengine.net.messages.MessageType;
 import de.gurkenlabs.litiengine.util.CommandManager;
 import de.gurkenlabs.litiengine.util.ICommandManager;
-import de.gurkenlabs.litiengine.util.io.CompressionUtilities;
 
 public class UdpServer implements IServer {
   private static final String SHUTDOWN = "shutdown";
@@ -22,10 +25,12 @@ public class UdpServer implements IServer {
   private static final Logger log = Logger.getLogger(UdpServer.class.getName());
 
   /** The client connection manager. */
-  private final IClientConnectionManager clientConnectionManager;
+  private final ClientConnectionManager clientConnectionManager;
 
   private final ICommandManager commandManager;
 
+  private final MessageDispatcher dispatcher;
+
   /** The message handler provider. */
   private final IMessageHandlerProvider messageHandlerProvider;
 
@@ -35,11 +40,45 @@ public class UdpServer implements IServer {
   /** The sender. */
   private final IPacketSender sender;
 
+  /**
+   * Instantiates a new server that receives its packets on the specified port
+   * and sends its responses from the same port.
+   *
+   * @param listenPort
+   *          The port to listen on.
+   * @param provider
+   *          The provider of the message handlers.
+   */
   public UdpServer(final int listenPort, final IMessageHandlerProvider provider) {
-    this.receiver = new UdpPacketReceiver(listenPort);
+    this(listenPort, provider, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Instantiates a new server that receives its packets on the specified port
+   * and sends its responses from the same port. The received packets are
+   * decoded and handled by the specified amount of worker threads.
+   *
+   * @param listenPort
+   *          The port to listen on.
+   * @param provider
+   *          The provider of the message handlers.
+   * @param workerCount
+   *          The amount of threads that handle the received messages.
+   * @see MessageDispatcher
+   */
+  public UdpServer(final int listenPort, final IMessageHandlerProvider provider, final int workerCount) {
+    final NioPacketReceiver nioReceiver;
+    try {
+      nioReceiver = new NioPacketReceiver(listenPort);
+    } catch (final IOException e) {
+      throw new IllegalStateException("Could not open the server channel on port " + listenPort + ".", e);
+    }
+
+    this.receiver = nioReceiver;
     this.receiver.registerForIncomingPackets(this);
-    this.sender = new UdpPacketSender();
+    this.sender = new NioPacketSender(nioReceiver.getChannel());
     this.messageHandlerProvider = provider;
+    this.dispatcher = new MessageDispatcher(this::handlePacket, workerCount);
     this.commandManager = new CommandManager();
     this.commandManager.bind(SHUTDOWN, this::handleShutdownCommand);
 
@@ -57,6 +96,17 @@ public class UdpServer implements IServer {
     return this.clientConnectionManager;
   }
 
+  /**
+   * Gets the dispatcher that distributes the received packets to the worker
+   * threads. It can be used to configure the queues of the clients and to
+   * monitor their depths.
+   *
+   * @return The message dispatcher of this server.
+   */
+  public MessageDispatcher getDispatcher() {
+    return this.dispatcher;
+  }
+
   @Override
   public IPacketSender getSender() {
     return this.sender;
@@ -68,16 +118,7 @@ public class UdpServer implements IServer {
       return;
     }
 
-    final byte[] decompressedData = CompressionUtilities.decompress(data);
-    final MessageType type = MessageType.get(decompressedData[0]);
-    final List<IMessageHandler> messageHandlers = this.messageHandlerProvider.getMessageHanders(type);
-    if (messageHandlers == null || messageHandlers.isEmpty()) {
-      return;
-    }
-
-    for (final IMessageHandler messageHandler : messageHandlers) {
-      messageHandler.handle(decompressedData, address, port);
-    }
+    this.dispatcher.dispatch(data, address, port);
   }
 
   @Override
@@ -89,10 +130,52 @@ public class UdpServer implements IServer {
   @Override
   public void terminate() {
     this.receiver.terminate();
+    this.dispatcher.terminate();
+    this.clientConnectionManager.terminate();
     this.getCommandManager().terminate();
     System.exit(-1);
   }
 
+  /**
+   * Decodes the specified packet and passes it to the message handlers of its
+   * type. This is called by the worker threads of the dispatcher, in the order
+   * in which the packets of the sender were received.
+   *
+   * @param data
+   *          The received data.
+   * @param address
+   *          The address of the sender.
+   * @param port
+   *          The port of the sender.
+   */
+  protected void handlePacket(final byte[] data, final InetAddress address, final int port) {
+    final byte[] decompressedData;
+    try {
+      decompressedData = MessageCodecs.unwrap(data);
+    } catch (final IllegalArgumentException | BufferUnderflowException e) {
+      log.log(Level.WARNING, "Discarded invalid packet from {0}:{1}: {2}", new Object[] { address.getHostAddress(), port, e.getMessage() });
+      return;
+    }
+
+    if (decompressedData.length == 0) {
+      return;
+    }
+
+    final MessageType type = MessageType.get(decompressedData[0]);
+    Game.getMetrics().packageReceived(type, data.length);
+    final List<IMessageHandler> messageHandlers = this.messageHandlerProvider.getMessageHanders(type);
+    if (messageHandlers == null || messageHandlers.isEmpty()) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    for (final IMessageHandler messageHandler : messageHandlers) {
+      messageHandler.handle(decompressedData, address, port);
+    }
+
+    Game.getMetrics().messageHandled(type, System.nanoTime() - start);
+  }
+
   protected boolean handleShutdownCommand(final String[] command) {
     log.log(Level.INFO, "Shutting down server...");
     this.terminate();
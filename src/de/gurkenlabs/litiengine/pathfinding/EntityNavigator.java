@@ -44,6 +44,7 @@ public class EntityNavigator implements IEntityNavigator {
     this.entity = entity;
     this.pathFinder = pathFinder;
     Game.getLoop().attach(this);
+    Game.getDormancySystem().attach(entity, this);
   }
 
   @Override
@@ -3,6 +3,7 @@ package de.gurkenlabs.litiengine.physics;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Collection;
 import java.util.List;
 
 import de.gurkenlabs.litiengine.IUpdateable;
@@ -18,6 +19,17 @@ public interface IPhysicsEngine extends IUpdateable {
 
   public void add(Rectangle2D staticCollisionBox);
 
+  /**
+   * Adds all the specified entities at once, which is considerably faster than
+   * adding them one by one.
+   *
+   * @param entities
+   *          The entities to add.
+   */
+  public void addAll(Collection<? extends ICollisionEntity> entities);
+
+  public void addStaticCollisionBoxes(Collection<? extends Rectangle2D> staticCollisionBoxes);
+
   public void clear();
 
   public boolean collides(double x, double y);
@@ -61,6 +73,16 @@ public interface IPhysicsEngine extends IUpdateable {
 
   public List<Rectangle2D> getStaticCollisionBoxes();
 
+  /**
+   * Gets an occupancy bitmap of all static collision boxes that can be used for
+   * fast, approximate collision lookups, e.g. for particles. The grid is
+   * rebuilt lazily after the static collision boxes or the bounds have
+   * changed.
+   *
+   * @return The static collision grid.
+   */
+  public StaticCollisionGrid getStaticCollisionGrid();
+
   /**
    * Moves the specified entity by the delta in the direction of the angle.
    *
@@ -87,6 +109,10 @@ public interface IPhysicsEngine extends IUpdateable {
 
   public void remove(Rectangle2D staticCollisionBox);
 
+  public void removeAll(Collection<? extends ICollisionEntity> entities);
+
+  public void removeStaticCollisionBoxes(Collection<? extends Rectangle2D> staticCollisionBoxes);
+
   public void setBounds(Rectangle2D environmentBounds);
 
   public Rectangle2D getBounds();
@@ -4,7 +4,11 @@ import java.awt.Shape;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
@@ -26,6 +30,8 @@ public final class PhysicsEngine implements IPhysicsEngine {
   private final List<CollisionBox> allCollisionBoxes;
   private final List<Rectangle2D> allCollisionBoxRectangles;
 
+  private volatile StaticCollisionGrid staticCollisionGrid;
+
   /**
    * Instantiates a new physics engine.
    */
@@ -55,6 +61,44 @@ public final class PhysicsEngine implements IPhysicsEngine {
   public void add(final Rectangle2D staticCollisionBox) {
     if (!this.staticCollisionBoxes.contains(staticCollisionBox)) {
       this.staticCollisionBoxes.add(staticCollisionBox);
+      this.invalidateStaticCollisionGrid();
+    }
+  }
+
+  @Override
+  public void addAll(final Collection<? extends ICollisionEntity> entities) {
+    final List<Rectangle2D> obstacles = new ArrayList<>();
+    final Set<ICollisionEntity> existing = new HashSet<>(this.collisionEntities);
+    final List<ICollisionEntity> added = new ArrayList<>();
+    for (final ICollisionEntity entity : entities) {
+      if (entity instanceof Prop && ((Prop) entity).isObstacle()) {
+        obstacles.add(entity.getCollisionBox());
+        continue;
+      }
+
+      if (entity != null && existing.add(entity)) {
+        added.add(entity);
+      }
+    }
+
+    // a single addAll only copies the underlying array once
+    this.collisionEntities.addAll(added);
+    this.addStaticCollisionBoxes(obstacles);
+  }
+
+  @Override
+  public void addStaticCollisionBoxes(final Collection<? extends Rectangle2D> staticCollisionBoxes) {
+    final Set<Rectangle2D> existing = new HashSet<>(this.staticCollisionBoxes);
+    final List<Rectangle2D> added = new ArrayList<>();
+    for (final Rectangle2D box : staticCollisionBoxes) {
+      if (box != null && existing.add(box)) {
+        added.add(box);
+      }
+    }
+
+    if (!added.isEmpty()) {
+      this.staticCollisionBoxes.addAll(added);
+      this.invalidateStaticCollisionGrid();
     }
   }
 
@@ -62,6 +106,7 @@ public final class PhysicsEngine implements IPhysicsEngine {
   public void clear() {
     this.staticCollisionBoxes.clear();
     this.collisionEntities.clear();
+    this.invalidateStaticCollisionGrid();
   }
 
   @Override
@@ -205,6 +250,22 @@ public final class PhysicsEngine implements IPhysicsEngine {
     return this.staticCollisionBoxes;
   }
 
+  @Override
+  public StaticCollisionGrid getStaticCollisionGrid() {
+    StaticCollisionGrid grid = this.staticCollisionGrid;
+    if (grid != null) {
+      return grid;
+    }
+
+    synchronized (this) {
+      if (this.staticCollisionGrid == null) {
+        this.staticCollisionGrid = new StaticCollisionGrid(this.getStaticCollisionGridBounds(), this.staticCollisionBoxes, StaticCollisionGrid.DEFAULT_CELL_SIZE);
+      }
+
+      return this.staticCollisionGrid;
+    }
+  }
+
   @Override
   public Rectangle2D getBounds() {
     return this.environmentBounds;
@@ -326,12 +387,37 @@ public final class PhysicsEngine implements IPhysicsEngine {
   public void remove(final Rectangle2D staticCollisionBox) {
     if (this.staticCollisionBoxes.contains(staticCollisionBox)) {
       this.staticCollisionBoxes.remove(staticCollisionBox);
+      this.invalidateStaticCollisionGrid();
+    }
+  }
+
+  @Override
+  public void removeAll(final Collection<? extends ICollisionEntity> entities) {
+    final List<Rectangle2D> obstacles = new ArrayList<>();
+    final Set<ICollisionEntity> removed = new HashSet<>();
+    for (final ICollisionEntity entity : entities) {
+      if (entity instanceof Prop && ((Prop) entity).isObstacle()) {
+        obstacles.add(entity.getCollisionBox());
+      } else {
+        removed.add(entity);
+      }
+    }
+
+    this.collisionEntities.removeAll(removed);
+    this.removeStaticCollisionBoxes(obstacles);
+  }
+
+  @Override
+  public void removeStaticCollisionBoxes(final Collection<? extends Rectangle2D> staticCollisionBoxes) {
+    if (this.staticCollisionBoxes.removeAll(new HashSet<>(staticCollisionBoxes))) {
+      this.invalidateStaticCollisionGrid();
     }
   }
 
   @Override
   public void setBounds(final Rectangle2D environmentBounds) {
     this.environmentBounds = environmentBounds;
+    this.invalidateStaticCollisionGrid();
   }
 
   @Override
@@ -339,6 +425,33 @@ public final class PhysicsEngine implements IPhysicsEngine {
     this.updateAllCollisionBoxes();
   }
 
+  /**
+   * Discards the static collision grid after the static collision boxes or the
+   * bounds have changed. This takes the lock of the lazy build, so a grid that
+   * is being built from the previous boxes is published before it is discarded
+   * and can't outlive the change.
+   */
+  private synchronized void invalidateStaticCollisionGrid() {
+    this.staticCollisionGrid = null;
+  }
+
+  private Rectangle2D getStaticCollisionGridBounds() {
+    if (this.environmentBounds != null) {
+      return this.environmentBounds;
+    }
+
+    Rectangle2D bounds = null;
+    for (final Rectangle2D box : this.staticCollisionBoxes) {
+      if (bounds == null) {
+        bounds = new Rectangle2D.Double(box.getX(), box.getY(), box.getWidth(), box.getHeight());
+      } else {
+        bounds.add(box);
+      }
+    }
+
+    return bounds != null ? bounds : new Rectangle2D.Double();
+  }
+
   private List<CollisionBox> getAllCollisionBoxesInternal() {
     if (this.allCollisionBoxes.isEmpty()) {
       this.updateAllCollisionBoxes();
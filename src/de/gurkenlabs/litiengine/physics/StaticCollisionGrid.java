@@ -0,0 +1,148 @@
+package de.gurkenlabs.litiengine.physics;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+
+/**
+ * An occupancy bitmap of all static collision boxes. The covered area is split
+ * into square cells and every cell that intersects a static collision box is
+ * marked as occupied. This allows O(1) collision lookups for small objects
+ * like particles instead of testing every collision box.
+ *
+ * <p>
+ * The lookups are conservative with regard to the cell size: every location
+ * inside an occupied cell is considered colliding.
+ * </p>
+ */
+public class StaticCollisionGrid {
+  public static final int DEFAULT_CELL_SIZE = 4;
+
+  private final int cellSize;
+  private final long[] cells;
+  private final int columns;
+  private final int rows;
+  private final double x;
+  private final double y;
+
+  /**
+   * Instantiates a new static collision grid.
+   *
+   * @param bounds
+   *          The area that is covered by the grid. Locations outside of these
+   *          bounds are never considered colliding.
+   * @param staticCollisionBoxes
+   *          The static collision boxes that will be rasterized into the grid.
+   * @param cellSize
+   *          The size of a cell in pixels.
+   */
+  public StaticCollisionGrid(final Rectangle2D bounds, final Collection<Rectangle2D> staticCollisionBoxes, final int cellSize) {
+    this.cellSize = Math.max(1, cellSize);
+    this.x = bounds.getX();
+    this.y = bounds.getY();
+    this.columns = Math.max(0, (int) Math.ceil(bounds.getWidth() / this.cellSize));
+    this.rows = Math.max(0, (int) Math.ceil(bounds.getHeight() / this.cellSize));
+    this.cells = new long[(int) ((this.columns * (long) this.rows + 63) / 64)];
+
+    for (final Rectangle2D box : staticCollisionBoxes) {
+      this.occupy(box);
+    }
+  }
+
+  /**
+   * Checks whether the specified location is inside an occupied cell.
+   *
+   * @param locationX
+   *          The x-coordinate.
+   * @param locationY
+   *          The y-coordinate.
+   * @return True if the cell at the specified location is occupied.
+   */
+  public boolean collides(final double locationX, final double locationY) {
+    final int column = this.getColumn(locationX);
+    final int row = this.getRow(locationY);
+    if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+      return false;
+    }
+
+    return this.isOccupied(column, row);
+  }
+
+  /**
+   * Checks whether the specified rectangle overlaps any occupied cell.
+   *
+   * @param rectX
+   *          The x-coordinate of the rectangle.
+   * @param rectY
+   *          The y-coordinate of the rectangle.
+   * @param width
+   *          The width of the rectangle.
+   * @param height
+   *          The height of the rectangle.
+   * @return True if any cell overlapped by the rectangle is occupied.
+   */
+  public boolean collides(final double rectX, final double rectY, final double width, final double height) {
+    final int minColumn = Math.max(0, this.getColumn(rectX));
+    final int minRow = Math.max(0, this.getRow(rectY));
+    final int maxColumn = Math.min(this.columns - 1, this.getColumn(rectX + Math.max(0, width)));
+    final int maxRow = Math.min(this.rows - 1, this.getRow(rectY + Math.max(0, height)));
+
+    for (int row = minRow; row <= maxRow; row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        if (this.isOccupied(column, row)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  public boolean collides(final Rectangle2D rect) {
+    return this.collides(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+  }
+
+  public int getCellSize() {
+    return this.cellSize;
+  }
+
+  public int getColumns() {
+    return this.columns;
+  }
+
+  public int getRows() {
+    return this.rows;
+  }
+
+  public boolean isOccupied(final int column, final int row) {
+    final long index = row * (long) this.columns + column;
+    return (this.cells[(int) (index >>> 6)] & 1L << (index & 63)) != 0;
+  }
+
+  private int getColumn(final double locationX) {
+    return (int) Math.floor((locationX - this.x) / this.cellSize);
+  }
+
+  private int getRow(final double locationY) {
+    return (int) Math.floor((locationY - this.y) / this.cellSize);
+  }
+
+  private void occupy(final Rectangle2D box) {
+    if (box == null || box.isEmpty()) {
+      return;
+    }
+
+    // the max cells are exclusive so that boxes that only touch a cell border
+    // don't occupy the adjacent cell
+    final int minColumn = Math.max(0, this.getColumn(box.getMinX()));
+    final int minRow = Math.max(0, this.getRow(box.getMinY()));
+    final int maxColumn = Math.min(this.columns - 1, (int) Math.ceil((box.getMaxX() - this.x) / this.cellSize) - 1);
+    final int maxRow = Math.min(this.rows - 1, (int) Math.ceil((box.getMaxY() - this.y) / this.cellSize) - 1);
+
+    for (int row = minRow; row <= maxRow; row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        final long index = row * (long) this.columns + column;
+        this.cells[(int) (index >>> 6)] |= 1L << (index & 63);
+      }
+    }
+  }
+}
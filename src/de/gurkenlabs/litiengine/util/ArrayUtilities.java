@@ -3,6 +3,7 @@ package de.gurkenlabs.litiengine.util;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -110,6 +111,14 @@ public final class ArrayUtilities {
     return arr[randomIndex];
   }
 
+  public static <T> T getRandom(final SplittableRandom random, T[] arr) {
+    if (arr.length == 0) {
+      return null;
+    }
+
+    return arr[random.nextInt(arr.length)];
+  }
+
   public static boolean containsArgument(String[] args, String argument) {
     if (args == null || args.length == 0) {
       return false;
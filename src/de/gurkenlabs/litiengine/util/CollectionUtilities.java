@@ -2,10 +2,19 @@ package de.gurkenlabs.litiengine.util;
 
 import java.util.Collection;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public final class CollectionUtilities {
   public static <T> T random(Collection<T> coll) {
-    int num = (new Random().nextInt(coll.size()));
+    return get(coll, new Random().nextInt(coll.size()));
+  }
+
+  public static <T> T random(final SplittableRandom random, Collection<T> coll) {
+    return get(coll, random.nextInt(coll.size()));
+  }
+
+  private static <T> T get(Collection<T> coll, final int index) {
+    int num = index;
     for (T t : coll) {
       if (--num < 0) {
         return t;
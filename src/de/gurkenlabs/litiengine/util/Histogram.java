@@ -0,0 +1,128 @@
+package de.gurkenlabs.litiengine.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values with a fixed memory footprint.
+ * The values are counted in logarithmic buckets that each cover a quarter of a
+ * power of two, so a percentile is reported with an error of at most 25%.
+ */
+public class Histogram {
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final LongAdder count;
+  private final LongAdder sum;
+  private final AtomicLong max;
+
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new AtomicLong();
+  }
+
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  public long getMax() {
+    return this.max.get();
+  }
+
+  public double getMean() {
+    final long values = this.count.sum();
+    return values == 0 ? 0 : this.sum.sum() / (double) values;
+  }
+
+  /**
+   * Gets the value below which the specified percentage of the recorded values
+   * lies. The upper bound of the bucket that contains the percentile is
+   * returned.
+   *
+   * @param percentile
+   *          The percentile between 0 and 100.
+   * @return The approximate value of the percentile or 0 if no values have been
+   *         recorded.
+   */
+  public long getPercentile(final double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+    }
+
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += this.counts.get(i);
+    }
+
+    if (total == 0) {
+      return 0;
+    }
+
+    final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+    long current = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      current += this.counts.get(i);
+      if (current >= rank) {
+        return Math.min(getUpperBound(i), this.max.get());
+      }
+    }
+
+    return this.max.get();
+  }
+
+  public long getSum() {
+    return this.sum.sum();
+  }
+
+  /**
+   * Records the specified value.
+   *
+   * @param value
+   *          The value; negative values are recorded as 0.
+   */
+  public void record(final long value) {
+    final long recorded = Math.max(0, value);
+    this.counts.incrementAndGet(getBucket(recorded));
+    this.count.increment();
+    this.sum.add(recorded);
+    if (recorded > this.max.get()) {
+      this.max.accumulateAndGet(recorded, Math::max);
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    }
+
+    this.count.reset();
+    this.sum.reset();
+    this.max.set(0);
+  }
+
+  private static int getBucket(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long getUpperBound(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    final int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    final long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    final long lowerBound = (SUB_BUCKETS | subBucket) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
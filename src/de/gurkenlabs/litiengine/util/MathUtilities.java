@@ -1,6 +1,7 @@
 package de.gurkenlabs.litiengine.util;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class MathUtilities {
   private static Random random = new Random();
@@ -81,7 +82,23 @@ public class MathUtilities {
    * @return A random index within the range of the specified array.
    */
   public static int getRandomIndex(final double[] indexProbabilities) {
-    final double rnd = random.nextDouble();
+    return getRandomIndex(indexProbabilities, random.nextDouble());
+  }
+
+  /**
+   * The index probabilities must sum up to 1;
+   *
+   * @param random
+   *          The random stream to take the random value from.
+   * @param indexProbabilities
+   *          The index with the probabilities for the related index.
+   * @return A random index within the range of the specified array.
+   */
+  public static int getRandomIndex(final SplittableRandom random, final double[] indexProbabilities) {
+    return getRandomIndex(indexProbabilities, random.nextDouble());
+  }
+
+  private static int getRandomIndex(final double[] indexProbabilities, final double rnd) {
     double probSum = 0;
     for (int i = 0; i < indexProbabilities.length; i++) {
       final double newProbSum = probSum + indexProbabilities[i];
@@ -104,10 +121,18 @@ public class MathUtilities {
     return rnd < probability;
   }
 
+  public static boolean probabilityIsTrue(final SplittableRandom random, final double probability) {
+    return random.nextDouble() < probability;
+  }
+
   public static boolean randomBoolean() {
     return random.nextDouble() < 0.5;
   }
 
+  public static boolean randomBoolean(final SplittableRandom random) {
+    return random.nextDouble() < 0.5;
+  }
+
   public static double randomInRange(final double min, final double max) {
     if (min == max) {
       return min;
@@ -120,6 +145,18 @@ public class MathUtilities {
     return min + random.nextDouble() * (max - min);
   }
 
+  public static double randomInRange(final SplittableRandom random, final double min, final double max) {
+    if (min == max) {
+      return min;
+    }
+
+    if (min > max) {
+      throw new IllegalArgumentException("min value is > than max value");
+    }
+
+    return min + random.nextDouble() * (max - min);
+  }
+
   public static int randomInRange(final int min, final int max) {
     if (min == max) {
       return min;
@@ -132,6 +169,18 @@ public class MathUtilities {
     return random.nextInt(max - min) + min;
   }
 
+  public static int randomInRange(final SplittableRandom random, final int min, final int max) {
+    if (min == max) {
+      return min;
+    }
+
+    if (min > max) {
+      throw new IllegalArgumentException("min value is > than max value");
+    }
+
+    return random.nextInt(min, max);
+  }
+
   public static int randomSign() {
     return randomBoolean() ? 1 : -1;
   }
@@ -0,0 +1,149 @@
+package de.gurkenlabs.litiengine.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free counter over a rolling time window. The window is split into a
+ * fixed ring of buckets; a bucket is reused as soon as its interval lies
+ * outside the window, so the memory footprint doesn't grow with the amount of
+ * recorded values.
+ *
+ * <p>
+ * Values that are added concurrently with the reuse of their bucket may be
+ * lost, which is acceptable for monitoring purposes.
+ * </p>
+ */
+public class RollingCounter {
+  public static final int DEFAULT_BUCKETS = 60;
+  public static final long DEFAULT_BUCKET_DURATION = 1000;
+
+  private final AtomicLongArray values;
+  private final AtomicLongArray intervals;
+  private final long bucketDuration;
+
+  /**
+   * Instantiates a new rolling counter over the last minute with a resolution
+   * of one second.
+   */
+  public RollingCounter() {
+    this(DEFAULT_BUCKETS, DEFAULT_BUCKET_DURATION);
+  }
+
+  /**
+   * Instantiates a new rolling counter.
+   *
+   * @param buckets
+   *          The amount of buckets in the window.
+   * @param bucketDuration
+   *          The duration of a bucket in milliseconds.
+   */
+  public RollingCounter(final int buckets, final long bucketDuration) {
+    if (buckets <= 1) {
+      throw new IllegalArgumentException("The counter needs at least two buckets.");
+    }
+
+    if (bucketDuration <= 0) {
+      throw new IllegalArgumentException("The bucket duration must be greater than 0.");
+    }
+
+    this.values = new AtomicLongArray(buckets);
+    this.intervals = new AtomicLongArray(buckets);
+    this.bucketDuration = bucketDuration;
+    for (int i = 0; i < buckets; i++) {
+      this.intervals.set(i, -1);
+    }
+  }
+
+  public void add(final long value) {
+    this.add(value, System.currentTimeMillis());
+  }
+
+  /**
+   * Adds the specified value at the specified time.
+   *
+   * @param value
+   *          The value to add.
+   * @param time
+   *          The time in milliseconds.
+   */
+  public void add(final long value, final long time) {
+    final long interval = time / this.bucketDuration;
+    final int index = (int) (interval % this.values.length());
+    while (true) {
+      final long current = this.intervals.get(index);
+      if (current == interval) {
+        this.values.addAndGet(index, value);
+        return;
+      }
+
+      if (current > interval) {
+        // the bucket has already been reused for a newer interval
+        return;
+      }
+
+      if (this.intervals.compareAndSet(index, current, interval)) {
+        this.values.set(index, value);
+        return;
+      }
+    }
+  }
+
+  public int getBuckets() {
+    return this.values.length();
+  }
+
+  public long getBucketDuration() {
+    return this.bucketDuration;
+  }
+
+  public double getRate(final int buckets) {
+    return this.getRate(buckets, System.currentTimeMillis());
+  }
+
+  /**
+   * Gets the average value per second over the specified amount of completed
+   * buckets before the specified time.
+   *
+   * @param buckets
+   *          The amount of completed buckets.
+   * @param time
+   *          The time in milliseconds.
+   * @return The rate per second.
+   */
+  public double getRate(final int buckets, final long time) {
+    return this.getSum(buckets, time) * 1000.0 / (buckets * this.bucketDuration);
+  }
+
+  public long getSum(final int buckets) {
+    return this.getSum(buckets, System.currentTimeMillis());
+  }
+
+  /**
+   * Gets the sum of the values in the specified amount of completed buckets
+   * before the specified time. The bucket that contains the specified time is
+   * not included because it is still being filled.
+   *
+   * @param buckets
+   *          The amount of completed buckets, at most one less than the
+   *          buckets of the counter.
+   * @param time
+   *          The time in milliseconds.
+   * @return The sum of the values.
+   */
+  public long getSum(final int buckets, final long time) {
+    if (buckets <= 0 || buckets >= this.values.length()) {
+      throw new IllegalArgumentException("The window must be between 1 and " + (this.values.length() - 1) + " buckets.");
+    }
+
+    final long current = time / this.bucketDuration;
+    long sum = 0;
+    for (int i = 0; i < this.values.length(); i++) {
+      final long interval = this.intervals.get(i);
+      if (interval < current && interval >= current - buckets) {
+        sum += this.values.get(i);
+      }
+    }
+
+    return sum;
+  }
+}
@@ -13,6 +13,7 @@ import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class GeometricUtilities {
   private static final double RAYCAST_EPSILON = 0.01;
@@ -101,6 +102,21 @@ public class GeometricUtilities {
     return Math.sqrt(dx * dx + dy * dy);
   }
 
+  /**
+   * Gets the shortest distance between the edges of the specified rectangles.
+   *
+   * @param rect
+   *          the first rectangle
+   * @param otherRect
+   *          the second rectangle
+   * @return The distance between the rectangles or 0 if they intersect.
+   */
+  public static double distance(final Rectangle2D rect, final Rectangle2D otherRect) {
+    final double dx = Math.max(0, Math.max(rect.getMinX() - otherRect.getMaxX(), otherRect.getMinX() - rect.getMaxX()));
+    final double dy = Math.max(0, Math.max(rect.getMinY() - otherRect.getMaxY(), otherRect.getMinY() - rect.getMaxY()));
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
   public static boolean equals(final Point2D point1, final Point2D point2, final double epsilon) {
     return point1.distance(point2) < epsilon;
   }
@@ -422,11 +438,38 @@ public class GeometricUtilities {
     return new Point2D.Double(x + xOffset, y + yOffset);
   }
 
+  /**
+   * Gets a random location within the specified bounds by using the specified
+   * random stream.
+   *
+   * @param random
+   *          The random stream to take the random offsets from.
+   * @param x
+   *          The x-coordinate of the bounds.
+   * @param y
+   *          The y-coordinate of the bounds.
+   * @param width
+   *          The width of the bounds.
+   * @param height
+   *          The height of the bounds.
+   * @return A random location within the specified bounds.
+   */
+  public static Point2D getRandomLocation(final SplittableRandom random, final double x, final double y, final double width, final double height) {
+    final double xOffset = random.nextDouble() * width;
+    final double yOffset = random.nextDouble() * height;
+
+    return new Point2D.Double(x + xOffset, y + yOffset);
+  }
+
   public static Point2D getRandomLocation(final Rectangle2D rect) {
     return getRandomLocation(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
 
   }
 
+  public static Point2D getRandomLocation(final SplittableRandom random, final Rectangle2D rect) {
+    return getRandomLocation(random, rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+  }
+
   public static boolean intersects(final Rectangle2D a, final Rectangle2D b) {
     return Math.abs(a.getCenterX() - b.getCenterX()) < a.getWidth() * 0.5 + b.getWidth() * 0.5 && Math.abs(a.getCenterY() - b.getCenterY()) < a.getHeight() * 0.5 + b.getHeight() * 0.5;
   }
@@ -21,11 +21,17 @@ import java.util.zip.ZipOutputStream;
 public final class CompressionUtilities {
   private static final Logger log = Logger.getLogger(CompressionUtilities.class.getName());
 
+  // creating a deflater or inflater allocates native memory, so the instances
+  // are reused per thread
+  private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(Deflater::new);
+  private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
   private CompressionUtilities() {
   }
 
   public static byte[] compress(final byte[] data) {
-    final Deflater deflater = new Deflater();
+    final Deflater deflater = deflaters.get();
+    deflater.reset();
     deflater.setInput(data);
     final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
     deflater.finish();
@@ -46,7 +52,8 @@ public final class CompressionUtilities {
   }
 
   public static byte[] decompress(final byte[] data) {
-    final Inflater inflater = new Inflater();
+    final Inflater inflater = inflaters.get();
+    inflater.reset();
     inflater.setInput(data);
     final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
     final byte[] buffer = new byte[1024];
@@ -55,6 +62,10 @@ public final class CompressionUtilities {
         int count;
 
         count = inflater.inflate(buffer);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          // the data is truncated
+          break;
+        }
 
         outputStream.write(buffer, 0, count);
       }
@@ -0,0 +1,179 @@
+package de.gurkenlabs.litiengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.environment.EnvironmentPreparation;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.environment.TestMaps;
+import de.gurkenlabs.litiengine.net.server.MessageDispatcher;
+
+public class GameContextTests {
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @Test
+  public void testGameAccessorsResolveToTheBoundContext() {
+    GameContext match = new GameContext("match", 30);
+    assertSame(Game.getDefaultContext(), GameContext.current());
+    assertNotSame(Game.getDefaultContext().getPhysicsEngine(), match.getPhysicsEngine());
+
+    match.execute(() -> {
+      assertSame(match, GameContext.current());
+      assertSame(match.getPhysicsEngine(), Game.getPhysicsEngine());
+      assertSame(match.getLoop(), Game.getLoop());
+      assertSame(match.getMetrics(), Game.getMetrics());
+      assertSame(match.getTriggerSystem(), Game.getTriggerSystem());
+      assertSame(match.getParticleSystem(), Game.getParticleSystem());
+      assertSame(match.getRandom(), Game.getRandom());
+      assertSame(match.getEntityControllerManager(), Game.getEntityControllerManager());
+
+      // nested contexts are restored
+      GameContext other = new GameContext("other", 30);
+      other.execute(() -> assertSame(other.getPhysicsEngine(), Game.getPhysicsEngine()));
+      assertSame(match, GameContext.current());
+    });
+
+    assertSame(Game.getDefaultContext(), GameContext.current());
+    assertSame(Game.getDefaultContext().getPhysicsEngine(), Game.getPhysicsEngine());
+    assertNotSame(Game.getDefaultContext().getParticleSystem(), match.getParticleSystem());
+    assertNotSame(Game.getDefaultContext().getRandom(), match.getRandom());
+  }
+
+  @Test
+  public void testExistingLoopsRunWithTheContextBound() {
+    GameLoop loop = new GameLoop(30);
+    GameContext match = new GameContext("match", loop);
+    AtomicReference<GameContext> updateContext = new AtomicReference<>();
+    IUpdateable updatable = () -> updateContext.set(GameContext.current());
+
+    match.getLoop().attach(updatable);
+    loop.update();
+    assertSame(match, updateContext.get());
+    assertSame(Game.getDefaultContext(), GameContext.current());
+
+    // the bound updatable is detached through the original instance
+    updateContext.set(null);
+    match.getLoop().detach(updatable);
+    loop.update();
+    assertNull(updateContext.get());
+  }
+
+  @Test
+  public void testHelperThreadsResolveTheirContext() throws Exception {
+    GameContext match = new GameContext("match", 30);
+    IEnvironment environment = new Environment(TestMaps.createMap());
+
+    AtomicReference<GameContext> preparationContext = new AtomicReference<>();
+    EnvironmentPreparation preparation = match.execute(() -> EnvironmentPreparation.prepare(() -> {
+      preparationContext.set(GameContext.current());
+      return environment;
+    }));
+    assertSame(environment, preparation.getFuture().get(5, TimeUnit.SECONDS));
+    assertSame(match, preparationContext.get());
+
+    AtomicReference<GameContext> dispatcherContext = new AtomicReference<>();
+    CountDownLatch handled = new CountDownLatch(1);
+    MessageDispatcher dispatcher = match.execute(() -> new MessageDispatcher((data, address, port) -> {
+      dispatcherContext.set(GameContext.current());
+      handled.countDown();
+    }, 1));
+    try {
+      dispatcher.dispatch(new byte[1], InetAddress.getLoopbackAddress(), 1234);
+      assertTrue(handled.await(5, TimeUnit.SECONDS));
+      assertSame(match, dispatcherContext.get());
+    } finally {
+      dispatcher.terminate();
+    }
+  }
+
+  @Test
+  public void testReplacedPreparationsReleaseTheirControllers() throws Exception {
+    GameContext match = new GameContext("match", 30);
+    AtomicReference<Creature> creature = new AtomicReference<>();
+    EnvironmentPreparation replaced = match.execute(() -> EnvironmentPreparation.prepare(() -> {
+      IEnvironment environment = new Environment(TestMaps.createMap());
+      environment.onInitialized(env -> {
+        creature.set(new Creature());
+        creature.get().setMapId(1);
+        env.add(creature.get());
+      });
+      return environment;
+    }));
+    replaced.getFuture().get(5, TimeUnit.SECONDS);
+
+    // the creature has a controller that is not attached to the loop yet
+    assertNotNull(match.getEntityControllerManager().getAnimationController(creature.get()));
+
+    match.loadPreparedEnvironment(replaced);
+    match.loadPreparedEnvironment(match.execute(() -> EnvironmentPreparation.prepare(() -> new Environment(TestMaps.createMap()))));
+    assertNull(match.getEntityControllerManager().getAnimationController(creature.get()));
+  }
+
+  @Test
+  public void testWorldsRunIndependently() throws InterruptedException {
+    GameContext first = new GameContext("first", 60);
+    GameContext second = new GameContext("second", 60);
+    IEnvironment firstEnvironment = new Environment(TestMaps.createMap());
+    IEnvironment secondEnvironment = new Environment(TestMaps.createMap());
+    IEnvironment defaultEnvironment = Game.getEnvironment();
+
+    first.loadEnvironment(firstEnvironment);
+    second.loadEnvironment(secondEnvironment);
+    assertSame(defaultEnvironment, Game.getEnvironment());
+
+    Creature creature = first.execute(() -> new Creature());
+    first.execute(() -> firstEnvironment.add(creature));
+    assertTrue(first.getPhysicsEngine().getCollisionEntities().contains(creature));
+    assertEquals(0, second.getPhysicsEngine().getCollisionEntities().size());
+
+    AtomicReference<IEnvironment> firstLoopEnvironment = new AtomicReference<>();
+    AtomicReference<IEnvironment> secondLoopEnvironment = new AtomicReference<>();
+    CountDownLatch latch = new CountDownLatch(2);
+    first.getLoop().execute(0, () -> {
+      firstLoopEnvironment.set(Game.getEnvironment());
+      latch.countDown();
+    });
+    second.getLoop().execute(0, () -> {
+      secondLoopEnvironment.set(Game.getEnvironment());
+      latch.countDown();
+    });
+
+    first.start();
+    second.start();
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertSame(firstEnvironment, firstLoopEnvironment.get());
+      assertSame(secondEnvironment, secondLoopEnvironment.get());
+    } finally {
+      first.terminate();
+      second.terminate();
+    }
+
+    assertEquals(0, first.getPhysicsEngine().getCollisionEntities().size());
+  }
+}
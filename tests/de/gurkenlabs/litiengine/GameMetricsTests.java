@@ -0,0 +1,95 @@
+package de.gurkenlabs.litiengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+import de.gurkenlabs.litiengine.net.messages.MessageTypeMetrics;
+import de.gurkenlabs.litiengine.util.Histogram;
+import de.gurkenlabs.litiengine.util.RollingCounter;
+
+public class GameMetricsTests {
+
+  @Test
+  public void testHistogramPercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.5, histogram.getMean(), 0.0001);
+    assertEquals(1, histogram.getPercentile(0));
+    assertEquals(1000, histogram.getPercentile(100));
+
+    // the buckets cover a quarter of a power of two
+    long median = histogram.getPercentile(50);
+    assertTrue(median >= 500 && median <= 500 * 1.25, "median " + median);
+    long p99 = histogram.getPercentile(99);
+    assertTrue(p99 >= 990 && p99 <= 1000, "p99 " + p99);
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void testRollingCounterReusesBuckets() {
+    RollingCounter counter = new RollingCounter(4, 1000);
+    counter.add(10, 0);
+    counter.add(5, 500);
+    counter.add(20, 1000);
+    counter.add(30, 2500);
+
+    assertEquals(15, counter.getSum(1, 1000));
+    assertEquals(35, counter.getSum(2, 2000));
+    assertEquals(20, counter.getSum(1, 2000));
+
+    // the bucket of the first second is reused for the fifth second
+    counter.add(7, 4000);
+    assertEquals(50, counter.getSum(3, 4000));
+    assertEquals(7, counter.getSum(1, 5000));
+    assertEquals(7.0 / 3, counter.getRate(3, 7000), 0.0001);
+
+    // values for intervals that have already been overwritten are ignored
+    counter.add(100, 0);
+    assertEquals(37, counter.getSum(3, 5000));
+  }
+
+  @Test
+  public void testTrafficIsAccountedPerMessageType() {
+    GameMetrics metrics = new GameMetrics();
+    metrics.packageSent(MessageType.SNAPSHOT, 1000);
+    metrics.packageSent(MessageType.SNAPSHOT, 200);
+    metrics.packageSent(MessageType.PING, 10);
+    metrics.packageReceived(MessageType.SNAPSHOTACK, 4);
+    metrics.packageReceived(MessageType.get((byte) 99), 50);
+    metrics.messageHandled(MessageType.SNAPSHOTACK, 2000);
+
+    MessageTypeMetrics snapshots = metrics.getMessageMetrics(MessageType.SNAPSHOT);
+    assertSame(snapshots, metrics.getMessageMetrics(MessageType.SNAPSHOT));
+    assertEquals(2, snapshots.getSentPackets());
+    assertEquals(1200, snapshots.getSentBytes());
+    assertEquals(1000, snapshots.getSentSizes().getMax());
+    assertEquals(0, snapshots.getReceivedPackets());
+
+    MessageTypeMetrics acks = metrics.getMessageMetrics(MessageType.SNAPSHOTACK);
+    assertEquals(1, acks.getReceivedPackets());
+    assertEquals(1, acks.getHandlerLatency().getCount());
+    assertEquals(2000, acks.getHandlerLatency().getMax());
+
+    // unregistered ids are accounted to the invalid type
+    assertEquals(50, metrics.getMessageMetrics(MessageType.INVALID).getReceivedBytes());
+    assertEquals(4, metrics.getMessageMetrics().size());
+
+    metrics.update();
+    assertEquals(1210, metrics.getUpStreamInBytes(), 0.0001);
+    assertEquals(3, metrics.getPackagesSent());
+    assertEquals(54, metrics.getDownStreamInBytes(), 0.0001);
+    assertEquals(2, metrics.getPackagesReceived());
+  }
+}
@@ -0,0 +1,44 @@
+package de.gurkenlabs.litiengine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class GameRandomTests {
+  @Test
+  public void testKeyedStreamsAreReproducible() {
+    final GameRandom random1 = new GameRandom(42);
+    final GameRandom random2 = new GameRandom(42);
+
+    // the order in which keyed streams are created doesn't matter
+    final SplittableRandom stream1 = random1.createStream(1);
+    final SplittableRandom stream2 = random1.createStream(2);
+    final SplittableRandom otherStream2 = random2.createStream(2);
+    final SplittableRandom otherStream1 = random2.createStream(1);
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals(stream1.nextLong(), otherStream1.nextLong());
+      assertEquals(stream2.nextLong(), otherStream2.nextLong());
+    }
+
+    assertNotEquals(random1.createStream(1).nextLong(), random1.createStream(2).nextLong());
+    assertNotEquals(new GameRandom(43).createStream(1).nextLong(), random1.createStream(1).nextLong());
+  }
+
+  @Test
+  public void testSequentialStreamsAreResetBySeed() {
+    final GameRandom random = new GameRandom(42);
+    final long first = random.createStream().nextLong();
+    final long second = random.createStream().nextLong();
+    final long threadValue = random.nextLong();
+    assertNotEquals(first, second);
+
+    random.setSeed(42);
+    assertEquals(first, random.createStream().nextLong());
+    assertEquals(second, random.createStream().nextLong());
+    assertEquals(threadValue, random.nextLong());
+  }
+}
@@ -3,13 +3,21 @@ package de.gurkenlabs.litiengine.abilities;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
 import de.gurkenlabs.litiengine.abilities.effects.Effect;
 import de.gurkenlabs.litiengine.abilities.effects.EffectTarget;
+import de.gurkenlabs.litiengine.abilities.effects.ShieldEffect;
 import de.gurkenlabs.litiengine.annotation.AbilityInfo;
+import de.gurkenlabs.litiengine.attributes.Modification;
 import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
 
 public class AbilityTests {
 
@@ -43,6 +51,57 @@ public class AbilityTests {
     assertArrayEquals(new EffectTarget[] { EffectTarget.ENEMY }, effect.getEffectTargets());
   }
 
+  @Test
+  public void testAffectedEntitiesAreResolvedOnce() {
+    Creature executor = new Creature();
+    Creature enemy = new Creature();
+    enemy.setTeam(1);
+    Creature friend = new Creature();
+    TestAbility ability = new TestAbility(executor);
+
+    AtomicInteger queries = new AtomicInteger();
+    TestEffect effect = new TestEffect(ability, EffectTarget.ENEMY, EffectTarget.FRIENDLY);
+    List<ICombatEntity> affected = effect.lookForAffectedEntities(Arrays.asList(executor, enemy, friend), queries);
+
+    assertEquals(1, queries.get());
+    assertEquals(2, affected.size());
+    assertTrue(affected.contains(enemy));
+    assertTrue(affected.contains(friend));
+  }
+
+  @Test
+  public void testEffectIsActiveUntilAllAppliancesCeased() {
+    Creature entity = new Creature();
+    TestEffect effect = new TestEffect(new TestAbility(new Creature()), EffectTarget.ENEMY);
+
+    effect.applyTo(entity);
+    effect.applyTo(entity);
+    assertTrue(effect.isActive(entity));
+    assertEquals(2, entity.getAppliedEffects().size());
+
+    effect.cease(entity);
+    assertTrue(effect.isActive(entity));
+
+    effect.cease(entity);
+    assertFalse(effect.isActive(entity));
+    assertTrue(entity.getAppliedEffects().isEmpty());
+  }
+
+  @Test
+  public void testShieldEffectIsRevertedWhenCeased() {
+    Creature entity = new Creature();
+    short shield = entity.getAttributes().getShield().getCurrentValue();
+    TestShieldEffect effect = new TestShieldEffect(new TestAbility(new Creature()));
+
+    effect.applyTo(entity);
+    assertTrue(effect.isActive(entity));
+
+    effect.cease(entity);
+    assertFalse(effect.isActive(entity));
+    assertTrue(entity.getAppliedEffects().isEmpty());
+    assertEquals(shield, entity.getAttributes().getShield().getCurrentValue().shortValue());
+  }
+
   @AbilityInfo(castType = CastType.ONCONFIRM, name = "I do somethin", description = "does somethin", cooldown = 333, duration = 222, impact = 111, impactAngle = 99, multiTarget = true, origin = AbilityOrigin.COLLISIONBOX_CENTER, range = 444, value = 999)
   private class TestAbility extends Ability {
 
@@ -51,9 +110,30 @@ public class AbilityTests {
     }
   }
 
+  private class TestShieldEffect extends ShieldEffect {
+    protected TestShieldEffect(Ability ability) {
+      super(ability, (short) 10, Modification.ADD, EffectTarget.ENEMY);
+    }
+
+    private void applyTo(ICombatEntity entity) {
+      this.apply(entity);
+    }
+  }
+
   private class TestEffect extends Effect {
     protected TestEffect(Ability ability, EffectTarget... targets) {
       super(ability, targets);
     }
+
+    private void applyTo(ICombatEntity entity) {
+      this.apply(entity);
+    }
+
+    private List<ICombatEntity> lookForAffectedEntities(List<ICombatEntity> entities, AtomicInteger queries) {
+      return this.lookForAffectedEntities(() -> {
+        queries.incrementAndGet();
+        return entities;
+      });
+    }
   }
 }
@@ -0,0 +1,127 @@
+package de.gurkenlabs.litiengine.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.DormancySystem.Policy;
+import de.gurkenlabs.litiengine.entities.DormancySystem.SimulationTier;
+import de.gurkenlabs.litiengine.pathfinding.EntityNavigator;
+
+public class DormancySystemTests {
+  private Rectangle2D focus;
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @Test
+  public void testSimulationTiers() {
+    DormancySystem system = new DormancySystem();
+    system.setPolicy(Creature.class, new Policy(100, 200, 1, SimulationTier.FULL));
+    system.addFocus(() -> this.focus);
+
+    Creature creature = new Creature();
+    creature.setLocation(500, 500);
+    system.add(creature);
+
+    AtomicInteger updates = new AtomicInteger();
+    system.attach(creature, updates::incrementAndGet);
+
+    Point2D center = creature.getCenter();
+    this.focus = new Rectangle2D.Double(center.getX() - 50, center.getY(), 10, 10);
+    system.update();
+    assertEquals(SimulationTier.FULL, system.getTier(creature));
+
+    this.focus = new Rectangle2D.Double(center.getX() - 150, center.getY(), 10, 10);
+    system.update();
+    assertEquals(SimulationTier.REDUCED, system.getTier(creature));
+    assertEquals(1, updates.get());
+
+    this.focus = new Rectangle2D.Double(center.getX() - 500, center.getY(), 10, 10);
+    system.update();
+    assertEquals(SimulationTier.SUSPENDED, system.getTier(creature));
+    assertEquals(1, updates.get());
+
+    system.wake(creature);
+    assertEquals(SimulationTier.FULL, system.getTier(creature));
+    system.update();
+    assertEquals(SimulationTier.FULL, system.getTier(creature));
+
+    system.remove(creature);
+    assertNull(system.getTier(creature));
+  }
+
+  @Test
+  public void testNavigatorsAreThrottledWithTheirEntity() {
+    DormancySystem system = Game.getDormancySystem();
+    Supplier<Rectangle2D> focusArea = () -> this.focus;
+    system.setPolicy(Creature.class, new Policy(100, 200, 1, SimulationTier.FULL));
+    system.addFocus(focusArea);
+
+    Creature creature = new Creature();
+    creature.setLocation(500, 500);
+    AtomicInteger updates = new AtomicInteger();
+    EntityNavigator navigator = new EntityNavigator(creature, null) {
+      @Override
+      public void update() {
+        updates.incrementAndGet();
+      }
+    };
+
+    try {
+      // the navigator is attached before the creature is added and is updated
+      // by the system while the creature is simulated with the reduced rate
+      system.add(creature);
+      Point2D center = creature.getCenter();
+      this.focus = new Rectangle2D.Double(center.getX() - 150, center.getY(), 10, 10);
+      system.update();
+      assertEquals(SimulationTier.REDUCED, system.getTier(creature));
+      assertEquals(1, updates.get());
+
+      // the navigator stays attached when the creature is added again
+      system.remove(creature);
+      system.add(creature);
+      system.update();
+      assertEquals(2, updates.get());
+
+      system.detach(creature, navigator);
+      system.update();
+      assertEquals(2, updates.get());
+    } finally {
+      system.remove(creature);
+      system.removeFocus(focusArea);
+      system.setPolicy(Creature.class, null);
+      Game.getLoop().detach(navigator);
+    }
+  }
+
+  @Test
+  public void testEntitiesWithoutPolicyAreFullySimulated() {
+    DormancySystem system = new DormancySystem();
+    system.addFocus(() -> this.focus);
+    this.focus = new Rectangle2D.Double(10000, 10000, 10, 10);
+
+    Prop prop = new Prop(0, 0, null);
+    system.add(prop);
+    system.update();
+
+    assertEquals(SimulationTier.FULL, system.getTier(prop));
+  }
+}
@@ -0,0 +1,162 @@
+package de.gurkenlabs.litiengine.environment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.abilities.Ability;
+import de.gurkenlabs.litiengine.abilities.effects.Effect;
+import de.gurkenlabs.litiengine.abilities.effects.EffectTarget;
+import de.gurkenlabs.litiengine.attributes.AttributeModifier;
+import de.gurkenlabs.litiengine.attributes.Modification;
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.entities.ICombatEntity;
+
+public class EntityPoolTests {
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @Test
+  public void testAcquireCreatesEntitiesIfEmpty() {
+    AtomicInteger created = new AtomicInteger();
+    EntityPool<Creature> pool = new EntityPool<>(Creature.class, () -> {
+      created.incrementAndGet();
+      return new Creature();
+    });
+
+    Creature first = pool.acquire();
+    Creature second = pool.acquire();
+    assertNotSame(first, second);
+    assertEquals(2, created.get());
+    assertEquals(0, pool.getAvailable());
+  }
+
+  @Test
+  public void testReleasedEntitiesAreReused() {
+    AtomicInteger created = new AtomicInteger();
+    EntityPool<Creature> pool = new EntityPool<>(Creature.class, () -> {
+      created.incrementAndGet();
+      return new Creature();
+    }, 1);
+
+    Creature first = pool.acquire();
+    Creature second = pool.acquire();
+    assertTrue(pool.release(first));
+    assertEquals(1, pool.getAvailable());
+
+    // the pool is full
+    assertFalse(pool.release(second));
+    assertEquals(1, pool.getAvailable());
+    assertFalse(pool.release(null));
+
+    assertSame(first, pool.acquire());
+    assertEquals(0, pool.getAvailable());
+    assertEquals(2, created.get());
+  }
+
+  @Test
+  public void testPrefill() {
+    EntityPool<Creature> pool = new EntityPool<>(Creature.class, Creature::new, 5);
+    pool.prefill(3);
+    assertEquals(3, pool.getAvailable());
+
+    pool.prefill(10);
+    assertEquals(5, pool.getAvailable());
+
+    pool.clear();
+    assertEquals(0, pool.getAvailable());
+  }
+
+  @Test
+  public void testReleaseResetsEntities() {
+    EntityPool<Creature> pool = new EntityPool<>(Creature.class, Creature::new);
+    Creature creature = pool.acquire();
+
+    AtomicInteger renamed = new AtomicInteger();
+    AtomicInteger moved = new AtomicInteger();
+    creature.onNameChanged((entity, oldName) -> renamed.incrementAndGet());
+    creature.onMoved(entity -> moved.incrementAndGet());
+
+    creature.setMapId(42);
+    creature.setName("creature");
+    creature.setLocation(10, 20);
+    creature.setAngle(90);
+    creature.getAttributes().getHealth().modifyBaseValue(new AttributeModifier<>(Modification.SET, 0));
+
+    TestEffect effect = new TestEffect(new TestAbility(new Creature()));
+    effect.applyTo(creature);
+    effect.applyTo(creature);
+
+    pool.release(creature);
+
+    assertEquals(0, creature.getMapId());
+    assertEquals(0, creature.getAngle(), 0.0001);
+    assertEquals(0, creature.getX(), 0.0001);
+    assertEquals(0, creature.getY(), 0.0001);
+    assertNull(creature.getMoveDestination());
+    assertEquals(creature.getAttributes().getHealth().getMaxValue(), creature.getAttributes().getHealth().getCurrentValue());
+
+    // the configuration is kept
+    assertEquals("creature", creature.getName());
+
+    // the effects of the previous life are gone
+    assertFalse(effect.isActive(creature));
+    assertTrue(creature.getAppliedEffects().isEmpty());
+
+    // the consumers that were registered once are still informed
+    creature.setName("reused");
+    creature.setLocation(30, 40);
+    assertEquals(2, renamed.get());
+    assertEquals(2, moved.get());
+  }
+
+  @Test
+  public void testReleasedEntitiesAreNoLongerObservedByTheEnvironment() {
+    Environment environment = new Environment(TestMaps.createMap());
+    environment.registerPool(new EntityPool<>(Creature.class, Creature::new));
+    Creature creature = new Creature();
+    creature.setName("creature");
+    environment.add(creature);
+    assertSame(creature, environment.get("creature"));
+
+    environment.release(creature);
+    creature.setName("renamed");
+    creature.addTag("quest");
+    assertNull(environment.get("renamed"));
+    assertTrue(environment.getByTag("quest").isEmpty());
+  }
+
+  private static class TestAbility extends Ability {
+    private TestAbility(final Creature executor) {
+      super(executor);
+    }
+  }
+
+  private static class TestEffect extends Effect {
+    private TestEffect(final Ability ability) {
+      super(ability, EffectTarget.ENEMY);
+    }
+
+    private void applyTo(final ICombatEntity entity) {
+      this.apply(entity);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package de.gurkenlabs.litiengine.environment;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+
+/**
+ * A standalone benchmark that compares adding and removing entities one by one
+ * with the batched {@link IEnvironment#addAll(java.util.Collection)} and
+ * {@link IEnvironment#removeAll(java.util.Collection)} operations on a loaded
+ * environment.
+ *
+ * <p>
+ * This is not part of the test suite because its results depend on the
+ * machine. Run it with the test classpath and optionally pass the entity
+ * counts as arguments.
+ * </p>
+ */
+public final class EnvironmentBatchBenchmark {
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 50;
+
+  private EnvironmentBatchBenchmark() {
+  }
+
+  public static void main(final String[] args) {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+
+    final int[] counts = args.length == 0 ? new int[] { 200, 1000 } : new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      counts[i] = Integer.parseInt(args[i]);
+    }
+
+    for (final int count : counts) {
+      final double add = measure(count, false, (env, creatures) -> creatures.forEach(env::add));
+      final double addAll = measure(count, false, Environment::addAll);
+      final double remove = measure(count, true, (env, creatures) -> creatures.forEach(env::remove));
+      final double removeAll = measure(count, true, Environment::removeAll);
+      System.out.println(String.format("%5d entities: add %8.3fms, addAll %8.3fms, remove %8.3fms, removeAll %8.3fms", count, add, addAll, remove, removeAll));
+    }
+
+    Game.terminate();
+  }
+
+  /**
+   * Measures the average duration of the specified operation in milliseconds.
+   *
+   * @param count
+   *          The amount of entities that are passed to the operation.
+   * @param populated
+   *          Whether the entities are added to the environment before the
+   *          operation is run.
+   * @param operation
+   *          The operation to measure.
+   * @return The average duration of the operation in milliseconds.
+   */
+  private static double measure(final int count, final boolean populated, final BiConsumer<Environment, List<Creature>> operation) {
+    long total = 0;
+    for (int i = 0; i < WARMUP_ITERATIONS + ITERATIONS; i++) {
+      final Environment environment = createEnvironment();
+      final List<Creature> creatures = createCreatures(count);
+      if (populated) {
+        environment.addAll(creatures);
+      }
+
+      final long start = System.nanoTime();
+      operation.accept(environment, creatures);
+      final long duration = System.nanoTime() - start;
+      if (i >= WARMUP_ITERATIONS) {
+        total += duration;
+      }
+
+      environment.unload();
+    }
+
+    return total / (double) ITERATIONS / 1_000_000;
+  }
+
+  private static Environment createEnvironment() {
+    final IMap map = mock(IMap.class);
+    when(map.getSizeInPixels()).thenReturn(new Dimension(1000, 1000));
+    when(map.getSizeInTiles()).thenReturn(new Dimension(100, 100));
+
+    final Environment environment = new Environment(map);
+    environment.load();
+    return environment;
+  }
+
+  private static List<Creature> createCreatures(final int count) {
+    final List<Creature> creatures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Creature creature = new Creature();
+      creature.setMapId(i + 1);
+      creature.setLocation(i % 100 * 10.0, i / 100 * 10.0);
+      creatures.add(creature);
+    }
+
+    return creatures;
+  }
+}
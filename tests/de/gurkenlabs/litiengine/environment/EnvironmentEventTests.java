@@ -5,7 +5,6 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.awt.Dimension;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -21,9 +20,7 @@ public class EnvironmentEventTests {
 
   @BeforeEach
   public void initEnvironment() {
-    IMap map = mock(IMap.class);
-    when(map.getSizeInPixels()).thenReturn(new Dimension(100, 100));
-    when(map.getSizeInTiles()).thenReturn(new Dimension(10, 10));
+    IMap map = TestMaps.createMap();
     this.testEnvironment = new Environment(map);
   }
 
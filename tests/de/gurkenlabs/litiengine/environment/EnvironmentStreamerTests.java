@@ -0,0 +1,129 @@
+package de.gurkenlabs.litiengine.environment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.environment.EnvironmentStreamer.RegionState;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.environment.tilemap.IMapObject;
+import de.gurkenlabs.litiengine.environment.tilemap.IMapObjectLayer;
+import de.gurkenlabs.litiengine.environment.tilemap.MapObjectType;
+
+public class EnvironmentStreamerTests {
+  private IEnvironment testEnvironment;
+  private Rectangle2D focus;
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @BeforeEach
+  public void initEnvironment() {
+    // the areas are stubbed before the layer because mockito does not
+    // support nested stubbing
+    IMapObject first = createArea(1, 10, 10);
+    IMapObject second = createArea(2, 900, 900);
+    IMapObjectLayer layer = mock(IMapObjectLayer.class);
+    when(layer.getMapObjects()).thenReturn(Arrays.asList(first, second));
+
+    IMap map = mock(IMap.class);
+    when(map.getSizeInPixels()).thenReturn(new Dimension(1024, 1024));
+    when(map.getSizeInTiles()).thenReturn(new Dimension(64, 64));
+    when(map.getTileSize()).thenReturn(new Dimension(16, 16));
+    when(map.getBounds()).thenReturn(new Rectangle(0, 0, 1024, 1024));
+    when(map.getMapObjectLayers()).thenReturn(Arrays.asList(layer));
+
+    this.testEnvironment = new Environment(map);
+    this.focus = new Rectangle2D.Double(0, 0, 100, 100);
+    this.testEnvironment.enableStreaming(16).addFocus(() -> this.focus);
+  }
+
+  @Test
+  public void testRegionsAreLoadedAroundFocus() throws InterruptedException {
+    EnvironmentStreamer streamer = this.testEnvironment.getStreamer();
+    assertEquals(4, streamer.getColumns());
+    assertEquals(4, streamer.getRows());
+
+    this.testEnvironment.load();
+    assertTrue(this.testEnvironment.getAreas().isEmpty());
+
+    streamer.loadRegions(this.focus);
+    assertNotNull(this.testEnvironment.getArea(1));
+    assertNull(this.testEnvironment.getArea(2));
+    assertEquals(RegionState.LOADED, streamer.getRegion(10, 10).getState());
+
+    // the first region is unloaded once the focus has moved far enough away
+    // and the last region is loaded in the background
+    this.focus = new Rectangle2D.Double(850, 850, 100, 100);
+    for (int i = 0; i < 100 && this.testEnvironment.getArea(2) == null; i++) {
+      streamer.update();
+      Thread.sleep(10);
+    }
+
+    assertNull(this.testEnvironment.getArea(1));
+    assertNotNull(this.testEnvironment.getArea(2));
+    assertEquals(RegionState.UNLOADED, streamer.getRegion(10, 10).getState());
+    assertEquals(RegionState.LOADED, streamer.getRegion(900, 900).getState());
+  }
+
+  @Test
+  public void testRemovedEntitiesAreNotLoadedAgain() {
+    EnvironmentStreamer streamer = this.testEnvironment.getStreamer();
+    this.testEnvironment.load();
+    streamer.loadRegions(this.focus);
+    assertNotNull(this.testEnvironment.getArea(1));
+
+    this.testEnvironment.remove(1);
+
+    // the region is unloaded and loaded again
+    this.focus = new Rectangle2D.Double(850, 850, 100, 100);
+    streamer.update();
+    assertEquals(RegionState.UNLOADED, streamer.getRegion(10, 10).getState());
+
+    this.focus = new Rectangle2D.Double(0, 0, 100, 100);
+    streamer.loadRegions(this.focus);
+    assertEquals(RegionState.LOADED, streamer.getRegion(10, 10).getState());
+    assertNull(this.testEnvironment.getArea(1));
+
+    // clearing the environment starts over with all map objects
+    this.testEnvironment.clear();
+    this.testEnvironment.load();
+    streamer.loadRegions(this.focus);
+    assertNotNull(this.testEnvironment.getArea(1));
+  }
+
+  private static IMapObject createArea(int id, int x, int y) {
+    IMapObject mapObject = mock(IMapObject.class);
+    when(mapObject.getType()).thenReturn(MapObjectType.AREA.name());
+    when(mapObject.getId()).thenReturn(id);
+    when(mapObject.getX()).thenReturn(x);
+    when(mapObject.getY()).thenReturn(y);
+    when(mapObject.getLocation()).thenReturn(new Point(x, y));
+    when(mapObject.getWidth()).thenReturn(10);
+    when(mapObject.getHeight()).thenReturn(10);
+    return mapObject;
+  }
+}
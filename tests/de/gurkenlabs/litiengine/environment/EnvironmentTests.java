@@ -5,17 +5,19 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.awt.Color;
-import java.awt.Dimension;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,7 +26,10 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.attributes.AttributeModifier;
+import de.gurkenlabs.litiengine.attributes.Modification;
 import de.gurkenlabs.litiengine.entities.CollisionBox;
+import de.gurkenlabs.litiengine.entities.Creature;
 import de.gurkenlabs.litiengine.entities.ICombatEntity;
 import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.entities.IMobileEntity;
@@ -46,9 +51,7 @@ public class EnvironmentTests {
 
   @Test
   public void testInitialization() {
-    IMap map = mock(IMap.class);
-    when(map.getSizeInPixels()).thenReturn(new Dimension(100, 100));
-    when(map.getSizeInTiles()).thenReturn(new Dimension(10, 10));
+    IMap map = TestMaps.createMap();
     Environment env = new Environment(map);
 
     assertNotNull(env);
@@ -64,13 +67,30 @@ public class EnvironmentTests {
 
   @BeforeEach
   public void initEnvironment() {
-    IMap map = mock(IMap.class);
-    when(map.getSizeInPixels()).thenReturn(new Dimension(100, 100));
-    when(map.getSizeInTiles()).thenReturn(new Dimension(10, 10));
+    IMap map = TestMaps.createMap();
     this.testEnvironment = new Environment(map);
     this.testEnvironment.init();
   }
 
+  @Test
+  public void testHeadlessEnvironmentHasNoColorLayers() {
+    IMap map = TestMaps.createMap();
+
+    Game.setHeadless(true);
+    try {
+      Environment env = new Environment(map);
+      env.init();
+      env.add(new LightSource(100, Color.WHITE, LightSource.ELLIPSE, true));
+
+      assertTrue(Game.isInNoGUIMode());
+      assertNull(env.getAmbientLight());
+      assertNull(env.getStaticShadowLayer());
+      assertEquals(1, env.getLightSources().size());
+    } finally {
+      Game.setHeadless(false);
+    }
+  }
+
   @Test
   public void testCombatEntity() {
     ICombatEntity combatEntity = mock(ICombatEntity.class);
@@ -115,6 +135,42 @@ public class EnvironmentTests {
     assertNull(this.testEnvironment.get(null));
   }
 
+  @Test
+  public void testGetByNameAfterRenaming() {
+    MapArea testArea = new MapArea(0, 0, 1, 1);
+    testArea.setMapId(1);
+    testArea.setName("test");
+
+    this.testEnvironment.add(testArea);
+    testArea.setName("renamed");
+
+    assertNull(this.testEnvironment.get("test"));
+    assertNull(this.testEnvironment.getArea("test"));
+    assertEquals(testArea, this.testEnvironment.get("renamed"));
+    assertEquals(testArea, this.testEnvironment.getArea("renamed"));
+
+    this.testEnvironment.remove(testArea);
+    testArea.setName("test");
+
+    assertNull(this.testEnvironment.get("test"));
+    assertNull(this.testEnvironment.get("renamed"));
+  }
+
+  @Test
+  public void testGetByDuplicateName() {
+    for (int mapId : new int[] { 5, 2, 7, 3 }) {
+      MapArea testArea = new MapArea(0, 0, 1, 1);
+      testArea.setMapId(mapId);
+      testArea.setName("test");
+      this.testEnvironment.add(testArea);
+    }
+
+    assertEquals(2, this.testEnvironment.get("test").getMapId());
+    assertEquals(2, this.testEnvironment.getArea("test").getMapId());
+
+    this.testEnvironment.remove(2);
+    assertEquals(3, this.testEnvironment.get("test").getMapId());
+  }
 
 
   @Test
@@ -402,6 +458,75 @@ public class EnvironmentTests {
     assertEquals(0, this.testEnvironment.getByTag("tag2").size());
   }
 
+  @Test
+  public void testTagChangesAreIndexed() {
+    MapArea area = new MapArea(0, 0, 10, 10);
+    Trigger trigger = new Trigger(TriggerActivation.COLLISION, "testTrigger", "testMessage");
+    area.addTag("quest");
+    this.testEnvironment.add(area);
+    this.testEnvironment.add(trigger);
+
+    Collection<MapArea> areas = this.testEnvironment.getByTag(MapArea.class, "Quest");
+    assertEquals(1, areas.size());
+    assertEquals(0, this.testEnvironment.getByTag(Trigger.class, "quest").size());
+
+    trigger.addTag(" QUEST ");
+    assertEquals(2, this.testEnvironment.getByTag("quest").size());
+    assertEquals(1, this.testEnvironment.getByTag(Trigger.class, "quest").size());
+    assertEquals(1, areas.size());
+
+    area.removeTag("quest");
+    assertEquals(0, areas.size());
+    assertFalse(this.testEnvironment.getByTag("quest").contains(area));
+
+    this.testEnvironment.remove(trigger);
+    trigger.removeTag(" QUEST ");
+    trigger.addTag("quest");
+    assertTrue(this.testEnvironment.getByTag("quest").isEmpty());
+    assertFalse(this.testEnvironment.getUsedTags().contains("quest"));
+  }
+
+  @Test
+  public void testEqualTagsAreAddedOnce() {
+    MapArea area = new MapArea(0, 0, 10, 10);
+    this.testEnvironment.add(area);
+
+    area.addTag("Quest");
+    area.addTag(" quest ");
+    area.addTag(" ");
+    assertEquals(1, area.getTags().size());
+    assertTrue(area.hasTag("QUEST"));
+    assertEquals(1, this.testEnvironment.getByTag("quest").size());
+
+    area.removeTag("quest");
+    assertTrue(area.getTags().isEmpty());
+    assertTrue(this.testEnvironment.getByTag("quest").isEmpty());
+    assertFalse(this.testEnvironment.getUsedTags().contains("quest"));
+
+    // unknown tags are not indexed by queries
+    assertTrue(this.testEnvironment.getByTag(MapArea.class, "unknown").isEmpty());
+    assertFalse(this.testEnvironment.getUsedTags().contains("unknown"));
+  }
+
+  @Test
+  public void testTagListChangesUpdateTheIndex() {
+    MapArea area = new MapArea(0, 0, 10, 10);
+    this.testEnvironment.add(area);
+
+    area.getTags().add("quest");
+    area.getTags().add("QUEST");
+    assertEquals(1, area.getTags().size());
+    assertEquals(1, this.testEnvironment.getByTag("quest").size());
+
+    area.getTags().set(0, "boss");
+    assertTrue(this.testEnvironment.getByTag("quest").isEmpty());
+    assertEquals(1, this.testEnvironment.getByTag("boss").size());
+
+    area.getTags().clear();
+    assertTrue(area.getTags().isEmpty());
+    assertTrue(this.testEnvironment.getByTag("boss").isEmpty());
+  }
+
   @Test
   public void testThatLocalMapIdIsAssigned() {
     MapArea entity1 = new MapArea(0, 0, 0, 0);
@@ -500,4 +625,121 @@ public class EnvironmentTests {
 
     assertFalse(this.testEnvironment.isLoaded());
   }
+
+  @Test
+  public void testAddAllAndRemoveAll() {
+    List<Creature> creatures = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      Creature creature = new Creature();
+      creature.setMapId(i);
+      creature.setName("creature" + i);
+      creatures.add(creature);
+    }
+
+    List<Collection<IEntity>> addedBatches = new ArrayList<>();
+    List<IEntity> addedEntities = new ArrayList<>();
+    List<Collection<IEntity>> removedBatches = new ArrayList<>();
+    this.testEnvironment.onEntitiesAdded(addedBatches::add);
+    this.testEnvironment.onEntityAdded(addedEntities::add);
+    this.testEnvironment.onEntitiesRemoved(removedBatches::add);
+
+    this.testEnvironment.addAll(creatures);
+
+    assertEquals(1, addedBatches.size());
+    assertEquals(10, addedBatches.get(0).size());
+    assertEquals(10, addedEntities.size());
+    assertEquals(10, this.testEnvironment.getCreatures().size());
+    assertEquals(10, this.testEnvironment.getByType(Creature.class).size());
+    assertEquals(creatures.get(4), this.testEnvironment.getCreature("creature5"));
+
+    this.testEnvironment.removeAll(creatures.subList(0, 5));
+
+    assertEquals(1, removedBatches.size());
+    assertEquals(5, removedBatches.get(0).size());
+    assertEquals(5, this.testEnvironment.getCreatures().size());
+    assertEquals(5, this.testEnvironment.getMobileEntities().size());
+    assertNull(this.testEnvironment.get(1));
+    assertNotNull(this.testEnvironment.get(6));
+  }
+
+  @Test
+  public void testReleaseToPool() {
+    EntityPool<Creature> pool = new EntityPool<>(Creature.class, Creature::new, 1);
+    this.testEnvironment.registerPool(pool);
+
+    Creature creature = this.testEnvironment.acquire(Creature.class);
+    creature.setMapId(1);
+    creature.getAttributes().getHealth().modifyBaseValue(new AttributeModifier<>(Modification.SET, 0));
+    this.testEnvironment.add(creature);
+
+    this.testEnvironment.release(creature);
+
+    assertNull(this.testEnvironment.get(1));
+    assertEquals(1, pool.getAvailable());
+    assertEquals(0, creature.getMapId());
+    assertEquals(creature.getAttributes().getHealth().getMaxValue(), creature.getAttributes().getHealth().getCurrentValue());
+
+    // entities that are not part of the environment are not returned to the
+    // pool again
+    this.testEnvironment.release(creature);
+    assertEquals(1, pool.getAvailable());
+
+    assertEquals(creature, this.testEnvironment.acquire(Creature.class));
+    assertEquals(0, pool.getAvailable());
+    assertNull(this.testEnvironment.acquire(Prop.class));
+  }
+
+  @Test
+  public void testPrepareEnvironment() throws Exception {
+    IMap map = TestMaps.createMap();
+
+    EnvironmentPreparation preparation = EnvironmentPreparation.prepare(() -> new Environment(map));
+    IEnvironment preparedEnvironment = preparation.getFuture().get(5, TimeUnit.SECONDS);
+
+    assertEquals(preparation.getEnvironment(), preparedEnvironment);
+    assertEquals(1, preparation.getProgress(), 0.0001);
+    assertTrue(preparation.isDone());
+    assertNotNull(preparedEnvironment.getAmbientLight());
+    assertFalse(preparedEnvironment.isLoaded());
+
+    EnvironmentPreparation failedPreparation = EnvironmentPreparation.prepare(() -> {
+      throw new IllegalArgumentException();
+    });
+
+    assertThrows(ExecutionException.class, () -> failedPreparation.getFuture().get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testFindEntities() {
+    Creature creature1 = new Creature();
+    creature1.setMapId(1);
+    creature1.setSize(16, 16);
+    creature1.setLocation(10, 10);
+
+    Creature creature2 = new Creature();
+    creature2.setMapId(2);
+    creature2.setSize(16, 16);
+    creature2.setLocation(500, 500);
+
+    this.testEnvironment.add(creature1);
+    this.testEnvironment.add(creature2);
+
+    Rectangle2D area = new Rectangle2D.Double(0, 0, 50, 50);
+    assertEquals(1, this.testEnvironment.findCombatEntities(area).size());
+    assertTrue(this.testEnvironment.findEntities(area).contains(creature1));
+    assertEquals(1, this.testEnvironment.findEntities(new Ellipse2D.Double(490, 490, 40, 40)).size());
+
+    // the spatial index is updated when entities move
+    creature2.setLocation(20, 20);
+    assertEquals(2, this.testEnvironment.findCombatEntities(area).size());
+    assertEquals(0, this.testEnvironment.findEntities(new Ellipse2D.Double(490, 490, 40, 40)).size());
+
+    List<ICombatEntity> result = new ArrayList<>();
+    this.testEnvironment.findCombatEntities(area, entity -> entity.getMapId() == 2, result);
+    assertEquals(1, result.size());
+    assertEquals(creature2, result.get(0));
+
+    this.testEnvironment.remove(creature1);
+    assertEquals(1, this.testEnvironment.findCombatEntities(area).size());
+  }
 }
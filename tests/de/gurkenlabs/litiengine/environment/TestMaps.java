@@ -0,0 +1,29 @@
+package de.gurkenlabs.litiengine.environment;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+
+/**
+ * Provides mocked maps for the tests that need an {@link Environment} but no
+ * content of a map.
+ */
+public final class TestMaps {
+  private TestMaps() {
+  }
+
+  /**
+   * Creates a mocked map of 100x100 pixels and 10x10 tiles.
+   *
+   * @return The mocked map.
+   */
+  public static IMap createMap() {
+    IMap map = mock(IMap.class);
+    when(map.getSizeInPixels()).thenReturn(new Dimension(100, 100));
+    when(map.getSizeInTiles()).thenReturn(new Dimension(10, 10));
+    return map;
+  }
+}
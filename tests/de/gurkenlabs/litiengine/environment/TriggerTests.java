@@ -1,5 +1,6 @@
 package de.gurkenlabs.litiengine.environment;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -8,14 +9,27 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Creature;
 import de.gurkenlabs.litiengine.entities.IEntity;
 import de.gurkenlabs.litiengine.entities.Trigger;
 import de.gurkenlabs.litiengine.entities.Trigger.TriggerActivation;
+import de.gurkenlabs.litiengine.entities.TriggerSystem;
 
 public class TriggerTests {
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
   @Test
   public void testInteractTrigger() {
     Trigger trigger = new Trigger(TriggerActivation.INTERACT, "testrigger", "testmessage");
@@ -39,4 +53,47 @@ public class TriggerTests {
     assertTrue(trigger.isActivated());
     verify(target, times(1)).sendMessage(trigger, trigger.getMessage());
   }
+
+  @Test
+  public void testCollisionTrigger() {
+    Trigger trigger = new Trigger(TriggerActivation.COLLISION, "testrigger", "testmessage");
+    trigger.setMapId(1);
+    trigger.setSize(16, 16);
+    trigger.setLocation(0, 0);
+
+    Creature creature = new Creature();
+    creature.setMapId(2);
+    creature.setSize(16, 16);
+    creature.setLocation(100, 100);
+
+    IEnvironment env = mock(IEnvironment.class);
+    Game.loadEnvironment(env);
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+    Game.getPhysicsEngine().add(creature);
+
+    List<IEntity> activated = new ArrayList<>();
+    List<IEntity> deactivated = new ArrayList<>();
+    trigger.onActivated(e -> activated.add(e.getEntity()));
+    trigger.onDeactivated(e -> deactivated.add(e.getEntity()));
+
+    TriggerSystem triggerSystem = new TriggerSystem();
+    triggerSystem.add(trigger);
+    triggerSystem.update();
+    assertEquals(0, activated.size());
+
+    // entering the trigger activates it only once
+    creature.setLocation(4, 4);
+    triggerSystem.update();
+    triggerSystem.update();
+    assertEquals(1, activated.size());
+    assertEquals(creature, activated.get(0));
+    assertEquals(0, deactivated.size());
+
+    creature.setLocation(100, 100);
+    triggerSystem.update();
+    assertEquals(1, deactivated.size());
+    assertEquals(creature, deactivated.get(0));
+
+    Game.getPhysicsEngine().remove(creature);
+  }
 }
@@ -0,0 +1,110 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.graphics.particles.OvalParticle;
+import de.gurkenlabs.litiengine.graphics.particles.Particle;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleAtlas.ParticleShape;
+import de.gurkenlabs.litiengine.graphics.particles.RectangleFillParticle;
+
+public class ParticleAtlasTests {
+  private BufferedImage target;
+  private Graphics2D graphics;
+
+  @BeforeEach
+  public void initAtlas() {
+    ParticleAtlas.DEFAULT.clear();
+    ParticleAtlas.DEFAULT.setEnabled(true);
+    this.target = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    this.graphics = this.target.createGraphics();
+  }
+
+  @AfterEach
+  public void clearAtlas() {
+    this.graphics.dispose();
+    ParticleAtlas.DEFAULT.clear();
+    ParticleAtlas.DEFAULT.setEnabled(true);
+  }
+
+  @Test
+  public void testShapesAreRasterizedOnce() {
+    Particle particle = new RectangleFillParticle(10, 10, Color.RED, 0);
+
+    assertTrue(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, particle, new Point2D.Double(20, 20)));
+    assertTrue(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, particle, new Point2D.Double(60, 60)));
+
+    assertEquals(1, ParticleAtlas.DEFAULT.size());
+    assertEquals(1, ParticleAtlas.DEFAULT.getPageCount());
+
+    // both particles are blitted from the same region
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(25, 25));
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(65, 65));
+    assertEquals(0, this.target.getRGB(5, 5));
+  }
+
+  @Test
+  public void testRegionsAreCachedPerShapeSizeAndColor() {
+    ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(10, 10, Color.RED, 0), new Point2D.Double(0, 0));
+    ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(10, 10, Color.BLUE, 0), new Point2D.Double(0, 0));
+    ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(12, 10, Color.RED, 0), new Point2D.Double(0, 0));
+    ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.OVAL, new OvalParticle(10, 10, Color.RED, 0), new Point2D.Double(0, 0));
+    assertEquals(4, ParticleAtlas.DEFAULT.size());
+
+    // the alpha of the color is applied when blitting, so it doesn't need a
+    // region of its own
+    ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(10, 10, new Color(255, 0, 0, 100), 0), new Point2D.Double(0, 0));
+    assertEquals(4, ParticleAtlas.DEFAULT.size());
+
+    ParticleAtlas.DEFAULT.clear();
+    assertEquals(0, ParticleAtlas.DEFAULT.size());
+    assertEquals(0, ParticleAtlas.DEFAULT.getPageCount());
+  }
+
+  @Test
+  public void testShapesAreRasterizedAtTheRenderScale() {
+    Particle particle = new RectangleFillParticle(10, 10, Color.RED, 0);
+    this.graphics.scale(2, 2);
+
+    assertTrue(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, particle, new Point2D.Double(10, 10)));
+    assertEquals(2, this.graphics.getTransform().getScaleX(), 0.0001);
+
+    // the region covers 20x20 device pixels and isn't stretched from 10x10
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(20, 20));
+    assertEquals(Color.RED.getRGB(), this.target.getRGB(39, 39));
+    assertEquals(0, this.target.getRGB(19, 19));
+    assertEquals(0, this.target.getRGB(40, 40));
+
+    // every render scale has a region of its own
+    this.graphics.scale(0.5, 0.5);
+    assertTrue(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, particle, new Point2D.Double(60, 60)));
+    assertEquals(2, ParticleAtlas.DEFAULT.size());
+  }
+
+  @Test
+  public void testUnsupportedParticlesAreNotCached() {
+    Particle large = new RectangleFillParticle(ParticleAtlas.MAX_SHAPE_SIZE + 1, 10, Color.RED, 0);
+    assertFalse(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, large, new Point2D.Double(0, 0)));
+
+    // scales in between the steps of the atlas are rendered directly
+    this.graphics.scale(1.1, 1.1);
+    assertFalse(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(10, 10, Color.RED, 0), new Point2D.Double(0, 0)));
+    this.graphics.scale(1 / 1.1, 1 / 1.1);
+
+    ParticleAtlas.DEFAULT.setEnabled(false);
+    assertFalse(ParticleAtlas.DEFAULT.render(this.graphics, ParticleShape.RECTANGLE, new RectangleFillParticle(10, 10, Color.RED, 0), new Point2D.Double(0, 0)));
+
+    assertEquals(0, ParticleAtlas.DEFAULT.size());
+  }
+}
@@ -0,0 +1,197 @@
+package de.gurkenlabs.litiengine.graphics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.IGameLoop;
+import de.gurkenlabs.litiengine.graphics.particles.CullingMode;
+import de.gurkenlabs.litiengine.graphics.particles.Emitter;
+import de.gurkenlabs.litiengine.graphics.particles.Particle;
+import de.gurkenlabs.litiengine.graphics.particles.ParticleSystem;
+import de.gurkenlabs.litiengine.graphics.particles.RectangleFillParticle;
+import de.gurkenlabs.litiengine.physics.CollisionType;
+
+public class ParticleSystemTests {
+  private static final int UPDATE_RATE = 60;
+
+  private final AtomicLong ticks = new AtomicLong();
+  private GameContext context;
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @BeforeEach
+  public void initContext() {
+    IGameLoop loop = mock(IGameLoop.class);
+    when(loop.getUpdateRate()).thenReturn(UPDATE_RATE);
+    when(loop.getTicks()).thenAnswer(invocation -> this.ticks.get());
+    when(loop.getDeltaTime(anyLong())).thenAnswer(invocation -> (this.ticks.get() - (long) invocation.getArgument(0)) * 1000 / UPDATE_RATE);
+
+    ICamera camera = mock(ICamera.class);
+    when(camera.getViewPort()).thenReturn(new Rectangle2D.Double(0, 0, 100, 100));
+
+    this.context = new GameContext("particles", loop);
+    this.context.setCamera(camera);
+  }
+
+  @Test
+  public void testCullingModes() {
+    Emitter none = this.activate(new TestEmitter(CullingMode.NONE));
+    Emitter freeze = this.activate(new TestEmitter(CullingMode.FREEZE));
+    Emitter fastForward = this.activate(new TestEmitter(CullingMode.FAST_FORWARD));
+
+    // the particles are spawned with the first tick and move by one pixel per
+    // tick afterwards
+    this.tick(3);
+    assertEquals(3, this.getParticleSystem().getVisibleEmitters());
+    assertEquals(2, getParticle(none).getX(), 0.0001);
+    assertEquals(2, getParticle(freeze).getX(), 0.0001);
+    assertEquals(2, getParticle(fastForward).getX(), 0.0001);
+
+    this.moveAll(1000, 1000, none, freeze, fastForward);
+    this.tick(5);
+    assertEquals(0, this.getParticleSystem().getVisibleEmitters());
+    assertEquals(3, this.getParticleSystem().getCulledEmitters());
+    assertTrue(freeze.isCulled());
+    assertEquals(7, getParticle(none).getX(), 0.0001);
+    assertEquals(2, getParticle(freeze).getX(), 0.0001);
+    assertEquals(2, getParticle(fastForward).getX(), 0.0001);
+
+    // frozen emitters continue where they stopped while fast forwarded
+    // emitters catch up on the culled ticks
+    this.moveAll(10, 10, none, freeze, fastForward);
+    this.tick(1);
+    assertFalse(freeze.isCulled());
+    assertEquals(8, getParticle(none).getX(), 0.0001);
+    assertEquals(3, getParticle(freeze).getX(), 0.0001);
+    assertEquals(8, getParticle(fastForward).getX(), 0.0001);
+  }
+
+  @Test
+  public void testCulledEmittersReachTheirTimeToLive() {
+    this.getParticleSystem().setLodDistance(1);
+    this.getParticleSystem().setMaxUpdateInterval(100);
+
+    Emitter freeze = new TestEmitter(CullingMode.FREEZE);
+    Emitter reduced = new TestEmitter(CullingMode.REDUCED);
+    AtomicBoolean freezeFinished = new AtomicBoolean();
+    AtomicBoolean reducedFinished = new AtomicBoolean();
+    freeze.onFinished(e -> freezeFinished.set(true));
+    reduced.onFinished(e -> reducedFinished.set(true));
+    this.moveAll(1000, 1000, freeze, reduced);
+    freeze.setTimeToLive(100);
+    reduced.setTimeToLive(100);
+    this.activate(freeze);
+    this.activate(reduced);
+
+    this.tick(8);
+    assertTrue(freezeFinished.get());
+    assertTrue(reducedFinished.get());
+    assertTrue(this.getParticleSystem().getEmitters().isEmpty());
+  }
+
+  @Test
+  public void testPausedEmittersDontCatchUp() {
+    Emitter emitter = this.activate(new TestEmitter(CullingMode.FAST_FORWARD));
+    this.tick(3);
+    assertEquals(2, getParticle(emitter).getX(), 0.0001);
+
+    emitter.setPaused(true);
+    this.tick(5);
+    assertEquals(2, getParticle(emitter).getX(), 0.0001);
+
+    emitter.setPaused(false);
+    this.tick(1);
+    assertEquals(3, getParticle(emitter).getX(), 0.0001);
+  }
+
+  @Test
+  public void testStoppedParticlesMoveOnOnceTheirWayIsFree() {
+    Rectangle2D obstacle = new Rectangle2D.Double(20, 0, 4, 20);
+    this.context.getPhysicsEngine().setBounds(new Rectangle2D.Double(0, 0, 100, 100));
+    this.context.getPhysicsEngine().add(obstacle);
+    try {
+      Emitter emitter = this.activate(new TestEmitter(CullingMode.NONE));
+      this.tick(1);
+      getParticle(emitter).setCollisionType(CollisionType.STATIC);
+
+      // the particle is blocked as soon as it reaches the grid cell of the
+      // obstacle
+      this.tick(10);
+      assertEquals(8, getParticle(emitter).getX(), 0.0001);
+      assertEquals(1, getParticle(emitter).getDx(), 0.0001);
+
+      this.context.getPhysicsEngine().remove(obstacle);
+      this.tick(1);
+      assertEquals(9, getParticle(emitter).getX(), 0.0001);
+    } finally {
+      this.context.getPhysicsEngine().clear();
+    }
+  }
+
+  private Emitter activate(final Emitter emitter) {
+    this.context.execute(emitter::activate);
+    return emitter;
+  }
+
+  private ParticleSystem getParticleSystem() {
+    return this.context.getParticleSystem();
+  }
+
+  private void moveAll(final double x, final double y, final Emitter... emitters) {
+    for (Emitter emitter : emitters) {
+      emitter.setLocation(x, y);
+    }
+  }
+
+  private void tick(final int count) {
+    for (int i = 0; i < count; i++) {
+      this.ticks.incrementAndGet();
+      this.context.execute(this.getParticleSystem()::update);
+    }
+  }
+
+  private static Particle getParticle(final Emitter emitter) {
+    assertEquals(1, emitter.getParticles().size());
+    return emitter.getParticles().get(0);
+  }
+
+  private static class TestEmitter extends Emitter {
+    private TestEmitter(final CullingMode cullingMode) {
+      super(10, 10);
+      this.setSize(10, 10);
+      this.setCullingMode(cullingMode);
+      this.setMaxParticles(1);
+      this.setParticleUpdateRate(UPDATE_RATE);
+    }
+
+    @Override
+    protected Particle createNewParticle() {
+      return new RectangleFillParticle(1, 1, Color.WHITE, 0).setDeltaX(1);
+    }
+  }
+}
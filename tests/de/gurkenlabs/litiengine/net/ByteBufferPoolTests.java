@@ -0,0 +1,59 @@
+package de.gurkenlabs.litiengine.net;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+public class ByteBufferPoolTests {
+
+  @Test
+  public void testReleasedBuffersAreReused() {
+    ByteBufferPool pool = new ByteBufferPool(8);
+    ByteBuffer buffer = pool.acquire();
+    assertTrue(buffer.isDirect());
+    assertEquals(8, buffer.capacity());
+
+    buffer.put((byte) 1).put((byte) 2);
+    buffer.flip();
+    pool.release(buffer);
+    assertEquals(1, pool.getAvailable());
+
+    // the reused buffer is cleared
+    ByteBuffer reused = pool.acquire();
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(8, reused.limit());
+    assertEquals(0, pool.getAvailable());
+  }
+
+  @Test
+  public void testPoolKeepsAtMostItsMaxSize() {
+    ByteBufferPool pool = new ByteBufferPool(8, 2);
+    ByteBuffer first = pool.acquire();
+    ByteBuffer second = pool.acquire();
+    ByteBuffer third = pool.acquire();
+    assertNotSame(first, second);
+
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+    assertEquals(2, pool.getAvailable());
+  }
+
+  @Test
+  public void testForeignBuffersAreNotPooled() {
+    ByteBufferPool pool = new ByteBufferPool(8);
+    pool.release(null);
+    pool.release(ByteBuffer.allocate(8));
+    pool.release(ByteBuffer.allocateDirect(16));
+    assertEquals(0, pool.getAvailable());
+
+    assertThrows(IllegalArgumentException.class, () -> new ByteBufferPool(0));
+  }
+}
@@ -0,0 +1,133 @@
+package de.gurkenlabs.litiengine.net;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.net.messages.MessagePackage;
+import de.gurkenlabs.litiengine.net.messages.MessageType;
+
+public class NioPacketTests {
+  private static final int PACKETS = 20;
+
+  @Test
+  public void testSentPacketsAreReceivedOverLoopback() throws IOException, InterruptedException {
+    NioPacketReceiver receiver = new NioPacketReceiver(0);
+    NioPacketSender sender = new NioPacketSender();
+    try {
+      List<byte[]> arrays = Collections.synchronizedList(new ArrayList<>());
+      List<byte[]> buffers = Collections.synchronizedList(new ArrayList<>());
+      CountDownLatch latch = new CountDownLatch(PACKETS * 2);
+      receiver.registerForIncomingPackets((data, address, port) -> {
+        arrays.add(data);
+        latch.countDown();
+      });
+      receiver.registerForIncomingBuffers((data, address, port) -> {
+        byte[] copy = new byte[data.remaining()];
+        data.get(copy);
+        buffers.add(copy);
+        latch.countDown();
+      });
+      receiver.start();
+
+      for (int i = 0; i < PACKETS; i++) {
+        assertTrue(sender.sendData(createData(i), InetAddress.getLoopbackAddress(), getPort(receiver.getChannel())));
+      }
+
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertEquals(0, sender.getDroppedDatagrams());
+
+      // every datagram is received with its exact length
+      arrays.sort(Comparator.comparingInt(data -> data.length));
+      buffers.sort(Comparator.comparingInt(data -> data.length));
+      for (int i = 0; i < PACKETS; i++) {
+        assertArrayEquals(createData(i), arrays.get(i));
+        assertArrayEquals(createData(i), buffers.get(i));
+      }
+    } finally {
+      receiver.terminate();
+      sender.getChannel().close();
+    }
+  }
+
+  @Test
+  public void testSenderReusesItsBuffers() throws IOException {
+    ByteBufferPool pool = new ByteBufferPool(16);
+    NioPacketSender sender = new NioPacketSender(DatagramChannel.open(), pool);
+    DatagramChannel target = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    try {
+      assertTrue(sender.sendData(new byte[] { 1, 2, 3 }, InetAddress.getLoopbackAddress(), getPort(target)));
+      assertTrue(sender.sendData(new byte[] { 4, 5, 6 }, InetAddress.getLoopbackAddress(), getPort(target)));
+      assertEquals(1, pool.getAvailable());
+
+      // data that doesn't fit into a pooled buffer is dropped
+      assertFalse(sender.sendData(new byte[17], InetAddress.getLoopbackAddress(), getPort(target)));
+      assertEquals(1, sender.getDroppedDatagrams());
+
+      ByteBuffer received = ByteBuffer.allocate(16);
+      target.receive(received);
+      received.flip();
+      assertEquals(3, received.remaining());
+      assertEquals(1, received.get());
+    } finally {
+      sender.getChannel().close();
+      target.close();
+    }
+  }
+
+  @Test
+  public void testOnlyMessagesAreAccountedPerType() throws IOException {
+    NioPacketSender sender = new NioPacketSender();
+    DatagramChannel target = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    try {
+      long invalid = Game.getMetrics().getMessageMetrics(MessageType.INVALID).getSentPackets();
+      long pings = Game.getMetrics().getMessageMetrics(MessageType.PING).getSentPackets();
+
+      // a package that isn't a message, like the datagrams of the channels
+      sender.sendData(new RawPackage(new byte[] { 3, 1, 2 }), InetAddress.getLoopbackAddress(), getPort(target));
+      sender.sendData(new MessagePackage<>(MessageType.PING, "ping"), InetAddress.getLoopbackAddress(), getPort(target));
+
+      assertEquals(invalid, Game.getMetrics().getMessageMetrics(MessageType.INVALID).getSentPackets());
+      assertEquals(pings + 1, Game.getMetrics().getMessageMetrics(MessageType.PING).getSentPackets());
+    } finally {
+      sender.getChannel().close();
+      target.close();
+    }
+  }
+
+  private static byte[] createData(final int index) {
+    byte[] data = new byte[index * 10 + 1];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (index + i);
+    }
+
+    return data;
+  }
+
+  private static int getPort(final DatagramChannel channel) throws IOException {
+    return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+  }
+
+  private static class RawPackage extends Package {
+    private RawPackage(final byte[] data) {
+      super(data);
+      this.setData(data);
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package de.gurkenlabs.litiengine.net.channels;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.net.IPacketSender;
+import de.gurkenlabs.litiengine.net.NioPacketReceiver;
+import de.gurkenlabs.litiengine.net.NioPacketSender;
+import de.gurkenlabs.litiengine.net.Package;
+
+public class ChannelTests {
+  private static final int RELIABLE = 0;
+  private static final int SEQUENCED = 1;
+  private static final int UNRELIABLE = 2;
+
+  @Test
+  public void testReliableMessagesArriveInOrderOverLossyLoopback() throws IOException, InterruptedException {
+    NioPacketReceiver receiverA = new NioPacketReceiver(0);
+    NioPacketReceiver receiverB = new NioPacketReceiver(0);
+    try {
+      // both directions lose a quarter of the datagrams
+      ChannelEndpoint a = createEndpoint(new LossySender(new NioPacketSender(receiverA.getChannel()), 0.25, 1), receiverA);
+      ChannelEndpoint b = createEndpoint(new LossySender(new NioPacketSender(receiverB.getChannel()), 0.25, 2), receiverB);
+      List<byte[]> received = Collections.synchronizedList(new ArrayList<>());
+      b.onMessageReceived((connection, channel, message) -> {
+        if (channel == RELIABLE) {
+          received.add(message);
+        }
+      });
+
+      receiverA.start();
+      receiverB.start();
+
+      InetAddress loopback = InetAddress.getLoopbackAddress();
+      int portB = ((InetSocketAddress) receiverB.getChannel().getLocalAddress()).getPort();
+      List<byte[]> sent = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        // every tenth message has to be fragmented
+        byte[] message = new byte[i % 10 == 0 ? 5000 : 20];
+        new Random(i).nextBytes(message);
+        message[0] = (byte) i;
+        sent.add(message);
+        a.send(loopback, portB, RELIABLE, message);
+      }
+
+      for (int i = 0; i < 1000 && received.size() < sent.size(); i++) {
+        a.update();
+        b.update();
+        Thread.sleep(5);
+      }
+
+      assertEquals(sent.size(), received.size());
+      for (int i = 0; i < sent.size(); i++) {
+        assertArrayEquals(sent.get(i), received.get(i));
+      }
+
+      ChannelConnection connection = a.getConnection(loopback, portB);
+      assertTrue(connection.getResentMessages() > 0);
+      assertTrue(connection.getRoundTripTime() >= 0);
+    } finally {
+      receiverA.terminate();
+      receiverB.terminate();
+    }
+  }
+
+  @Test
+  public void testMessagesAreCoalescedPerTick() {
+    List<byte[]> datagrams = new ArrayList<>();
+    ChannelEndpoint a = createEndpoint(new TestSender(datagrams::add), null);
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+
+    for (int i = 0; i < 10; i++) {
+      a.send(loopback, 1000, UNRELIABLE, new byte[] { (byte) i });
+      a.send(loopback, 1000, RELIABLE, new byte[] { (byte) i });
+    }
+
+    assertTrue(datagrams.isEmpty());
+    a.update();
+    assertEquals(1, datagrams.size());
+
+    // nothing to send and nothing to acknowledge
+    a.update();
+    assertEquals(1, datagrams.size());
+  }
+
+  @Test
+  public void testLargeMessagesAreFragmented() {
+    List<byte[]> datagrams = new ArrayList<>();
+    ChannelEndpoint a = createEndpoint(new TestSender(datagrams::add), null);
+    ChannelEndpoint b = createEndpoint(new TestSender(data -> {
+    }), null);
+    List<byte[]> received = new ArrayList<>();
+    b.onMessageReceived((connection, channel, message) -> received.add(message));
+
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    byte[] message = new byte[10000];
+    new Random(1).nextBytes(message);
+    a.send(loopback, 1000, UNRELIABLE, message);
+    a.update();
+
+    assertTrue(datagrams.size() > 1);
+    Collections.reverse(datagrams);
+    for (byte[] datagram : datagrams) {
+      assertTrue(datagram.length <= a.getMaxPacketSize());
+      b.packetReceived(datagram, loopback, 2000);
+    }
+
+    assertEquals(1, received.size());
+    assertArrayEquals(message, received.get(0));
+  }
+
+  @Test
+  public void testSequencedChannelDropsOutdatedMessages() {
+    List<byte[]> datagrams = new ArrayList<>();
+    ChannelEndpoint a = createEndpoint(new TestSender(datagrams::add), null);
+    ChannelEndpoint b = createEndpoint(new TestSender(data -> {
+    }), null);
+    List<Byte> received = new ArrayList<>();
+    b.onMessageReceived((connection, channel, message) -> received.add(message[0]));
+
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    for (int i = 0; i < 3; i++) {
+      a.send(loopback, 1000, SEQUENCED, new byte[] { (byte) i });
+      a.update();
+    }
+
+    b.packetReceived(datagrams.get(1), loopback, 2000);
+    b.packetReceived(datagrams.get(0), loopback, 2000);
+    b.packetReceived(datagrams.get(2), loopback, 2000);
+    b.packetReceived(datagrams.get(2), loopback, 2000);
+
+    assertEquals(2, received.size());
+    assertEquals(1, received.get(0).byteValue());
+    assertEquals(2, received.get(1).byteValue());
+  }
+
+  @Test
+  public void testDatagramsWithoutMessagesAreNotAcknowledged() {
+    List<byte[]> sentByA = new ArrayList<>();
+    List<byte[]> sentByB = new ArrayList<>();
+    ChannelEndpoint a = createEndpoint(new TestSender(sentByA::add), null);
+    ChannelEndpoint b = createEndpoint(new TestSender(sentByB::add), null);
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+
+    a.send(loopback, 2000, UNRELIABLE, new byte[] { 1 });
+    a.update();
+    b.packetReceived(sentByA.get(0), loopback, 1000);
+
+    // the message is acknowledged by a datagram without messages
+    b.update();
+    assertEquals(1, sentByB.size());
+    a.packetReceived(sentByB.get(0), loopback, 2000);
+
+    // which isn't acknowledged in turn
+    a.update();
+    b.update();
+    assertEquals(1, sentByA.size());
+    assertEquals(1, sentByB.size());
+  }
+
+  @Test
+  public void testReliableQueueIsLimited() {
+    ChannelEndpoint a = createEndpoint(new TestSender(data -> {
+    }), null);
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+
+    for (int i = 0; i < ChannelConnection.MAX_PENDING_RELIABLE_MESSAGES; i++) {
+      assertTrue(a.send(loopback, 1000, RELIABLE, new byte[] { (byte) i }));
+    }
+
+    assertFalse(a.send(loopback, 1000, RELIABLE, new byte[] { 0 }));
+    assertTrue(a.send(loopback, 1000, UNRELIABLE, new byte[] { 0 }));
+    assertEquals(ChannelConnection.MAX_PENDING_RELIABLE_MESSAGES, a.getConnection(loopback, 1000).getPendingReliableMessages());
+  }
+
+  @Test
+  public void testIdleConnectionsAreRemoved() throws InterruptedException {
+    List<byte[]> datagrams = new ArrayList<>();
+    ChannelEndpoint a = createEndpoint(new TestSender(datagrams::add), null);
+    ChannelEndpoint b = createEndpoint(new TestSender(data -> {
+    }), null);
+    List<ChannelConnection> timedOut = new ArrayList<>();
+    b.onConnectionTimedOut(timedOut::add);
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+
+    // a datagram with an invalid message doesn't leave a connection behind
+    a.send(loopback, 2000, UNRELIABLE, new byte[] { 1 });
+    a.update();
+    byte[] invalid = Arrays.copyOf(datagrams.get(0), datagrams.get(0).length - 1);
+    b.packetReceived(invalid, loopback, 1000);
+    assertTrue(b.getConnections().isEmpty());
+
+    b.packetReceived(datagrams.get(0), loopback, 1000);
+    assertEquals(1, b.getConnections().size());
+    ChannelConnection connection = b.getConnections().iterator().next();
+
+    b.setTimeout(10);
+    Thread.sleep(20);
+    b.update();
+    assertTrue(b.getConnections().isEmpty());
+    assertEquals(1, timedOut.size());
+    assertSame(connection, timedOut.get(0));
+  }
+
+  private static ChannelEndpoint createEndpoint(final IPacketSender sender, final NioPacketReceiver receiver) {
+    ChannelEndpoint endpoint = receiver != null ? new ChannelEndpoint(sender, receiver) : new ChannelEndpoint(sender);
+    endpoint.registerChannel(RELIABLE, DeliveryMode.RELIABLE_ORDERED);
+    endpoint.registerChannel(SEQUENCED, DeliveryMode.UNRELIABLE_SEQUENCED);
+    endpoint.registerChannel(UNRELIABLE, DeliveryMode.UNRELIABLE);
+    return endpoint;
+  }
+
+  private static class LossySender implements IPacketSender {
+    private final IPacketSender sender;
+    private final double loss;
+    private final Random random;
+
+    private LossySender(final IPacketSender sender, final double loss, final long seed) {
+      this.sender = sender;
+      this.loss = loss;
+      this.random = new Random(seed);
+    }
+
+    @Override
+    public void sendData(final Package packet, final InetAddress ipAddress, final int port) {
+      if (this.random.nextDouble() >= this.loss) {
+        this.sender.sendData(packet, ipAddress, port);
+      }
+    }
+
+    @Override
+    public void sendData(final Package packet, final String ipAddress, final int port) {
+      if (this.random.nextDouble() >= this.loss) {
+        this.sender.sendData(packet, ipAddress, port);
+      }
+    }
+  }
+
+  private static class TestSender implements IPacketSender {
+    private final Consumer<byte[]> receiver;
+
+    private TestSender(final Consumer<byte[]> receiver) {
+      this.receiver = receiver;
+    }
+
+    @Override
+    public void sendData(final Package packet, final InetAddress ipAddress, final int port) {
+      this.receiver.accept(packet.getData());
+    }
+
+    @Override
+    public void sendData(final Package packet, final String ipAddress, final int port) {
+      this.receiver.accept(packet.getData());
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+/**
+ * A standalone benchmark that compares the round trip of a
+ * {@link ClientMessage} through Java serialization with the round trip through
+ * a registered {@link IMessageCodec}.
+ *
+ * <p>
+ * This is not part of the test suite because its results depend on the
+ * machine. Run it with the test classpath and optionally pass the amount of
+ * round trips as argument.
+ * </p>
+ */
+public final class MessageCodecBenchmark {
+  private static final MessageType CLIENT = new MessageType("CODECBENCHMARK_CLIENT", (byte) 113);
+  private static final MessageType SERIALIZED = new MessageType("CODECBENCHMARK_SERIALIZED", (byte) 114);
+
+  private MessageCodecBenchmark() {
+  }
+
+  public static void main(final String[] args) {
+    final int iterations = args.length == 0 ? 20000 : Integer.parseInt(args[0]);
+    MessageCodecs.register(CLIENT, new IMessageCodec<ClientMessage>() {
+      @Override
+      public ClientMessage read(final MessageReader reader) {
+        return new ClientMessage(reader.readVarInt());
+      }
+
+      @Override
+      public void write(final ClientMessage message, final MessageWriter writer) {
+        writer.writeVarInt(message.getClientId());
+      }
+    });
+
+    final ClientMessage message = new ClientMessage(4711);
+    final int serializedSize = new MessagePackage<>(SERIALIZED, message).getData().length;
+    final int encodedSize = new MessagePackage<>(CLIENT, message).getData().length;
+
+    // warm up both paths before measuring
+    roundTrip(SERIALIZED, message, iterations / 10);
+    roundTrip(CLIENT, message, iterations / 10);
+
+    final long serializationTime = roundTrip(SERIALIZED, message, iterations);
+    final long codecTime = roundTrip(CLIENT, message, iterations);
+    System.out.println(String.format("%d round trips - serialization: %dms (%d bytes), codec: %dms (%d bytes)", iterations, serializationTime / 1000000, serializedSize, codecTime / 1000000, encodedSize));
+
+    MessageCodecs.unregister(CLIENT);
+  }
+
+  /**
+   * Measures the duration of the specified amount of round trips.
+   *
+   * @param type
+   *          The type that the message is sent as.
+   * @param message
+   *          The message to send.
+   * @param iterations
+   *          The amount of round trips.
+   * @return The duration of all round trips in nanoseconds.
+   */
+  private static long roundTrip(final MessageType type, final ClientMessage message, final int iterations) {
+    final long start = System.nanoTime();
+    int checksum = 0;
+    for (int i = 0; i < iterations; i++) {
+      final byte[] data = new MessagePackage<>(type, message).getData();
+      checksum += new MessagePackage<ClientMessage>(MessageCodecs.unwrap(data)).getObject().getClientId();
+    }
+
+    if (checksum != iterations * message.getClientId()) {
+      throw new IllegalStateException("The round trips changed the message.");
+    }
+
+    return System.nanoTime() - start;
+  }
+}
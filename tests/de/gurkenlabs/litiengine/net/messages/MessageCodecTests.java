@@ -0,0 +1,133 @@
+package de.gurkenlabs.litiengine.net.messages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class MessageCodecTests {
+  private static final MessageType CLIENT = new MessageType("CODECTEST_CLIENT", (byte) 110);
+  private static final MessageType TEXT = new MessageType("CODECTEST_TEXT", (byte) 111);
+  private static final MessageType SERIALIZED = new MessageType("CODECTEST_SERIALIZED", (byte) 112);
+
+  @BeforeAll
+  public static void registerCodecs() {
+    MessageCodecs.register(CLIENT, new IMessageCodec<ClientMessage>() {
+      @Override
+      public ClientMessage read(MessageReader reader) {
+        return new ClientMessage(reader.readVarInt());
+      }
+
+      @Override
+      public void write(ClientMessage message, MessageWriter writer) {
+        writer.writeVarInt(message.getClientId());
+      }
+    });
+
+    MessageCodecs.register(TEXT, new IMessageCodec<String>() {
+      @Override
+      public String read(MessageReader reader) {
+        return reader.readString();
+      }
+
+      @Override
+      public void write(String message, MessageWriter writer) {
+        writer.writeString(message);
+      }
+    });
+  }
+
+  @AfterAll
+  public static void unregisterCodecs() {
+    MessageCodecs.unregister(CLIENT);
+    MessageCodecs.unregister(TEXT);
+  }
+
+  @Test
+  public void testWriterAndReader() {
+    MessageWriter writer = new MessageWriter(16);
+    writer.writeVarInt(0).writeVarInt(127).writeVarInt(128).writeVarInt(Integer.MAX_VALUE).writeVarInt(-1);
+    writer.writeSignedVarInt(-1).writeSignedVarInt(Integer.MIN_VALUE).writeSignedVarLong(Long.MIN_VALUE).writeVarLong(Long.MAX_VALUE);
+    writer.writeBoolean(true).writeFloat(1.5f).writeDouble(-2.25).writeString("gurkenä").writeString(null);
+
+    MessageReader reader = new MessageReader(writer.toByteBuffer());
+    assertEquals(0, reader.readVarInt());
+    assertEquals(127, reader.readVarInt());
+    assertEquals(128, reader.readVarInt());
+    assertEquals(Integer.MAX_VALUE, reader.readVarInt());
+    assertEquals(-1, reader.readVarInt());
+    assertEquals(-1, reader.readSignedVarInt());
+    assertEquals(Integer.MIN_VALUE, reader.readSignedVarInt());
+    assertEquals(Long.MIN_VALUE, reader.readSignedVarLong());
+    assertEquals(Long.MAX_VALUE, reader.readVarLong());
+    assertTrue(reader.readBoolean());
+    assertEquals(1.5f, reader.readFloat());
+    assertEquals(-2.25, reader.readDouble());
+    assertEquals("gurkenä", reader.readString());
+    assertEquals("", reader.readString());
+    assertEquals(0, reader.getRemaining());
+  }
+
+  @Test
+  public void testMessagePackageUsesCodec() {
+    byte[] data = new MessagePackage<>(CLIENT, new ClientMessage(300)).getData();
+    assertTrue(MessageCodecs.isEncoded(data));
+    assertEquals(3, data.length);
+
+    // uncompressed frames are handled without a copy
+    assertSame(data, MessageCodecs.unwrap(data));
+    MessagePackage<ClientMessage> received = new MessagePackage<>(MessageCodecs.unwrap(data));
+    assertEquals(300, received.getObject().getClientId());
+  }
+
+  @Test
+  public void testFramingIdsAreReserved() {
+    IMessageCodec<?> codec = MessageCodecs.get(TEXT);
+    assertThrows(IllegalArgumentException.class, () -> MessageCodecs.register(new MessageType("CODECTEST_COMPRESSED", (byte) 2), codec));
+    assertThrows(IllegalArgumentException.class, () -> MessageCodecs.register(new MessageType("CODECTEST_CHANNEL", (byte) 3), codec));
+    assertThrows(IllegalArgumentException.class, () -> MessageCodecs.register(new MessageType("CODECTEST_ZLIB", (byte) 0x78), codec));
+  }
+
+  @Test
+  public void testMessagesWithoutCodecAreSerialized() {
+    byte[] data = new MessagePackage<>(SERIALIZED, new ClientMessage(300)).getData();
+    assertFalse(MessageCodecs.isEncoded(data));
+
+    MessagePackage<ClientMessage> received = new MessagePackage<>(MessageCodecs.unwrap(data));
+    assertEquals(300, received.getObject().getClientId());
+  }
+
+  @Test
+  public void testLargeMessagesAreCompressed() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      text.append("gurkenlabs ");
+    }
+
+    byte[] data = MessageCodecs.encode(TEXT, text.toString());
+    assertTrue(data.length < text.length() / 4);
+    assertEquals(text.toString(), MessageCodecs.decode(MessageCodecs.unwrap(data)));
+
+    // small messages are not compressed
+    byte[] small = MessageCodecs.encode(TEXT, "gurkenlabs");
+    assertEquals(12, small.length);
+    assertEquals("gurkenlabs", MessageCodecs.decode(MessageCodecs.unwrap(small)));
+  }
+
+  @Test
+  public void testEncodedMessagesAreSmallerThanSerializedMessages() {
+    ClientMessage message = new ClientMessage(4711);
+    byte[] serialized = new MessagePackage<>(SERIALIZED, message).getData();
+    byte[] encoded = new MessagePackage<>(CLIENT, message).getData();
+    assertEquals(3, encoded.length);
+    assertTrue(encoded.length * 10 <= serialized.length, "encoded: " + encoded.length + " bytes, serialized: " + serialized.length + " bytes");
+
+    assertEquals(4711, new MessagePackage<ClientMessage>(MessageCodecs.unwrap(serialized)).getObject().getClientId());
+    assertEquals(4711, new MessagePackage<ClientMessage>(MessageCodecs.unwrap(encoded)).getObject().getClientId());
+  }
+}
@@ -0,0 +1,148 @@
+package de.gurkenlabs.litiengine.net.prediction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.GameContext;
+import de.gurkenlabs.litiengine.IGameLoop;
+import de.gurkenlabs.litiengine.entities.Creature;
+
+public class PredictionTests {
+  private static final int UPDATE_RATE = 60;
+
+  private final AtomicLong ticks = new AtomicLong();
+  private IGameLoop loop;
+  private GameContext context;
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @BeforeEach
+  public void initLoop() {
+    this.loop = mock(IGameLoop.class);
+    when(this.loop.getUpdateRate()).thenReturn(UPDATE_RATE);
+    when(this.loop.getTicks()).thenAnswer(invocation -> this.ticks.get());
+
+    // the entities are moved by the physics engine of a context of their own,
+    // so they aren't blocked by what other tests left in the default context
+    this.context = new GameContext("prediction", this.loop);
+  }
+
+  @Test
+  public void testMatchingPredictionIsNotCorrected() {
+    this.context.execute(() -> {
+      Creature clientEntity = createCreature();
+      Creature serverEntity = createCreature();
+      PredictedMovementController<Creature> client = new PredictedMovementController<>(clientEntity, this.loop);
+      AuthoritativeMovementController<Creature> server = new AuthoritativeMovementController<>(serverEntity, this.loop);
+      client.onInput(server::receive);
+
+      client.setInput(1, 1);
+      for (int i = 0; i < 10; i++) {
+        this.ticks.incrementAndGet();
+        client.update();
+        server.update();
+      }
+
+      assertEquals(serverEntity.getX(), clientEntity.getX(), 0.0001);
+      assertEquals(serverEntity.getY(), clientEntity.getY(), 0.0001);
+
+      client.reconcile(server.getLastProcessedInputTick(), serverEntity.getX(), serverEntity.getY());
+      client.update();
+
+      assertEquals(0, client.getCorrections());
+      assertEquals(0, client.getReplayedInputs());
+      assertEquals(0, client.getPendingInputs());
+      assertEquals(0, client.getMaxCorrectionError(), 0.0001);
+    });
+  }
+
+  @Test
+  public void testMispredictionIsCorrectedByReplayingInputs() {
+    this.context.execute(() -> {
+      Creature clientEntity = createCreature();
+      Creature serverEntity = createCreature();
+      PredictedMovementController<Creature> client = new PredictedMovementController<>(clientEntity, this.loop);
+      AuthoritativeMovementController<Creature> server = new AuthoritativeMovementController<>(serverEntity, this.loop);
+
+      client.setInput(1, 0);
+      for (int i = 0; i < 10; i++) {
+        this.ticks.incrementAndGet();
+        client.update();
+      }
+
+      // the server processed half of the inputs and then pushed the entity
+      for (long tick = 1; tick <= 5; tick++) {
+        server.receive(new MovementInput(tick, 1, 0));
+      }
+
+      server.update();
+      server.update();
+      serverEntity.setLocation(serverEntity.getX(), serverEntity.getY() + 10);
+
+      client.reconcile(server.getLastProcessedInputTick(), serverEntity.getX(), serverEntity.getY());
+      client.update();
+
+      double step = clientEntity.getVelocity() / UPDATE_RATE;
+      assertEquals(5, server.getLastProcessedInputTick());
+      assertEquals(1, client.getCorrections());
+      assertEquals(5, client.getReplayedInputs());
+      assertEquals(5, client.getPendingInputs());
+      assertEquals(10, client.getLastCorrectionError(), 0.0001);
+      assertEquals(serverEntity.getX() + 5 * step, clientEntity.getX(), 0.0001);
+      assertEquals(serverEntity.getY(), clientEntity.getY(), 0.0001);
+
+      // outdated corrections are ignored
+      client.reconcile(3, 0, 0);
+      client.update();
+      assertEquals(1, client.getCorrections());
+    });
+  }
+
+  @Test
+  public void testRemoteEntitiesAreInterpolatedWithDelay() {
+    Creature entity = createCreature();
+    EntityInterpolator interpolator = new EntityInterpolator(this.loop);
+    interpolator.setDelay(2);
+
+    this.ticks.set(10);
+    interpolator.add(entity, 100, 0, 0, 350);
+    interpolator.add(entity, 104, 40, 20, 30);
+
+    // the latest server tick 104 arrived at local tick 10, so server tick 102 is
+    // rendered
+    interpolator.update();
+    assertEquals(20, entity.getX(), 0.0001);
+    assertEquals(10, entity.getY(), 0.0001);
+    assertEquals(10, entity.getAngle(), 0.0001);
+    assertEquals(1, interpolator.getInterpolatedUpdates());
+
+    this.ticks.set(13);
+    interpolator.update();
+    assertEquals(40, entity.getX(), 0.0001);
+    assertEquals(1, interpolator.getStarvedUpdates());
+  }
+
+  private static Creature createCreature() {
+    Creature creature = new Creature();
+    creature.setLocation(100, 100);
+    return creature;
+  }
+}
@@ -0,0 +1,247 @@
+package de.gurkenlabs.litiengine.net.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.Game;
+import de.gurkenlabs.litiengine.entities.Creature;
+import de.gurkenlabs.litiengine.environment.Environment;
+import de.gurkenlabs.litiengine.environment.IEnvironment;
+import de.gurkenlabs.litiengine.environment.tilemap.IMap;
+import de.gurkenlabs.litiengine.net.IPacketSender;
+import de.gurkenlabs.litiengine.net.Package;
+import de.gurkenlabs.litiengine.net.messages.MessageCodecs;
+import de.gurkenlabs.litiengine.net.server.ClientConnection;
+import de.gurkenlabs.litiengine.net.server.ClientConnectionManager;
+
+public class ReplicationTests {
+  private static final Rectangle2D INTEREST = new Rectangle2D.Double(0, 0, 200, 200);
+
+  private IEnvironment environment;
+  private ClientConnection connection;
+  private ReplicationServer server;
+  private ReplicationClient client;
+  private List<byte[]> datagrams;
+
+  @BeforeAll
+  public static void initGame() {
+    Game.init(Game.COMMADLINE_ARG_HEADLESS);
+  }
+
+  @AfterAll
+  public static void resetGame() {
+    // the headless mode is global, so it must not leak into other tests
+    Game.setHeadless(false);
+  }
+
+  @BeforeEach
+  public void initEnvironment() {
+    IMap map = mock(IMap.class);
+    when(map.getSizeInPixels()).thenReturn(new Dimension(10000, 10000));
+    when(map.getSizeInTiles()).thenReturn(new Dimension(1000, 1000));
+    this.environment = new Environment(map);
+  }
+
+  @Test
+  public void testBitWriterAndReader() {
+    BitWriter writer = new BitWriter(1);
+    writer.writeBoolean(true).writeBits(5, 3).writeVarInt(0).writeVarInt(1000).writeVarInt(-1);
+    writer.writeSignedVarInt(-3).writeSignedVarInt(Integer.MIN_VALUE).writeFloat(1.5f).writeString("gurkenä").writeString(null);
+    writer.writeBits(0, 8);
+    writer.setBits(writer.getPosition() - 8, 0xA5, 8);
+
+    BitReader reader = new BitReader(writer.toByteArray());
+    assertTrue(reader.readBoolean());
+    assertEquals(5, reader.readBits(3));
+    assertEquals(0, reader.readVarInt());
+    assertEquals(1000, reader.readVarInt());
+    assertEquals(-1, reader.readVarInt());
+    assertEquals(-3, reader.readSignedVarInt());
+    assertEquals(Integer.MIN_VALUE, reader.readSignedVarInt());
+    assertEquals(1.5f, reader.readFloat());
+    assertEquals("gurkenä", reader.readString());
+    assertNull(reader.readString());
+    assertEquals(0xA5, reader.readBits(8));
+    assertTrue(reader.getRemaining() < 8);
+  }
+
+  @Test
+  public void testOnlyChangesSinceTheAcknowledgedSnapshotAreSent() {
+    this.connect();
+    List<Creature> creatures = this.addCreatures(10, 10, 10, 15);
+
+    this.server.update();
+    Snapshot snapshot = this.client.getLatestSnapshot();
+    assertNotNull(snapshot);
+    assertEquals(10, snapshot.size());
+    assertEquals(1, this.server.getAcknowledgedTick(this.connection));
+    for (Creature creature : creatures) {
+      assertEquals(creature.getX(), snapshot.get(creature.getMapId()).getX(), 1.0 / EntityState.LOCATION_PRECISION);
+      assertEquals(creature.getY(), snapshot.get(creature.getMapId()).getY(), 1.0 / EntityState.LOCATION_PRECISION);
+    }
+
+    // nothing changed, so nothing is sent
+    this.datagrams.clear();
+    this.server.update();
+    assertTrue(this.datagrams.isEmpty());
+
+    creatures.get(3).setLocation(creatures.get(3).getX() + 2, creatures.get(3).getY());
+    this.server.update();
+    assertEquals(1, this.datagrams.size());
+    assertTrue(this.datagrams.get(0).length < 16);
+    assertEquals(creatures.get(3).getX(), this.client.getLatestSnapshot().get(creatures.get(3).getMapId()).getX(), 0.001);
+    assertEquals(3, this.server.getAcknowledgedTick(this.connection));
+
+    // entities that leave the area of interest are removed on the client
+    creatures.get(5).setLocation(5000, 5000);
+    this.server.update();
+    assertFalse(this.client.getLatestSnapshot().contains(creatures.get(5).getMapId()));
+    assertEquals(9, this.client.getLatestSnapshot().size());
+  }
+
+  @Test
+  public void testUnacknowledgedSnapshotsAreNotUsedAsBaseline() {
+    this.connect();
+    List<Creature> creatures = this.addCreatures(5, 10, 10, 20);
+    this.server.update();
+
+    // the client doesn't receive the next snapshots
+    ReplicationClient connected = this.client;
+    this.client = null;
+    creatures.get(0).setLocation(50, 50);
+    this.server.update();
+    creatures.get(1).setLocation(60, 60);
+    this.server.update();
+    assertEquals(1, this.server.getAcknowledgedTick(this.connection));
+
+    this.client = connected;
+    this.server.update();
+    Snapshot snapshot = this.client.getLatestSnapshot();
+    assertEquals(4, snapshot.getTick());
+    assertEquals(50, snapshot.get(creatures.get(0).getMapId()).getX(), 0.001);
+    assertEquals(60, snapshot.get(creatures.get(1).getMapId()).getX(), 0.001);
+  }
+
+  @Test
+  public void testSnapshotsAreSplitIntoPackets() {
+    this.connect();
+    this.server.setMaxPacketSize(200);
+    this.server.setMaxPacketsPerTick(2);
+    this.addCreatures(300, 0, 0, 1);
+
+    this.server.update();
+    assertEquals(2, this.datagrams.size());
+    for (byte[] datagram : this.datagrams) {
+      assertTrue(datagram.length <= 200);
+    }
+
+    int received = this.client.getLatestSnapshot().size();
+    assertTrue(received > 0 && received < 300);
+
+    // the remaining entities are sent on the next ticks
+    for (int i = 0; i < 300 && this.client.getLatestSnapshot().size() < 300; i++) {
+      this.server.update();
+    }
+
+    assertEquals(300, this.client.getLatestSnapshot().size());
+  }
+
+  @Test
+  public void testBandwidthDoesNotDependOnTheSizeOfTheWorld() {
+    this.connect();
+    List<Creature> creatures = this.addCreatures(20, 10, 10, 8);
+    this.server.update();
+
+    final int before = this.moveAndMeasure(creatures);
+
+    // a lot of entities outside of the area of interest
+    for (int i = 0; i < 2000; i++) {
+      Creature creature = new Creature();
+      creature.setMapId(10000 + i);
+      creature.setLocation(1000 + i % 100 * 50, 1000 + i / 100 * 50);
+      this.environment.add(creature);
+    }
+
+    assertEquals(before, this.moveAndMeasure(creatures));
+  }
+
+  private List<Creature> addCreatures(final int count, final double x, final double y, final double spacing) {
+    List<Creature> creatures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Creature creature = new Creature();
+      creature.setMapId(i + 1);
+      creature.setLocation(x + i % 10 * spacing, y + i / 10 * spacing);
+      this.environment.add(creature);
+      creatures.add(creature);
+    }
+
+    return creatures;
+  }
+
+  private void connect() {
+    this.connection = new ClientConnection(InetAddress.getLoopbackAddress(), 5000, "client");
+    ClientConnectionManager connections = new ClientConnectionManager(ClientConnectionManager.NO_TIMEOUT);
+    connections.add(this.connection);
+
+    this.datagrams = new ArrayList<>();
+    this.server = new ReplicationServer(this.environment, new TestSender(data -> {
+      this.datagrams.add(data);
+      if (this.client != null) {
+        this.client.handle(MessageCodecs.unwrap(data), InetAddress.getLoopbackAddress(), 1000);
+      }
+    }), connections);
+
+    this.client = new ReplicationClient(new TestSender(data -> this.server.handle(MessageCodecs.unwrap(data), this.connection.getIpAddress(), this.connection.getPort())), InetAddress.getLoopbackAddress(), 1000);
+    this.server.register(this.connection, () -> INTEREST);
+  }
+
+  private int moveAndMeasure(final List<Creature> creatures) {
+    for (Creature creature : creatures) {
+      creature.setLocation(creature.getX() + 1, creature.getY() + 0.5);
+    }
+
+    this.datagrams.clear();
+    this.server.update();
+    int bytes = 0;
+    for (byte[] datagram : this.datagrams) {
+      bytes += datagram.length;
+    }
+
+    return bytes;
+  }
+
+  private static class TestSender implements IPacketSender {
+    private final Consumer<byte[]> receiver;
+
+    private TestSender(final Consumer<byte[]> receiver) {
+      this.receiver = receiver;
+    }
+
+    @Override
+    public void sendData(final Package packet, final InetAddress ipAddress, final int port) {
+      this.receiver.accept(packet.getData());
+    }
+
+    @Override
+    public void sendData(final Package packet, final String ipAddress, final int port) {
+      this.receiver.accept(packet.getData());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package de.gurkenlabs.litiengine.net.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ClientConnectionManagerTests {
+
+  @Test
+  public void testConnectionsAreIndexed() {
+    ClientConnectionManager manager = new ClientConnectionManager(ClientConnectionManager.NO_TIMEOUT);
+    InetAddress address = InetAddress.getLoopbackAddress();
+    ClientConnection connection = new ClientConnection(address, 1000, "gurke");
+    ClientConnection sameEndpoint = new ClientConnection(address, 1000, "salat");
+
+    assertTrue(manager.add(connection));
+    assertFalse(manager.add(sameEndpoint));
+    assertEquals(1, manager.size());
+
+    assertSame(connection, manager.get(connection.getId()));
+    assertSame(connection, manager.get(address, 1000));
+    assertTrue(manager.isConnected(connection.getId(), address, 1000));
+    assertFalse(manager.isConnected(connection.getId(), address, 1001));
+    assertFalse(manager.isConnected(sameEndpoint.getId(), address, 1000));
+
+    assertSame(connection, manager.remove(connection.getId()));
+    assertNull(manager.get(address, 1000));
+    assertTrue(manager.add(sameEndpoint));
+  }
+
+  @Test
+  public void testConnectionsWithoutSignOfLifeTimeOut() throws InterruptedException {
+    ClientConnectionManager manager = new ClientConnectionManager(200);
+    List<ClientConnection> timedOut = Collections.synchronizedList(new ArrayList<>());
+    manager.onConnectionTimedOut(timedOut::add);
+
+    InetAddress address = InetAddress.getLoopbackAddress();
+    ClientConnection silent = new ClientConnection(address, 2000, "silent");
+    ClientConnection alive = new ClientConnection(address, 2001, "alive");
+    manager.add(silent);
+    manager.add(alive);
+
+    for (int i = 0; i < 60 && timedOut.isEmpty(); i++) {
+      manager.setSignOfLife(alive.getId());
+      Thread.sleep(20);
+    }
+
+    assertNull(manager.get(silent.getId()));
+    assertSame(alive, manager.get(alive.getId()));
+    assertEquals(1, timedOut.size());
+    assertSame(silent, timedOut.get(0));
+    manager.terminate();
+  }
+}
@@ -0,0 +1,103 @@
+package de.gurkenlabs.litiengine.net.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.gurkenlabs.litiengine.net.server.MessageDispatcher.OverflowPolicy;
+
+public class MessageDispatcherTests {
+
+  @Test
+  public void testPacketsOfEachSenderStayInOrder() throws InterruptedException {
+    final int senders = 8;
+    final int packets = 500;
+    final Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+    final CountDownLatch done = new CountDownLatch(senders * packets);
+
+    MessageDispatcher dispatcher = new MessageDispatcher((data, address, port) -> {
+      received.computeIfAbsent(port, p -> Collections.synchronizedList(new ArrayList<>())).add((int) data[0] & 0xFF | ((int) data[1] & 0xFF) << 8);
+      done.countDown();
+    }, 4);
+
+    // all packets of a sender may be queued before a worker takes the first one
+    dispatcher.setQueueCapacity(packets);
+    InetAddress address = InetAddress.getLoopbackAddress();
+    for (int i = 0; i < packets; i++) {
+      for (int port = 0; port < senders; port++) {
+        assertTrue(dispatcher.dispatch(new byte[] { (byte) i, (byte) (i >> 8) }, address, port));
+      }
+    }
+
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    for (int port = 0; port < senders; port++) {
+      List<Integer> order = received.get(port);
+      assertEquals(packets, order.size());
+      for (int i = 0; i < packets; i++) {
+        assertEquals(i, order.get(i).intValue());
+      }
+    }
+
+    assertEquals(0, dispatcher.getPendingPackets());
+    dispatcher.terminate();
+  }
+
+  @Test
+  public void testOverflowPolicies() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<Byte> handled = Collections.synchronizedList(new ArrayList<>());
+
+    MessageDispatcher dispatcher = new MessageDispatcher((data, address, port) -> {
+      blocked.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      handled.add(data[0]);
+    }, 1);
+
+    dispatcher.setQueueCapacity(2);
+    InetAddress address = InetAddress.getLoopbackAddress();
+
+    // the first packet is taken by the worker, which blocks the queue
+    dispatcher.dispatch(new byte[] { 0 }, address, 1);
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+    assertTrue(dispatcher.dispatch(new byte[] { 1 }, address, 1));
+    assertTrue(dispatcher.dispatch(new byte[] { 2 }, address, 1));
+    assertFalse(dispatcher.dispatch(new byte[] { 3 }, address, 1));
+    assertEquals(2, dispatcher.getQueueDepth(address, 1));
+
+    dispatcher.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+    assertTrue(dispatcher.dispatch(new byte[] { 4 }, address, 1));
+    assertEquals(2, dispatcher.getQueueDepth(address, 1));
+    assertEquals(2, dispatcher.getDroppedPackets());
+    assertEquals(2, dispatcher.getQueueDepths().get(new InetSocketAddress(address, 1)).intValue());
+
+    release.countDown();
+    for (int i = 0; i < 100 && handled.size() < 3; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(3, handled.size());
+    assertEquals(0, handled.get(0).byteValue());
+    assertEquals(2, handled.get(1).byteValue());
+    assertEquals(4, handled.get(2).byteValue());
+    dispatcher.terminate();
+  }
+}
@@ -112,4 +112,30 @@ public class PhysicsTests {
 
     assertTrue(engine.collidesWithEntites(new Rectangle2D.Double(9, 9, 5, 5)).contains(ent));
   }
+
+  @Test
+  public void testStaticCollisionGrid() {
+    IPhysicsEngine engine = new PhysicsEngine();
+    engine.setBounds(new Rectangle2D.Double(0, 0, 100, 100));
+    engine.add(new Rectangle2D.Double(20, 20, 10, 10));
+
+    StaticCollisionGrid grid = engine.getStaticCollisionGrid();
+    assertTrue(grid.collides(21, 21));
+    assertTrue(grid.collides(29.9, 29.9));
+    assertFalse(grid.collides(33, 33));
+    assertFalse(grid.collides(10, 10));
+    assertFalse(grid.collides(-10, -10));
+    assertFalse(grid.collides(110, 110));
+
+    assertTrue(grid.collides(new Rectangle2D.Double(10, 10, 12, 12)));
+    assertFalse(grid.collides(new Rectangle2D.Double(0, 0, 10, 10)));
+
+    // the grid is rebuilt after the static collision boxes have changed
+    engine.add(new Rectangle2D.Double(60, 60, 10, 10));
+    assertTrue(engine.getStaticCollisionGrid().collides(65, 65));
+    assertFalse(grid.collides(65, 65));
+
+    engine.clear();
+    assertFalse(engine.getStaticCollisionGrid().collides(21, 21));
+  }
 }
@@ -50,6 +50,16 @@ public class GeometricUtilitiesTests {
     assertEquals(315, (float) rotationAngle8);
   }
 
+  @Test
+  public void testRectangleDistance() {
+    Rectangle2D rect = new Rectangle2D.Double(0, 0, 10, 10);
+
+    assertEquals(0, GeometricUtilities.distance(rect, new Rectangle2D.Double(5, 5, 10, 10)), 0.0001);
+    assertEquals(5, GeometricUtilities.distance(rect, new Rectangle2D.Double(15, 0, 10, 10)), 0.0001);
+    assertEquals(5, GeometricUtilities.distance(rect, new Rectangle2D.Double(0, -15, 10, 10)), 0.0001);
+    assertEquals(5, GeometricUtilities.distance(rect, new Rectangle2D.Double(13, 14, 10, 10)), 0.0001);
+  }
+
   @Test
   public void testGetMidPoint() {
     Point2D mid = GeometricUtilities.getMidPoint(new Point2D.Double(0, 0), new Point2D.Double(0, 1));